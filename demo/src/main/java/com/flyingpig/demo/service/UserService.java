@@ -1,20 +1,30 @@
 package com.flyingpig.demo.service;
 
 import com.flyingpig.demo.entity.User;
+import com.flyingpig.jdbc.BeanPropertyRowMapper;
 import com.flyingpig.jdbc.JdbcTemplate;
+import com.flyingpig.jdbc.bulk.BulkLoadResult;
+import com.flyingpig.jdbc.bulk.BulkLoader;
 import com.flyingpig.jdbc.transaction.Transactional;
+import com.flyingpig.jdbc.writebehind.WriteBehindBuffer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.sql.SQLException;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class UserService {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private BulkLoader bulkLoader;
+
+    @Autowired
+    private WriteBehindBuffer writeBehindBuffer;
 
     public void createUser(User user) {
         String sql = "INSERT INTO user (id, username, email) VALUES (?, ?, ?)";
@@ -45,12 +55,16 @@ public class UserService {
         }
     }
 
+    // 频繁修改用户名称时使用：先放进写回缓冲，同一用户的多次修改合并为一次，由后台批量写入，写入前查询仍是旧值
+    public void updateUsernameLater(String userId, String newUsername) {
+        writeBehindBuffer.update("user", "id", userId, "username", newUsername);
+    }
+
+    // 开启结果缓存时由缓存直接返回，增删改用户后自动失效；返回的对象被缓存共享，不要修改
     public User getUserById(Long id) {
         String sql = "SELECT * FROM user WHERE id = ?";
         try {
-            return jdbcTemplate.queryForObject(sql, (rs, rowNum) -> {
-                return new User(rs.getString("id"), rs.getString("email"), rs.getString("username"));
-            }, id);
+            return jdbcTemplate.queryForObject(sql, BeanPropertyRowMapper.of(User.class), id);
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
@@ -74,4 +88,14 @@ public class UserService {
             throw new RuntimeException("批量创建用户失败", e);
         }
     }
-}
\ No newline at end of file
+
+    // 大批量导入用户：多个连接并行插入，每个连接定期提交；失败的块不影响其它数据，由返回结果报告
+    public BulkLoadResult importUsers(Stream<User> users) {
+        String sql = "INSERT INTO user (id, username, email) VALUES (?, ?, ?)";
+        BulkLoadResult result = bulkLoader.load(sql, users,
+                user -> new Object[]{user.getId(), user.getUsername(), user.getEmail()});
+        System.out.println("导入用户完成: " + result);
+        result.getFailedChunks().forEach(chunk -> System.err.println("导入失败: " + chunk));
+        return result;
+    }
+}
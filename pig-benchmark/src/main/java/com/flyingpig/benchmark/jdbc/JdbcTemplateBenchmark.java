@@ -0,0 +1,168 @@
+package com.flyingpig.benchmark.jdbc;
+
+import com.flyingpig.benchmark.support.BenchmarkContexts;
+import com.flyingpig.benchmark.support.jdbc.ArrayResultSetMetaData;
+import com.flyingpig.benchmark.support.jdbc.StubDatabase;
+import com.flyingpig.jdbc.BeanPropertyRowMapper;
+import com.flyingpig.jdbc.JdbcTemplate;
+import com.flyingpig.jdbc.PooledDataSource;
+import com.flyingpig.jdbc.RowMapper;
+import com.flyingpig.jdbc.transaction.DataSourceTransactionManager;
+import com.flyingpig.jdbc.transaction.TransactionAspect;
+import com.flyingpig.jdbc.transaction.Transactional;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.io.PrintStream;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JdbcTemplate 基准：通过连接池访问内存桩驱动，测量 JdbcTemplate 每次调用的框架开销
+ * 包括获取和归还连接、语句缓存、绑定参数、行映射以及经过 TransactionAspect 的事务开始和提交。
+ * latencyMicros 为每次往返的模拟延迟：0 时只有框架开销，20 时接近同机房数据库的往返时间。
+ * 每次调用的内存分配用 GC 分析器查看（gc.alloc.rate.norm）：
+ * java -jar pig-benchmark/target/benchmarks.jar JdbcTemplateBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JdbcTemplateBenchmark {
+
+    private static final String SELECT_ONE = "SELECT id, username, email FROM user WHERE id = ?";
+    private static final String SELECT_PAGE = "SELECT id, username, email FROM user WHERE id > ? LIMIT 100";
+    private static final String UPDATE = "UPDATE user SET username = ? WHERE id = ?";
+    private static final String INSERT = "INSERT INTO user (id, username, email) VALUES (?, ?, ?)";
+
+    public static class User {
+        private long id;
+        private String username;
+        private String email;
+
+        public void setId(long id) {
+            this.id = id;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public void setEmail(String email) {
+            this.email = email;
+        }
+    }
+
+    public interface AccountService {
+        int rename(long id, String username) throws SQLException;
+    }
+
+    /**
+     * 事务中执行一次更新，由 TransactionAspect 开始和提交事务
+     */
+    public static class TransactionalAccountService implements AccountService {
+        private final JdbcTemplate jdbcTemplate;
+
+        public TransactionalAccountService(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @Override
+        @Transactional
+        public int rename(long id, String username) throws SQLException {
+            return jdbcTemplate.update(UPDATE, username, id);
+        }
+    }
+
+    @Param({"0", "20"})
+    public long latencyMicros;
+
+    private StubDatabase database;
+    private PooledDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private AccountService accountService;
+    private PrintStream stdout;
+
+    private final RowMapper<User> userMapper = BeanPropertyRowMapper.of(User.class);
+    private List<Object[]> batchArgs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // TransactionAspect 会打印每次事务的开始和提交
+        stdout = BenchmarkContexts.silenceStdout();
+
+        database = StubDatabase.create("jdbc-template-benchmark");
+        database.setLatency(latencyMicros, TimeUnit.MICROSECONDS);
+        ArrayResultSetMetaData metaData = new ArrayResultSetMetaData(
+                new String[]{"id", "username", "email"},
+                new int[]{Types.BIGINT, Types.VARCHAR, Types.VARCHAR});
+        database.addResult(SELECT_ONE, metaData, new Object[][]{{42L, "pig", "pig@example.com"}});
+        Object[][] page = new Object[100][];
+        for (int i = 0; i < page.length; i++) {
+            page[i] = new Object[]{(long) i, "user" + i, "user" + i + "@example.com"};
+        }
+        database.addResult(SELECT_PAGE, metaData, page);
+
+        dataSource = new PooledDataSource(database.getUrl(), "benchmark", "");
+        dataSource.setMinIdle(4);
+        dataSource.setMaxPoolSize(16);
+        dataSource.init();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new TransactionalAccountService(jdbcTemplate));
+        proxyFactory.addInterface(AccountService.class);
+        proxyFactory.addAspect(new TransactionAspect(new DataSourceTransactionManager(dataSource)));
+        accountService = proxyFactory.getProxy();
+
+        batchArgs = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            batchArgs.add(new Object[]{(long) i, "user" + i, "user" + i + "@example.com"});
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.close();
+        StubDatabase.remove(database.getName());
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    public User queryForObject() throws SQLException {
+        return jdbcTemplate.queryForObject(SELECT_ONE, userMapper, 42L);
+    }
+
+    /**
+     * 映射 100 行
+     */
+    @Benchmark
+    public List<User> queryForList() throws SQLException {
+        return jdbcTemplate.queryForList(SELECT_PAGE, userMapper, 0L);
+    }
+
+    @Benchmark
+    public int update() throws SQLException {
+        return jdbcTemplate.update(UPDATE, "pig", 42L);
+    }
+
+    /**
+     * 100 组参数，一次往返
+     */
+    @Benchmark
+    public int[] batchUpdate() throws SQLException {
+        return jdbcTemplate.batchUpdate(INSERT, batchArgs);
+    }
+
+    /**
+     * 经过 TransactionAspect：开始事务、执行一次更新、提交
+     */
+    @Benchmark
+    public int transactionalUpdate() throws SQLException {
+        return accountService.rename(42L, "pig");
+    }
+}
@@ -0,0 +1,162 @@
+package com.flyingpig.benchmark.jdbc;
+
+import com.flyingpig.benchmark.support.jdbc.ArrayResultSet;
+import com.flyingpig.benchmark.support.jdbc.ArrayResultSetMetaData;
+import com.flyingpig.jdbc.BeanPropertyRowMapper;
+import com.flyingpig.jdbc.RecordRowMapper;
+import com.flyingpig.jdbc.RowMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Field;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 行映射基准：在内存结果集上比较手写 RowMapper、自动映射（Bean / record）和逐行反射映射的开销
+ * 每次调用映射一个完整的结果集，包含自动映射在第一行读取元数据、查找映射计划的开销。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RowMapperBenchmark {
+
+    public static class Account {
+        private long id;
+        private String username;
+        private String email;
+        private int age;
+        private double balance;
+
+        public void setId(long id) {
+            this.id = id;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public void setEmail(String email) {
+            this.email = email;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+
+        public void setBalance(double balance) {
+            this.balance = balance;
+        }
+    }
+
+    public record AccountRecord(long id, String username, String email, int age, double balance) {
+    }
+
+    private static final RowMapper<Account> HAND_WRITTEN = (rs, rowNum) -> {
+        Account account = new Account();
+        account.setId(rs.getLong(1));
+        account.setUsername(rs.getString(2));
+        account.setEmail(rs.getString(3));
+        account.setAge(rs.getInt(4));
+        account.setBalance(rs.getDouble(5));
+        return account;
+    };
+
+    private static final RowMapper<AccountRecord> HAND_WRITTEN_RECORD = (rs, rowNum) ->
+            new AccountRecord(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getInt(4), rs.getDouble(5));
+
+    @Param({"1", "100"})
+    public int rows;
+
+    private ArrayResultSetMetaData metaData;
+    private Object[][] data;
+
+    private final RowMapper<Account> beanMapper = BeanPropertyRowMapper.of(Account.class);
+    private final RowMapper<AccountRecord> recordMapper = RecordRowMapper.of(AccountRecord.class);
+    private final RowMapper<Account> reflectiveMapper = new ReflectiveRowMapper<>(Account.class);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        metaData = new ArrayResultSetMetaData(
+                new String[]{"id", "username", "email", "age", "balance"},
+                new int[]{Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.DOUBLE});
+        data = new Object[rows][];
+        for (int i = 0; i < rows; i++) {
+            data[i] = new Object[]{(long) i, "user" + i, "user" + i + "@example.com", 20 + i % 50, i * 1.5};
+        }
+    }
+
+    @Benchmark
+    public void handWritten(Blackhole blackhole) throws SQLException {
+        map(HAND_WRITTEN, blackhole);
+    }
+
+    @Benchmark
+    public void beanPropertyRowMapper(Blackhole blackhole) throws SQLException {
+        map(beanMapper, blackhole);
+    }
+
+    @Benchmark
+    public void handWrittenRecord(Blackhole blackhole) throws SQLException {
+        map(HAND_WRITTEN_RECORD, blackhole);
+    }
+
+    @Benchmark
+    public void recordRowMapper(Blackhole blackhole) throws SQLException {
+        map(recordMapper, blackhole);
+    }
+
+    @Benchmark
+    public void reflective(Blackhole blackhole) throws SQLException {
+        map(reflectiveMapper, blackhole);
+    }
+
+    private void map(RowMapper<?> mapper, Blackhole blackhole) throws SQLException {
+        ResultSet rs = new ArrayResultSet(metaData, data);
+        int rowNum = 0;
+        while (rs.next()) {
+            blackhole.consume(mapper.mapRow(rs, ++rowNum));
+        }
+    }
+
+    /**
+     * 对照组：每一行都读取元数据、按列名查找字段，通过 getObject 和 Field.set 写入
+     */
+    static class ReflectiveRowMapper<T> implements RowMapper<T> {
+        private final Class<T> type;
+        private final Map<String, Field> fields = new HashMap<>();
+
+        ReflectiveRowMapper(Class<T> type) {
+            this.type = type;
+            for (Field field : type.getDeclaredFields()) {
+                field.setAccessible(true);
+                fields.put(field.getName().toLowerCase(), field);
+            }
+        }
+
+        @Override
+        public T mapRow(ResultSet rs, int rowNum) throws SQLException {
+            try {
+                T target = type.getDeclaredConstructor().newInstance();
+                ResultSetMetaData metaData = rs.getMetaData();
+                for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                    Field field = fields.get(metaData.getColumnLabel(i).toLowerCase());
+                    if (field != null) {
+                        field.set(target, rs.getObject(i));
+                    }
+                }
+                return target;
+            } catch (ReflectiveOperationException e) {
+                throw new SQLException(e);
+            }
+        }
+    }
+}
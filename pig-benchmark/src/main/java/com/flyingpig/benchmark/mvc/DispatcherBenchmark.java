@@ -0,0 +1,110 @@
+package com.flyingpig.benchmark.mvc;
+
+import com.flyingpig.benchmark.support.BenchmarkContexts;
+import com.flyingpig.mvc.loopback.LoopbackDispatcher;
+import com.flyingpig.mvc.loopback.LoopbackRequest;
+import com.flyingpig.mvc.loopback.LoopbackResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DispatcherServlet 端到端基准：路由 + 参数解析 + 方法调用 + 序列化，不包含容器和网络。
+ * 请求通过 LoopbackDispatcher 在进程内分发，请求和响应对象在每次调用之间复用。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DispatcherBenchmark {
+
+    @Param({"false", "true"})
+    public boolean generatedSerializers;
+
+    private AnnotationConfigApplicationContext context;
+    private LoopbackDispatcher dispatcher;
+    private final LoopbackRequest request = new LoopbackRequest();
+    private final LoopbackResponse response = new LoopbackResponse();
+    private PrintStream stdout;
+
+    private byte[] userJson;
+    private byte[] batchJson;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        stdout = BenchmarkContexts.silenceStdout();
+        context = BenchmarkContexts.userControllerContext(
+                Map.of("spring.mvc.json.generated-serializers", generatedSerializers));
+        dispatcher = new LoopbackDispatcher(context);
+
+        userJson = "{\"id\":\"1001\",\"email\":\"pig@example.com\",\"username\":\"pig\"}"
+                .getBytes(StandardCharsets.UTF_8);
+        StringBuilder batch = new StringBuilder("[");
+        for (int i = 0; i < 10; i++) {
+            if (i > 0) {
+                batch.append(',');
+            }
+            batch.append("{\"id\":\"").append(2000 + i)
+                    .append("\",\"email\":\"batch").append(i).append("@example.com\",\"username\":\"batch")
+                    .append(i).append("\"}");
+        }
+        batchJson = batch.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        System.setOut(stdout);
+    }
+
+    /**
+     * GET + @PathVariable + 序列化 Result(User)
+     */
+    @Benchmark
+    public int getUser() throws Exception {
+        request.reset("GET", "/user/42");
+        return dispatcher.dispatch(request, response);
+    }
+
+    /**
+     * PUT + 两个 @RequestParam
+     */
+    @Benchmark
+    public int modifyUserName() throws Exception {
+        request.reset("PUT", "/user/name?id=42&name=pig");
+        return dispatcher.dispatch(request, response);
+    }
+
+    /**
+     * POST + @RequestBody 反序列化单个对象
+     */
+    @Benchmark
+    public int addUser() throws Exception {
+        request.reset("POST", "/user").setBody(userJson, "application/json");
+        return dispatcher.dispatch(request, response);
+    }
+
+    /**
+     * POST + @RequestBody 反序列化泛型列表
+     */
+    @Benchmark
+    public int batchCreateUsers() throws Exception {
+        request.reset("POST", "/user/batch").setBody(batchJson, "application/json");
+        return dispatcher.dispatch(request, response);
+    }
+
+    /**
+     * 路由未命中，返回 404 错误响应
+     */
+    @Benchmark
+    public int notFound() throws Exception {
+        request.reset("GET", "/missing/path");
+        return dispatcher.dispatch(request, response);
+    }
+}
@@ -0,0 +1,87 @@
+package com.flyingpig.benchmark.mvc;
+
+import com.flyingpig.benchmark.support.BenchmarkContexts;
+import com.flyingpig.mvc.core.HandlerAdapter;
+import com.flyingpig.mvc.core.HandlerMapping;
+import com.flyingpig.mvc.loopback.LoopbackRequest;
+import com.flyingpig.mvc.loopback.LoopbackResponse;
+import com.flyingpig.mvc.model.HandlerMethod;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 参数解析基准：跳过路由，直接对已经找到的处理方法调用 HandlerAdapter.handle，
+ * 测量参数解析、方法调用和响应写出的开销
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class HandlerAdapterBenchmark {
+
+    private AnnotationConfigApplicationContext context;
+    private HandlerAdapter handlerAdapter;
+    private PrintStream stdout;
+
+    private final LoopbackRequest request = new LoopbackRequest();
+    private final LoopbackResponse response = new LoopbackResponse();
+
+    private HandlerMethod getUser;
+    private HandlerMethod modifyUserName;
+    private HandlerMethod addUser;
+    private byte[] userJson;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        stdout = BenchmarkContexts.silenceStdout();
+        context = BenchmarkContexts.userControllerContext(Map.of());
+        HandlerMapping handlerMapping = new HandlerMapping();
+        handlerMapping.setApplicationContext(context);
+        handlerMapping.initMapping();
+        handlerAdapter = new HandlerAdapter();
+        handlerAdapter.setApplicationContext(context);
+
+        getUser = handlerMapping.getHandler(new LoopbackRequest("GET", "/user/42"));
+        modifyUserName = handlerMapping.getHandler(new LoopbackRequest("PUT", "/user/name"));
+        addUser = handlerMapping.getHandler(new LoopbackRequest("POST", "/user"));
+        userJson = "{\"id\":\"1001\",\"email\":\"pig@example.com\",\"username\":\"pig\"}"
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    public int pathVariable() throws Exception {
+        request.reset("GET", "/user/42");
+        response.reset();
+        handlerAdapter.handle(request, response, getUser);
+        return response.getBodySize();
+    }
+
+    @Benchmark
+    public int requestParams() throws Exception {
+        request.reset("PUT", "/user/name?id=42&name=pig");
+        response.reset();
+        handlerAdapter.handle(request, response, modifyUserName);
+        return response.getBodySize();
+    }
+
+    @Benchmark
+    public int requestBody() throws Exception {
+        request.reset("POST", "/user").setBody(userJson, "application/json");
+        response.reset();
+        handlerAdapter.handle(request, response, addUser);
+        return response.getBodySize();
+    }
+}
@@ -0,0 +1,62 @@
+package com.flyingpig.benchmark.mvc;
+
+import com.flyingpig.benchmark.support.BenchmarkContexts;
+import com.flyingpig.mvc.core.HandlerMapping;
+import com.flyingpig.mvc.loopback.LoopbackRequest;
+import com.flyingpig.mvc.model.HandlerMethod;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 路由基准：只测量 HandlerMapping.getHandler 根据 URI 和 HTTP 方法查找处理方法的开销
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RoutingBenchmark {
+
+    private AnnotationConfigApplicationContext context;
+    private HandlerMapping handlerMapping;
+    private PrintStream stdout;
+
+    private final LoopbackRequest pathVariable = new LoopbackRequest("GET", "/user/42");
+    private final LoopbackRequest staticPath = new LoopbackRequest("PUT", "/user/name?id=42&name=pig");
+    private final LoopbackRequest miss = new LoopbackRequest("GET", "/missing/path");
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        stdout = BenchmarkContexts.silenceStdout();
+        context = BenchmarkContexts.userControllerContext(Map.of());
+        handlerMapping = new HandlerMapping();
+        handlerMapping.setApplicationContext(context);
+        handlerMapping.initMapping();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    public HandlerMethod pathVariable() {
+        return handlerMapping.getHandler(pathVariable);
+    }
+
+    @Benchmark
+    public HandlerMethod staticPath() {
+        return handlerMapping.getHandler(staticPath);
+    }
+
+    @Benchmark
+    public HandlerMethod miss() {
+        return handlerMapping.getHandler(miss);
+    }
+}
@@ -0,0 +1,66 @@
+package com.flyingpig.benchmark.mvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flyingpig.demo.common.Result;
+import com.flyingpig.demo.entity.User;
+import com.flyingpig.mvc.json.JsonSerializers;
+import com.flyingpig.mvc.response.ResponseBuffer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 序列化基准：比较 ObjectMapper 与生成的专用序列化器输出 Result 响应的开销
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializationBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonSerializers jsonSerializers = new JsonSerializers(objectMapper);
+    private final ResponseBuffer buffer = new ResponseBuffer(4 * 1024);
+
+    private Result single;
+    private Result list;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        single = Result.success(new User("42", "pig@example.com", "pig"));
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            users.add(new User(String.valueOf(i), "user" + i + "@example.com", "user" + i));
+        }
+        list = Result.success(users);
+        jsonSerializers.precompile(Result.class);
+    }
+
+    @Benchmark
+    public byte[] objectMapperSingle() throws Exception {
+        return objectMapper.writeValueAsBytes(single);
+    }
+
+    @Benchmark
+    public int generatedSingle() throws Exception {
+        buffer.reset();
+        jsonSerializers.write(single, buffer);
+        return buffer.size();
+    }
+
+    @Benchmark
+    public byte[] objectMapperList() throws Exception {
+        return objectMapper.writeValueAsBytes(list);
+    }
+
+    @Benchmark
+    public int generatedList() throws Exception {
+        buffer.reset();
+        jsonSerializers.write(list, buffer);
+        return buffer.size();
+    }
+}
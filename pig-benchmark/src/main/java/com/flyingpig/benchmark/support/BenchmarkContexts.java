@@ -0,0 +1,53 @@
+package com.flyingpig.benchmark.support;
+
+import com.flyingpig.demo.controller.UserController;
+import com.flyingpig.demo.service.UserService;
+import com.flyingpig.jdbc.JdbcTemplate;
+import com.flyingpig.jdbc.bulk.BulkLoader;
+import com.flyingpig.jdbc.writebehind.WriteBehindBuffer;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Map;
+
+/**
+ * 基准测试使用的 Spring 容器：只包含 demo 的 UserController 和内存版 UserService，不启动 Web 服务器
+ */
+public final class BenchmarkContexts {
+
+    private BenchmarkContexts() {
+    }
+
+    /**
+     * 创建包含 UserController 的容器
+     *
+     * @param properties 额外的配置项，例如 spring.mvc.json.generated-serializers
+     * @return 已刷新的容器
+     */
+    public static AnnotationConfigApplicationContext userControllerContext(Map<String, Object> properties) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", properties));
+        // UserService 上 @Autowired 的 JdbcTemplate、BulkLoader 和 WriteBehindBuffer 需要 Bean，内存实现不会真正使用它们
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(null);
+        context.registerBean(JdbcTemplate.class, () -> jdbcTemplate);
+        context.registerBean(BulkLoader.class, () -> new BulkLoader(jdbcTemplate));
+        context.registerBean(WriteBehindBuffer.class, () -> new WriteBehindBuffer(jdbcTemplate));
+        context.registerBean(UserService.class, InMemoryUserService::new);
+        context.registerBean(UserController.class);
+        context.refresh();
+        return context;
+    }
+
+    /**
+     * demo 的控制器会打印每个请求，基准测试期间丢弃标准输出，避免控制台 IO 掩盖框架开销
+     *
+     * @return 原来的标准输出，测试结束后用于恢复
+     */
+    public static PrintStream silenceStdout() {
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        return original;
+    }
+}
@@ -0,0 +1,53 @@
+package com.flyingpig.benchmark.support;
+
+import com.flyingpig.demo.entity.User;
+import com.flyingpig.demo.service.UserService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于内存的 UserService，替换掉数据库访问，使基准测试只测量 Web 层的开销
+ */
+public class InMemoryUserService extends UserService {
+
+    private final Map<String, User> users = new ConcurrentHashMap<>();
+
+    public InMemoryUserService() {
+        for (int i = 1; i <= 100; i++) {
+            String id = String.valueOf(i);
+            users.put(id, new User(id, "user" + i + "@example.com", "user" + i));
+        }
+    }
+
+    @Override
+    public void createUser(User user) {
+        users.put(user.getId(), user);
+    }
+
+    @Override
+    public void deleteUser(String userId) {
+        users.remove(userId);
+    }
+
+    @Override
+    public void updateUsername(String userId, String newUsername) {
+        User user = users.get(userId);
+        if (user != null) {
+            user.setUsername(newUsername);
+        }
+    }
+
+    @Override
+    public User getUserById(Long id) {
+        return users.get(String.valueOf(id));
+    }
+
+    @Override
+    public void batchCreateUsers(List<User> users) {
+        for (User user : users) {
+            this.users.put(user.getId(), user);
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.flyingpig.benchmark.support.jdbc;
+
+import java.sql.*;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+
+/**
+ * AbstractConnection：所有方法都抛出 SQLFeatureNotSupportedException 的 Connection
+ * 基准测试中的桩驱动继承它，只实现连接池、JdbcTemplate 和事务管理器实际调用的方法。
+ */
+public abstract class AbstractConnection implements Connection {
+
+    protected static SQLFeatureNotSupportedException unsupported() {
+        return new SQLFeatureNotSupportedException("Not supported by benchmark Connection");
+    }
+
+    @Override
+    public void abort(Executor executor) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void commit() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Array createArrayOf(String typeName, Object[] elements) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Blob createBlob() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Clob createClob() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public NClob createNClob() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public SQLXML createSQLXML() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Statement createStatement() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Struct createStruct(String typeName, Object[] attributes) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean getAutoCommit() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public String getCatalog() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Properties getClientInfo() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public String getClientInfo(String name) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public int getHoldability() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public DatabaseMetaData getMetaData() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public int getNetworkTimeout() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public String getSchema() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public int getTransactionIsolation() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Map<String, Class<?>> getTypeMap() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean isReadOnly() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean isValid(int timeout) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public String nativeSQL(String sql) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void releaseSavepoint(Savepoint savepoint) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void rollback() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void rollback(Savepoint savepoint) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setAutoCommit(boolean autoCommit) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setCatalog(String catalog) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setClientInfo(Properties properties) throws SQLClientInfoException {
+        throw new SQLClientInfoException("Not supported by benchmark Connection", null);
+    }
+
+    @Override
+    public void setClientInfo(String name, String value) throws SQLClientInfoException {
+        throw new SQLClientInfoException("Not supported by benchmark Connection", null);
+    }
+
+    @Override
+    public void setHoldability(int holdability) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setReadOnly(boolean readOnly) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Savepoint setSavepoint() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Savepoint setSavepoint(String name) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setSchema(String schema) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setTransactionIsolation(int level) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setTypeMap(Map<String, Class<?>> map) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        throw unsupported();
+    }
+}
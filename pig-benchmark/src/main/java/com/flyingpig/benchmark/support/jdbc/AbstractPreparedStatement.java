@@ -0,0 +1,515 @@
+package com.flyingpig.benchmark.support.jdbc;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.*;
+import java.util.Calendar;
+
+/**
+ * AbstractPreparedStatement：所有方法都抛出 SQLFeatureNotSupportedException 的 PreparedStatement
+ * 基准测试中的桩驱动继承它，只实现被测代码实际调用的方法。
+ */
+public abstract class AbstractPreparedStatement implements PreparedStatement {
+
+    protected static SQLFeatureNotSupportedException unsupported() {
+        return new SQLFeatureNotSupportedException("Not supported by benchmark PreparedStatement");
+    }
+
+    @Override
+    public void addBatch() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void addBatch(String sql) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void cancel() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void clearParameters() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void closeOnCompletion() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean execute() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean execute(String sql) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean execute(String sql, String[] columnNames) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public ResultSet executeQuery() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public ResultSet executeQuery(String sql) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public int executeUpdate() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public int executeUpdate(String sql) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public int getFetchDirection() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public ResultSet getGeneratedKeys() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public int getMaxFieldSize() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public int getMaxRows() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean getMoreResults() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean getMoreResults(int current) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public ParameterMetaData getParameterMetaData() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public int getQueryTimeout() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public int getResultSetConcurrency() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public int getResultSetHoldability() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public int getResultSetType() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public int getUpdateCount() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean isCloseOnCompletion() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean isPoolable() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setArray(int parameterIndex, Array x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, InputStream inputStream) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, Blob x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, InputStream inputStream, long length) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setByte(int parameterIndex, byte x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setBytes(int parameterIndex, byte[] x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader, int length) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader, long length) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Reader reader) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Clob x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Reader reader, long length) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setCursorName(String name) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x, Calendar cal) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setDouble(int parameterIndex, double x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setEscapeProcessing(boolean enable) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setFetchSize(int rows) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setFloat(int parameterIndex, float x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setInt(int parameterIndex, int x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setLong(int parameterIndex, long x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setMaxFieldSize(int max) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setMaxRows(int max) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setNCharacterStream(int parameterIndex, Reader reader) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setNCharacterStream(int parameterIndex, Reader reader, long length) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, Reader reader) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, NClob value) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, Reader reader, long length) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setNString(int parameterIndex, String value) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setPoolable(boolean poolable) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setQueryTimeout(int seconds) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setRef(int parameterIndex, Ref x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setRowId(int parameterIndex, RowId x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setSQLXML(int parameterIndex, SQLXML xmlObject) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setShort(int parameterIndex, short x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setString(int parameterIndex, String x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x, Calendar cal) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x, Calendar cal) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setURL(int parameterIndex, URL x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    @Deprecated
+    public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        throw unsupported();
+    }
+}
@@ -0,0 +1,142 @@
+package com.flyingpig.benchmark.support.jdbc;
+
+import java.math.BigDecimal;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * ArrayResultSet：基于内存数组的只进结果集
+ * 行数据在多个结果集之间共享，创建结果集只分配游标，基准测试测到的是映射本身的开销而不是驱动的解码开销。
+ */
+public class ArrayResultSet extends AbstractResultSet {
+
+    private final ArrayResultSetMetaData metaData;
+    private final Object[][] rows;
+
+    private int cursor = -1;
+    private Object[] current;
+    private boolean wasNull;
+    private boolean closed;
+
+    public ArrayResultSet(ArrayResultSetMetaData metaData, Object[][] rows) {
+        this.metaData = metaData;
+        this.rows = rows;
+    }
+
+    private Object value(int columnIndex) {
+        Object value = current[columnIndex - 1];
+        wasNull = value == null;
+        return value;
+    }
+
+    @Override
+    public boolean next() {
+        if (++cursor < rows.length) {
+            current = rows[cursor];
+            return true;
+        }
+        current = null;
+        return false;
+    }
+
+    @Override
+    public boolean wasNull() {
+        return wasNull;
+    }
+
+    @Override
+    public String getString(int columnIndex) {
+        Object value = value(columnIndex);
+        return value == null ? null : value.toString();
+    }
+
+    @Override
+    public long getLong(int columnIndex) {
+        Object value = value(columnIndex);
+        return value == null ? 0 : ((Number) value).longValue();
+    }
+
+    @Override
+    public int getInt(int columnIndex) {
+        Object value = value(columnIndex);
+        return value == null ? 0 : ((Number) value).intValue();
+    }
+
+    @Override
+    public double getDouble(int columnIndex) {
+        Object value = value(columnIndex);
+        return value == null ? 0 : ((Number) value).doubleValue();
+    }
+
+    @Override
+    public boolean getBoolean(int columnIndex) {
+        Object value = value(columnIndex);
+        return value != null && (Boolean) value;
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(int columnIndex) {
+        return (BigDecimal) value(columnIndex);
+    }
+
+    @Override
+    public Timestamp getTimestamp(int columnIndex) {
+        return (Timestamp) value(columnIndex);
+    }
+
+    @Override
+    public Object getObject(int columnIndex) {
+        return value(columnIndex);
+    }
+
+    @Override
+    public <T> T getObject(int columnIndex, Class<T> type) {
+        return type.cast(value(columnIndex));
+    }
+
+    @Override
+    public String getString(String columnLabel) throws SQLException {
+        return getString(findColumn(columnLabel));
+    }
+
+    @Override
+    public long getLong(String columnLabel) throws SQLException {
+        return getLong(findColumn(columnLabel));
+    }
+
+    @Override
+    public int getInt(String columnLabel) throws SQLException {
+        return getInt(findColumn(columnLabel));
+    }
+
+    @Override
+    public double getDouble(String columnLabel) throws SQLException {
+        return getDouble(findColumn(columnLabel));
+    }
+
+    @Override
+    public Object getObject(String columnLabel) throws SQLException {
+        return getObject(findColumn(columnLabel));
+    }
+
+    @Override
+    public int findColumn(String columnLabel) throws SQLException {
+        return metaData.findColumn(columnLabel);
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData() {
+        return metaData;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+}
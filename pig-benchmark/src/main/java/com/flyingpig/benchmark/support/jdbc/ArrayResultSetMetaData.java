@@ -0,0 +1,149 @@
+package com.flyingpig.benchmark.support.jdbc;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+/**
+ * ArrayResultSetMetaData：ArrayResultSet 的列信息，只提供列名和 JDBC 类型
+ */
+public class ArrayResultSetMetaData implements ResultSetMetaData {
+
+    private final String[] labels;
+    private final int[] types;
+
+    public ArrayResultSetMetaData(String[] labels, int[] types) {
+        this.labels = labels;
+        this.types = types;
+    }
+
+    /**
+     * 与驱动一样按列名查找列下标，忽略大小写
+     */
+    public int findColumn(String columnLabel) throws SQLException {
+        for (int i = 0; i < labels.length; i++) {
+            if (labels[i].equalsIgnoreCase(columnLabel)) {
+                return i + 1;
+            }
+        }
+        throw new SQLException("Column not found: " + columnLabel);
+    }
+
+    @Override
+    public int getColumnCount() {
+        return labels.length;
+    }
+
+    @Override
+    public String getColumnLabel(int columnIndex) {
+        return labels[columnIndex - 1];
+    }
+
+    @Override
+    public String getColumnName(int columnIndex) {
+        return labels[columnIndex - 1];
+    }
+
+    @Override
+    public int getColumnType(int columnIndex) {
+        return types[columnIndex - 1];
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    @Override
+    public String getCatalogName(int columnIndex) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Not supported by benchmark ResultSet");
+    }
+
+    @Override
+    public String getColumnClassName(int columnIndex) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Not supported by benchmark ResultSet");
+    }
+
+    @Override
+    public int getColumnDisplaySize(int columnIndex) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Not supported by benchmark ResultSet");
+    }
+
+    @Override
+    public String getColumnTypeName(int columnIndex) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Not supported by benchmark ResultSet");
+    }
+
+    @Override
+    public int getPrecision(int columnIndex) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Not supported by benchmark ResultSet");
+    }
+
+    @Override
+    public int getScale(int columnIndex) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Not supported by benchmark ResultSet");
+    }
+
+    @Override
+    public String getSchemaName(int columnIndex) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Not supported by benchmark ResultSet");
+    }
+
+    @Override
+    public String getTableName(int columnIndex) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Not supported by benchmark ResultSet");
+    }
+
+    @Override
+    public boolean isAutoIncrement(int columnIndex) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Not supported by benchmark ResultSet");
+    }
+
+    @Override
+    public boolean isCaseSensitive(int columnIndex) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Not supported by benchmark ResultSet");
+    }
+
+    @Override
+    public boolean isCurrency(int columnIndex) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Not supported by benchmark ResultSet");
+    }
+
+    @Override
+    public boolean isDefinitelyWritable(int columnIndex) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Not supported by benchmark ResultSet");
+    }
+
+    @Override
+    public int isNullable(int columnIndex) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Not supported by benchmark ResultSet");
+    }
+
+    @Override
+    public boolean isReadOnly(int columnIndex) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Not supported by benchmark ResultSet");
+    }
+
+    @Override
+    public boolean isSearchable(int columnIndex) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Not supported by benchmark ResultSet");
+    }
+
+    @Override
+    public boolean isSigned(int columnIndex) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Not supported by benchmark ResultSet");
+    }
+
+    @Override
+    public boolean isWritable(int columnIndex) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Not supported by benchmark ResultSet");
+    }
+}
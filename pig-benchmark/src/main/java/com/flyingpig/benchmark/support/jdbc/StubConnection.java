@@ -0,0 +1,126 @@
+package com.flyingpig.benchmark.support.jdbc;
+
+import java.sql.*;
+
+/**
+ * StubConnection：StubDatabase 的连接，记录自动提交、只读和隔离级别，提交和回滚只模拟往返延迟
+ */
+public class StubConnection extends AbstractConnection {
+
+    private final StubDatabase database;
+    private boolean autoCommit = true;
+    private boolean readOnly;
+    private int transactionIsolation = Connection.TRANSACTION_READ_COMMITTED;
+    private boolean closed;
+
+    public StubConnection(StubDatabase database) {
+        this.database = database;
+    }
+
+    StubDatabase getDatabase() {
+        return database;
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        checkOpen();
+        return new StubPreparedStatement(this, sql);
+    }
+
+    @Override
+    public boolean getAutoCommit() throws SQLException {
+        checkOpen();
+        return autoCommit;
+    }
+
+    /**
+     * 与驱动一样，在事务中打开自动提交时提交当前事务
+     */
+    @Override
+    public void setAutoCommit(boolean autoCommit) throws SQLException {
+        checkOpen();
+        if (autoCommit && !this.autoCommit) {
+            database.committed();
+        }
+        this.autoCommit = autoCommit;
+    }
+
+    @Override
+    public void commit() throws SQLException {
+        checkOpen();
+        if (autoCommit) {
+            throw new SQLException("Cannot commit when autoCommit is enabled");
+        }
+        database.committed();
+    }
+
+    @Override
+    public void rollback() throws SQLException {
+        checkOpen();
+        if (autoCommit) {
+            throw new SQLException("Cannot rollback when autoCommit is enabled");
+        }
+        database.rolledBack();
+    }
+
+    @Override
+    public boolean isReadOnly() throws SQLException {
+        checkOpen();
+        return readOnly;
+    }
+
+    @Override
+    public void setReadOnly(boolean readOnly) throws SQLException {
+        checkOpen();
+        this.readOnly = readOnly;
+    }
+
+    @Override
+    public int getTransactionIsolation() throws SQLException {
+        checkOpen();
+        return transactionIsolation;
+    }
+
+    @Override
+    public void setTransactionIsolation(int level) throws SQLException {
+        checkOpen();
+        this.transactionIsolation = level;
+    }
+
+    @Override
+    public boolean isValid(int timeout) {
+        return !closed;
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        checkOpen();
+        return null;
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        checkOpen();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private void checkOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection is closed");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "StubConnection{" + database.getUrl() + '}';
+    }
+}
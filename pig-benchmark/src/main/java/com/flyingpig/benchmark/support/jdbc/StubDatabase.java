@@ -0,0 +1,203 @@
+package com.flyingpig.benchmark.support.jdbc;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * StubDatabase：桩驱动背后的内存数据库，按名称注册，连接 URL 为 jdbc:stub:名称
+ * 查询按 SQL 原文返回预先注册的结果集，更新语句返回固定的影响行数，不解析也不执行 SQL。
+ * 每次执行语句、提交和回滚都模拟一次网络往返的延迟，基准测试可以分别测量框架自身的开销
+ * （延迟为 0）以及框架开销在真实往返时间中所占的比例。
+ */
+public class StubDatabase {
+
+    private static final Map<String, StubDatabase> DATABASES = new ConcurrentHashMap<>();
+
+    /**
+     * 低于这个延迟时自旋等待，parkNanos 的精度在几十微秒量级，短延迟用它会严重偏大
+     */
+    private static final long SPIN_THRESHOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final String name;
+    private final Map<String, Result> results = new ConcurrentHashMap<>();
+    private volatile long latencyNanos;
+    private volatile int updateCount = 1;
+
+    private final LongAdder connections = new LongAdder();
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder rollbacks = new LongAdder();
+
+    private StubDatabase(String name) {
+        this.name = name;
+    }
+
+    /**
+     * 创建并注册数据库，同名的数据库会被替换
+     *
+     * @param name 数据库名称，连接 URL 为 jdbc:stub:名称
+     * @return 新的数据库
+     */
+    public static StubDatabase create(String name) {
+        StubDriver.register();
+        StubDatabase database = new StubDatabase(name);
+        DATABASES.put(name, database);
+        return database;
+    }
+
+    /**
+     * 查找已注册的数据库
+     *
+     * @param name 数据库名称
+     * @return 数据库，不存在时返回 null
+     */
+    public static StubDatabase get(String name) {
+        return DATABASES.get(name);
+    }
+
+    /**
+     * 注销数据库，已经打开的连接仍然可以使用
+     *
+     * @param name 数据库名称
+     */
+    public static void remove(String name) {
+        DATABASES.remove(name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getUrl() {
+        return StubDriver.URL_PREFIX + name;
+    }
+
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    /**
+     * 设置每次往返的模拟延迟
+     *
+     * @param latency 延迟，0 表示没有延迟
+     * @param unit    时间单位
+     */
+    public void setLatency(long latency, TimeUnit unit) {
+        this.latencyNanos = unit.toNanos(latency);
+    }
+
+    public int getUpdateCount() {
+        return updateCount;
+    }
+
+    /**
+     * 设置每条更新语句（以及批处理中的每一组参数）返回的影响行数，默认为 1
+     */
+    public void setUpdateCount(int updateCount) {
+        this.updateCount = updateCount;
+    }
+
+    /**
+     * 注册查询结果，执行这条 SQL 时返回这些行，行数据在多次查询之间共享
+     *
+     * @param sql      SQL 原文，必须与执行的 SQL 完全一致
+     * @param metaData 列信息
+     * @param rows     行数据
+     */
+    public void addResult(String sql, ArrayResultSetMetaData metaData, Object[][] rows) {
+        results.put(sql, new Result(metaData, rows));
+    }
+
+    ArrayResultSet query(String sql) throws SQLException {
+        Result result = results.get(sql);
+        if (result == null) {
+            throw new SQLException("No result registered for SQL: " + sql);
+        }
+        queries.increment();
+        roundTrip();
+        return new ArrayResultSet(result.metaData, result.rows);
+    }
+
+    int update() {
+        updates.increment();
+        roundTrip();
+        return updateCount;
+    }
+
+    int[] batch(int size) {
+        batches.increment();
+        roundTrip();
+        int[] counts = new int[size];
+        Arrays.fill(counts, updateCount);
+        return counts;
+    }
+
+    void connected() {
+        connections.increment();
+        roundTrip();
+    }
+
+    void committed() {
+        commits.increment();
+        roundTrip();
+    }
+
+    void rolledBack() {
+        rollbacks.increment();
+        roundTrip();
+    }
+
+    /**
+     * 模拟一次网络往返：短延迟自旋，长延迟挂起线程
+     */
+    private void roundTrip() {
+        long latency = latencyNanos;
+        if (latency <= 0) {
+            return;
+        }
+        long deadline = System.nanoTime() + latency;
+        if (latency >= SPIN_THRESHOLD_NANOS) {
+            LockSupport.parkNanos(latency);
+        }
+        while (System.nanoTime() - deadline < 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    public void resetCounters() {
+        connections.reset();
+        queries.reset();
+        updates.reset();
+        batches.reset();
+        commits.reset();
+        rollbacks.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "StubDatabase{" + name
+                + ", connections=" + connections.sum()
+                + ", queries=" + queries.sum()
+                + ", updates=" + updates.sum()
+                + ", batches=" + batches.sum()
+                + ", commits=" + commits.sum()
+                + ", rollbacks=" + rollbacks.sum() + '}';
+    }
+
+    private static final class Result {
+        private final ArrayResultSetMetaData metaData;
+        private final Object[][] rows;
+
+        private Result(ArrayResultSetMetaData metaData, Object[][] rows) {
+            this.metaData = metaData;
+            this.rows = rows;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.flyingpig.benchmark.support.jdbc;
+
+import java.sql.*;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+/**
+ * StubDriver：基准测试使用的 JDBC 驱动，URL 格式为 jdbc:stub:名称，连接到同名的 StubDatabase
+ * 类加载时注册到 DriverManager，也通过 META-INF/services/java.sql.Driver 自动加载。
+ */
+public class StubDriver implements Driver {
+
+    public static final String URL_PREFIX = "jdbc:stub:";
+
+    static {
+        try {
+            DriverManager.registerDriver(new StubDriver());
+        } catch (SQLException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * 确保驱动已经注册到 DriverManager（触发类加载）
+     */
+    public static void register() {
+    }
+
+    @Override
+    public Connection connect(String url, Properties info) throws SQLException {
+        if (!acceptsURL(url)) {
+            return null;
+        }
+        String name = url.substring(URL_PREFIX.length());
+        StubDatabase database = StubDatabase.get(name);
+        if (database == null) {
+            throw new SQLException("Stub database not found: " + name);
+        }
+        database.connected();
+        return new StubConnection(database);
+    }
+
+    @Override
+    public boolean acceptsURL(String url) {
+        return url != null && url.startsWith(URL_PREFIX);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+        return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public int getMajorVersion() {
+        return 1;
+    }
+
+    @Override
+    public int getMinorVersion() {
+        return 0;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+        return false;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException("Not supported by benchmark Driver");
+    }
+}
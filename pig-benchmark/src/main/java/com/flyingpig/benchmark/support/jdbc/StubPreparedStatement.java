@@ -0,0 +1,192 @@
+package com.flyingpig.benchmark.support.jdbc;
+
+import java.sql.*;
+import java.util.Arrays;
+
+/**
+ * StubPreparedStatement：StubConnection 的预编译语句
+ * 参数只保存在数组中，不编码也不发送；批处理只记录参数组数，执行时一次往返返回每组的影响行数。
+ */
+public class StubPreparedStatement extends AbstractPreparedStatement {
+
+    private final StubConnection connection;
+    private final String sql;
+    private Object[] parameters = new Object[8];
+    private int batchSize;
+    private int fetchSize;
+    private long maxRows;
+    private int queryTimeout;
+    private boolean closed;
+
+    public StubPreparedStatement(StubConnection connection, String sql) {
+        this.connection = connection;
+        this.sql = sql;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * 读取已设置的参数，下标从 1 开始
+     */
+    public Object getParameter(int parameterIndex) {
+        return parameterIndex <= parameters.length ? parameters[parameterIndex - 1] : null;
+    }
+
+    @Override
+    public ResultSet executeQuery() throws SQLException {
+        checkOpen();
+        return connection.getDatabase().query(sql);
+    }
+
+    @Override
+    public int executeUpdate() throws SQLException {
+        checkOpen();
+        return connection.getDatabase().update();
+    }
+
+    @Override
+    public void addBatch() throws SQLException {
+        checkOpen();
+        batchSize++;
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        checkOpen();
+        int size = batchSize;
+        batchSize = 0;
+        return size == 0 ? new int[0] : connection.getDatabase().batch(size);
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+        checkOpen();
+        batchSize = 0;
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x) throws SQLException {
+        checkOpen();
+        if (parameterIndex < 1) {
+            throw new SQLException("Invalid parameter index: " + parameterIndex);
+        }
+        if (parameterIndex > parameters.length) {
+            parameters = Arrays.copyOf(parameters, Math.max(parameterIndex, parameters.length * 2));
+        }
+        parameters[parameterIndex - 1] = x;
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType) throws SQLException {
+        setObject(parameterIndex, null);
+    }
+
+    @Override
+    public void setString(int parameterIndex, String x) throws SQLException {
+        setObject(parameterIndex, x);
+    }
+
+    @Override
+    public void setLong(int parameterIndex, long x) throws SQLException {
+        setObject(parameterIndex, x);
+    }
+
+    @Override
+    public void setInt(int parameterIndex, int x) throws SQLException {
+        setObject(parameterIndex, x);
+    }
+
+    @Override
+    public void clearParameters() throws SQLException {
+        checkOpen();
+        Arrays.fill(parameters, null);
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        checkOpen();
+        return fetchSize;
+    }
+
+    @Override
+    public void setFetchSize(int rows) throws SQLException {
+        checkOpen();
+        this.fetchSize = rows;
+    }
+
+    @Override
+    public int getMaxRows() throws SQLException {
+        checkOpen();
+        return (int) maxRows;
+    }
+
+    @Override
+    public void setMaxRows(int max) throws SQLException {
+        checkOpen();
+        this.maxRows = max;
+    }
+
+    @Override
+    public long getLargeMaxRows() throws SQLException {
+        checkOpen();
+        return maxRows;
+    }
+
+    @Override
+    public void setLargeMaxRows(long max) throws SQLException {
+        checkOpen();
+        this.maxRows = max;
+    }
+
+    @Override
+    public int getQueryTimeout() throws SQLException {
+        checkOpen();
+        return queryTimeout;
+    }
+
+    @Override
+    public void setQueryTimeout(int seconds) throws SQLException {
+        checkOpen();
+        this.queryTimeout = seconds;
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        checkOpen();
+        return null;
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        checkOpen();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        checkOpen();
+        return connection;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private void checkOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("Statement is closed");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "StubPreparedStatement{" + sql + '}';
+    }
+}
@@ -0,0 +1,123 @@
+package com.flyingpig.jdbc;
+
+import com.flyingpig.jdbc.mapping.ColumnReaders;
+import com.flyingpig.jdbc.mapping.MappingPlanCache;
+import com.flyingpig.jdbc.mapping.RowHandles;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// 按列名自动映射到 Bean 属性的 RowMapper，Bean 需要 public 无参构造器和 public setter
+// 列名与属性名忽略大小写和下划线匹配；没有对应属性的列忽略，没有对应列的属性保留初始值
+// 每种结果集列签名只匹配一次，生成的计划按列下标用类型化的 getter 读取、通过 setter 的 MethodHandle 写入
+public class BeanPropertyRowMapper<T> implements RowMapper<T> {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final ClassValue<BeanPropertyRowMapper<?>> SHARED = new ClassValue<>() {
+        @Override
+        protected BeanPropertyRowMapper<?> computeValue(Class<?> type) {
+            return new BeanPropertyRowMapper<>(type);
+        }
+    };
+
+    private final Class<T> type;
+
+    // ()Object 形式的无参构造器
+    private final MethodHandle constructor;
+
+    // 规范化的属性名 -> setter
+    private final Map<String, Method> setters;
+
+    // 计划为 RowHandles.beanMapper 生成的 (ResultSet)Object
+    private final MappingPlanCache<MethodHandle> plans = new MappingPlanCache<>(this::createPlan);
+
+    public BeanPropertyRowMapper(Class<T> type) {
+        this.type = type;
+        try {
+            this.constructor = LOOKUP.findConstructor(type, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException(type.getName() + " has no accessible no-arg constructor", e);
+        }
+        this.setters = findSetters(type);
+    }
+
+    // 每种类型共享一个实例，映射计划在所有调用之间复用
+    @SuppressWarnings("unchecked")
+    public static <T> BeanPropertyRowMapper<T> of(Class<T> type) {
+        return (BeanPropertyRowMapper<T>) SHARED.get(type);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T mapRow(ResultSet rs, int rowNum) throws SQLException {
+        MethodHandle mapper = plans.get(rs);
+        try {
+            return (T) (Object) mapper.invokeExact(rs);
+        } catch (SQLException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new SQLException("Failed to map row to " + type.getName(), e);
+        }
+    }
+
+    private MethodHandle createPlan(Class<? extends ResultSet> resultSetType, ResultSetMetaData metaData) throws SQLException {
+        List<Integer> columns = new ArrayList<>();
+        List<MethodHandle> handles = new ArrayList<>();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            Method setter = setters.get(ColumnReaders.normalize(metaData.getColumnLabel(i)));
+            if (setter == null) {
+                continue;
+            }
+            try {
+                setter.trySetAccessible();
+                handles.add(LOOKUP.unreflect(setter));
+                columns.add(i);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot access setter " + setter, e);
+            }
+        }
+        return RowHandles.beanMapper(resultSetType, constructor,
+                columns.stream().mapToInt(Integer::intValue).toArray(), handles.toArray(new MethodHandle[0]));
+    }
+
+    // 同一个属性有多个重载的 setter 时取参数类型与 getter 返回类型一致的那个
+    private static Map<String, Method> findSetters(Class<?> type) {
+        Map<String, Method> setters = new HashMap<>();
+        for (Method method : type.getMethods()) {
+            String methodName = method.getName();
+            if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 1
+                    || !methodName.startsWith("set") || methodName.length() <= 3) {
+                continue;
+            }
+            String name = ColumnReaders.normalize(methodName.substring(3));
+            Method existing = setters.get(name);
+            if (existing == null || method.getParameterTypes()[0] == getterType(type, methodName.substring(3))) {
+                setters.put(name, method);
+            }
+        }
+        return setters;
+    }
+
+    private static Class<?> getterType(Class<?> type, String property) {
+        for (String prefix : new String[]{"get", "is"}) {
+            try {
+                return type.getMethod(prefix + property).getReturnType();
+            } catch (NoSuchMethodException e) {
+                // 尝试下一个前缀
+            }
+        }
+        return null;
+    }
+}
@@ -6,4 +6,9 @@ import java.sql.SQLException;
 // 数据源配置接口
 public interface DataSource {
     Connection getConnection() throws SQLException;
+
+    // 带读写提示的获取连接，只读的连接可以由只读副本提供；默认忽略提示
+    default Connection getConnection(boolean readOnly) throws SQLException {
+        return getConnection();
+    }
 }
@@ -1,23 +1,119 @@
 package com.flyingpig.jdbc;
 
+import com.flyingpig.jdbc.async.AsyncExecutors;
+import com.flyingpig.jdbc.cache.QueryResultCache;
 import com.flyingpig.jdbc.connection.ConnectionHolder;
+import com.flyingpig.jdbc.metrics.SqlMetrics;
+import com.flyingpig.jdbc.metrics.StatementTimer;
+import com.flyingpig.jdbc.support.BatchInsertRewriter;
+import com.flyingpig.jdbc.support.ColumnarResult;
+import com.flyingpig.jdbc.support.DoubleArray;
+import com.flyingpig.jdbc.support.IntArray;
+import com.flyingpig.jdbc.support.LongArray;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 // JdbcTemplate核心类
 public class JdbcTemplate {
     private DataSource dataSource;
 
+    // 查询语句的默认 fetchSize，0 表示使用驱动默认值
+    private int fetchSize;
+
+    // 批量更新每次 executeBatch 的最大行数，0 表示不分块
+    private int batchSize = 1000;
+
+    // 是否把单行 INSERT ... VALUES 改写为多行 VALUES 语句，以及每条语句的行数
+    private boolean rewriteBatchedInserts;
+    private int rewriteBatchRows = 100;
+
+    // SQL -> 改写器，不能改写的 SQL 记为 NOT_REWRITABLE
+    private static final Object NOT_REWRITABLE = new Object();
+    private static final int MAX_REWRITERS = 256;
+    private final ConcurrentHashMap<String, Object> rewriters = new ConcurrentHashMap<>();
+
+    // queryForObject/queryForValue/queryForList 的结果缓存，null 表示不缓存
+    private QueryResultCache resultCache;
+
+    // 按 SQL 指纹的执行统计和慢查询日志，null 表示不统计
+    private SqlMetrics sqlMetrics;
+
     public JdbcTemplate(DataSource dataSource) {
         this.dataSource = dataSource;
     }
 
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    // MySQL 需要设为 Integer.MIN_VALUE（或连接参数 useCursorFetch=true）才会逐行读取，
+    // PostgreSQL 只在关闭自动提交（事务中）时按 fetchSize 分批读取
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public boolean isRewriteBatchedInserts() {
+        return rewriteBatchedInserts;
+    }
+
+    public void setRewriteBatchedInserts(boolean rewriteBatchedInserts) {
+        this.rewriteBatchedInserts = rewriteBatchedInserts;
+    }
+
+    public int getRewriteBatchRows() {
+        return rewriteBatchRows;
+    }
+
+    public void setRewriteBatchRows(int rewriteBatchRows) {
+        this.rewriteBatchRows = rewriteBatchRows;
+    }
+
+    public QueryResultCache getResultCache() {
+        return resultCache;
+    }
+
+    // 开启后 update/batchUpdate 会使写入的表的缓存结果失效；可以多个 JdbcTemplate 共享一个缓存，
+    // 只需要缓存部分查询时，用单独的 JdbcTemplate 执行这些查询
+    public void setResultCache(QueryResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    public SqlMetrics getSqlMetrics() {
+        return sqlMetrics;
+    }
+
+    // 开启后记录每条语句的耗时、行数、批量大小和获取连接的等待时间，命中结果缓存的查询不计入
+    public void setSqlMetrics(SqlMetrics sqlMetrics) {
+        this.sqlMetrics = sqlMetrics;
+    }
+
     // 获取连接的方法
     protected Connection getConnection() throws SQLException {
+        return getConnection(false);
+    }
+
+    // 事务中使用事务的连接，否则按读写提示从数据源获取（读写分离时查询走只读副本）
+    protected Connection getConnection(boolean readOnly) throws SQLException {
         Connection conn = ConnectionHolder.getConnection();
-        return conn != null ? conn : dataSource.getConnection();
+        return conn != null ? conn : dataSource.getConnection(readOnly);
     }
 
     // 关闭连接的方法
@@ -27,68 +123,250 @@ public class JdbcTemplate {
         }
     }
 
-    // 查询单个对象
+    // 查询单个对象，开启结果缓存时缓存结果（包括 null）
+    // 缓存按 RowMapper 对象区分，需要命中缓存时应复用同一个 RowMapper（例如 BeanPropertyRowMapper.of）
+    // 要写入缓存的结果从主库查询，其余查询按只读提示可以走只读副本
     public <T> T queryForObject(String sql, RowMapper<T> rowMapper, Object... args) throws SQLException {
+        if (resultCache != null) {
+            return resultCache.get("queryForObject", rowMapper, sql, args, caching -> doQueryForObject(sql, rowMapper, !caching, args));
+        }
+        return doQueryForObject(sql, rowMapper, true, args);
+    }
+
+    private <T> T doQueryForObject(String sql, RowMapper<T> rowMapper, boolean readOnly, Object... args) throws SQLException {
         Connection conn = null;
         PreparedStatement ps = null;
         ResultSet rs = null;
+        StatementTimer timer = startTimer(sql, args);
         try {
-            conn = getConnection();
+            conn = getConnection(readOnly);
+            timer.connected();
             ps = conn.prepareStatement(sql);
             for (int i = 0; i < args.length; i++) {
                 ps.setObject(i + 1, args[i]);
             }
             rs = ps.executeQuery();
             if (rs.next()) {
+                timer.rows(1);
                 return rowMapper.mapRow(rs, 1);
             }
             return null;
+        } catch (SQLException | RuntimeException e) {
+            timer.failed(e);
+            throw e;
         } finally {
             closeResources(conn, ps, rs);
+            timer.stop();
         }
     }
 
     // 查询单个值
     public <T> T queryForValue(String sql, Class<T> requiredType, Object... args) throws SQLException {
+        if (resultCache != null) {
+            return resultCache.get("queryForValue", requiredType, sql, args, caching -> doQueryForValue(sql, requiredType, !caching, args));
+        }
+        return doQueryForValue(sql, requiredType, true, args);
+    }
+
+    private <T> T doQueryForValue(String sql, Class<T> requiredType, boolean readOnly, Object... args) throws SQLException {
         Connection conn = null;
         PreparedStatement ps = null;
         ResultSet rs = null;
+        StatementTimer timer = startTimer(sql, args);
         try {
-            conn = getConnection();
+            conn = getConnection(readOnly);
+            timer.connected();
             ps = conn.prepareStatement(sql);
             for (int i = 0; i < args.length; i++) {
                 ps.setObject(i + 1, args[i]);
             }
             rs = ps.executeQuery();
             if (rs.next()) {
+                timer.rows(1);
                 return (T) rs.getObject(1);
             }
             return null;
+        } catch (SQLException | RuntimeException e) {
+            timer.failed(e);
+            throw e;
         } finally {
             closeResources(conn, ps, rs);
+            timer.stop();
         }
     }
 
-    // 查询列表
+    // 查询列表，从缓存返回的列表是只读的
     public <T> List<T> queryForList(String sql, RowMapper<T> rowMapper, Object... args) throws SQLException {
+        if (resultCache != null) {
+            return resultCache.get("queryForList", rowMapper, sql, args, caching -> doQueryForList(sql, rowMapper, !caching, args));
+        }
+        return doQueryForList(sql, rowMapper, true, args);
+    }
+
+    private <T> List<T> doQueryForList(String sql, RowMapper<T> rowMapper, boolean readOnly, Object... args) throws SQLException {
         Connection conn = null;
         PreparedStatement ps = null;
         ResultSet rs = null;
+        StatementTimer timer = startTimer(sql, args);
         try {
-            conn = getConnection();
+            conn = getConnection(readOnly);
+            timer.connected();
             ps = conn.prepareStatement(sql);
             for (int i = 0; i < args.length; i++) {
                 ps.setObject(i + 1, args[i]);
             }
+            applyFetchSize(ps, fetchSize);
             rs = ps.executeQuery();
             List<T> results = new ArrayList<>();
             int rowNum = 0;
             while (rs.next()) {
                 results.add(rowMapper.mapRow(rs, ++rowNum));
             }
+            timer.rows(rowNum);
             return results;
+        } catch (SQLException | RuntimeException e) {
+            timer.failed(e);
+            throw e;
+        } finally {
+            closeResources(conn, ps, rs);
+            timer.stop();
+        }
+    }
+
+    // 逐行回调处理结果集，不在内存中收集结果
+    public void query(String sql, RowCallbackHandler rowCallbackHandler, Object... args) throws SQLException {
+        query(sql, fetchSize, rowCallbackHandler, args);
+    }
+
+    // 逐行回调处理结果集，fetchSize 只对本次查询生效
+    public void query(String sql, int fetchSize, RowCallbackHandler rowCallbackHandler, Object... args) throws SQLException {
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        StatementTimer timer = startTimer(sql, args);
+        try {
+            conn = getConnection(true);
+            timer.connected();
+            ps = conn.prepareStatement(sql);
+            for (int i = 0; i < args.length; i++) {
+                ps.setObject(i + 1, args[i]);
+            }
+            applyFetchSize(ps, fetchSize);
+            rs = ps.executeQuery();
+            long rows = 0;
+            while (rs.next()) {
+                rowCallbackHandler.processRow(rs);
+                rows++;
+            }
+            timer.rows(rows);
+        } catch (SQLException | RuntimeException e) {
+            timer.failed(e);
+            throw e;
+        } finally {
+            closeResources(conn, ps, rs);
+            timer.stop();
+        }
+    }
+
+    // 查询第一列的值到 long 数组，不装箱；NULL 读为 0。不走结果缓存
+    public LongArray queryForLongArray(String sql, Object... args) throws SQLException {
+        LongArray values = new LongArray();
+        query(sql, rs -> values.add(rs.getLong(1)), args);
+        return values;
+    }
+
+    public IntArray queryForIntArray(String sql, Object... args) throws SQLException {
+        IntArray values = new IntArray();
+        query(sql, rs -> values.add(rs.getInt(1)), args);
+        return values;
+    }
+
+    public DoubleArray queryForDoubleArray(String sql, Object... args) throws SQLException {
+        DoubleArray values = new DoubleArray();
+        query(sql, rs -> values.add(rs.getDouble(1)), args);
+        return values;
+    }
+
+    // 按列读取全部结果，整数和浮点列存为基本类型数组，适合统计分析类的大结果查询。不走结果缓存
+    public ColumnarResult queryForColumns(String sql, Object... args) throws SQLException {
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        StatementTimer timer = startTimer(sql, args);
+        try {
+            conn = getConnection(true);
+            timer.connected();
+            ps = conn.prepareStatement(sql);
+            for (int i = 0; i < args.length; i++) {
+                ps.setObject(i + 1, args[i]);
+            }
+            applyFetchSize(ps, fetchSize);
+            rs = ps.executeQuery();
+            ColumnarResult result = ColumnarResult.read(rs);
+            timer.rows(result.getRowCount());
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            timer.failed(e);
+            throw e;
         } finally {
             closeResources(conn, ps, rs);
+            timer.stop();
+        }
+    }
+
+    // 惰性的流式查询，每次消费一行时才从结果集读取
+    // 结果集读完时自动释放语句和连接，提前结束时必须关闭 Stream（try-with-resources），否则连接不会归还
+    // 遍历中的 SQLException 包装为 UncheckedSQLException 抛出
+    public <T> Stream<T> queryForStream(String sql, RowMapper<T> rowMapper, Object... args) throws SQLException {
+        return queryForStream(sql, fetchSize, rowMapper, args);
+    }
+
+    // 惰性的流式查询，fetchSize 只对本次查询生效
+    public <T> Stream<T> queryForStream(String sql, int fetchSize, RowMapper<T> rowMapper, Object... args) throws SQLException {
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        StatementTimer timer = startTimer(sql, args);
+        try {
+            conn = getConnection(true);
+            timer.connected();
+            ps = conn.prepareStatement(sql);
+            for (int i = 0; i < args.length; i++) {
+                ps.setObject(i + 1, args[i]);
+            }
+            applyFetchSize(ps, fetchSize);
+            rs = ps.executeQuery();
+        } catch (SQLException | RuntimeException e) {
+            timer.failed(e);
+            closeResources(conn, ps, rs);
+            timer.stop();
+            throw e;
+        }
+        // 打开时不在事务中的连接由 Stream 负责关闭，Stream 可能在事务结束后或其它线程中关闭
+        // 统计的耗时从执行到 Stream 读完或关闭为止，包括调用方消费每一行的时间
+        boolean closeConnection = ConnectionHolder.getConnection() != conn;
+        ResultSetSpliterator<T> spliterator = new ResultSetSpliterator<>(conn, ps, rs, rowMapper, closeConnection,
+                timer, sqlMetrics);
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+    }
+
+    // 并行执行一组互不依赖的查询，每个查询从连接池获取各自的连接，全部完成后返回，结果通过 QuerySet.Result 读取；
+    // 总耗时接近最慢的一个查询而不是所有查询之和。任一查询失败时立即抛出异常，尚未开始的查询不再执行。
+    // 查询在 AsyncExecutors 的线程上执行，同时执行的数量受这个数据源的异步并发上限限制（与 AsyncJdbcTemplate 共享）；
+    // 在事务中调用时使用事务的连接在当前线程上依次执行，保证查询看到事务中的写入
+    public void queryParallel(QuerySet querySet) throws SQLException {
+        queryParallel(querySet, Integer.MAX_VALUE);
+    }
+
+    // maxConcurrency 限制本次调用同时执行的查询数（同时占用的连接数）
+    public void queryParallel(QuerySet querySet, int maxConcurrency) throws SQLException {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+        if (ConnectionHolder.getConnection() != null || maxConcurrency == 1 || querySet.size() <= 1) {
+            querySet.executeSequentially(this);
+        } else {
+            querySet.execute(this, AsyncExecutors.forDataSource(dataSource), maxConcurrency);
         }
     }
 
@@ -96,36 +374,195 @@ public class JdbcTemplate {
     public int update(String sql, Object... args) throws SQLException {
         Connection conn = null;
         PreparedStatement ps = null;
+        StatementTimer timer = startTimer(sql, args);
         try {
             conn = getConnection();
+            timer.connected();
             ps = conn.prepareStatement(sql);
             for (int i = 0; i < args.length; i++) {
                 ps.setObject(i + 1, args[i]);
             }
-            return ps.executeUpdate();
+            int count = ps.executeUpdate();
+            timer.rows(count);
+            return count;
+        } catch (SQLException | RuntimeException e) {
+            timer.failed(e);
+            throw e;
         } finally {
             closeResources(conn, ps, null);
+            timer.stop();
+            invalidateResultCache(sql);
         }
     }
 
-    // 批量更新
+    // 批量更新，按 batchSize 分块执行，返回每一行的更新计数
+    // 开启 rewriteBatchedInserts 时单行 INSERT 会改写为多行 VALUES 语句，一条语句插入 rewriteBatchRows 行，
+    // 这些行的更新计数为 1（语句的总计数与行数不一致时为 Statement.SUCCESS_NO_INFO）
+    // 不在事务中时每个分块单独提交，需要整体成功或失败的批量更新应放在事务中执行
     public int[] batchUpdate(String sql, List<Object[]> batchArgs) throws SQLException {
+        if (batchArgs.isEmpty()) {
+            return new int[0];
+        }
+        BatchInsertRewriter rewriter = rewriteBatchedInserts && rewriteBatchRows > 1 ? rewriter(sql) : null;
         Connection conn = null;
-        PreparedStatement ps = null;
+        // 批量执行按原 SQL 统计（改写后的多行语句与原语句是同一个指纹），慢查询日志不输出参数
+        StatementTimer timer = startTimer(sql, null);
+        timer.batch(batchArgs.size());
         try {
             conn = getConnection();
-            ps = conn.prepareStatement(sql);
+            timer.connected();
+            int[] counts = rewriter != null
+                    ? executeRewritten(conn, rewriter, batchArgs)
+                    : executeBatch(conn, sql, batchArgs, 0, batchArgs.size());
+            timer.rows(sumCounts(counts));
+            return counts;
+        } catch (SQLException | RuntimeException e) {
+            timer.failed(e);
+            throw e;
+        } finally {
+            closeResources(conn, null, null);
+            timer.stop();
+            invalidateResultCache(sql);
+        }
+    }
+
+    private StatementTimer startTimer(String sql, Object[] args) {
+        SqlMetrics metrics = sqlMetrics;
+        return metrics != null ? metrics.start(sql, args) : StatementTimer.NOOP;
+    }
+
+    // 更新计数之和，SUCCESS_NO_INFO 等负数不计入
+    private static long sumCounts(int[] counts) {
+        long sum = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                sum += count;
+            }
+        }
+        return sum;
+    }
+
+    // 写操作之后（包括失败，不在事务中时可能已经部分写入）使写入的表的缓存结果失效
+    private void invalidateResultCache(String sql) {
+        if (resultCache != null) {
+            resultCache.onWrite(sql);
+        }
+    }
 
-            for (Object[] args : batchArgs) {
+    // 用同一条语句执行 [from, to) 的参数，每 batchSize 行执行一次
+    private int[] executeBatch(Connection conn, String sql, List<Object[]> batchArgs, int from, int to) throws SQLException {
+        int[] counts = new int[to - from];
+        int chunk = batchSize > 0 ? batchSize : counts.length;
+        PreparedStatement ps = null;
+        try {
+            ps = conn.prepareStatement(sql);
+            int pending = 0;
+            int done = 0;
+            for (int row = from; row < to; row++) {
+                Object[] args = batchArgs.get(row);
                 for (int i = 0; i < args.length; i++) {
                     ps.setObject(i + 1, args[i]);
                 }
                 ps.addBatch();
+                if (++pending == chunk || row == to - 1) {
+                    int[] result = ps.executeBatch();
+                    System.arraycopy(result, 0, counts, done, Math.min(result.length, pending));
+                    done += pending;
+                    pending = 0;
+                }
             }
-
-            return ps.executeBatch();
+            return counts;
         } finally {
-            closeResources(conn, ps, null);
+            closeResources(null, ps, null);
+        }
+    }
+
+    // 整块的行使用同一条多行语句（作为 JDBC 批量执行），剩余不足一块的行使用一条较短的多行语句
+    private int[] executeRewritten(Connection conn, BatchInsertRewriter rewriter, List<Object[]> batchArgs) throws SQLException {
+        int total = batchArgs.size();
+        int rowsPerStatement = rewriter.maxRows(rewriteBatchRows);
+        int[] counts = new int[total];
+        int fullStatements = total / rowsPerStatement;
+        // 每次 executeBatch 的语句数，使每块的总行数不超过 batchSize
+        int statementsPerBatch = batchSize > 0 ? Math.max(1, batchSize / rowsPerStatement) : Math.max(1, fullStatements);
+
+        int row = 0;
+        if (fullStatements > 0) {
+            PreparedStatement ps = null;
+            try {
+                ps = conn.prepareStatement(rewriter.sql(rowsPerStatement));
+                int pending = 0;
+                for (int s = 0; s < fullStatements; s++) {
+                    bindRows(ps, batchArgs, row + s * rowsPerStatement, rowsPerStatement, rewriter.getParameterCount());
+                    ps.addBatch();
+                    if (++pending == statementsPerBatch || s == fullStatements - 1) {
+                        int[] result = ps.executeBatch();
+                        int first = s - pending + 1;
+                        for (int i = 0; i < pending; i++) {
+                            fillRowCounts(counts, (first + i) * rowsPerStatement, rowsPerStatement,
+                                    i < result.length ? result[i] : Statement.SUCCESS_NO_INFO);
+                        }
+                        pending = 0;
+                    }
+                }
+            } finally {
+                closeResources(null, ps, null);
+            }
+            row = fullStatements * rowsPerStatement;
+        }
+
+        int remaining = total - row;
+        if (remaining == 1) {
+            counts[row] = executeBatch(conn, rewriter.sql(1), batchArgs, row, total)[0];
+        } else if (remaining > 1) {
+            PreparedStatement ps = null;
+            try {
+                ps = conn.prepareStatement(rewriter.sql(remaining));
+                bindRows(ps, batchArgs, row, remaining, rewriter.getParameterCount());
+                fillRowCounts(counts, row, remaining, ps.executeUpdate());
+            } finally {
+                closeResources(null, ps, null);
+            }
+        }
+        return counts;
+    }
+
+    private static void bindRows(PreparedStatement ps, List<Object[]> batchArgs, int from, int rows,
+                                 int parameterCount) throws SQLException {
+        int index = 1;
+        for (int row = from; row < from + rows; row++) {
+            Object[] args = batchArgs.get(row);
+            if (args.length != parameterCount) {
+                throw new SQLException("Expected " + parameterCount + " arguments but got " + args.length
+                        + " at batch row " + row);
+            }
+            for (Object arg : args) {
+                ps.setObject(index++, arg);
+            }
+        }
+    }
+
+    // 多行语句只返回总计数，与行数一致时每行记 1，否则无法确定每行的计数
+    private static void fillRowCounts(int[] counts, int from, int rows, int statementCount) {
+        int perRow = statementCount == rows ? 1 : Statement.SUCCESS_NO_INFO;
+        Arrays.fill(counts, from, from + rows, perRow);
+    }
+
+    private BatchInsertRewriter rewriter(String sql) {
+        Object rewriter = rewriters.get(sql);
+        if (rewriter == null) {
+            BatchInsertRewriter parsed = BatchInsertRewriter.parse(sql);
+            rewriter = parsed != null ? parsed : NOT_REWRITABLE;
+            if (rewriters.size() < MAX_REWRITERS) {
+                rewriters.putIfAbsent(sql, rewriter);
+            }
+        }
+        return rewriter instanceof BatchInsertRewriter ? (BatchInsertRewriter) rewriter : null;
+    }
+
+    private static void applyFetchSize(Statement stmt, int fetchSize) throws SQLException {
+        if (fetchSize != 0) {
+            stmt.setFetchSize(fetchSize);
         }
     }
 
@@ -143,7 +580,16 @@ public class JdbcTemplate {
                 conn.close();
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            closeFailed(sqlMetrics, e);
+        }
+    }
+
+    // 关闭资源失败不影响调用结果，只输出一行警告并计数
+    static void closeFailed(SqlMetrics metrics, SQLException e) {
+        if (metrics != null) {
+            metrics.closeFailed(e);
+        } else {
+            System.err.println("Failed to close JDBC resource: " + e);
         }
     }
 
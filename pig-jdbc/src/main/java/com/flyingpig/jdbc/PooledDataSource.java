@@ -0,0 +1,475 @@
+package com.flyingpig.jdbc;
+
+import com.flyingpig.jdbc.pool.ConnectionBag;
+import com.flyingpig.jdbc.pool.PoolEntry;
+import com.flyingpig.jdbc.pool.PooledConnection;
+import com.flyingpig.jdbc.pool.StatementCache;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 连接池数据源，替代每次都新建物理连接的 SimpleDataSource
+// 借出路径无锁：优先复用当前线程最近归还的连接，其次从共享列表中 CAS 抢占，最后等待归还或新建的连接直接移交。
+// 后台维护线程负责回收空闲连接、替换超过最大存活时间的连接、补足最小空闲数以及报告疑似泄漏的连接。
+public class PooledDataSource implements DataSource, AutoCloseable {
+
+    // 距上次使用不超过这个时间的连接，借出时不再校验
+    private static final long VALIDATION_BYPASS_MS = 500;
+
+    private String url;
+    private String username;
+    private String password;
+
+    private int minIdle = 2;
+    private int maxPoolSize = 10;
+    private long connectionTimeout = 30_000;
+    private long idleTimeout = 600_000;
+    private long maxLifetime = 1_800_000;
+    private long validationTimeout = 5_000;
+    // 0 表示不检测泄漏
+    private long leakDetectionThreshold = 0;
+    private long housekeepingPeriod = 30_000;
+    // 每个物理连接缓存的 PreparedStatement 数，0 表示不缓存
+    private int statementCacheSize = 64;
+
+    private final StatementCache.Metrics statementCacheMetrics = new StatementCache.Metrics();
+
+    private final ConnectionBag bag = new ConnectionBag(this::requestConnection);
+
+    // 已创建和正在创建的物理连接数
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    // 正在创建的物理连接数
+    private final AtomicInteger pendingCreates = new AtomicInteger();
+
+    private ThreadPoolExecutor creator;
+    private ScheduledExecutorService housekeeper;
+
+    // 物理连接的初始会话状态，归还时恢复到这个状态
+    private volatile boolean defaultAutoCommit = true;
+    private volatile boolean defaultReadOnly = false;
+    private volatile int defaultIsolation = Connection.TRANSACTION_NONE;
+
+    private volatile boolean initialized;
+    private volatile boolean closed;
+
+    public PooledDataSource() {
+    }
+
+    public PooledDataSource(String url, String username, String password) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    // 启动维护线程并预先创建 minIdle 个连接，数据库暂时不可用时只打印错误，之后按需重试
+    public synchronized void init() {
+        if (initialized) {
+            return;
+        }
+        if (minIdle > maxPoolSize) {
+            throw new IllegalStateException("minIdle (" + minIdle + ") must not exceed maxPoolSize (" + maxPoolSize + ")");
+        }
+        creator = new ThreadPoolExecutor(1, 1, 5, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                daemonThreadFactory("pig-pool-creator"));
+        creator.allowCoreThreadTimeOut(true);
+        housekeeper = Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("pig-pool-housekeeper"));
+        initialized = true;
+
+        try {
+            for (int i = 0; i < minIdle; i++) {
+                if (totalConnections.incrementAndGet() > maxPoolSize) {
+                    totalConnections.decrementAndGet();
+                    break;
+                }
+                createEntry();
+            }
+            System.out.println("Connection pool started: " + totalConnections.get() + " connection(s) to " + url);
+        } catch (SQLException e) {
+            System.err.println("Connection pool pre-fill failed, connections will be created on demand: " + e);
+        }
+        // 预填充完成后再启动维护任务，避免两边同时补足连接
+        long period = leakDetectionThreshold > 0 ? Math.min(housekeepingPeriod, leakDetectionThreshold) : housekeepingPeriod;
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!initialized) {
+            init();
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(connectionTimeout);
+        long remaining = deadline - System.nanoTime();
+        try {
+            while (!closed && remaining > 0) {
+                PoolEntry entry = bag.borrow(remaining, TimeUnit.NANOSECONDS);
+                if (entry == null) {
+                    break;
+                }
+                long now = System.currentTimeMillis();
+                if (entry.isEvicted() || isExpired(entry, now)
+                        || (now - entry.getLastAccessed() > VALIDATION_BYPASS_MS && !isAlive(entry))) {
+                    closeEntry(entry);
+                    remaining = deadline - System.nanoTime();
+                    continue;
+                }
+                entry.markBorrowed(now, leakDetectionThreshold > 0 ? new Exception("Connection borrowed here") : null);
+                return new PooledConnection(this, entry, defaultAutoCommit, defaultReadOnly, defaultIsolation);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+        if (closed) {
+            throw new SQLException("Connection pool has been closed");
+        }
+        throw new SQLTransientConnectionException("Connection is not available, request timed out after "
+                + connectionTimeout + "ms (total=" + totalConnections.get() + ", active="
+                + getActiveConnections() + ", waiting=" + bag.getWaitingThreadCount() + ")");
+    }
+
+    // 由 PooledConnection.close 调用，把连接放回连接池
+    public void release(PoolEntry entry) {
+        long now = System.currentTimeMillis();
+        if (entry.isLeakReported()) {
+            System.err.println("Previously reported leaked connection " + entry.getConnection() + " was returned after "
+                    + (now - entry.getBorrowedAt()) + "ms");
+        }
+        entry.setLastAccessed(now);
+        if (closed || entry.isEvicted() || isExpired(entry, now)) {
+            closeEntry(entry);
+            return;
+        }
+        bag.requite(entry);
+    }
+
+    private boolean isExpired(PoolEntry entry, long now) {
+        return maxLifetime > 0 && now - entry.getCreatedAt() > maxLifetime;
+    }
+
+    // 用驱动的 isValid 校验连接，MySQL 驱动会发送轻量的 ping 而不是执行查询
+    private boolean isAlive(PoolEntry entry) {
+        try {
+            return entry.getConnection().isValid((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(validationTimeout)));
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    // 借出时没有空闲连接：连接数未达上限且正在创建的连接不够分给等待的线程时，异步新建一个
+    private void requestConnection(int waiting) {
+        if (closed || pendingCreates.get() >= waiting) {
+            return;
+        }
+        int total;
+        do {
+            total = totalConnections.get();
+            if (total >= maxPoolSize) {
+                return;
+            }
+        } while (!totalConnections.compareAndSet(total, total + 1));
+        pendingCreates.incrementAndGet();
+        try {
+            creator.execute(() -> {
+                PoolEntry entry;
+                try {
+                    entry = openEntry();
+                } catch (SQLException e) {
+                    System.err.println("Failed to create pooled connection: " + e);
+                    return;
+                } finally {
+                    // 放入连接池之前结束计数：等待的线程拿到这个连接后立即再借时，不能被当作还有连接正在创建
+                    pendingCreates.decrementAndGet();
+                }
+                if (entry != null) {
+                    bag.add(entry);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 连接池正在关闭
+            pendingCreates.decrementAndGet();
+            totalConnections.decrementAndGet();
+        }
+    }
+
+    // 新建物理连接并加入连接池，调用前已经为它占用了 totalConnections 中的一个名额
+    private void createEntry() throws SQLException {
+        PoolEntry entry = openEntry();
+        if (entry != null) {
+            bag.add(entry);
+        }
+    }
+
+    // 新建物理连接，连接池已关闭时返回 null
+    private PoolEntry openEntry() throws SQLException {
+        Connection connection;
+        try {
+            connection = DriverManager.getConnection(url, username, password);
+        } catch (SQLException | RuntimeException e) {
+            totalConnections.decrementAndGet();
+            throw e;
+        }
+        try {
+            defaultAutoCommit = connection.getAutoCommit();
+            defaultReadOnly = connection.isReadOnly();
+            defaultIsolation = connection.getTransactionIsolation();
+        } catch (SQLException e) {
+            quietClose(connection);
+            totalConnections.decrementAndGet();
+            throw e;
+        }
+        if (closed) {
+            quietClose(connection);
+            totalConnections.decrementAndGet();
+            return null;
+        }
+        StatementCache statementCache = statementCacheSize > 0
+                ? new StatementCache(statementCacheSize, statementCacheMetrics) : null;
+        return new PoolEntry(connection, statementCache);
+    }
+
+    private void closeEntry(PoolEntry entry) {
+        if (bag.remove(entry)) {
+            totalConnections.decrementAndGet();
+            if (entry.getStatementCache() != null) {
+                entry.getStatementCache().clear();
+            }
+            quietClose(entry.getConnection());
+        }
+    }
+
+    private void quietClose(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            // 连接已经不可用，忽略
+        }
+    }
+
+    // 维护任务：回收空闲超时和超过最大存活时间的连接、补足最小空闲数、报告疑似泄漏
+    private void housekeep() {
+        try {
+            long now = System.currentTimeMillis();
+
+            List<PoolEntry> idle = bag.values(PoolEntry.STATE_NOT_IN_USE);
+            int removable = idle.size() - minIdle;
+            for (PoolEntry entry : idle) {
+                boolean expired = isExpired(entry, now);
+                boolean idleTooLong = idleTimeout > 0 && removable > 0 && now - entry.getLastAccessed() > idleTimeout;
+                if ((expired || idleTooLong) && bag.reserve(entry)) {
+                    closeEntry(entry);
+                    if (idleTooLong) {
+                        removable--;
+                    }
+                }
+            }
+
+            // 借出中的连接超过最大存活时间时只做标记，归还时关闭
+            for (PoolEntry entry : bag.values(PoolEntry.STATE_IN_USE)) {
+                if (isExpired(entry, now)) {
+                    entry.evict();
+                }
+                if (leakDetectionThreshold > 0 && !entry.isLeakReported()
+                        && now - entry.getBorrowedAt() > leakDetectionThreshold) {
+                    // 每个借出只报告一次，一行输出借出位置
+                    entry.setLeakReported(true);
+                    System.err.println("Connection leak detection triggered for " + entry.getConnection()
+                            + ", borrowed " + (now - entry.getBorrowedAt()) + "ms ago at " + borrowSite(entry.getBorrowTrace()));
+                }
+            }
+
+            fillPool();
+        } catch (RuntimeException e) {
+            System.err.println("Connection pool housekeeping failed: " + e);
+        }
+    }
+
+    // 借出位置：调用栈中第一个不属于 pig-jdbc 的方法，通过模板或事务借出时即业务代码的调用处
+    private static String borrowSite(Throwable trace) {
+        if (trace != null) {
+            for (StackTraceElement element : trace.getStackTrace()) {
+                if (!element.getClassName().startsWith("com.flyingpig.jdbc.")) {
+                    return element.toString();
+                }
+            }
+        }
+        return "unknown";
+    }
+
+    // 补足最小空闲连接数
+    private void fillPool() {
+        int missing = minIdle - bag.getCount(PoolEntry.STATE_NOT_IN_USE) - pendingCreates.get();
+        for (int i = 0; i < missing && !closed; i++) {
+            int total = totalConnections.get();
+            if (total >= maxPoolSize || !totalConnections.compareAndSet(total, total + 1)) {
+                return;
+            }
+            try {
+                createEntry();
+            } catch (SQLException e) {
+                System.err.println("Failed to create pooled connection: " + e);
+                return;
+            }
+        }
+    }
+
+    // 关闭连接池：空闲连接立即关闭，借出中的连接在归还时关闭
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        bag.close();
+        if (housekeeper != null) {
+            housekeeper.shutdownNow();
+            creator.shutdownNow();
+        }
+        for (PoolEntry entry : bag.values()) {
+            if (bag.reserve(entry)) {
+                closeEntry(entry);
+            }
+        }
+        System.out.println("Connection pool closed");
+    }
+
+    private static ThreadFactory daemonThreadFactory(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // ---------------------------------------------------------------- 运行状态
+
+    public int getTotalConnections() {
+        return bag.size();
+    }
+
+    public int getIdleConnections() {
+        return bag.getCount(PoolEntry.STATE_NOT_IN_USE);
+    }
+
+    public int getActiveConnections() {
+        return bag.getCount(PoolEntry.STATE_IN_USE);
+    }
+
+    public int getThreadsAwaitingConnection() {
+        return bag.getWaitingThreadCount();
+    }
+
+    // 所有连接上语句缓存的命中、未命中和淘汰次数
+    public StatementCache.Metrics getStatementCacheMetrics() {
+        return statementCacheMetrics;
+    }
+
+    // ---------------------------------------------------------------- 配置
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public int getMinIdle() {
+        return minIdle;
+    }
+
+    public void setMinIdle(int minIdle) {
+        this.minIdle = minIdle;
+    }
+
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    public void setMaxPoolSize(int maxPoolSize) {
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    public long getConnectionTimeout() {
+        return connectionTimeout;
+    }
+
+    // 借出连接的最长等待时间（毫秒）
+    public void setConnectionTimeout(long connectionTimeout) {
+        this.connectionTimeout = connectionTimeout;
+    }
+
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    // 超过 minIdle 的连接空闲多久后关闭（毫秒），0 表示不回收
+    public void setIdleTimeout(long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public long getMaxLifetime() {
+        return maxLifetime;
+    }
+
+    // 物理连接的最大存活时间（毫秒），应小于数据库的 wait_timeout，0 表示不限制
+    public void setMaxLifetime(long maxLifetime) {
+        this.maxLifetime = maxLifetime;
+    }
+
+    public long getValidationTimeout() {
+        return validationTimeout;
+    }
+
+    // isValid 校验的超时时间（毫秒），驱动只支持秒级精度
+    public void setValidationTimeout(long validationTimeout) {
+        this.validationTimeout = validationTimeout;
+    }
+
+    public long getLeakDetectionThreshold() {
+        return leakDetectionThreshold;
+    }
+
+    // 连接借出超过这个时间未归还时打印借出位置（毫秒），0 表示关闭
+    public void setLeakDetectionThreshold(long leakDetectionThreshold) {
+        this.leakDetectionThreshold = leakDetectionThreshold;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    // 每个物理连接缓存的 PreparedStatement 数，0 表示不缓存，需要在 init 之前设置
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    public long getHousekeepingPeriod() {
+        return housekeepingPeriod;
+    }
+
+    // 维护任务的执行间隔（毫秒）
+    public void setHousekeepingPeriod(long housekeepingPeriod) {
+        this.housekeepingPeriod = housekeepingPeriod;
+    }
+}
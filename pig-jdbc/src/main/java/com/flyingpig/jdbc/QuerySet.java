@@ -0,0 +1,159 @@
+package com.flyingpig.jdbc;
+
+import com.flyingpig.jdbc.async.AsyncJdbcTemplate.JdbcCallback;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 一组互不依赖的查询，由 JdbcTemplate.queryParallel 并行执行
+// 添加查询时返回 Result，执行完成后通过 Result.get 读取对应的结果；一个 QuerySet 只能执行一次
+public class QuerySet {
+
+    private final List<Query<?>> queries = new ArrayList<>();
+    private boolean executed;
+
+    public <T> Result<T> queryForObject(String sql, RowMapper<T> rowMapper, Object... args) {
+        return add(jdbc -> jdbc.queryForObject(sql, rowMapper, args));
+    }
+
+    public <T> Result<T> queryForValue(String sql, Class<T> requiredType, Object... args) {
+        return add(jdbc -> jdbc.queryForValue(sql, requiredType, args));
+    }
+
+    public <T> Result<List<T>> queryForList(String sql, RowMapper<T> rowMapper, Object... args) {
+        return add(jdbc -> jdbc.queryForList(sql, rowMapper, args));
+    }
+
+    // 任意 JDBC 操作，在执行线程上用 JdbcTemplate 调用
+    public synchronized <T> Result<T> add(JdbcCallback<T> callback) {
+        if (executed) {
+            throw new IllegalStateException("QuerySet has already been executed");
+        }
+        Query<T> query = new Query<>(callback);
+        queries.add(query);
+        return query.result;
+    }
+
+    public synchronized int size() {
+        return queries.size();
+    }
+
+    private synchronized List<Query<?>> start() {
+        if (executed) {
+            throw new IllegalStateException("QuerySet has already been executed");
+        }
+        executed = true;
+        return queries;
+    }
+
+    // 在当前线程上依次执行
+    void executeSequentially(JdbcTemplate jdbcTemplate) throws SQLException {
+        List<Query<?>> queries = start();
+        for (int i = 0; i < queries.size(); i++) {
+            try {
+                queries.get(i).run(jdbcTemplate);
+            } catch (SQLException e) {
+                throw queryFailure(i, e);
+            }
+        }
+    }
+
+    // 最多 maxConcurrency 个工作任务从队列中依次取出查询执行，全部完成后返回；
+    // 任一查询失败时立即抛出异常，其它工作任务不再取新的查询，正在执行的查询完成后结果被丢弃
+    void execute(JdbcTemplate jdbcTemplate, Executor executor, int maxConcurrency) throws SQLException {
+        List<Query<?>> queries = start();
+        int count = queries.size();
+        if (count == 0) {
+            return;
+        }
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger remaining = new AtomicInteger(count);
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        Runnable worker = () -> {
+            int index;
+            while (!done.isDone() && (index = next.getAndIncrement()) < count) {
+                try {
+                    queries.get(index).run(jdbcTemplate);
+                } catch (SQLException e) {
+                    done.completeExceptionally(queryFailure(index, e));
+                    return;
+                } catch (Throwable e) {
+                    done.completeExceptionally(e);
+                    return;
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    done.complete(null);
+                }
+            }
+        };
+        for (int i = 0; i < Math.min(count, maxConcurrency); i++) {
+            executor.execute(worker);
+        }
+        try {
+            done.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new SQLException(cause);
+        } catch (InterruptedException e) {
+            // 让工作任务不再取新的查询
+            done.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for parallel queries", e);
+        }
+    }
+
+    // 在异常信息中标明失败的是第几个查询（从 0 开始），保留原来的 SQLState 和错误码
+    private static SQLException queryFailure(int index, SQLException e) {
+        return new SQLException("Query " + index + " failed: " + e.getMessage(), e.getSQLState(), e.getErrorCode(), e);
+    }
+
+    private static final class Query<T> {
+        private final JdbcCallback<T> callback;
+        private final Result<T> result = new Result<>();
+
+        private Query(JdbcCallback<T> callback) {
+            this.callback = callback;
+        }
+
+        private void run(JdbcTemplate jdbcTemplate) throws SQLException {
+            result.complete(callback.doInJdbc(jdbcTemplate));
+        }
+    }
+
+    // 一个查询的结果，queryParallel 成功返回后可以读取
+    public static final class Result<T> {
+        private volatile T value;
+        private volatile boolean done;
+
+        private void complete(T value) {
+            this.value = value;
+            this.done = true;
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+
+        // 查询还没有执行或执行失败时抛出 IllegalStateException
+        public T get() {
+            if (!done) {
+                throw new IllegalStateException("Query has not completed");
+            }
+            return value;
+        }
+    }
+}
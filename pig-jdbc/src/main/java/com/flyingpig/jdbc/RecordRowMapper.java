@@ -0,0 +1,90 @@
+package com.flyingpig.jdbc;
+
+import com.flyingpig.jdbc.mapping.ColumnReaders;
+import com.flyingpig.jdbc.mapping.MappingPlanCache;
+import com.flyingpig.jdbc.mapping.RowHandles;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.RecordComponent;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+// 按列名自动映射到 record 组件的 RowMapper，通过规范构造器创建对象
+// 列名与组件名忽略大小写和下划线匹配；没有对应列或列为 NULL 的组件传入默认值（基本类型为 0 / false）
+// 每种结果集列签名只匹配一次，生成的计划按列下标用类型化的 getter 读取后直接调用构造器
+public class RecordRowMapper<T> implements RowMapper<T> {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final ClassValue<RecordRowMapper<?>> SHARED = new ClassValue<>() {
+        @Override
+        protected RecordRowMapper<?> computeValue(Class<?> type) {
+            return new RecordRowMapper<>(type);
+        }
+    };
+
+    private final Class<T> type;
+
+    // 规范构造器
+    private final MethodHandle constructor;
+
+    // 规范化的组件名 -> 组件下标
+    private final Map<String, Integer> componentIndex = new HashMap<>();
+
+    // 计划为 RowHandles.recordMapper 生成的 (ResultSet)Object
+    private final MappingPlanCache<MethodHandle> plans = new MappingPlanCache<>(this::createPlan);
+
+    public RecordRowMapper(Class<T> type) {
+        if (!type.isRecord()) {
+            throw new IllegalArgumentException(type.getName() + " is not a record");
+        }
+        this.type = type;
+        RecordComponent[] components = type.getRecordComponents();
+        Class<?>[] componentTypes = new Class<?>[components.length];
+        for (int i = 0; i < components.length; i++) {
+            componentTypes[i] = components[i].getType();
+            componentIndex.put(ColumnReaders.normalize(components[i].getName()), i);
+        }
+        try {
+            this.constructor = LOOKUP.findConstructor(type, MethodType.methodType(void.class, componentTypes));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot access canonical constructor of " + type.getName(), e);
+        }
+    }
+
+    // 每种类型共享一个实例，映射计划在所有调用之间复用
+    @SuppressWarnings("unchecked")
+    public static <T> RecordRowMapper<T> of(Class<T> type) {
+        return (RecordRowMapper<T>) SHARED.get(type);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T mapRow(ResultSet rs, int rowNum) throws SQLException {
+        MethodHandle mapper = plans.get(rs);
+        try {
+            return (T) (Object) mapper.invokeExact(rs);
+        } catch (SQLException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new SQLException("Failed to map row to " + type.getName(), e);
+        }
+    }
+
+    // 每个组件取第一个同名的列，没有对应列的组件记为 0
+    private MethodHandle createPlan(Class<? extends ResultSet> resultSetType, ResultSetMetaData metaData) throws SQLException {
+        int[] columns = new int[constructor.type().parameterCount()];
+        for (int i = metaData.getColumnCount(); i >= 1; i--) {
+            Integer component = componentIndex.get(ColumnReaders.normalize(metaData.getColumnLabel(i)));
+            if (component != null) {
+                columns[component] = i;
+            }
+        }
+        return RowHandles.recordMapper(resultSetType, constructor, columns);
+    }
+}
@@ -0,0 +1,88 @@
+package com.flyingpig.jdbc;
+
+import com.flyingpig.jdbc.metrics.SqlMetrics;
+import com.flyingpig.jdbc.metrics.StatementTimer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+// queryForStream 使用的 Spliterator：每次 tryAdvance 只读一行，结果集读完或 Stream 关闭时释放语句和连接
+class ResultSetSpliterator<T> extends Spliterators.AbstractSpliterator<T> implements AutoCloseable {
+
+    private final Connection conn;
+    private final PreparedStatement ps;
+    private final ResultSet rs;
+    private final RowMapper<T> rowMapper;
+
+    // 事务中的连接由事务管理器关闭，这里只关闭语句
+    private final boolean closeConnection;
+
+    // 读完或关闭时记录执行统计，没有开启统计时为 StatementTimer.NOOP 和 null
+    private final StatementTimer timer;
+    private final SqlMetrics metrics;
+
+    private int rowNum;
+    private boolean closed;
+
+    ResultSetSpliterator(Connection conn, PreparedStatement ps, ResultSet rs, RowMapper<T> rowMapper, boolean closeConnection,
+                         StatementTimer timer, SqlMetrics metrics) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED);
+        this.conn = conn;
+        this.ps = ps;
+        this.rs = rs;
+        this.rowMapper = rowMapper;
+        this.closeConnection = closeConnection;
+        this.timer = timer;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (closed) {
+            return false;
+        }
+        try {
+            if (!rs.next()) {
+                close();
+                return false;
+            }
+            action.accept(rowMapper.mapRow(rs, ++rowNum));
+            return true;
+        } catch (SQLException e) {
+            timer.failed(e);
+            close();
+            throw new UncheckedSQLException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            rs.close();
+        } catch (SQLException e) {
+            JdbcTemplate.closeFailed(metrics, e);
+        }
+        try {
+            ps.close();
+        } catch (SQLException e) {
+            JdbcTemplate.closeFailed(metrics, e);
+        }
+        if (closeConnection) {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                JdbcTemplate.closeFailed(metrics, e);
+            }
+        }
+        timer.rows(rowNum);
+        timer.stop();
+    }
+}
@@ -0,0 +1,9 @@
+package com.flyingpig.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// 逐行处理结果集的回调，不收集结果，适合导出等需要遍历大量数据的场景
+public interface RowCallbackHandler {
+    void processRow(ResultSet rs) throws SQLException;
+}
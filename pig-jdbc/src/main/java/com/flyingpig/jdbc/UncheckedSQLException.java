@@ -0,0 +1,16 @@
+package com.flyingpig.jdbc;
+
+import java.sql.SQLException;
+
+// 在 Stream 等不能抛出受检异常的地方包装 SQLException
+public class UncheckedSQLException extends RuntimeException {
+
+    public UncheckedSQLException(SQLException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+    @Override
+    public synchronized SQLException getCause() {
+        return (SQLException) super.getCause();
+    }
+}
@@ -0,0 +1,91 @@
+package com.flyingpig.jdbc.async;
+
+import com.flyingpig.jdbc.DataSource;
+import com.flyingpig.jdbc.PooledDataSource;
+import com.flyingpig.jdbc.routing.ReplicaNode;
+import com.flyingpig.jdbc.routing.RoutingDataSource;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 异步 JDBC 调用使用的线程
+// 运行在 Java 21 及以上时使用虚拟线程（通过反射创建，模块仍按 Java 17 编译），否则使用按需创建的守护线程；
+// 并发数由每个 DataSource 的 BoundedExecutor 限制，平台线程的数量不会超过各个 DataSource 的上限之和
+public final class AsyncExecutors {
+
+    // 没有连接池时的默认并发上限
+    private static final int DEFAULT_MAX_IN_FLIGHT = 10;
+
+    private static final ExecutorService VIRTUAL_EXECUTOR = newVirtualThreadExecutor();
+
+    private static final ExecutorService SHARED = VIRTUAL_EXECUTOR != null ? VIRTUAL_EXECUTOR : newDaemonExecutor();
+
+    // 每个 DataSource 一个 BoundedExecutor，同一个 DataSource 上的所有异步模板共享并发上限
+    private static final Map<DataSource, BoundedExecutor> LIMITERS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private AsyncExecutors() {
+    }
+
+    public static ExecutorService shared() {
+        return SHARED;
+    }
+
+    public static boolean isVirtual() {
+        return VIRTUAL_EXECUTOR != null;
+    }
+
+    // 获取 DataSource 的并发限制器，同一个 DataSource 只能有一个并发上限，已有限制器的上限不同时抛出 IllegalStateException
+    public static BoundedExecutor forDataSource(DataSource dataSource, int maxInFlight) {
+        BoundedExecutor executor = LIMITERS.computeIfAbsent(dataSource, key -> new BoundedExecutor(SHARED, maxInFlight));
+        if (executor.getMaxInFlight() != maxInFlight) {
+            throw new IllegalStateException("Async limiter of this DataSource already has maxInFlight "
+                    + executor.getMaxInFlight() + ", cannot use " + maxInFlight);
+        }
+        return executor;
+    }
+
+    // 获取 DataSource 的并发限制器，已有限制器时沿用它的上限，否则按默认并发上限创建
+    public static BoundedExecutor forDataSource(DataSource dataSource) {
+        return LIMITERS.computeIfAbsent(dataSource, key -> new BoundedExecutor(SHARED, defaultMaxInFlight(key)));
+    }
+
+    // 默认并发上限为连接池的最大连接数，更多的并发只会在连接池中等待；读写分离时为主库和所有副本的连接数之和
+    public static int defaultMaxInFlight(DataSource dataSource) {
+        if (dataSource instanceof PooledDataSource) {
+            return ((PooledDataSource) dataSource).getMaxPoolSize();
+        }
+        if (dataSource instanceof RoutingDataSource) {
+            RoutingDataSource routing = (RoutingDataSource) dataSource;
+            int total = defaultMaxInFlight(routing.getPrimary());
+            for (ReplicaNode replica : routing.getReplicas()) {
+                total += defaultMaxInFlight(replica.getDataSource());
+            }
+            return total;
+        }
+        return DEFAULT_MAX_IN_FLIGHT;
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Java 21 之前没有虚拟线程（19、20 中是预览特性，未开启时调用会失败）
+            return null;
+        }
+    }
+
+    private static ExecutorService newDaemonExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "pig-jdbc-async-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
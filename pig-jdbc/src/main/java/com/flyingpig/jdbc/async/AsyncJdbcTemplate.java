@@ -0,0 +1,102 @@
+package com.flyingpig.jdbc.async;
+
+import com.flyingpig.jdbc.JdbcTemplate;
+import com.flyingpig.jdbc.RowCallbackHandler;
+import com.flyingpig.jdbc.RowMapper;
+import com.flyingpig.jdbc.connection.ConnectionHolder;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// JdbcTemplate 的异步版本，每个调用在 AsyncExecutors 的线程上执行，返回 CompletableFuture
+// 同一个 DataSource 上同时执行的调用数不超过 maxInFlight，超出的调用排队，不占用线程
+// 在事务中发起的调用直接在当前线程上使用事务的连接执行，返回已经完成的 Future：
+// 连接和它的语句缓存不是线程安全的，调用线程在事务中会继续使用这个连接，不能交给异步线程
+public class AsyncJdbcTemplate {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BoundedExecutor executor;
+
+    // 并发上限默认为连接池的最大连接数，更多的并发只会在连接池中等待；DataSource 已有并发上限时沿用
+    public AsyncJdbcTemplate(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, AsyncExecutors.forDataSource(jdbcTemplate.getDataSource()));
+    }
+
+    // 同一个 DataSource 已经使用了不同的并发上限时抛出 IllegalStateException
+    public AsyncJdbcTemplate(JdbcTemplate jdbcTemplate, int maxInFlight) {
+        this(jdbcTemplate, AsyncExecutors.forDataSource(jdbcTemplate.getDataSource(), maxInFlight));
+    }
+
+    private AsyncJdbcTemplate(JdbcTemplate jdbcTemplate, BoundedExecutor executor) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.executor = executor;
+    }
+
+    public JdbcTemplate getJdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    public BoundedExecutor getExecutor() {
+        return executor;
+    }
+
+    // 在异步线程上用 JdbcTemplate 执行任意操作，事务中在当前线程上同步执行
+    public <T> CompletableFuture<T> execute(JdbcCallback<T> callback) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (ConnectionHolder.getConnection() != null) {
+            try {
+                future.complete(callback.doInJdbc(jdbcTemplate));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+            return future;
+        }
+        executor.execute(() -> {
+            if (future.isDone()) {
+                // 排队期间已被取消
+                return;
+            }
+            try {
+                future.complete(callback.doInJdbc(jdbcTemplate));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    public <T> CompletableFuture<T> queryForObject(String sql, RowMapper<T> rowMapper, Object... args) {
+        return execute(jdbc -> jdbc.queryForObject(sql, rowMapper, args));
+    }
+
+    public <T> CompletableFuture<T> queryForValue(String sql, Class<T> requiredType, Object... args) {
+        return execute(jdbc -> jdbc.queryForValue(sql, requiredType, args));
+    }
+
+    public <T> CompletableFuture<List<T>> queryForList(String sql, RowMapper<T> rowMapper, Object... args) {
+        return execute(jdbc -> jdbc.queryForList(sql, rowMapper, args));
+    }
+
+    // 回调在异步线程上执行
+    public CompletableFuture<Void> query(String sql, RowCallbackHandler rowCallbackHandler, Object... args) {
+        return execute(jdbc -> {
+            jdbc.query(sql, rowCallbackHandler, args);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Integer> update(String sql, Object... args) {
+        return execute(jdbc -> jdbc.update(sql, args));
+    }
+
+    public CompletableFuture<int[]> batchUpdate(String sql, List<Object[]> batchArgs) {
+        return execute(jdbc -> jdbc.batchUpdate(sql, batchArgs));
+    }
+
+    // 在异步线程上执行的 JDBC 操作
+    @FunctionalInterface
+    public interface JdbcCallback<T> {
+        T doInJdbc(JdbcTemplate jdbcTemplate) throws SQLException;
+    }
+}
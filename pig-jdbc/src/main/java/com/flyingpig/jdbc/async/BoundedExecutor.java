@@ -0,0 +1,82 @@
+package com.flyingpig.jdbc.async;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+// 限制同时执行的任务数：拿到许可的任务直接提交给底层线程，其余任务排队，由执行完任务的线程接着执行
+// 提交任务的线程从不阻塞；排队的任务不占用线程
+public class BoundedExecutor implements Executor {
+
+    private final Executor executor;
+    private final Semaphore permits;
+    private final int maxInFlight;
+    private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+
+    public BoundedExecutor(Executor executor, int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive");
+        }
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        this.permits = new Semaphore(maxInFlight);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        pending.offer(task);
+        drain();
+    }
+
+    // 有许可且有排队的任务时提交；许可先拿后查队列，释放许可后再查一次，不会出现有许可却有任务滞留的情况
+    private void drain() {
+        while (!pending.isEmpty() && permits.tryAcquire()) {
+            Runnable task = pending.poll();
+            if (task == null) {
+                permits.release();
+                continue;
+            }
+            try {
+                executor.execute(() -> runWorker(task));
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                throw e;
+            }
+        }
+    }
+
+    // 拿到许可的线程执行完当前任务后继续执行排队的任务，队列为空时才归还许可，
+    // 避免在当前线程仍然忙碌时提交下一个任务而多创建线程
+    private void runWorker(Runnable first) {
+        Runnable task = first;
+        try {
+            while (task != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    System.err.println("Async task failed: " + e);
+                }
+                task = pending.poll();
+            }
+        } finally {
+            permits.release();
+        }
+        drain();
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    // 正在执行的任务数
+    public int getInFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    // 排队等待许可的任务数
+    public int getPending() {
+        return pending.size();
+    }
+}
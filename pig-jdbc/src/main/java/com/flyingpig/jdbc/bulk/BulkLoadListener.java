@@ -0,0 +1,13 @@
+package com.flyingpig.jdbc.bulk;
+
+// 导入过程的回调，在导入线程上调用，同一次导入的回调不会并发执行；回调中抛出的异常被忽略
+public interface BulkLoadListener {
+
+    // 每次提交后和导入结束时调用
+    default void onProgress(BulkLoadProgress progress) {
+    }
+
+    // 一块数据导入失败时调用
+    default void onChunkFailed(FailedChunk chunk) {
+    }
+}
@@ -0,0 +1,54 @@
+package com.flyingpig.jdbc.bulk;
+
+import java.util.concurrent.TimeUnit;
+
+// 导入进度的快照：已读取、已提交和失败的行数，失败的块数，以及已用时间和提交速度
+public class BulkLoadProgress {
+
+    private final long rowsRead;
+    private final long rowsLoaded;
+    private final long rowsFailed;
+    private final int failedChunks;
+    private final long elapsedNanos;
+
+    public BulkLoadProgress(long rowsRead, long rowsLoaded, long rowsFailed, int failedChunks, long elapsedNanos) {
+        this.rowsRead = rowsRead;
+        this.rowsLoaded = rowsLoaded;
+        this.rowsFailed = rowsFailed;
+        this.failedChunks = failedChunks;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    // 已经提交的行数
+    public long getRowsLoaded() {
+        return rowsLoaded;
+    }
+
+    public long getRowsFailed() {
+        return rowsFailed;
+    }
+
+    public int getFailedChunks() {
+        return failedChunks;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    // 每秒提交的行数
+    public double getRowsPerSecond() {
+        return elapsedNanos > 0 ? rowsLoaded * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "read=" + rowsRead + ", loaded=" + rowsLoaded + ", failed=" + rowsFailed
+                + ", failedChunks=" + failedChunks + ", elapsedMs=" + TimeUnit.NANOSECONDS.toMillis(elapsedNanos)
+                + ", rowsPerSecond=" + String.format("%.1f", getRowsPerSecond());
+    }
+}
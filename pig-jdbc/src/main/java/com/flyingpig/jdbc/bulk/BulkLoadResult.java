@@ -0,0 +1,47 @@
+package com.flyingpig.jdbc.bulk;
+
+import java.util.List;
+
+// 一次导入的结果：最终进度、失败的块，以及是否因为失败过多而提前停止
+public class BulkLoadResult {
+
+    private final BulkLoadProgress progress;
+    private final List<FailedChunk> failedChunks;
+    private final boolean aborted;
+
+    public BulkLoadResult(BulkLoadProgress progress, List<FailedChunk> failedChunks, boolean aborted) {
+        this.progress = progress;
+        this.failedChunks = failedChunks;
+        this.aborted = aborted;
+    }
+
+    public BulkLoadProgress getProgress() {
+        return progress;
+    }
+
+    public long getRowsRead() {
+        return progress.getRowsRead();
+    }
+
+    public long getRowsLoaded() {
+        return progress.getRowsLoaded();
+    }
+
+    public List<FailedChunk> getFailedChunks() {
+        return failedChunks;
+    }
+
+    // 失败过多时停止读取源数据，已读取但还没执行的块既不计入成功也不计入失败
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    public boolean isSuccess() {
+        return !aborted && failedChunks.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "BulkLoadResult{" + progress + ", aborted=" + aborted + '}';
+    }
+}
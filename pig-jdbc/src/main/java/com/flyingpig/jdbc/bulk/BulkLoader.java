@@ -0,0 +1,439 @@
+package com.flyingpig.jdbc.bulk;
+
+import com.flyingpig.jdbc.JdbcTemplate;
+import com.flyingpig.jdbc.async.AsyncExecutors;
+import com.flyingpig.jdbc.async.BoundedExecutor;
+import com.flyingpig.jdbc.connection.ConnectionHolder;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+// 并行批量导入：调用线程从 Stream/Iterator 读取行，每 chunkSize 行组成一块放进有界队列（队列满时读取暂停），
+// parallelism 个导入线程各持有一个连接，从队列取块后用 JdbcTemplate.batchUpdate 执行（批量大小、多行 INSERT 改写、执行统计照常生效），
+// 每个连接累计 commitInterval 行后提交一次
+// 一块执行失败时回滚这个连接上未提交的块，其它块在新事务中重新执行并提交，失败的块通过 BulkLoadResult 和 BulkLoadListener 报告；
+// 已提交的数据不会因为后面的失败而回滚，需要整体成功或失败的导入应先导入到临时表
+// 导入线程使用各自的连接，与调用线程上的事务无关；导入线程通过 DataSource 的异步并发限制器提交，
+// 与 AsyncJdbcTemplate 共享并发上限，实际的线程数不超过这个上限（默认为连接池的最大连接数）
+public class BulkLoader {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // 导入线程数，即同时使用的连接数，超过 DataSource 的异步并发上限时按上限
+    private int parallelism = 4;
+
+    // 每块的行数，也是失败时报告的最小单位
+    private int chunkSize = 1000;
+
+    // 每个连接每累计多少行提交一次，按块累计，实际提交的行数可能略多
+    private int commitInterval = 10000;
+
+    // 排队等待执行的块数上限，0 表示导入线程数的 2 倍
+    private int queueCapacity;
+
+    // 失败的块数达到上限后停止读取，0 表示不限制
+    private int maxFailedChunks;
+
+    private BulkLoadListener listener;
+
+    public BulkLoader(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public JdbcTemplate getJdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    public int getCommitInterval() {
+        return commitInterval;
+    }
+
+    public void setCommitInterval(int commitInterval) {
+        if (commitInterval < 1) {
+            throw new IllegalArgumentException("commitInterval must be positive: " + commitInterval);
+        }
+        this.commitInterval = commitInterval;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        if (queueCapacity < 0) {
+            throw new IllegalArgumentException("queueCapacity must not be negative: " + queueCapacity);
+        }
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getMaxFailedChunks() {
+        return maxFailedChunks;
+    }
+
+    public void setMaxFailedChunks(int maxFailedChunks) {
+        if (maxFailedChunks < 0) {
+            throw new IllegalArgumentException("maxFailedChunks must not be negative: " + maxFailedChunks);
+        }
+        this.maxFailedChunks = maxFailedChunks;
+    }
+
+    public BulkLoadListener getListener() {
+        return listener;
+    }
+
+    public void setListener(BulkLoadListener listener) {
+        this.listener = listener;
+    }
+
+    // 每个元素是一行的参数
+    public BulkLoadResult load(String sql, Stream<Object[]> rows) {
+        return load(sql, rows.iterator(), Function.identity());
+    }
+
+    // 每个元素由 argsMapper 转换为一行的参数；Stream 由调用方关闭
+    public <T> BulkLoadResult load(String sql, Stream<? extends T> rows, Function<? super T, Object[]> argsMapper) {
+        return load(sql, rows.iterator(), argsMapper);
+    }
+
+    public BulkLoadResult load(String sql, Iterator<Object[]> rows) {
+        return load(sql, rows, Function.identity());
+    }
+
+    // 读完所有行并等待导入线程全部结束后返回；读取源数据时抛出的异常在导入线程结束后重新抛出，此前读取的行照常导入
+    // 调用线程被中断时停止读取，已读取的块不再执行，返回 aborted 的结果
+    public <T> BulkLoadResult load(String sql, Iterator<? extends T> rows, Function<? super T, Object[]> argsMapper) {
+        BoundedExecutor executor = AsyncExecutors.forDataSource(jdbcTemplate.getDataSource());
+        int workerCount = Math.min(parallelism, executor.getMaxInFlight());
+        LoadRun run = new LoadRun(sql, workerCount);
+        CountDownLatch workers = new CountDownLatch(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            executor.execute(() -> {
+                try {
+                    run.work();
+                } finally {
+                    workers.countDown();
+                }
+            });
+        }
+
+        RuntimeException sourceFailure = null;
+        try {
+            long firstRow = 0;
+            List<Object[]> chunk = new ArrayList<>(chunkSize);
+            try {
+                while (!run.aborted && rows.hasNext()) {
+                    chunk.add(argsMapper.apply(rows.next()));
+                    if (chunk.size() == chunkSize) {
+                        run.submit(new Chunk(firstRow, chunk));
+                        firstRow += chunk.size();
+                        chunk = new ArrayList<>(chunkSize);
+                    }
+                }
+            } catch (RuntimeException e) {
+                sourceFailure = e;
+            }
+            if (!chunk.isEmpty() && !run.aborted) {
+                run.submit(new Chunk(firstRow, chunk));
+            }
+        } catch (InterruptedException e) {
+            run.aborted = true;
+            Thread.currentThread().interrupt();
+        } finally {
+            run.closed = true;
+            awaitUninterruptibly(workers);
+        }
+
+        BulkLoadProgress progress = run.progress();
+        run.notifyProgress(progress);
+        if (sourceFailure != null) {
+            throw sourceFailure;
+        }
+        return new BulkLoadResult(progress, run.failedChunks(), run.aborted);
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Chunk {
+        final long firstRow;
+        final List<Object[]> rows;
+
+        Chunk(long firstRow, List<Object[]> rows) {
+            this.firstRow = firstRow;
+            this.rows = rows;
+        }
+    }
+
+    // 一次导入的状态，由调用线程和导入线程共享
+    private final class LoadRun {
+
+        private final String sql;
+        private final BlockingQueue<Chunk> queue;
+        private final long startNanos = System.nanoTime();
+
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong rowsLoaded = new AtomicLong();
+        private final AtomicLong rowsFailed = new AtomicLong();
+        private final List<FailedChunk> failedChunks = Collections.synchronizedList(new ArrayList<>());
+
+        // 读取结束，导入线程取完队列后退出
+        private volatile boolean closed;
+
+        // 停止读取，导入线程丢弃队列中的块
+        private volatile boolean aborted;
+
+        LoadRun(String sql, int workerCount) {
+            this.sql = sql;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity > 0 ? queueCapacity : workerCount * 2);
+        }
+
+        void submit(Chunk chunk) throws InterruptedException {
+            queue.put(chunk);
+            rowsRead.addAndGet(chunk.rows.size());
+        }
+
+        // 导入线程：执行块、按 commitInterval 提交，结束时提交剩余的块并归还连接
+        void work() {
+            Connection conn = null;
+            List<Chunk> uncommitted = new ArrayList<>();
+            int uncommittedRows = 0;
+            try {
+                while (true) {
+                    Chunk chunk = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (chunk == null) {
+                        if (closed) {
+                            break;
+                        }
+                        continue;
+                    }
+                    if (aborted) {
+                        continue;
+                    }
+                    try {
+                        if (conn == null) {
+                            conn = openConnection();
+                        }
+                        execute(conn, chunk);
+                    } catch (SQLException | RuntimeException e) {
+                        conn = rollback(conn, e);
+                        fail(chunk, e);
+                        conn = replay(conn, uncommitted);
+                        uncommitted.clear();
+                        uncommittedRows = 0;
+                        continue;
+                    }
+                    uncommitted.add(chunk);
+                    uncommittedRows += chunk.rows.size();
+                    if (uncommittedRows >= commitInterval) {
+                        conn = commit(conn, uncommitted);
+                        uncommitted.clear();
+                        uncommittedRows = 0;
+                    }
+                }
+            } catch (InterruptedException e) {
+                aborted = true;
+                Thread.currentThread().interrupt();
+            } finally {
+                if (conn != null) {
+                    conn = commit(conn, uncommitted);
+                    closeConnection(conn);
+                }
+            }
+        }
+
+        private Connection openConnection() throws SQLException {
+            Connection conn = jdbcTemplate.getDataSource().getConnection();
+            try {
+                conn.setAutoCommit(false);
+                return conn;
+            } catch (SQLException | RuntimeException e) {
+                conn.close();
+                throw e;
+            }
+        }
+
+        // 把连接绑定到当前线程，JdbcTemplate 在这个连接上执行且不会关闭它，写入的表的缓存结果在提交后失效
+        private void execute(Connection conn, Chunk chunk) throws SQLException {
+            ConnectionHolder.setConnection(conn);
+            try {
+                jdbcTemplate.batchUpdate(sql, chunk.rows);
+            } finally {
+                ConnectionHolder.removeConnection();
+            }
+        }
+
+        // 提交失败时回滚，这些块全部记为失败；返回可以继续使用的连接，连接已经损坏时返回 null
+        private Connection commit(Connection conn, List<Chunk> chunks) {
+            if (chunks.isEmpty()) {
+                return conn;
+            }
+            try {
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn = rollback(conn, e);
+                for (Chunk chunk : chunks) {
+                    fail(chunk, e);
+                }
+                return conn;
+            }
+            afterCommit(conn);
+            long rows = 0;
+            for (Chunk chunk : chunks) {
+                rows += chunk.rows.size();
+            }
+            rowsLoaded.addAndGet(rows);
+            notifyProgress(progress());
+            return conn;
+        }
+
+        // 同一事务中先前执行成功的块随失败的块一起回滚了，逐块在新事务中重新执行并立即提交，只有重新执行失败的块记为失败
+        private Connection replay(Connection conn, List<Chunk> chunks) {
+            for (Chunk chunk : chunks) {
+                try {
+                    if (conn == null) {
+                        conn = openConnection();
+                    }
+                    execute(conn, chunk);
+                } catch (SQLException | RuntimeException e) {
+                    conn = rollback(conn, e);
+                    fail(chunk, e);
+                    continue;
+                }
+                conn = commit(conn, List.of(chunk));
+            }
+            return conn;
+        }
+
+        // 回滚并丢弃提交后的回调，回滚失败时关闭连接并返回 null，下一块使用新的连接
+        private Connection rollback(Connection conn, Exception cause) {
+            if (conn == null) {
+                return null;
+            }
+            ConnectionHolder.removeAfterCommit(conn);
+            try {
+                conn.rollback();
+                return conn;
+            } catch (SQLException | RuntimeException e) {
+                cause.addSuppressed(e);
+                closeConnection(conn);
+                return null;
+            }
+        }
+
+        private void afterCommit(Connection conn) {
+            for (Runnable callback : ConnectionHolder.removeAfterCommit(conn)) {
+                try {
+                    callback.run();
+                } catch (RuntimeException e) {
+                    System.err.println("After-commit callback failed: " + e);
+                }
+            }
+        }
+
+        private void closeConnection(Connection conn) {
+            if (conn == null) {
+                return;
+            }
+            ConnectionHolder.removeAfterCommit(conn);
+            try {
+                try {
+                    conn.setAutoCommit(true);
+                } finally {
+                    conn.close();
+                }
+            } catch (SQLException e) {
+                System.err.println("Failed to close bulk load connection: " + e);
+            }
+        }
+
+        private void fail(Chunk chunk, Throwable cause) {
+            FailedChunk failed = new FailedChunk(chunk.firstRow, chunk.rows, cause);
+            failedChunks.add(failed);
+            rowsFailed.addAndGet(chunk.rows.size());
+            if (maxFailedChunks > 0 && failedChunks.size() >= maxFailedChunks) {
+                aborted = true;
+            }
+            BulkLoadListener l = listener;
+            if (l != null) {
+                synchronized (this) {
+                    try {
+                        l.onChunkFailed(failed);
+                    } catch (RuntimeException e) {
+                        System.err.println("Bulk load listener failed: " + e);
+                    }
+                }
+            }
+        }
+
+        void notifyProgress(BulkLoadProgress progress) {
+            BulkLoadListener l = listener;
+            if (l != null) {
+                synchronized (this) {
+                    try {
+                        l.onProgress(progress);
+                    } catch (RuntimeException e) {
+                        System.err.println("Bulk load listener failed: " + e);
+                    }
+                }
+            }
+        }
+
+        BulkLoadProgress progress() {
+            return new BulkLoadProgress(rowsRead.get(), rowsLoaded.get(), rowsFailed.get(), failedChunks.size(),
+                    System.nanoTime() - startNanos);
+        }
+
+        List<FailedChunk> failedChunks() {
+            synchronized (failedChunks) {
+                List<FailedChunk> list = new ArrayList<>(failedChunks);
+                list.sort((a, b) -> Long.compare(a.getFirstRow(), b.getFirstRow()));
+                return Collections.unmodifiableList(list);
+            }
+        }
+    }
+}
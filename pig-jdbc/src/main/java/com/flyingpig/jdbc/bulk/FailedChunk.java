@@ -0,0 +1,38 @@
+package com.flyingpig.jdbc.bulk;
+
+import java.util.List;
+
+// 导入失败的一块数据：在源数据中的起始行号（从 0 开始）、这一块的全部参数和失败原因，可以修正后重新导入
+public class FailedChunk {
+
+    private final long firstRow;
+    private final List<Object[]> rows;
+    private final Throwable cause;
+
+    public FailedChunk(long firstRow, List<Object[]> rows, Throwable cause) {
+        this.firstRow = firstRow;
+        this.rows = rows;
+        this.cause = cause;
+    }
+
+    public long getFirstRow() {
+        return firstRow;
+    }
+
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    public List<Object[]> getRows() {
+        return rows;
+    }
+
+    public Throwable getCause() {
+        return cause;
+    }
+
+    @Override
+    public String toString() {
+        return "FailedChunk{rows=" + firstRow + ".." + (firstRow + rows.size() - 1) + ", cause=" + cause + '}';
+    }
+}
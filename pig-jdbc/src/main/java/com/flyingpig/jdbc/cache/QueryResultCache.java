@@ -0,0 +1,342 @@
+package com.flyingpig.jdbc.cache;
+
+import com.flyingpig.jdbc.connection.ConnectionHolder;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// 查询结果缓存，按 (查询方法, RowMapper 或结果类型, SQL, 参数) 做键，超过容量时淘汰最久未使用的结果，超过 ttl 的结果视为过期
+// 失效按表进行：每个表有一个版本号，缓存的结果记下读取时涉及的表的版本，写语句执行后（事务中为提交后）递增目标表的版本，
+// 版本不一致的结果在下次读取时丢弃
+// 只能感知经过同一个缓存实例的写操作，其它进程或直接通过 JDBC 的写入只能靠 ttl 兜底
+// 缓存的对象会被多个调用方共享，不要修改；列表结果包装为只读列表
+// RowMapper 按 equals 比较，没有重写 equals 时就是对象本身：每次调用都 new 一个 lambda 或 RowMapper 的查询永远命中不了缓存，
+// 需要缓存的查询应复用同一个 RowMapper 实例（例如静态常量或 BeanPropertyRowMapper.of）
+public class QueryResultCache {
+
+    // 分段加锁的 LRU，减少并发读取时的锁竞争
+    private static final int SEGMENTS = 16;
+
+    // 解析过的查询 SQL 的上限，超过后不再记录新的 SQL（仍会每次解析）
+    private static final int MAX_STATEMENTS = 1024;
+
+    private static final Object NULL = new Object();
+    private static final TableVersion[] NOT_CACHEABLE = new TableVersion[0];
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Segment[] segments;
+
+    // 表名 -> 版本号
+    private final ConcurrentHashMap<String, TableVersion> tableVersions = new ConcurrentHashMap<>();
+
+    // 查询 SQL -> 读取的表，不能缓存的 SQL 记为 NOT_CACHEABLE
+    private final ConcurrentHashMap<String, TableVersion[]> statementTables = new ConcurrentHashMap<>();
+
+    // 无法判断目标表的写语句和 invalidateAll 递增全局版本，使所有结果失效
+    private final AtomicLong globalVersion = new AtomicLong();
+    private final Runnable invalidateAll = this::invalidateAll;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    // maxSize 为缓存的结果数上限，ttlMillis 为 0 时结果不过期
+    public QueryResultCache(int maxSize, long ttlMillis) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        int segmentSize = Math.max(1, (maxSize + SEGMENTS - 1) / SEGMENTS);
+        this.segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(segmentSize);
+        }
+    }
+
+    // 查找缓存的结果，没有或已失效时调用 loader 查询并缓存；method 为查询方法，type 为 RowMapper（按实例比较）或结果类型
+    // 事务中的查询可能读到本事务未提交的修改，既不读缓存也不写缓存；读取的表无法识别的 SQL 也不缓存
+    public <T> T get(String method, Object type, String sql, Object[] args, Loader<T> loader) throws SQLException {
+        if (ConnectionHolder.getConnection() != null) {
+            return loader.load(false);
+        }
+        TableVersion[] tables = tablesOf(sql);
+        if (tables == NOT_CACHEABLE) {
+            return loader.load(false);
+        }
+        Key key = new Key(method, type, sql, args);
+        Segment segment = segmentFor(key);
+        Entry entry = segment.get(key);
+        if (entry != null) {
+            if (isValid(entry)) {
+                hits.increment();
+                return unwrap(entry.value);
+            }
+            segment.remove(key, entry);
+        }
+        misses.increment();
+
+        // 版本号在查询之前读取：查询期间发生的写入会让这个结果在下次读取时失效
+        long global = globalVersion.get();
+        long[] versions = new long[tables.length];
+        for (int i = 0; i < tables.length; i++) {
+            versions[i] = tables[i].version;
+        }
+        T value = loader.load(true);
+        if (value instanceof List) {
+            value = (T) Collections.unmodifiableList((List<?>) value);
+        }
+        long expiresAt = ttlNanos > 0 ? System.nanoTime() + ttlNanos : Long.MAX_VALUE;
+        if (segment.put(key.copy(), new Entry(value == null ? NULL : value, tables, versions, global, expiresAt))) {
+            evictions.increment();
+        }
+        return value;
+    }
+
+    // 写语句执行后调用：不在事务中时立即使目标表的结果失效，事务中登记到提交之后
+    public void onWrite(String sql) {
+        Set<String> tables = SqlTables.writeTables(sql);
+        if (tables == null) {
+            if (!ConnectionHolder.registerAfterCommit(invalidateAll)) {
+                invalidateAll();
+            }
+            return;
+        }
+        for (String table : tables) {
+            TableVersion version = tableVersion(table);
+            if (!ConnectionHolder.registerAfterCommit(version)) {
+                version.run();
+            }
+        }
+    }
+
+    // 使某个表的缓存结果失效，用于缓存感知不到的写入
+    public void invalidate(String table) {
+        tableVersion(table.toLowerCase(Locale.ROOT)).run();
+    }
+
+    public void invalidateAll() {
+        globalVersion.incrementAndGet();
+        invalidations.increment();
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getTtlMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(ttlNanos);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    public double getHitRatio() {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "size=" + size() + ", hits=" + getHits() + ", misses=" + getMisses() + ", evictions=" + getEvictions()
+                + ", invalidations=" + getInvalidations() + String.format(", hitRatio=%.2f", getHitRatio());
+    }
+
+    private boolean isValid(Entry entry) {
+        if (entry.globalVersion != globalVersion.get() || System.nanoTime() - entry.expiresAt > 0) {
+            return false;
+        }
+        for (int i = 0; i < entry.tables.length; i++) {
+            if (entry.tables[i].version != entry.versions[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private TableVersion[] tablesOf(String sql) {
+        TableVersion[] tables = statementTables.get(sql);
+        if (tables == null) {
+            Set<String> names = SqlTables.readTables(sql);
+            if (names.isEmpty()) {
+                tables = NOT_CACHEABLE;
+            } else {
+                tables = new TableVersion[names.size()];
+                int i = 0;
+                for (String name : names) {
+                    tables[i++] = tableVersion(name);
+                }
+            }
+            if (statementTables.size() < MAX_STATEMENTS) {
+                statementTables.putIfAbsent(sql, tables);
+            }
+        }
+        return tables;
+    }
+
+    private TableVersion tableVersion(String table) {
+        return tableVersions.computeIfAbsent(table, name -> new TableVersion());
+    }
+
+    private Segment segmentFor(Key key) {
+        int h = key.hashCode();
+        return segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private static <T> T unwrap(Object value) {
+        return value == NULL ? null : (T) value;
+    }
+
+    // 缓存未命中时执行的查询；caching 为 true 时结果会写入缓存，读写分离时应从主库查询，
+    // 只读副本可能还没有同步使缓存失效的写入，读到的旧数据会在整个 TTL 内被缓存
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load(boolean caching) throws SQLException;
+    }
+
+    // 表的版本号，递增即使这个表相关的结果失效；同一个表始终是同一个对象，事务中多次写入只登记一次
+    private final class TableVersion implements Runnable {
+        volatile long version;
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                version++;
+            }
+            invalidations.increment();
+        }
+    }
+
+    private static final class Entry {
+        final Object value;
+        final TableVersion[] tables;
+        final long[] versions;
+        final long globalVersion;
+        final long expiresAt;
+
+        Entry(Object value, TableVersion[] tables, long[] versions, long globalVersion, long expiresAt) {
+            this.value = value;
+            this.tables = tables;
+            this.versions = versions;
+            this.globalVersion = globalVersion;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class Key {
+        final String method;
+        final Object type;
+        final String sql;
+        final Object[] args;
+        final int hash;
+
+        Key(String method, Object type, String sql, Object[] args) {
+            this.method = method;
+            this.type = type;
+            this.sql = sql;
+            this.args = args;
+            this.hash = 31 * (31 * (31 * method.hashCode() + Objects.hashCode(type)) + sql.hashCode())
+                    + Arrays.deepHashCode(args);
+        }
+
+        // 放入缓存时复制参数数组，调用方之后修改数组不影响缓存
+        Key copy() {
+            return new Key(method, type, sql, args.clone());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash && method.equals(other.method) && Objects.equals(type, other.type)
+                    && sql.equals(other.sql)
+                    && Arrays.deepEquals(args, other.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    // accessOrder = true 的 LinkedHashMap，迭代顺序即 LRU 顺序
+    private static final class Segment {
+        private final int maxSize;
+        private final LinkedHashMap<Key, Entry> entries;
+
+        Segment(int maxSize) {
+            this.maxSize = maxSize;
+            this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        }
+
+        synchronized Entry get(Key key) {
+            return entries.get(key);
+        }
+
+        // 放入结果，淘汰了最久未使用的结果时返回 true
+        synchronized boolean put(Key key, Entry entry) {
+            entries.put(key, entry);
+            if (entries.size() > maxSize) {
+                Map.Entry<Key, Entry> eldest = entries.entrySet().iterator().next();
+                entries.remove(eldest.getKey());
+                return true;
+            }
+            return false;
+        }
+
+        synchronized void remove(Key key, Entry entry) {
+            entries.remove(key, entry);
+        }
+
+        synchronized void clear() {
+            entries.clear();
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+}
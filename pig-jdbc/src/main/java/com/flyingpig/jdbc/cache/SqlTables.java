@@ -0,0 +1,233 @@
+package com.flyingpig.jdbc.cache;
+
+import com.flyingpig.jdbc.support.SqlLiterals;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+// 从 SQL 中粗略地提取涉及的表名，用于查询结果缓存的失效判断，不是完整的 SQL 解析
+// 表名统一取最后一段（去掉库名/模式名）、去掉引号并转为小写，多提取的表只会让缓存多失效，不影响正确性
+public final class SqlTables {
+
+    // INSERT / UPDATE / REPLACE 后面可能出现的修饰词
+    private static final Set<String> MODIFIERS = Set.of("LOW_PRIORITY", "DELAYED", "HIGH_PRIORITY", "IGNORE", "ONLY");
+
+    // 表名后面可能紧跟的关键字，不能当作别名
+    private static final Set<String> CLAUSES = Set.of("WHERE", "JOIN", "INNER", "LEFT", "RIGHT", "FULL", "CROSS",
+            "NATURAL", "STRAIGHT_JOIN", "ON", "USING", "SET", "GROUP", "ORDER", "HAVING", "LIMIT", "OFFSET", "FETCH",
+            "UNION", "EXCEPT", "INTERSECT", "WINDOW", "FOR", "VALUES", "SELECT", "RETURNING");
+
+    private SqlTables() {
+    }
+
+    // 查询读取的表：FROM 列表和 JOIN 后的表，包括子查询中的表；一个表都找不到时返回空集合
+    public static Set<String> readTables(String sql) {
+        Set<String> tables = new LinkedHashSet<>();
+        int i = 0;
+        while (i < sql.length()) {
+            int next = skipIgnorable(sql, i);
+            if (next != i) {
+                i = next;
+                continue;
+            }
+            if (isKeywordAt(sql, i, "FROM")) {
+                i = readTableList(sql, i + 4, tables);
+            } else if (isKeywordAt(sql, i, "JOIN")) {
+                i = readTable(sql, i + 4, tables);
+            } else {
+                i++;
+            }
+        }
+        return tables;
+    }
+
+    // 写语句修改的表：INSERT/REPLACE/MERGE INTO、UPDATE、DELETE FROM、TRUNCATE [TABLE] 的目标表，
+    // 以及语句中 FROM/JOIN 引用的表；其它语句（DDL、存储过程调用、WITH 开头的语句等）无法判断，返回 null
+    public static Set<String> writeTables(String sql) {
+        int i = skipSpaceAndComments(sql, 0);
+        Set<String> tables = new LinkedHashSet<>();
+        if (isKeywordAt(sql, i, "INSERT") || isKeywordAt(sql, i, "REPLACE")) {
+            i = skipModifiers(sql, i + (isKeywordAt(sql, i, "INSERT") ? 6 : 7));
+            i = skipKeyword(sql, i, "INTO");
+            readTable(sql, i, tables);
+        } else if (isKeywordAt(sql, i, "MERGE")) {
+            i = skipKeyword(sql, skipSpaceAndComments(sql, i + 5), "INTO");
+            readTable(sql, i, tables);
+        } else if (isKeywordAt(sql, i, "UPDATE")) {
+            readTableList(sql, skipModifiers(sql, i + 6), tables);
+        } else if (isKeywordAt(sql, i, "DELETE")) {
+            // DELETE FROM t 的目标表由下面的 FROM 扫描得到，MySQL 的 DELETE t1 FROM t1 JOIN t2 同理
+            if (!containsKeyword(sql, "FROM")) {
+                return null;
+            }
+        } else if (isKeywordAt(sql, i, "TRUNCATE")) {
+            i = skipKeyword(sql, skipSpaceAndComments(sql, i + 8), "TABLE");
+            readTable(sql, i, tables);
+        } else {
+            return null;
+        }
+        tables.addAll(readTables(sql));
+        return tables.isEmpty() ? null : tables;
+    }
+
+    // 逗号分隔的表列表，每个表后面可以跟别名
+    private static int readTableList(String sql, int start, Set<String> tables) {
+        int i = start;
+        while (true) {
+            int afterTable = readTable(sql, i, tables);
+            if (afterTable == i) {
+                return i;
+            }
+            i = skipAlias(sql, afterTable);
+            int comma = skipSpaceAndComments(sql, i);
+            if (comma >= sql.length() || sql.charAt(comma) != ',') {
+                return i;
+            }
+            i = comma + 1;
+        }
+    }
+
+    // 读取一个可能带库名的表名，不是表名（例如子查询的左括号）时不前进
+    private static int readTable(String sql, int start, Set<String> tables) {
+        int i = skipSpaceAndComments(sql, start);
+        String last = null;
+        while (i < sql.length()) {
+            int end = identifierEnd(sql, i);
+            if (end == i) {
+                break;
+            }
+            last = unquote(sql.substring(i, end));
+            if (end < sql.length() && sql.charAt(end) == '.') {
+                i = end + 1;
+            } else {
+                i = end;
+                break;
+            }
+        }
+        if (last == null || last.isEmpty()) {
+            return start;
+        }
+        tables.add(last.toLowerCase(Locale.ROOT));
+        return i;
+    }
+
+    // 跳过 [AS] 别名，表名后面紧跟的是 WHERE、JOIN 等子句关键字时不前进
+    private static int skipAlias(String sql, int start) {
+        int i = skipKeyword(sql, skipSpaceAndComments(sql, start), "AS");
+        int end = identifierEnd(sql, i);
+        if (end == i || CLAUSES.contains(sql.substring(i, end).toUpperCase(Locale.ROOT))) {
+            return start;
+        }
+        return end;
+    }
+
+    private static int skipModifiers(String sql, int start) {
+        int i = skipSpaceAndComments(sql, start);
+        while (true) {
+            int end = identifierEnd(sql, i);
+            if (end == i || !MODIFIERS.contains(sql.substring(i, end).toUpperCase(Locale.ROOT))) {
+                return i;
+            }
+            i = skipSpaceAndComments(sql, end);
+        }
+    }
+
+    private static int skipKeyword(String sql, int start, String keyword) {
+        int i = skipSpaceAndComments(sql, start);
+        return isKeywordAt(sql, i, keyword) ? skipSpaceAndComments(sql, i + keyword.length()) : i;
+    }
+
+    private static boolean containsKeyword(String sql, String keyword) {
+        int i = 0;
+        while (i < sql.length()) {
+            int next = skipIgnorable(sql, i);
+            if (next != i) {
+                i = next;
+            } else if (isKeywordAt(sql, i, keyword)) {
+                return true;
+            } else {
+                i++;
+            }
+        }
+        return false;
+    }
+
+    // 关键字前后都不能是标识符字符
+    private static boolean isKeywordAt(String sql, int i, String keyword) {
+        int end = i + keyword.length();
+        return end <= sql.length()
+                && sql.regionMatches(true, i, keyword, 0, keyword.length())
+                && (i == 0 || !isIdentifierPart(sql.charAt(i - 1)))
+                && (end == sql.length() || !isIdentifierPart(sql.charAt(end)));
+    }
+
+    // 普通标识符或 "..."、`...`、[...] 引起来的标识符，返回结束位置
+    private static int identifierEnd(String sql, int start) {
+        if (start >= sql.length()) {
+            return start;
+        }
+        char c = sql.charAt(start);
+        if (c == '"' || c == '`') {
+            return SqlLiterals.skipQuoted(sql, start);
+        }
+        if (c == '[') {
+            int close = sql.indexOf(']', start);
+            return close < 0 ? sql.length() : close + 1;
+        }
+        int i = start;
+        while (i < sql.length() && isIdentifierPart(sql.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static String unquote(String identifier) {
+        char first = identifier.charAt(0);
+        if (first == '"' || first == '`' || first == '[') {
+            return identifier.substring(1, Math.max(1, identifier.length() - 1));
+        }
+        return identifier;
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+    // 跳过字符串、引号标识符和注释，不在这些位置时原样返回
+    private static int skipIgnorable(String sql, int i) {
+        char c = sql.charAt(i);
+        if (c == '\'' || c == '"' || c == '`') {
+            return SqlLiterals.skipQuoted(sql, i);
+        }
+        if (c == '-' && i + 1 < sql.length() && sql.charAt(i + 1) == '-') {
+            int end = sql.indexOf('\n', i);
+            return end < 0 ? sql.length() : end + 1;
+        }
+        if (c == '/' && i + 1 < sql.length() && sql.charAt(i + 1) == '*') {
+            int end = sql.indexOf("*/", i + 2);
+            return end < 0 ? sql.length() : end + 2;
+        }
+        return i;
+    }
+
+    private static int skipSpaceAndComments(String sql, int start) {
+        int i = start;
+        while (i < sql.length()) {
+            if (Character.isWhitespace(sql.charAt(i))) {
+                i++;
+                continue;
+            }
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                return i;
+            }
+            int next = skipIgnorable(sql, i);
+            if (next == i) {
+                return i;
+            }
+            i = next;
+        }
+        return i;
+    }
+}
\ No newline at end of file
@@ -2,14 +2,37 @@ package com.flyingpig.jdbc.config;
 
 import com.flyingpig.jdbc.DataSource;
 import com.flyingpig.jdbc.JdbcTemplate;
-import com.flyingpig.jdbc.SimpleDataSource;
+import com.flyingpig.jdbc.PooledDataSource;
+import com.flyingpig.jdbc.async.AsyncJdbcTemplate;
+import com.flyingpig.jdbc.bulk.BulkLoader;
+import com.flyingpig.jdbc.cache.QueryResultCache;
+import com.flyingpig.jdbc.metrics.SlowQueryLog;
+import com.flyingpig.jdbc.metrics.SqlMetrics;
+import com.flyingpig.jdbc.namedparam.InListPolicy;
+import com.flyingpig.jdbc.namedparam.NamedParameterJdbcTemplate;
+import com.flyingpig.jdbc.routing.LoadBalanceStrategy;
+import com.flyingpig.jdbc.routing.ReplicaNode;
+import com.flyingpig.jdbc.routing.RoutingDataSource;
+import com.flyingpig.jdbc.shard.HashShardStrategy;
+import com.flyingpig.jdbc.shard.RangeShardStrategy;
+import com.flyingpig.jdbc.shard.ShardStrategy;
+import com.flyingpig.jdbc.shard.ShardedDataSource;
+import com.flyingpig.jdbc.shard.ShardedJdbcTemplate;
 import com.flyingpig.jdbc.transaction.DataSourceTransactionManager;
 import com.flyingpig.jdbc.transaction.TransactionAspect;
 import com.flyingpig.jdbc.transaction.TransactionManager;
+import com.flyingpig.jdbc.writebehind.WriteBehindBuffer;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
 @Configuration
 public class DataSourceAutoConfiguration {
 
@@ -22,29 +45,310 @@ public class DataSourceAutoConfiguration {
     @Value("${spring.datasource.password}")
     private String password;
 
+    // 连接池配置，时间单位均为毫秒
+    @Value("${spring.datasource.pool.min-idle:2}")
+    private int minIdle;
 
-    @Bean
+    @Value("${spring.datasource.pool.max-size:10}")
+    private int maxPoolSize;
+
+    @Value("${spring.datasource.pool.connection-timeout:30000}")
+    private long connectionTimeout;
+
+    @Value("${spring.datasource.pool.idle-timeout:600000}")
+    private long idleTimeout;
+
+    @Value("${spring.datasource.pool.max-lifetime:1800000}")
+    private long maxLifetime;
+
+    @Value("${spring.datasource.pool.validation-timeout:5000}")
+    private long validationTimeout;
+
+    @Value("${spring.datasource.pool.leak-detection-threshold:0}")
+    private long leakDetectionThreshold;
+
+    @Value("${spring.datasource.pool.statement-cache-size:64}")
+    private int statementCacheSize;
+
+    // 只读副本配置：url 和权重均以逗号分隔，权重缺省为 1，用户名密码缺省与主库相同
+    @Value("${spring.datasource.replicas.urls:}")
+    private String replicaUrls;
+
+    @Value("${spring.datasource.replicas.weights:}")
+    private String replicaWeights;
+
+    @Value("${spring.datasource.replicas.username:}")
+    private String replicaUsername;
+
+    @Value("${spring.datasource.replicas.password:}")
+    private String replicaPassword;
+
+    @Value("${spring.datasource.replicas.strategy:least-outstanding}")
+    private String replicaStrategy;
+
+    @Value("${spring.datasource.replicas.failure-threshold:3}")
+    private int replicaFailureThreshold;
+
+    @Value("${spring.datasource.replicas.ejection-time:30000}")
+    private long replicaEjectionTime;
+
+    // 分库配置：每个分片一个 url（逗号分隔），用户名密码缺省与主库相同；
+    // strategy 为 hash 或 range，range 时 ranges 为前 n - 1 个分片的键上界（逗号分隔）
+    @Value("${spring.datasource.shards.urls:}")
+    private String shardUrls;
+
+    @Value("${spring.datasource.shards.username:}")
+    private String shardUsername;
+
+    @Value("${spring.datasource.shards.password:}")
+    private String shardPassword;
+
+    @Value("${spring.datasource.shards.strategy:hash}")
+    private String shardStrategy;
+
+    @Value("${spring.datasource.shards.ranges:}")
+    private String shardRanges;
+
+    // JdbcTemplate 批量更新配置
+    @Value("${spring.jdbc.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${spring.jdbc.rewrite-batched-inserts:false}")
+    private boolean rewriteBatchedInserts;
+
+    @Value("${spring.jdbc.rewrite-batch-rows:100}")
+    private int rewriteBatchRows;
+
+    // 查询结果缓存，默认关闭；ttl 单位为毫秒，0 表示不过期
+    @Value("${spring.jdbc.result-cache.enabled:false}")
+    private boolean resultCacheEnabled;
+
+    @Value("${spring.jdbc.result-cache.max-size:1000}")
+    private int resultCacheMaxSize;
+
+    @Value("${spring.jdbc.result-cache.ttl:60000}")
+    private long resultCacheTtl;
+
+    // 按 SQL 指纹的执行统计，默认关闭；慢查询阈值单位为毫秒，0 表示不记录慢查询，文件为空时输出到标准输出
+    @Value("${spring.jdbc.metrics.enabled:false}")
+    private boolean metricsEnabled;
+
+    @Value("${spring.jdbc.metrics.slow-query-threshold:1000}")
+    private long slowQueryThreshold;
+
+    @Value("${spring.jdbc.metrics.slow-query-file:}")
+    private String slowQueryFile;
+
+    @Value("${spring.jdbc.metrics.slow-query-queue:1024}")
+    private int slowQueryQueue;
+
+    // 命名参数 IN 列表的补齐档位（逗号分隔，为空时按 2 的幂）和单个列表的最大长度，padding 为 false 时不补齐也不拆分
+    @Value("${spring.jdbc.in-list.padding:true}")
+    private boolean inListPadding;
+
+    @Value("${spring.jdbc.in-list.buckets:}")
+    private String inListBuckets;
+
+    @Value("${spring.jdbc.in-list.max-size:1000}")
+    private int inListMaxSize;
+
+    // 并行批量导入，默认关闭；线程数（同时使用的连接数）、每块的行数和每个连接的提交间隔（行）
+    @Value("${spring.jdbc.bulk-load.enabled:false}")
+    private boolean bulkLoadEnabled;
+
+    @Value("${spring.jdbc.bulk-load.parallelism:4}")
+    private int bulkLoadParallelism;
+
+    @Value("${spring.jdbc.bulk-load.chunk-size:1000}")
+    private int bulkLoadChunkSize;
+
+    @Value("${spring.jdbc.bulk-load.commit-interval:10000}")
+    private int bulkLoadCommitInterval;
+
+    // 写回缓冲，默认关闭：缓冲的行数达到 max-pending 或每隔 flush-interval 毫秒批量写入一次
+    @Value("${spring.jdbc.write-behind.enabled:false}")
+    private boolean writeBehindEnabled;
+
+    @Value("${spring.jdbc.write-behind.max-pending:1000}")
+    private int writeBehindMaxPending;
+
+    @Value("${spring.jdbc.write-behind.flush-interval:100}")
+    private long writeBehindFlushInterval;
+
+    @Value("${spring.jdbc.write-behind.max-retries:3}")
+    private int writeBehindMaxRetries;
+
+    // 事务连接是否延迟到第一次访问数据库时获取
+    @Value("${spring.jdbc.transaction.lazy-connection:true}")
+    private boolean lazyTransactionConnection;
+
+    // 异步 JdbcTemplate 的并发上限，0 表示使用连接池的最大连接数
+    @Value("${spring.jdbc.async.max-in-flight:0}")
+    private int asyncMaxInFlight;
+
+    // 连接池在容器启动时预先建立连接，容器关闭时关闭全部连接
+    // 配置了只读副本时返回读写分离数据源，主库和每个副本各自一个连接池
+    @Bean(initMethod = "init", destroyMethod = "close")
     public DataSource dataSource(DataSourceProperties properties) {
-        SimpleDataSource dataSource = new SimpleDataSource();
-        dataSource.setUrl(properties.getUrl());
-        dataSource.setUsername(properties.getUsername());
-        dataSource.setPassword(properties.getPassword());
+        PooledDataSource primary = pooledDataSource(properties.getUrl(), properties.getUsername(), properties.getPassword());
+        if (replicaUrls == null || replicaUrls.isBlank()) {
+            return primary;
+        }
+        String[] urls = replicaUrls.split(",");
+        String[] weights = replicaWeights == null || replicaWeights.isBlank() ? new String[0] : replicaWeights.split(",");
+        String username = replicaUsername.isEmpty() ? properties.getUsername() : replicaUsername;
+        String password = replicaPassword.isEmpty() ? properties.getPassword() : replicaPassword;
+        List<ReplicaNode> replicas = new ArrayList<>(urls.length);
+        for (int i = 0; i < urls.length; i++) {
+            String url = urls[i].trim();
+            int weight = i < weights.length ? Integer.parseInt(weights[i].trim()) : 1;
+            replicas.add(new ReplicaNode("replica-" + i + "(" + url + ")", pooledDataSource(url, username, password), weight));
+        }
+        RoutingDataSource dataSource = new RoutingDataSource(primary, replicas, LoadBalanceStrategy.parse(replicaStrategy));
+        dataSource.setFailureThreshold(replicaFailureThreshold);
+        dataSource.setEjectionTime(replicaEjectionTime);
+        return dataSource;
+    }
+
+    private PooledDataSource pooledDataSource(String url, String username, String password) {
+        PooledDataSource dataSource = new PooledDataSource();
+        dataSource.setUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setMinIdle(minIdle);
+        dataSource.setMaxPoolSize(maxPoolSize);
+        dataSource.setConnectionTimeout(connectionTimeout);
+        dataSource.setIdleTimeout(idleTimeout);
+        dataSource.setMaxLifetime(maxLifetime);
+        dataSource.setValidationTimeout(validationTimeout);
+        dataSource.setLeakDetectionThreshold(leakDetectionThreshold);
+        dataSource.setStatementCacheSize(statementCacheSize);
         return dataSource;
     }
 
+    // 配置了 spring.datasource.shards.urls 时创建，每个分片一个连接池；没有配置时返回 null（容器中为空 Bean，使用方通过 ObjectProvider 注入）
+    @Bean(initMethod = "init", destroyMethod = "close")
+    public ShardedDataSource shardedDataSource(DataSourceProperties properties) {
+        if (shardUrls == null || shardUrls.isBlank()) {
+            return null;
+        }
+        String username = shardUsername.isEmpty() ? properties.getUsername() : shardUsername;
+        String password = shardPassword.isEmpty() ? properties.getPassword() : shardPassword;
+        List<DataSource> shards = new ArrayList<>();
+        for (String url : shardUrls.split(",")) {
+            shards.add(pooledDataSource(url.trim(), username, password));
+        }
+        ShardStrategy strategy;
+        switch (shardStrategy.trim().toLowerCase(Locale.ROOT)) {
+            case "hash":
+                strategy = new HashShardStrategy();
+                break;
+            case "range":
+                strategy = RangeShardStrategy.parse(shardRanges);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown shard strategy: " + shardStrategy);
+        }
+        return new ShardedDataSource(shards, strategy);
+    }
+
     @Bean
     public DataSourceProperties dataSourceProperties() {
         return new DataSourceProperties(url, username, password);
     }
 
+    // 容器关闭时写完慢查询日志队列中的记录
+    @Bean(destroyMethod = "close")
+    public SqlMetrics sqlMetrics() throws IOException {
+        SqlMetrics sqlMetrics = new SqlMetrics();
+        if (metricsEnabled && slowQueryThreshold > 0) {
+            sqlMetrics.setSlowQueryLog(new SlowQueryLog(slowQueryThreshold, slowQueryQueue,
+                    slowQueryFile.isBlank() ? null : Paths.get(slowQueryFile)));
+        }
+        return sqlMetrics;
+    }
+
     @Bean
-    public JdbcTemplate jdbcTemplate(DataSource dataSource) {
-        return new JdbcTemplate(dataSource);
+    public JdbcTemplate jdbcTemplate(DataSource dataSource, SqlMetrics sqlMetrics) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        configure(jdbcTemplate, sqlMetrics);
+        return jdbcTemplate;
+    }
+
+    private void configure(JdbcTemplate jdbcTemplate, SqlMetrics sqlMetrics) {
+        jdbcTemplate.setBatchSize(batchSize);
+        jdbcTemplate.setRewriteBatchedInserts(rewriteBatchedInserts);
+        jdbcTemplate.setRewriteBatchRows(rewriteBatchRows);
+        if (resultCacheEnabled) {
+            jdbcTemplate.setResultCache(new QueryResultCache(resultCacheMaxSize, resultCacheTtl));
+        }
+        if (metricsEnabled) {
+            jdbcTemplate.setSqlMetrics(sqlMetrics);
+        }
+    }
+
+    // 每个分片的 JdbcTemplate 与主 JdbcTemplate 的设置相同，结果缓存按分片各自一个
+    @Bean
+    public ShardedJdbcTemplate shardedJdbcTemplate(ObjectProvider<ShardedDataSource> shardedDataSource, SqlMetrics sqlMetrics) {
+        ShardedDataSource dataSource = shardedDataSource.getIfAvailable();
+        if (dataSource == null) {
+            return null;
+        }
+        ShardedJdbcTemplate shardedJdbcTemplate = new ShardedJdbcTemplate(dataSource);
+        for (JdbcTemplate jdbcTemplate : shardedJdbcTemplate.getShardTemplates()) {
+            configure(jdbcTemplate, sqlMetrics);
+        }
+        return shardedJdbcTemplate;
+    }
+
+    @Bean
+    public NamedParameterJdbcTemplate namedParameterJdbcTemplate(JdbcTemplate jdbcTemplate) {
+        NamedParameterJdbcTemplate namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        namedParameterJdbcTemplate.setInListPolicy(inListPadding
+                ? InListPolicy.parse(inListBuckets, inListMaxSize)
+                : InListPolicy.NONE);
+        return namedParameterJdbcTemplate;
+    }
+
+    @Bean
+    public AsyncJdbcTemplate asyncJdbcTemplate(JdbcTemplate jdbcTemplate) {
+        return asyncMaxInFlight > 0
+                ? new AsyncJdbcTemplate(jdbcTemplate, asyncMaxInFlight)
+                : new AsyncJdbcTemplate(jdbcTemplate);
+    }
+
+    // 开启 spring.jdbc.bulk-load.enabled 时创建，没有开启时返回 null（容器中为空 Bean，使用方通过 ObjectProvider 注入）
+    @Bean
+    public BulkLoader bulkLoader(JdbcTemplate jdbcTemplate) {
+        if (!bulkLoadEnabled) {
+            return null;
+        }
+        BulkLoader bulkLoader = new BulkLoader(jdbcTemplate);
+        bulkLoader.setParallelism(bulkLoadParallelism);
+        bulkLoader.setChunkSize(bulkLoadChunkSize);
+        bulkLoader.setCommitInterval(bulkLoadCommitInterval);
+        return bulkLoader;
+    }
+
+    // 开启 spring.jdbc.write-behind.enabled 时创建并启动刷新线程，容器关闭时写入缓冲中剩余的更新；
+    // 没有开启时返回 null（容器中为空 Bean，使用方通过 ObjectProvider 注入）
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public WriteBehindBuffer writeBehindBuffer(JdbcTemplate jdbcTemplate) {
+        if (!writeBehindEnabled) {
+            return null;
+        }
+        WriteBehindBuffer writeBehindBuffer = new WriteBehindBuffer(jdbcTemplate);
+        writeBehindBuffer.setMaxPending(writeBehindMaxPending);
+        writeBehindBuffer.setFlushInterval(writeBehindFlushInterval);
+        writeBehindBuffer.setMaxRetries(writeBehindMaxRetries);
+        return writeBehindBuffer;
     }
 
     @Bean
     public TransactionManager transactionManager(DataSource dataSource) {
-        return new DataSourceTransactionManager(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        transactionManager.setLazyConnection(lazyTransactionConnection);
+        return transactionManager;
     }
 
     @Bean
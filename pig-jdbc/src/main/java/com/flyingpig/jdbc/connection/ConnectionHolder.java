@@ -1,10 +1,22 @@
 package com.flyingpig.jdbc.connection;
 
 import java.sql.Connection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ConnectionHolder {
     private static final ThreadLocal<Connection> connectionHolder = new ThreadLocal<>();
 
+    // 事务连接 -> 事务提交后执行的回调，按连接而不是线程登记，异步线程上绑定的事务连接同样适用
+    // 同一个回调对象只登记一次
+    private static final Map<Connection, Set<Runnable>> afterCommitCallbacks = new ConcurrentHashMap<>();
+
+    // 加入事务的调用回滚后标记整个事务只能回滚，同样按连接登记
+    private static final Set<Connection> rollbackOnly = ConcurrentHashMap.newKeySet();
+
     public static void setConnection(Connection connection) {
         connectionHolder.set(connection);
     }
@@ -16,4 +28,35 @@ public class ConnectionHolder {
     public static void removeConnection() {
         connectionHolder.remove();
     }
-}
\ No newline at end of file
+
+    // 为当前事务登记提交后的回调，不在事务中时返回 false
+    public static boolean registerAfterCommit(Runnable callback) {
+        Connection conn = connectionHolder.get();
+        if (conn == null) {
+            return false;
+        }
+        Set<Runnable> callbacks = afterCommitCallbacks.computeIfAbsent(conn,
+                key -> Collections.synchronizedSet(new LinkedHashSet<>()));
+        callbacks.add(callback);
+        return true;
+    }
+
+    // 事务结束时取出并移除连接上登记的回调，提交时由事务管理器依次执行，回滚时直接丢弃
+    public static Set<Runnable> removeAfterCommit(Connection connection) {
+        Set<Runnable> callbacks = afterCommitCallbacks.remove(connection);
+        return callbacks != null ? callbacks : Collections.emptySet();
+    }
+
+    public static void setRollbackOnly(Connection connection) {
+        rollbackOnly.add(connection);
+    }
+
+    public static boolean isRollbackOnly(Connection connection) {
+        return rollbackOnly.contains(connection);
+    }
+
+    // 事务结束时清除连接上登记的状态
+    public static void clearRollbackOnly(Connection connection) {
+        rollbackOnly.remove(connection);
+    }
+}
@@ -0,0 +1,146 @@
+package com.flyingpig.jdbc.connection;
+
+import com.flyingpig.jdbc.DataSource;
+
+import java.sql.Connection;
+import java.sql.SQLClientInfoException;
+import java.sql.SQLException;
+import java.util.Properties;
+
+// 事务连接的延迟获取：第一次真正访问数据库时才从数据源借出物理连接，并应用事务开始时记下的只读和自动提交设置
+// 事务方法在第一条 SQL 之前的计算、远程调用等不占用连接池；一直没有访问数据库时，提交、回滚和关闭都不会借出连接
+// 事务连接可能被异步线程共享，借出物理连接时加锁
+public class LazyConnection extends DelegatingConnection {
+
+    private final DataSource dataSource;
+
+    private boolean readOnly;
+    private boolean autoCommit;
+
+    private Connection target;
+    private boolean closed;
+
+    public LazyConnection(DataSource dataSource, boolean readOnly, boolean autoCommit) {
+        super(null);
+        this.dataSource = dataSource;
+        this.readOnly = readOnly;
+        this.autoCommit = autoCommit;
+    }
+
+    @Override
+    protected synchronized Connection delegate() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection is closed");
+        }
+        if (target == null) {
+            Connection conn = dataSource.getConnection(readOnly);
+            try {
+                if (readOnly) {
+                    conn.setReadOnly(true);
+                }
+                if (!autoCommit) {
+                    conn.setAutoCommit(false);
+                }
+            } catch (SQLException | RuntimeException e) {
+                conn.close();
+                throw e;
+            }
+            target = conn;
+        }
+        return target;
+    }
+
+    // 是否已经借出了物理连接
+    public synchronized boolean isAcquired() {
+        return target != null;
+    }
+
+    @Override
+    public synchronized Connection getDelegate() {
+        return target;
+    }
+
+    @Override
+    public synchronized void setAutoCommit(boolean autoCommit) throws SQLException {
+        if (target != null) {
+            target.setAutoCommit(autoCommit);
+        }
+        this.autoCommit = autoCommit;
+    }
+
+    @Override
+    public synchronized boolean getAutoCommit() throws SQLException {
+        return target != null ? target.getAutoCommit() : autoCommit;
+    }
+
+    @Override
+    public synchronized void setReadOnly(boolean readOnly) throws SQLException {
+        if (target != null) {
+            target.setReadOnly(readOnly);
+        }
+        this.readOnly = readOnly;
+    }
+
+    @Override
+    public synchronized boolean isReadOnly() throws SQLException {
+        return target != null ? target.isReadOnly() : readOnly;
+    }
+
+    // 没有借出物理连接时没有需要提交或回滚的内容
+    @Override
+    public synchronized void commit() throws SQLException {
+        if (target != null) {
+            target.commit();
+        }
+    }
+
+    @Override
+    public synchronized void rollback() throws SQLException {
+        if (target != null) {
+            target.rollback();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (target != null) {
+            target.close();
+        }
+    }
+
+    @Override
+    public synchronized boolean isClosed() throws SQLException {
+        return closed || (target != null && target.isClosed());
+    }
+
+    @Override
+    public void setClientInfo(Properties properties) throws SQLClientInfoException {
+        try {
+            delegate().setClientInfo(properties);
+        } catch (SQLClientInfoException e) {
+            throw e;
+        } catch (SQLException e) {
+            throw new SQLClientInfoException(e.getMessage(), null, e);
+        }
+    }
+
+    @Override
+    public void setClientInfo(String name, String value) throws SQLClientInfoException {
+        try {
+            delegate().setClientInfo(name, value);
+        } catch (SQLClientInfoException e) {
+            throw e;
+        } catch (SQLException e) {
+            throw new SQLClientInfoException(e.getMessage(), null, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LazyConnection{" + (target != null ? target : "not acquired") + '}';
+    }
+}
@@ -0,0 +1,11 @@
+package com.flyingpig.jdbc.mapping;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// 按列下标读取一个值，SQL NULL 返回 null
+// 读取方式（getLong、getString 等）在生成映射计划时按目标类型选定，映射每一行时不再判断类型
+@FunctionalInterface
+public interface ColumnReader {
+    Object read(ResultSet rs, int index) throws SQLException;
+}
@@ -0,0 +1,154 @@
+package com.flyingpig.jdbc.mapping;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.Date;
+
+// 按目标类型选择 ColumnReader，优先使用类型化的 getter，避免 getObject 的装箱和驱动内部的类型推断
+public final class ColumnReaders {
+
+    private ColumnReaders() {
+    }
+
+    public static ColumnReader forType(Class<?> type) {
+        if (type == String.class) {
+            return (rs, index) -> rs.getString(index);
+        }
+        if (type == long.class || type == Long.class) {
+            return (rs, index) -> {
+                long value = rs.getLong(index);
+                return value == 0 && rs.wasNull() ? null : value;
+            };
+        }
+        if (type == int.class || type == Integer.class) {
+            return (rs, index) -> {
+                int value = rs.getInt(index);
+                return value == 0 && rs.wasNull() ? null : value;
+            };
+        }
+        if (type == double.class || type == Double.class) {
+            return (rs, index) -> {
+                double value = rs.getDouble(index);
+                return value == 0 && rs.wasNull() ? null : value;
+            };
+        }
+        if (type == float.class || type == Float.class) {
+            return (rs, index) -> {
+                float value = rs.getFloat(index);
+                return value == 0 && rs.wasNull() ? null : value;
+            };
+        }
+        if (type == short.class || type == Short.class) {
+            return (rs, index) -> {
+                short value = rs.getShort(index);
+                return value == 0 && rs.wasNull() ? null : value;
+            };
+        }
+        if (type == byte.class || type == Byte.class) {
+            return (rs, index) -> {
+                byte value = rs.getByte(index);
+                return value == 0 && rs.wasNull() ? null : value;
+            };
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return (rs, index) -> {
+                boolean value = rs.getBoolean(index);
+                return !value && rs.wasNull() ? null : value;
+            };
+        }
+        if (type == char.class || type == Character.class) {
+            return (rs, index) -> {
+                String value = rs.getString(index);
+                return value == null || value.isEmpty() ? null : value.charAt(0);
+            };
+        }
+        if (type == BigDecimal.class) {
+            return (rs, index) -> rs.getBigDecimal(index);
+        }
+        if (type == byte[].class) {
+            return (rs, index) -> rs.getBytes(index);
+        }
+        if (type == Timestamp.class || type == Date.class) {
+            return (rs, index) -> rs.getTimestamp(index);
+        }
+        if (type == java.sql.Date.class) {
+            return (rs, index) -> rs.getDate(index);
+        }
+        if (type == java.sql.Time.class) {
+            return (rs, index) -> rs.getTime(index);
+        }
+        if (type == LocalDateTime.class || type == LocalDate.class || type == LocalTime.class
+                || type == OffsetDateTime.class) {
+            return (rs, index) -> rs.getObject(index, type);
+        }
+        if (type == Instant.class) {
+            return (rs, index) -> {
+                Timestamp value = rs.getTimestamp(index);
+                return value == null ? null : value.toInstant();
+            };
+        }
+        if (type.isEnum()) {
+            return enumReader(type);
+        }
+        if (type == Object.class) {
+            return (rs, index) -> rs.getObject(index);
+        }
+        // 其它类型交给驱动转换
+        return (rs, index) -> rs.getObject(index, type);
+    }
+
+    // 基本类型在列为 NULL 时的默认值，引用类型返回 null
+    public static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return null;
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == double.class) {
+            return 0d;
+        }
+        if (type == float.class) {
+            return 0f;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        return 0;
+    }
+
+    // 列名与属性名的匹配规则：忽略大小写和下划线，user_name、USERNAME 都能匹配 userName
+    public static String normalize(String name) {
+        StringBuilder sb = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c != '_') {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ColumnReader enumReader(Class<?> type) {
+        Class<? extends Enum> enumType = (Class<? extends Enum>) type;
+        return (rs, index) -> {
+            String value = rs.getString(index);
+            return value == null ? null : Enum.valueOf(enumType, value);
+        };
+    }
+}
@@ -0,0 +1,128 @@
+package com.flyingpig.jdbc.mapping;
+
+import java.lang.ref.WeakReference;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 映射计划缓存：计划按结果集的实现类和列签名（列名和类型）生成一次，同一条 SQL 每次执行都命中同一个计划
+// 同一个结果集只在第一次映射时核对元数据，之后的行直接复用计划
+public class MappingPlanCache<P> {
+
+    // 列签名不同的计划数上限，超过后不再缓存，避免动态拼接的 SQL 撑大缓存
+    private static final int MAX_PLANS = 256;
+
+    @FunctionalInterface
+    public interface PlanFactory<P> {
+        P create(Class<? extends ResultSet> resultSetType, ResultSetMetaData metaData) throws SQLException;
+    }
+
+    private final PlanFactory<P> factory;
+    private final ConcurrentHashMap<Signature, P> plans = new ConcurrentHashMap<>();
+
+    // 最近一次使用的结果集、签名和计划；结果集是弱引用，不阻止它被回收
+    private volatile Bound<P> current;
+
+    public MappingPlanCache(PlanFactory<P> factory) {
+        this.factory = factory;
+    }
+
+    public P get(ResultSet rs) throws SQLException {
+        Bound<P> bound = current;
+        if (bound != null && bound.resultSet.get() == rs) {
+            return bound.plan;
+        }
+        ResultSetMetaData metaData = rs.getMetaData();
+        // 大多数情况下和上一个结果集的列相同，逐列比较即可，不需要分配签名
+        if (bound != null && bound.signature.matches(rs.getClass(), metaData)) {
+            current = new Bound<>(rs, bound.signature, bound.plan);
+            return bound.plan;
+        }
+        Signature signature = Signature.of(rs.getClass(), metaData);
+        P plan = plans.get(signature);
+        if (plan == null) {
+            plan = factory.create(rs.getClass(), metaData);
+            if (plans.size() < MAX_PLANS) {
+                P existing = plans.putIfAbsent(signature, plan);
+                if (existing != null) {
+                    plan = existing;
+                }
+            }
+        }
+        current = new Bound<>(rs, signature, plan);
+        return plan;
+    }
+
+    public int size() {
+        return plans.size();
+    }
+
+    private static final class Signature {
+        final Class<? extends ResultSet> resultSetType;
+        final String[] labels;
+        final int[] types;
+        final int hash;
+
+        private Signature(Class<? extends ResultSet> resultSetType, String[] labels, int[] types) {
+            this.resultSetType = resultSetType;
+            this.labels = labels;
+            this.types = types;
+            this.hash = 31 * (31 * resultSetType.hashCode() + Arrays.hashCode(labels)) + Arrays.hashCode(types);
+        }
+
+        static Signature of(Class<? extends ResultSet> resultSetType, ResultSetMetaData metaData) throws SQLException {
+            int count = metaData.getColumnCount();
+            String[] labels = new String[count];
+            int[] types = new int[count];
+            for (int i = 0; i < count; i++) {
+                labels[i] = metaData.getColumnLabel(i + 1);
+                types[i] = metaData.getColumnType(i + 1);
+            }
+            return new Signature(resultSetType, labels, types);
+        }
+
+        boolean matches(Class<? extends ResultSet> resultSetType, ResultSetMetaData metaData) throws SQLException {
+            if (this.resultSetType != resultSetType || metaData.getColumnCount() != labels.length) {
+                return false;
+            }
+            for (int i = 0; i < labels.length; i++) {
+                if (types[i] != metaData.getColumnType(i + 1) || !labels[i].equals(metaData.getColumnLabel(i + 1))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Signature)) {
+                return false;
+            }
+            Signature other = (Signature) o;
+            return hash == other.hash && resultSetType == other.resultSetType
+                    && Arrays.equals(labels, other.labels) && Arrays.equals(types, other.types);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Bound<P> {
+        final WeakReference<ResultSet> resultSet;
+        final Signature signature;
+        final P plan;
+
+        Bound(ResultSet resultSet, Signature signature, P plan) {
+            this.resultSet = new WeakReference<>(resultSet);
+            this.signature = signature;
+            this.plan = plan;
+        }
+    }
+}
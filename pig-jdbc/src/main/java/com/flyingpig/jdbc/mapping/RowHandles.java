@@ -0,0 +1,122 @@
+package com.flyingpig.jdbc.mapping;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.sql.ResultSet;
+
+// 把一个映射计划组合成单个 (ResultSet)Object 形式的 MethodHandle：
+// 读取列（getLong、getString 等）、调用 setter 或构造器全部是这棵 MethodHandle 树中的常量节点，
+// 同一个计划被反复调用后 JVM 会为它生成专门的代码并内联，效果接近手写的 RowMapper。
+// getter 尽量在结果集的实现类上查找，直接调用实现类的方法，而不是每次都经过接口分派
+public final class RowHandles {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodHandle READ;
+    private static final MethodHandle TO_CHAR;
+
+    static {
+        try {
+            READ = LOOKUP.findVirtual(ColumnReader.class, "read",
+                    MethodType.methodType(Object.class, ResultSet.class, int.class));
+            TO_CHAR = LOOKUP.findStatic(RowHandles.class, "toChar", MethodType.methodType(char.class, Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private RowHandles() {
+    }
+
+    // (ResultSet)type 形式的列读取：基本类型直接用对应的 getter（NULL 读为 0 / false），引用类型 NULL 读为 null
+    public static MethodHandle columnReader(Class<? extends ResultSet> resultSetType, Class<?> type, int index) {
+        MethodHandle getter;
+        if (type == long.class) {
+            getter = getter(resultSetType, "getLong", long.class);
+        } else if (type == int.class) {
+            getter = getter(resultSetType, "getInt", int.class);
+        } else if (type == double.class) {
+            getter = getter(resultSetType, "getDouble", double.class);
+        } else if (type == boolean.class) {
+            getter = getter(resultSetType, "getBoolean", boolean.class);
+        } else if (type == float.class) {
+            getter = getter(resultSetType, "getFloat", float.class);
+        } else if (type == short.class) {
+            getter = getter(resultSetType, "getShort", short.class);
+        } else if (type == byte.class) {
+            getter = getter(resultSetType, "getByte", byte.class);
+        } else if (type == String.class) {
+            getter = getter(resultSetType, "getString", String.class);
+        } else {
+            getter = READ.bindTo(ColumnReaders.forType(type));
+            if (type == char.class) {
+                getter = MethodHandles.filterReturnValue(getter, TO_CHAR);
+            } else {
+                getter = getter.asType(MethodType.methodType(type, ResultSet.class, int.class));
+            }
+        }
+        return MethodHandles.insertArguments(getter, 1, index);
+    }
+
+    // Bean 映射：先调用无参构造器，再按列的顺序依次调用 setter
+    // constructor 为 ()Object 形式，setters[i] 为 unreflect 得到的原始 setter，写入 columns[i] 列的值
+    public static MethodHandle beanMapper(Class<? extends ResultSet> resultSetType, MethodHandle constructor,
+                                          int[] columns, MethodHandle[] setters) {
+        // (Object target, ResultSet rs)Object，最后返回 target
+        MethodHandle body = MethodHandles.dropArguments(MethodHandles.identity(Object.class), 1, ResultSet.class);
+        for (int i = columns.length - 1; i >= 0; i--) {
+            Class<?> type = setters[i].type().parameterType(1);
+            MethodHandle setter = setters[i].asType(MethodType.methodType(void.class, Object.class, type));
+            // (Object target, ResultSet rs)void
+            MethodHandle binding = MethodHandles.filterArguments(setter, 1, columnReader(resultSetType, type, columns[i]));
+            body = MethodHandles.foldArguments(body, binding);
+        }
+        return MethodHandles.foldArguments(body, MethodHandles.dropArguments(constructor, 0, ResultSet.class));
+    }
+
+    // record 映射：每个组件的值从 columns[i] 列读取，columns[i] 为 0 表示没有对应的列，传入默认值
+    // constructor 为 findConstructor 得到的规范构造器
+    public static MethodHandle recordMapper(Class<? extends ResultSet> resultSetType, MethodHandle constructor, int[] columns) {
+        MethodType type = constructor.type();
+        MethodHandle mapper = constructor.asType(type.changeReturnType(Object.class));
+        // 从后往前处理，插入默认值不会影响前面参数的位置
+        for (int i = columns.length - 1; i >= 0; i--) {
+            Class<?> componentType = type.parameterType(i);
+            if (columns[i] == 0) {
+                mapper = MethodHandles.insertArguments(mapper, i, ColumnReaders.defaultValue(componentType));
+            } else {
+                mapper = MethodHandles.filterArguments(mapper, i, columnReader(resultSetType, componentType, columns[i]));
+            }
+        }
+        // 所有参数都是同一个 ResultSet
+        int mapped = mapper.type().parameterCount();
+        return MethodHandles.permuteArguments(mapper, MethodType.methodType(Object.class, ResultSet.class), new int[mapped]);
+    }
+
+    // 实现类不可访问（非 public 或所在模块未导出）时退回到接口方法
+    private static MethodHandle getter(Class<? extends ResultSet> resultSetType, String name, Class<?> returnType) {
+        MethodType type = MethodType.methodType(returnType, int.class);
+        if (resultSetType != ResultSet.class) {
+            try {
+                return LOOKUP.findVirtual(resultSetType, name, type)
+                        .asType(MethodType.methodType(returnType, ResultSet.class, int.class));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                // 使用接口方法
+            }
+        }
+        try {
+            return LOOKUP.findVirtual(ResultSet.class, name, type);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static char toChar(Object value) {
+        if (value == null) {
+            return '\0';
+        }
+        String text = value.toString();
+        return text.isEmpty() ? '\0' : text.charAt(0);
+    }
+}
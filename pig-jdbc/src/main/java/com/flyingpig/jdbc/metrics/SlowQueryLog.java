@@ -0,0 +1,194 @@
+package com.flyingpig.jdbc.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 慢查询日志：耗时超过阈值的语句连同绑定参数写成一行
+// 执行语句的线程只把记录放进有界队列（队列满时直接丢弃，不阻塞），由后台守护线程格式化后写入文件，没有指定文件时写到标准输出
+public class SlowQueryLog implements AutoCloseable {
+
+    // 单个参数最多输出的字符数，以及最多输出的参数个数
+    private static final int MAX_VALUE_LENGTH = 200;
+    private static final int MAX_ARGS = 50;
+
+    private final long thresholdNanos;
+    private final BlockingQueue<Entry> queue;
+    private final Thread writerThread;
+    private final Writer writer;
+
+    private final AtomicLong logged = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    // file 为 null 时写到标准输出，否则追加到文件
+    public SlowQueryLog(long thresholdMillis, int queueCapacity, Path file) throws IOException {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writer = file != null
+                ? Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)
+                : null;
+        this.writerThread = new Thread(this::writeLoop, "pig-jdbc-slow-query-log");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    public long getThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+    }
+
+    boolean isSlow(long elapsedNanos) {
+        return elapsedNanos >= thresholdNanos;
+    }
+
+    // 提交一条记录，参数数组浅复制，队列已满或已关闭时丢弃并返回 false
+    public boolean log(String sql, Object[] args, long elapsedNanos, long rows, int batchRows, Throwable failure) {
+        Entry entry = new Entry(System.currentTimeMillis(), sql, args != null ? args.clone() : null,
+                elapsedNanos, rows, batchRows, failure);
+        if (running && queue.offer(entry)) {
+            return true;
+        }
+        dropped.incrementAndGet();
+        return false;
+    }
+
+    public long getLoggedCount() {
+        return logged.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void writeLoop() {
+        try {
+            while (running || !queue.isEmpty()) {
+                Entry entry = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (entry == null) {
+                    continue;
+                }
+                String line = format(entry);
+                if (writer != null) {
+                    writer.write(line);
+                    writer.write(System.lineSeparator());
+                    if (queue.isEmpty()) {
+                        writer.flush();
+                    }
+                } else {
+                    System.out.println(line);
+                }
+                logged.incrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            running = false;
+            System.err.println("Slow query log stopped: " + e);
+        }
+    }
+
+    private static String format(Entry entry) {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append(Instant.ofEpochMilli(entry.timestamp))
+                .append(" slow query ").append(String.format("%.3f", entry.elapsedNanos / 1_000_000.0)).append(" ms");
+        if (entry.batchRows > 0) {
+            sb.append(", batch=").append(entry.batchRows);
+        }
+        sb.append(", rows=").append(entry.rows);
+        if (entry.failure != null) {
+            sb.append(", failed=").append(oneLine(entry.failure.toString()));
+        }
+        sb.append(" : ").append(oneLine(entry.sql));
+        if (entry.args != null) {
+            sb.append(" ; args=[");
+            int count = Math.min(entry.args.length, MAX_ARGS);
+            for (int i = 0; i < count; i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                appendValue(sb, entry.args[i]);
+            }
+            if (entry.args.length > count) {
+                sb.append(", ... ").append(entry.args.length - count).append(" more");
+            }
+            sb.append(']');
+        }
+        return sb.toString();
+    }
+
+    private static void appendValue(StringBuilder sb, Object value) {
+        if (value == null) {
+            sb.append("NULL");
+        } else if (value instanceof byte[]) {
+            sb.append('<').append(((byte[]) value).length).append(" bytes>");
+        } else if (value instanceof Number || value instanceof Boolean) {
+            sb.append(value);
+        } else {
+            String text = oneLine(String.valueOf(value));
+            if (text.length() > MAX_VALUE_LENGTH) {
+                text = text.substring(0, MAX_VALUE_LENGTH) + "...(" + text.length() + " chars)";
+            }
+            sb.append('\'').append(text.replace("'", "''")).append('\'');
+        }
+    }
+
+    private static String oneLine(String text) {
+        return text.replaceAll("\\s+", " ").trim();
+    }
+
+    // 停止接收新记录，等待写线程写完队列中的记录后关闭文件
+    @Override
+    public void close() {
+        if (!running && !writerThread.isAlive()) {
+            return;
+        }
+        running = false;
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close slow query log: " + e);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "slowQueryThresholdMs=" + getThresholdMillis() + ", slowQueries=" + getLoggedCount()
+                + ", slowQueriesDropped=" + getDroppedCount();
+    }
+
+    private static final class Entry {
+        final long timestamp;
+        final String sql;
+        final Object[] args;
+        final long elapsedNanos;
+        final long rows;
+        final int batchRows;
+        final Throwable failure;
+
+        Entry(long timestamp, String sql, Object[] args, long elapsedNanos, long rows, int batchRows, Throwable failure) {
+            this.timestamp = timestamp;
+            this.sql = sql;
+            this.args = args;
+            this.elapsedNanos = elapsedNanos;
+            this.rows = rows;
+            this.batchRows = batchRows;
+            this.failure = failure;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.flyingpig.jdbc.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+// SQL 指纹：把只是参数或字面量不同的语句归为一类
+// 去掉注释、合并空白、关键字和标识符转为小写，字符串和数字字面量替换为 ?，IN (?, ?, ...) 和多行 VALUES 合并为 (?+)，
+// 因此不同长度的 IN 列表和改写后的多行 INSERT 与原语句是同一个指纹
+public final class SqlFingerprint {
+
+    // 缓存的指纹数上限，超过后不再缓存新的 SQL（仍会每次计算）
+    private static final int MAX_CACHED = 1024;
+
+    private static final ConcurrentHashMap<String, String> CACHE = new ConcurrentHashMap<>();
+
+    // 连续出现时合并为一个记号的运算符字符，例如 <=、<>、||、::
+    private static final String OPERATORS = "<>=!|&+-*/%^~:";
+
+    private SqlFingerprint() {
+    }
+
+    public static String of(String sql) {
+        String fingerprint = CACHE.get(sql);
+        if (fingerprint == null) {
+            fingerprint = collapseLists(normalize(sql));
+            if (CACHE.size() < MAX_CACHED) {
+                CACHE.putIfAbsent(sql, fingerprint);
+            }
+        }
+        return fingerprint;
+    }
+
+    // 去掉注释、替换字面量，关键字和标识符转为小写，引号标识符原样保留
+    // 按记号重新拼接：记号之间一个空格，逗号之后总是一个空格，左括号前、左括号和点号后、右括号、逗号和点号前没有空格，
+    // 因此 "IN (?)" 与 "in(?)" 相同
+    private static String normalize(String sql) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                i = skipQuoted(sql, i);
+                tokens.add("?");
+            } else if (c == '"' || c == '`') {
+                int end = skipQuoted(sql, i);
+                tokens.add(sql.substring(i, end));
+                i = end;
+            } else if (c == '-' && i + 1 < sql.length() && sql.charAt(i + 1) == '-') {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? sql.length() : end + 1;
+            } else if (c == '/' && i + 1 < sql.length() && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? sql.length() : end + 2;
+            } else if (Character.isWhitespace(c)) {
+                i++;
+            } else if (isNumberStart(sql, i, tokens)) {
+                i++;
+                while (i < sql.length() && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                tokens.add("?");
+            } else if (isIdentifierPart(c)) {
+                int end = i;
+                while (end < sql.length() && isIdentifierPart(sql.charAt(end))) {
+                    end++;
+                }
+                tokens.add(sql.substring(i, end).toLowerCase(Locale.ROOT));
+                i = end;
+            } else if (OPERATORS.indexOf(c) >= 0) {
+                int end = i + 1;
+                while (end < sql.length() && OPERATORS.indexOf(sql.charAt(end)) >= 0
+                        && !sql.startsWith("--", end) && !sql.startsWith("/*", end)) {
+                    end++;
+                }
+                tokens.add(sql.substring(i, end));
+                i = end;
+            } else {
+                tokens.add(String.valueOf(c));
+                i++;
+            }
+        }
+        while (!tokens.isEmpty() && tokens.get(tokens.size() - 1).equals(";")) {
+            tokens.remove(tokens.size() - 1);
+        }
+        StringBuilder sb = new StringBuilder(sql.length());
+        String previous = null;
+        for (String token : tokens) {
+            if (previous != null && (previous.equals(",") || !previous.equals("(") && !previous.equals(".")
+                    && !token.equals(")") && !token.equals(",") && !token.equals(".") && !token.equals("("))) {
+                sb.append(' ');
+            }
+            sb.append(token);
+            previous = token;
+        }
+        return sb.toString();
+    }
+
+    // (?, ?, ?) 合并为 (?+)，紧跟的 , (?+) 再合并掉
+    private static String collapseLists(String sql) {
+        StringBuilder sb = new StringBuilder(sql.length());
+        int i = 0;
+        while (i < sql.length()) {
+            int end = placeholderListEnd(sql, i);
+            if (end < 0) {
+                sb.append(sql.charAt(i++));
+                continue;
+            }
+            sb.append("(?+)");
+            i = end;
+            int next;
+            while (sql.startsWith(", ", i) && (next = placeholderListEnd(sql, i + 2)) > 0) {
+                i = next;
+            }
+        }
+        return sb.toString();
+    }
+
+    // 从 start 开始是 (?, ?, ...) 或 (?+) 时返回右括号之后的位置，否则返回 -1
+    private static int placeholderListEnd(String sql, int start) {
+        if (start >= sql.length() || sql.charAt(start) != '(') {
+            return -1;
+        }
+        if (sql.startsWith("(?+)", start)) {
+            return start + 4;
+        }
+        int i = start + 1;
+        while (i < sql.length() && sql.charAt(i) == '?') {
+            i++;
+            if (i < sql.length() && sql.charAt(i) == ')') {
+                return i + 1;
+            }
+            if (!sql.startsWith(", ", i)) {
+                return -1;
+            }
+            i += 2;
+        }
+        return -1;
+    }
+
+    // 数字字面量：前面不是标识符字符的数字、.5 这样的小数，以及跟在运算符、左括号或逗号后面的负数
+    private static boolean isNumberStart(String sql, int i, List<String> tokens) {
+        char c = sql.charAt(i);
+        if (c == '-' && i + 1 < sql.length() && Character.isDigit(sql.charAt(i + 1)) && !tokens.isEmpty()) {
+            String previous = tokens.get(tokens.size() - 1);
+            return previous.equals("(") || previous.equals(",") || OPERATORS.indexOf(previous.charAt(0)) >= 0;
+        }
+        boolean digit = Character.isDigit(c)
+                || (c == '.' && i + 1 < sql.length() && Character.isDigit(sql.charAt(i + 1)));
+        return digit && (i == 0 || !isIdentifierPart(sql.charAt(i - 1)));
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+    // 跳过引号内的内容，返回闭合引号之后的位置；两个连续引号视为转义
+    private static int skipQuoted(String sql, int start) {
+        char quote = sql.charAt(start);
+        int i = start + 1;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == quote) {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return sql.length();
+    }
+}
@@ -0,0 +1,106 @@
+package com.flyingpig.jdbc.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// 按 SQL 指纹汇总的语句统计，可以多个 JdbcTemplate 共享
+// 指纹数达到上限后，新的指纹都记到 "<other>" 下，避免拼接字面量的 SQL 使统计无限增长
+// 设置了 SlowQueryLog 时，耗时超过阈值的语句连同参数异步写入慢查询日志
+public class SqlMetrics implements AutoCloseable {
+
+    public static final String OTHER = "<other>";
+
+    private static final int MAX_FINGERPRINTS = 1000;
+
+    private final ConcurrentHashMap<String, StatementMetrics> statements = new ConcurrentHashMap<>();
+
+    // 关闭结果集、语句或连接时的失败次数
+    private final LongAdder closeErrors = new LongAdder();
+
+    private volatile SlowQueryLog slowQueryLog;
+
+    public SlowQueryLog getSlowQueryLog() {
+        return slowQueryLog;
+    }
+
+    public void setSlowQueryLog(SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    // 开始一次执行，args 只在写慢查询日志时使用，不会被复制
+    public StatementTimer start(String sql, Object[] args) {
+        return new StatementTimer(this, sql, args);
+    }
+
+    void record(StatementTimer timer, long elapsedNanos) {
+        String sql = timer.getSql();
+        metricsFor(SqlFingerprint.of(sql)).record(elapsedNanos, timer.getConnectionWait(), timer.getRows(),
+                timer.getBatchRows(), timer.getFailure() != null);
+        SlowQueryLog log = slowQueryLog;
+        if (log != null && log.isSlow(elapsedNanos)) {
+            log.log(sql, timer.getArgs(), elapsedNanos, timer.getRows(), timer.getBatchRows(), timer.getFailure());
+        }
+    }
+
+    private StatementMetrics metricsFor(String fingerprint) {
+        StatementMetrics metrics = statements.get(fingerprint);
+        if (metrics != null) {
+            return metrics;
+        }
+        if (statements.size() >= MAX_FINGERPRINTS) {
+            fingerprint = OTHER;
+        }
+        return statements.computeIfAbsent(fingerprint, StatementMetrics::new);
+    }
+
+    public void closeFailed(Exception e) {
+        closeErrors.increment();
+        System.err.println("Failed to close JDBC resource: " + e);
+    }
+
+    public long getCloseErrors() {
+        return closeErrors.sum();
+    }
+
+    // 按 SQL 查找所属指纹的统计，没有执行过时返回 null
+    public StatementMetrics getStatement(String sql) {
+        return statements.get(SqlFingerprint.of(sql));
+    }
+
+    // 所有指纹的统计，按总耗时从高到低排序
+    public List<StatementMetrics> getStatements() {
+        List<StatementMetrics> list = new ArrayList<>(statements.values());
+        list.sort(Comparator.comparingLong((StatementMetrics m) -> m.getLatency().getTotalNanos()).reversed());
+        return list;
+    }
+
+    public void reset() {
+        statements.clear();
+        closeErrors.reset();
+    }
+
+    // 关闭慢查询日志，写完队列中剩余的记录
+    @Override
+    public void close() {
+        SlowQueryLog log = slowQueryLog;
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("statements=").append(statements.size())
+                .append(", closeErrors=").append(getCloseErrors());
+        if (slowQueryLog != null) {
+            sb.append(", ").append(slowQueryLog);
+        }
+        for (StatementMetrics metrics : getStatements()) {
+            sb.append(System.lineSeparator()).append("  ").append(metrics);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,96 @@
+package com.flyingpig.jdbc.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// 一个 SQL 指纹的统计：执行次数、失败次数、返回或影响的行数、批量执行的批次和行数，以及耗时和获取连接等待时间的直方图
+public class StatementMetrics {
+
+    private final String fingerprint;
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchRows = new LongAdder();
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LatencyHistogram connectionWait = new LatencyHistogram();
+
+    public StatementMetrics(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    // elapsedNanos 为执行耗时，waitNanos 为获取连接的等待时间（小于 0 表示没有获取连接），batchRows 为 0 表示不是批量执行
+    void record(long elapsedNanos, long waitNanos, long rowCount, int batchRowCount, boolean failed) {
+        executions.increment();
+        if (failed) {
+            errors.increment();
+        }
+        rows.add(rowCount);
+        if (batchRowCount > 0) {
+            batches.increment();
+            batchRows.add(batchRowCount);
+        }
+        latency.record(elapsedNanos);
+        if (waitNanos >= 0) {
+            connectionWait.record(waitNanos);
+        }
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    public long getBatchRows() {
+        return batchRows.sum();
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public LatencyHistogram getConnectionWait() {
+        return connectionWait;
+    }
+
+    public void reset() {
+        executions.reset();
+        errors.reset();
+        rows.reset();
+        batches.reset();
+        batchRows.reset();
+        latency.reset();
+        connectionWait.reset();
+    }
+
+    @Override
+    public String toString() {
+        return fingerprint + " : executions=" + getExecutions() + ", errors=" + getErrors() + ", rows=" + getRows()
+                + ", batches=" + getBatches() + ", batchRows=" + getBatchRows()
+                + ", totalMs=" + millis(latency.getTotalNanos()) + ", meanMs=" + millis(latency.getMeanNanos())
+                + ", p50Ms=" + millis(latency.getPercentileNanos(0.5)) + ", p99Ms=" + millis(latency.getPercentileNanos(0.99))
+                + ", maxMs=" + millis(latency.getMaxNanos())
+                + ", connectionWaitP99Ms=" + millis(connectionWait.getPercentileNanos(0.99));
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.3f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,81 @@
+package com.flyingpig.jdbc.metrics;
+
+// 一次语句执行的计时，由 SqlMetrics.start 创建，执行结束时调用 stop 记录
+// 不是线程安全的，只在执行语句的线程中使用（流式查询在关闭 Stream 的线程中 stop）
+public class StatementTimer {
+
+    // 没有开启统计时使用，所有方法什么都不做
+    public static final StatementTimer NOOP = new StatementTimer(null, null, null);
+
+    private final SqlMetrics metrics;
+    private final String sql;
+    private final Object[] args;
+    private final long start;
+
+    private long connectionWait = -1;
+    private long rows;
+    private int batchRows;
+    private Throwable failure;
+    private boolean stopped;
+
+    StatementTimer(SqlMetrics metrics, String sql, Object[] args) {
+        this.metrics = metrics;
+        this.sql = sql;
+        this.args = args;
+        this.start = metrics != null ? System.nanoTime() : 0;
+    }
+
+    // 获取到连接后调用，从开始到现在的时间记为获取连接的等待时间
+    public void connected() {
+        if (metrics != null && connectionWait < 0) {
+            connectionWait = System.nanoTime() - start;
+        }
+    }
+
+    // 查询返回的行数或更新影响的行数
+    public void rows(long rows) {
+        this.rows = rows;
+    }
+
+    // 批量执行的行数
+    public void batch(int batchRows) {
+        this.batchRows = batchRows;
+    }
+
+    public void failed(Throwable failure) {
+        this.failure = failure;
+    }
+
+    // 结束计时并记录，重复调用只记录一次
+    public void stop() {
+        if (metrics == null || stopped) {
+            return;
+        }
+        stopped = true;
+        metrics.record(this, System.nanoTime() - start);
+    }
+
+    String getSql() {
+        return sql;
+    }
+
+    Object[] getArgs() {
+        return args;
+    }
+
+    long getConnectionWait() {
+        return connectionWait;
+    }
+
+    long getRows() {
+        return rows;
+    }
+
+    int getBatchRows() {
+        return batchRows;
+    }
+
+    Throwable getFailure() {
+        return failure;
+    }
+}
@@ -0,0 +1,91 @@
+package com.flyingpig.jdbc.namedparam;
+
+import com.flyingpig.jdbc.mapping.ColumnReaders;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.HashMap;
+import java.util.Map;
+
+// 以 Bean 的 public getter（或 record 的组件）提供参数值
+// 参数名与属性名忽略大小写和下划线匹配，:user_name 对应 getUserName()
+public class BeanPropertySqlParameterSource implements SqlParameterSource {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    // 每种类型只查找一次 getter，规范化的属性名 -> (Object)Object
+    private static final ClassValue<Map<String, MethodHandle>> GETTERS = new ClassValue<>() {
+        @Override
+        protected Map<String, MethodHandle> computeValue(Class<?> type) {
+            return findGetters(type);
+        }
+    };
+
+    private final Object bean;
+    private final Map<String, MethodHandle> getters;
+
+    public BeanPropertySqlParameterSource(Object bean) {
+        this.bean = bean;
+        this.getters = GETTERS.get(bean.getClass());
+    }
+
+    @Override
+    public boolean hasValue(String name) {
+        return getters.containsKey(ColumnReaders.normalize(name));
+    }
+
+    @Override
+    public Object getValue(String name) {
+        MethodHandle getter = getters.get(ColumnReaders.normalize(name));
+        if (getter == null) {
+            throw new IllegalArgumentException("No property '" + name + "' on " + bean.getClass().getName());
+        }
+        try {
+            return (Object) getter.invokeExact(bean);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to read property '" + name + "' of " + bean.getClass().getName(), e);
+        }
+    }
+
+    private static Map<String, MethodHandle> findGetters(Class<?> type) {
+        Map<String, MethodHandle> getters = new HashMap<>();
+        for (Method method : type.getMethods()) {
+            String methodName = method.getName();
+            if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 0
+                    || method.getReturnType() == void.class || method.getDeclaringClass() == Object.class) {
+                continue;
+            }
+            String property = null;
+            if (methodName.startsWith("get") && methodName.length() > 3) {
+                property = methodName.substring(3);
+            } else if (methodName.startsWith("is") && methodName.length() > 2
+                    && (method.getReturnType() == boolean.class || method.getReturnType() == Boolean.class)) {
+                property = methodName.substring(2);
+            }
+            if (property != null) {
+                getters.put(ColumnReaders.normalize(property), unreflect(method));
+            }
+        }
+        if (type.isRecord()) {
+            for (RecordComponent component : type.getRecordComponents()) {
+                getters.put(ColumnReaders.normalize(component.getName()), unreflect(component.getAccessor()));
+            }
+        }
+        return getters;
+    }
+
+    private static MethodHandle unreflect(Method method) {
+        try {
+            method.trySetAccessible();
+            return LOOKUP.unreflect(method).asType(MethodType.methodType(Object.class, Object.class));
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot access getter " + method, e);
+        }
+    }
+}
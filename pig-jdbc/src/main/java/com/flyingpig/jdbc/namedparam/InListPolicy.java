@@ -0,0 +1,82 @@
+package com.flyingpig.jdbc.namedparam;
+
+import java.util.Arrays;
+
+// 集合参数展开为 IN 列表时的长度策略
+// 补齐：把列表长度补到不小于它的最小档位（重复最后一个值），不同长度的调用共用少数几条 SQL，驱动的语句缓存和数据库的执行计划缓存都能命中
+// 拆分：超过 maxSize 的列表拆成多条语句分别执行，结果按顺序合并；适用于 IN 只做过滤的语句，
+// 跨语句的 ORDER BY、LIMIT、聚合和 DISTINCT 不会合并处理
+public class InListPolicy {
+
+    // 不补齐也不拆分
+    public static final InListPolicy NONE = new InListPolicy(new int[0], 0);
+
+    // 升序的档位，为空时不补齐
+    private final int[] buckets;
+
+    // 单个列表的最大长度，0 表示不拆分
+    private final int maxSize;
+
+    public InListPolicy(int[] buckets, int maxSize) {
+        int[] sorted = buckets.clone();
+        Arrays.sort(sorted);
+        if (sorted.length > 0 && sorted[0] < 1) {
+            throw new IllegalArgumentException("IN list buckets must be positive: " + Arrays.toString(buckets));
+        }
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize must not be negative: " + maxSize);
+        }
+        this.buckets = sorted;
+        this.maxSize = maxSize;
+    }
+
+    // 1, 2, 4, 8, ... 直到 maxSize，maxSize 不是 2 的幂时它本身作为最后一档
+    public static InListPolicy powersOfTwo(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+        int count = 32 - Integer.numberOfLeadingZeros(maxSize);
+        int[] buckets = new int[Integer.bitCount(maxSize) == 1 ? count : count + 1];
+        for (int i = 0; i < count; i++) {
+            buckets[i] = 1 << i;
+        }
+        buckets[buckets.length - 1] = maxSize;
+        return new InListPolicy(buckets, maxSize);
+    }
+
+    // 解析逗号分隔的档位，为空时使用 2 的幂
+    public static InListPolicy parse(String buckets, int maxSize) {
+        if (buckets == null || buckets.isBlank()) {
+            return maxSize > 0 ? powersOfTwo(maxSize) : NONE;
+        }
+        String[] parts = buckets.split(",");
+        int[] sizes = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            sizes[i] = Integer.parseInt(parts[i].trim());
+        }
+        return new InListPolicy(sizes, maxSize);
+    }
+
+    // size 个值展开后的占位符个数：不小于 size 的最小档位，超过最大档位时不补齐
+    public int paddedSize(int size) {
+        int index = Arrays.binarySearch(buckets, size);
+        if (index >= 0) {
+            return size;
+        }
+        int insertion = -index - 1;
+        return insertion < buckets.length ? buckets[insertion] : size;
+    }
+
+    public int[] getBuckets() {
+        return buckets.clone();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public String toString() {
+        return "InListPolicy{buckets=" + Arrays.toString(buckets) + ", maxSize=" + maxSize + '}';
+    }
+}
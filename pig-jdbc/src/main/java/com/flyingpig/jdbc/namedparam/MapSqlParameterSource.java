@@ -0,0 +1,40 @@
+package com.flyingpig.jdbc.namedparam;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// 以 Map 提供参数值，值为 null 的参数也视为存在
+public class MapSqlParameterSource implements SqlParameterSource {
+
+    private final Map<String, Object> values;
+
+    public MapSqlParameterSource() {
+        this.values = new HashMap<>();
+    }
+
+    public MapSqlParameterSource(Map<String, ?> values) {
+        this.values = new HashMap<>(values);
+    }
+
+    public MapSqlParameterSource addValue(String name, Object value) {
+        values.put(name, value);
+        return this;
+    }
+
+    public Map<String, Object> getValues() {
+        return values;
+    }
+
+    @Override
+    public boolean hasValue(String name) {
+        return values.containsKey(name);
+    }
+
+    @Override
+    public Object getValue(String name) {
+        if (!values.containsKey(name)) {
+            throw new IllegalArgumentException("No value supplied for SQL parameter '" + name + "'");
+        }
+        return values.get(name);
+    }
+}
@@ -0,0 +1,195 @@
+package com.flyingpig.jdbc.namedparam;
+
+import com.flyingpig.jdbc.DataSource;
+import com.flyingpig.jdbc.JdbcTemplate;
+import com.flyingpig.jdbc.RowCallbackHandler;
+import com.flyingpig.jdbc.RowMapper;
+import com.flyingpig.jdbc.UncheckedSQLException;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+// 支持 :name 命名参数的 JdbcTemplate，参数来自 Map 或 SqlParameterSource
+// 把 SQL 改写为 ? 占位符后交给 JdbcTemplate 执行，连接池、语句缓存、结果缓存和事务都照常生效
+// 每条 SQL 只解析一次，解析结果按 SQL 文本缓存
+// IN 列表按 InListPolicy 补齐到档位长度；超过最大长度的列表拆成多条语句执行，列表查询、逐行回调和流式查询的结果按顺序合并，
+// update 返回更新计数之和，单结果查询和批量更新不拆分，列表超长时抛出 IllegalArgumentException
+public class NamedParameterJdbcTemplate {
+
+    // 缓存的解析结果上限，超过后不再缓存新的 SQL（仍会每次解析）
+    private static final int MAX_PARSED_SQL = 256;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ConcurrentHashMap<String, ParsedSql> parsedSqlCache = new ConcurrentHashMap<>();
+
+    // 默认按 1, 2, 4, ..., 512, 1000 补齐，单个列表最多 1000 个值（Oracle 的 IN 列表上限）
+    private InListPolicy inListPolicy = InListPolicy.powersOfTwo(1000);
+
+    public NamedParameterJdbcTemplate(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public NamedParameterJdbcTemplate(DataSource dataSource) {
+        this(new JdbcTemplate(dataSource));
+    }
+
+    public JdbcTemplate getJdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    public InListPolicy getInListPolicy() {
+        return inListPolicy;
+    }
+
+    // InListPolicy.NONE 关闭补齐和拆分
+    public void setInListPolicy(InListPolicy inListPolicy) {
+        this.inListPolicy = inListPolicy;
+    }
+
+    public <T> T queryForObject(String sql, Map<String, ?> paramMap, RowMapper<T> rowMapper) throws SQLException {
+        return queryForObject(sql, new MapSqlParameterSource(paramMap), rowMapper);
+    }
+
+    public <T> T queryForObject(String sql, SqlParameterSource paramSource, RowMapper<T> rowMapper) throws SQLException {
+        ParsedSql parsedSql = getParsedSql(sql);
+        Object[] values = single(parsedSql, parsedSql.resolve(paramSource));
+        return jdbcTemplate.queryForObject(parsedSql.expandSql(values, inListPolicy), rowMapper,
+                parsedSql.expandArgs(values, inListPolicy));
+    }
+
+    public <T> T queryForValue(String sql, Map<String, ?> paramMap, Class<T> requiredType) throws SQLException {
+        return queryForValue(sql, new MapSqlParameterSource(paramMap), requiredType);
+    }
+
+    public <T> T queryForValue(String sql, SqlParameterSource paramSource, Class<T> requiredType) throws SQLException {
+        ParsedSql parsedSql = getParsedSql(sql);
+        Object[] values = single(parsedSql, parsedSql.resolve(paramSource));
+        return jdbcTemplate.queryForValue(parsedSql.expandSql(values, inListPolicy), requiredType,
+                parsedSql.expandArgs(values, inListPolicy));
+    }
+
+    public <T> List<T> queryForList(String sql, Map<String, ?> paramMap, RowMapper<T> rowMapper) throws SQLException {
+        return queryForList(sql, new MapSqlParameterSource(paramMap), rowMapper);
+    }
+
+    public <T> List<T> queryForList(String sql, SqlParameterSource paramSource, RowMapper<T> rowMapper) throws SQLException {
+        ParsedSql parsedSql = getParsedSql(sql);
+        List<Object[]> chunks = parsedSql.split(parsedSql.resolve(paramSource), inListPolicy);
+        if (chunks.size() == 1) {
+            Object[] values = chunks.get(0);
+            return jdbcTemplate.queryForList(parsedSql.expandSql(values, inListPolicy), rowMapper,
+                    parsedSql.expandArgs(values, inListPolicy));
+        }
+        List<T> results = new ArrayList<>();
+        for (Object[] values : chunks) {
+            results.addAll(jdbcTemplate.queryForList(parsedSql.expandSql(values, inListPolicy), rowMapper,
+                    parsedSql.expandArgs(values, inListPolicy)));
+        }
+        return results;
+    }
+
+    public void query(String sql, Map<String, ?> paramMap, RowCallbackHandler rowCallbackHandler) throws SQLException {
+        query(sql, new MapSqlParameterSource(paramMap), rowCallbackHandler);
+    }
+
+    public void query(String sql, SqlParameterSource paramSource, RowCallbackHandler rowCallbackHandler) throws SQLException {
+        ParsedSql parsedSql = getParsedSql(sql);
+        for (Object[] values : parsedSql.split(parsedSql.resolve(paramSource), inListPolicy)) {
+            jdbcTemplate.query(parsedSql.expandSql(values, inListPolicy), rowCallbackHandler,
+                    parsedSql.expandArgs(values, inListPolicy));
+        }
+    }
+
+    // 与 JdbcTemplate.queryForStream 相同，提前结束时必须关闭 Stream；拆分后的语句在消费到时才依次执行
+    public <T> Stream<T> queryForStream(String sql, Map<String, ?> paramMap, RowMapper<T> rowMapper) throws SQLException {
+        return queryForStream(sql, new MapSqlParameterSource(paramMap), rowMapper);
+    }
+
+    public <T> Stream<T> queryForStream(String sql, SqlParameterSource paramSource, RowMapper<T> rowMapper) throws SQLException {
+        ParsedSql parsedSql = getParsedSql(sql);
+        List<Object[]> chunks = parsedSql.split(parsedSql.resolve(paramSource), inListPolicy);
+        if (chunks.size() == 1) {
+            Object[] values = chunks.get(0);
+            return jdbcTemplate.queryForStream(parsedSql.expandSql(values, inListPolicy), rowMapper,
+                    parsedSql.expandArgs(values, inListPolicy));
+        }
+        return chunks.stream().flatMap(values -> {
+            try {
+                return jdbcTemplate.queryForStream(parsedSql.expandSql(values, inListPolicy), rowMapper,
+                        parsedSql.expandArgs(values, inListPolicy));
+            } catch (SQLException e) {
+                throw new UncheckedSQLException(e);
+            }
+        });
+    }
+
+    public int update(String sql, Map<String, ?> paramMap) throws SQLException {
+        return update(sql, new MapSqlParameterSource(paramMap));
+    }
+
+    public int update(String sql, SqlParameterSource paramSource) throws SQLException {
+        ParsedSql parsedSql = getParsedSql(sql);
+        int count = 0;
+        for (Object[] values : parsedSql.split(parsedSql.resolve(paramSource), inListPolicy)) {
+            count += jdbcTemplate.update(parsedSql.expandSql(values, inListPolicy),
+                    parsedSql.expandArgs(values, inListPolicy));
+        }
+        return count;
+    }
+
+    public int[] batchUpdate(String sql, Map<String, ?>[] batchValues) throws SQLException {
+        SqlParameterSource[] sources = new SqlParameterSource[batchValues.length];
+        for (int i = 0; i < batchValues.length; i++) {
+            sources[i] = new MapSqlParameterSource(batchValues[i]);
+        }
+        return batchUpdate(sql, sources);
+    }
+
+    // 所有行必须展开为同一条 SQL，集合参数补齐后的长度在各行之间不同时抛出 IllegalArgumentException
+    public int[] batchUpdate(String sql, SqlParameterSource[] batchArgs) throws SQLException {
+        if (batchArgs.length == 0) {
+            return new int[0];
+        }
+        ParsedSql parsedSql = getParsedSql(sql);
+        String expandedSql = null;
+        List<Object[]> args = new ArrayList<>(batchArgs.length);
+        for (SqlParameterSource source : batchArgs) {
+            Object[] values = single(parsedSql, parsedSql.resolve(source));
+            String rowSql = parsedSql.expandSql(values, inListPolicy);
+            if (expandedSql == null) {
+                expandedSql = rowSql;
+            } else if (!expandedSql.equals(rowSql)) {
+                throw new IllegalArgumentException("Collection parameters must have the same size in every batch row: " + sql);
+            }
+            args.add(parsedSql.expandArgs(values, inListPolicy));
+        }
+        return jdbcTemplate.batchUpdate(expandedSql, args);
+    }
+
+    // 不能拆分的调用，IN 列表超长时抛出异常
+    private Object[] single(ParsedSql parsedSql, Object[] values) {
+        List<Object[]> chunks = parsedSql.split(values, inListPolicy);
+        if (chunks.size() > 1) {
+            throw new IllegalArgumentException("IN list exceeds " + inListPolicy.getMaxSize()
+                    + " elements and this call cannot be split: " + parsedSql.getOriginalSql());
+        }
+        return values;
+    }
+
+    // 解析 SQL，同一条 SQL 只解析一次
+    public ParsedSql getParsedSql(String sql) {
+        ParsedSql parsedSql = parsedSqlCache.get(sql);
+        if (parsedSql == null) {
+            parsedSql = ParsedSql.parse(sql);
+            if (parsedSqlCache.size() < MAX_PARSED_SQL) {
+                parsedSqlCache.putIfAbsent(sql, parsedSql);
+            }
+        }
+        return parsedSql;
+    }
+}
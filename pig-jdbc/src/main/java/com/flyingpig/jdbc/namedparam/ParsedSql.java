@@ -0,0 +1,213 @@
+package com.flyingpig.jdbc.namedparam;
+
+import com.flyingpig.jdbc.support.SqlLiterals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+// 解析后的命名参数 SQL：按参数位置切开的 SQL 片段和每个位置上的参数名
+// 集合或对象数组类型的参数展开为 IN (?, ?, ...)，空集合展开为一个 NULL（IN (NULL) 不匹配任何行）
+// 展开的长度和超长列表的拆分由 InListPolicy 决定
+public class ParsedSql {
+
+    private final String originalSql;
+
+    // segments[i] 位于第 i 个参数之前，最后一段位于最后一个参数之后
+    private final String[] segments;
+    private final String[] parameterNames;
+
+    // 所有参数都是单个值时的 SQL，不需要每次拼接
+    private final String positionalSql;
+
+    private ParsedSql(String originalSql, String[] segments, String[] parameterNames) {
+        this.originalSql = originalSql;
+        this.segments = segments;
+        this.parameterNames = parameterNames;
+        this.positionalSql = String.join("?", segments);
+    }
+
+    // 解析 :name 形式的参数，跳过字符串、引号标识符、注释和 PostgreSQL 的 :: 类型转换；不支持与 ? 混用
+    public static ParsedSql parse(String sql) {
+        List<String> segments = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        int segmentStart = 0;
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                i = SqlLiterals.skipQuoted(sql, i);
+            } else if (c == '-' && i + 1 < sql.length() && sql.charAt(i + 1) == '-') {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? sql.length() : end + 1;
+            } else if (c == '/' && i + 1 < sql.length() && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? sql.length() : end + 2;
+            } else if (c == ':' && i + 1 < sql.length() && sql.charAt(i + 1) == ':') {
+                i += 2;
+            } else if (c == ':' && i + 1 < sql.length() && isNameStart(sql.charAt(i + 1))) {
+                int end = i + 1;
+                while (end < sql.length() && isNamePart(sql.charAt(end))) {
+                    end++;
+                }
+                segments.add(sql.substring(segmentStart, i));
+                names.add(sql.substring(i + 1, end));
+                segmentStart = end;
+                i = end;
+            } else if (c == '?') {
+                throw new IllegalArgumentException("Positional parameter '?' is not supported in named SQL: " + sql);
+            } else {
+                i++;
+            }
+        }
+        segments.add(sql.substring(segmentStart));
+        return new ParsedSql(sql, segments.toArray(new String[0]), names.toArray(new String[0]));
+    }
+
+    public String getOriginalSql() {
+        return originalSql;
+    }
+
+    // 按出现顺序的参数名，同一个参数出现多次时重复
+    public String[] getParameterNames() {
+        return parameterNames.clone();
+    }
+
+    public int getParameterCount() {
+        return parameterNames.length;
+    }
+
+    // 按出现顺序取出参数值
+    public Object[] resolve(SqlParameterSource source) {
+        Object[] values = new Object[parameterNames.length];
+        for (int i = 0; i < parameterNames.length; i++) {
+            values[i] = source.getValue(parameterNames[i]);
+        }
+        return values;
+    }
+
+    // 参数值对应的带 ? 的 SQL，IN 列表按 policy 补齐到档位长度
+    public String expandSql(Object[] values, InListPolicy policy) {
+        if (!hasExpandable(values)) {
+            return positionalSql;
+        }
+        StringBuilder sb = new StringBuilder(positionalSql.length() + 16 * values.length);
+        for (int i = 0; i < values.length; i++) {
+            sb.append(segments[i]);
+            int size = listSize(values[i]);
+            if (size < 0) {
+                sb.append('?');
+                continue;
+            }
+            int padded = policy.paddedSize(Math.max(1, size));
+            for (int j = 0; j < padded; j++) {
+                if (j > 0) {
+                    sb.append(", ");
+                }
+                sb.append('?');
+            }
+        }
+        sb.append(segments[values.length]);
+        return sb.toString();
+    }
+
+    // 参数值对应的 JDBC 位置参数，集合逐个展开，补齐的位置重复最后一个值（不影响 IN 的结果）
+    public Object[] expandArgs(Object[] values, InListPolicy policy) {
+        if (!hasExpandable(values)) {
+            return values;
+        }
+        List<Object> args = new ArrayList<>(values.length + 16);
+        for (Object value : values) {
+            int size = listSize(value);
+            if (size < 0) {
+                args.add(value);
+                continue;
+            }
+            if (size == 0) {
+                args.add(null);
+                continue;
+            }
+            List<?> elements = asList(value);
+            args.addAll(elements);
+            Object last = elements.get(size - 1);
+            for (int i = policy.paddedSize(size); i > size; i--) {
+                args.add(last);
+            }
+        }
+        return args.toArray();
+    }
+
+    // 按 policy.maxSize 拆分超长的 IN 列表，返回每条语句的参数值；不需要拆分时只有一组
+    // 只能有一个超长的集合参数（同一个参数出现多次时一起拆分），否则抛出 IllegalArgumentException
+    public List<Object[]> split(Object[] values, InListPolicy policy) {
+        int maxSize = policy.getMaxSize();
+        Object oversized = null;
+        if (maxSize > 0) {
+            for (Object value : values) {
+                if (listSize(value) > maxSize && value != oversized) {
+                    if (oversized != null) {
+                        throw new IllegalArgumentException("Only one IN list may exceed " + maxSize
+                                + " elements: " + originalSql);
+                    }
+                    oversized = value;
+                }
+            }
+        }
+        if (oversized == null) {
+            return Collections.singletonList(values);
+        }
+        List<?> elements = asList(oversized);
+        List<Object[]> chunks = new ArrayList<>((elements.size() + maxSize - 1) / maxSize);
+        for (int from = 0; from < elements.size(); from += maxSize) {
+            List<?> chunk = elements.subList(from, Math.min(from + maxSize, elements.size()));
+            Object[] chunkValues = values.clone();
+            for (int i = 0; i < chunkValues.length; i++) {
+                if (chunkValues[i] == oversized) {
+                    chunkValues[i] = chunk;
+                }
+            }
+            chunks.add(chunkValues);
+        }
+        return chunks;
+    }
+
+    private static boolean hasExpandable(Object[] values) {
+        for (Object value : values) {
+            if (value instanceof Collection || value instanceof Object[]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 集合参数的元素个数，不是集合时返回 -1
+    private static int listSize(Object value) {
+        if (value instanceof Collection) {
+            return ((Collection<?>) value).size();
+        }
+        if (value instanceof Object[]) {
+            return ((Object[]) value).length;
+        }
+        return -1;
+    }
+
+    private static List<?> asList(Object value) {
+        if (value instanceof List) {
+            return (List<?>) value;
+        }
+        if (value instanceof Collection) {
+            return new ArrayList<>((Collection<?>) value);
+        }
+        return Arrays.asList((Object[]) value);
+    }
+
+    private static boolean isNameStart(char c) {
+        return Character.isLetter(c) || c == '_';
+    }
+
+    private static boolean isNamePart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+}
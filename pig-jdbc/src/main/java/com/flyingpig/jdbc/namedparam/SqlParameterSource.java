@@ -0,0 +1,10 @@
+package com.flyingpig.jdbc.namedparam;
+
+// 命名参数的取值来源
+public interface SqlParameterSource {
+
+    boolean hasValue(String name);
+
+    // 参数不存在时抛出 IllegalArgumentException
+    Object getValue(String name);
+}
@@ -0,0 +1,169 @@
+package com.flyingpig.jdbc.pool;
+
+import com.flyingpig.jdbc.connection.DelegatingPreparedStatement;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// 语句缓存中的 PreparedStatement，close 时清空参数并归还到缓存，物理语句保持打开
+public class CachedPreparedStatement extends DelegatingPreparedStatement {
+
+    private final StatementCache cache;
+    private final String sql;
+
+    // 当前借出这条语句的连接句柄
+    private Connection owner;
+    private boolean inUse;
+
+    // 已经被挤出缓存，归还时直接关闭
+    private boolean evicted;
+
+    // 调用方修改过的语句设置，归还时恢复默认值
+    private boolean settingsChanged;
+
+    // 调用过 closeOnCompletion，无法恢复，归还时关闭物理语句
+    private boolean closeOnCompletion;
+
+    CachedPreparedStatement(StatementCache cache, String sql, PreparedStatement delegate) {
+        super(delegate);
+        this.cache = cache;
+        this.sql = sql;
+    }
+
+    String getSql() {
+        return sql;
+    }
+
+    boolean isInUse() {
+        return inUse;
+    }
+
+    void checkout(Connection owner) {
+        this.owner = owner;
+        this.inUse = true;
+    }
+
+    void evict() {
+        this.evicted = true;
+    }
+
+    boolean isEvicted() {
+        return evicted;
+    }
+
+    @Override
+    protected PreparedStatement delegate() throws SQLException {
+        if (!inUse) {
+            throw new SQLException("Statement is closed");
+        }
+        return delegate;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        delegate();
+        return owner;
+    }
+
+    @Override
+    public void setFetchSize(int rows) throws SQLException {
+        delegate().setFetchSize(rows);
+        settingsChanged = true;
+    }
+
+    @Override
+    public void setMaxRows(int max) throws SQLException {
+        delegate().setMaxRows(max);
+        settingsChanged = true;
+    }
+
+    @Override
+    public void setLargeMaxRows(long max) throws SQLException {
+        delegate().setLargeMaxRows(max);
+        settingsChanged = true;
+    }
+
+    @Override
+    public void setQueryTimeout(int seconds) throws SQLException {
+        delegate().setQueryTimeout(seconds);
+        settingsChanged = true;
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException {
+        delegate().setFetchDirection(direction);
+        settingsChanged = true;
+    }
+
+    @Override
+    public void setMaxFieldSize(int max) throws SQLException {
+        delegate().setMaxFieldSize(max);
+        settingsChanged = true;
+    }
+
+    @Override
+    public void setEscapeProcessing(boolean enable) throws SQLException {
+        delegate().setEscapeProcessing(enable);
+        settingsChanged = true;
+    }
+
+    // 结果集关闭时驱动会关闭物理语句，这条语句不能再复用
+    @Override
+    public void closeOnCompletion() throws SQLException {
+        delegate().closeOnCompletion();
+        closeOnCompletion = true;
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return !inUse || delegate.isClosed();
+    }
+
+    // 逻辑关闭：清理参数、批处理和修改过的设置后归还到缓存，清理失败或调用过 closeOnCompletion 时关闭物理语句
+    @Override
+    public void close() throws SQLException {
+        if (!inUse) {
+            return;
+        }
+        inUse = false;
+        owner = null;
+        if (closeOnCompletion) {
+            evicted = true;
+            cache.checkin(this);
+            return;
+        }
+        try {
+            delegate.clearParameters();
+            delegate.clearBatch();
+            delegate.clearWarnings();
+            if (settingsChanged) {
+                delegate.setFetchSize(0);
+                delegate.setMaxRows(0);
+                delegate.setQueryTimeout(0);
+                delegate.setFetchDirection(ResultSet.FETCH_FORWARD);
+                delegate.setMaxFieldSize(0);
+                delegate.setEscapeProcessing(true);
+                settingsChanged = false;
+            }
+        } catch (SQLException e) {
+            evicted = true;
+        }
+        cache.checkin(this);
+    }
+
+    // 关闭物理语句
+    void closePhysically() {
+        try {
+            delegate.close();
+        } catch (SQLException e) {
+            // 语句已经不可用，忽略
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CachedPreparedStatement{" + sql + '}';
+    }
+}
@@ -0,0 +1,173 @@
+package com.flyingpig.jdbc.pool;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntConsumer;
+
+// 存放连接的无锁容器，借出顺序：
+// 1. 当前线程最近归还的连接（线程亲和，通常无竞争）
+// 2. 共享列表中任意一个空闲连接（CAS 抢占）
+// 3. 等待其它线程归还或新建的连接直接移交（SynchronousQueue）
+public class ConnectionBag {
+
+    // 每个线程最多记住的最近归还的连接数
+    private static final int MAX_THREAD_LOCAL_ENTRIES = 16;
+
+    private final CopyOnWriteArrayList<PoolEntry> sharedList = new CopyOnWriteArrayList<>();
+
+    // 弱引用，连接被移出连接池后不会因为线程本地列表而无法回收
+    private final ThreadLocal<List<WeakReference<PoolEntry>>> threadList =
+            ThreadLocal.withInitial(() -> new ArrayList<>(MAX_THREAD_LOCAL_ENTRIES));
+
+    private final SynchronousQueue<PoolEntry> handoffQueue = new SynchronousQueue<>(true);
+
+    private final AtomicInteger waiters = new AtomicInteger();
+
+    // 共享列表中没有空闲连接时回调，参数为当前等待的线程数，由连接池决定是否新建连接
+    private final IntConsumer addRequest;
+
+    private volatile boolean closed;
+
+    public ConnectionBag(IntConsumer addRequest) {
+        this.addRequest = addRequest;
+    }
+
+    // 借出一个连接，超时返回 null
+    public PoolEntry borrow(long timeout, TimeUnit unit) throws InterruptedException {
+        // 先查当前线程最近归还的连接，从最近的开始
+        List<WeakReference<PoolEntry>> list = threadList.get();
+        for (int i = list.size() - 1; i >= 0; i--) {
+            PoolEntry entry = list.remove(i).get();
+            if (entry != null && entry.compareAndSet(PoolEntry.STATE_NOT_IN_USE, PoolEntry.STATE_IN_USE)) {
+                return entry;
+            }
+        }
+
+        int waiting = waiters.incrementAndGet();
+        try {
+            for (PoolEntry entry : sharedList) {
+                if (entry.compareAndSet(PoolEntry.STATE_NOT_IN_USE, PoolEntry.STATE_IN_USE)) {
+                    // 抢到了别的线程可能在等的连接，再请求一个补上
+                    if (waiting > 1) {
+                        addRequest.accept(waiting - 1);
+                    }
+                    return entry;
+                }
+            }
+
+            addRequest.accept(waiting);
+
+            long remaining = unit.toNanos(timeout);
+            do {
+                long start = System.nanoTime();
+                PoolEntry entry = handoffQueue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (entry == null || entry.compareAndSet(PoolEntry.STATE_NOT_IN_USE, PoolEntry.STATE_IN_USE)) {
+                    return entry;
+                }
+                remaining -= System.nanoTime() - start;
+            } while (remaining > 10_000 && !closed);
+            return null;
+        } finally {
+            waiters.decrementAndGet();
+        }
+    }
+
+    // 归还一个连接：有线程在等待时直接移交，否则记到当前线程的本地列表
+    public void requite(PoolEntry entry) {
+        entry.setState(PoolEntry.STATE_NOT_IN_USE);
+
+        for (int i = 0; waiters.get() > 0; i++) {
+            if (entry.getState() != PoolEntry.STATE_NOT_IN_USE || handoffQueue.offer(entry)) {
+                return;
+            } else if ((i & 0xff) == 0xff) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(10));
+            } else {
+                Thread.yield();
+            }
+        }
+
+        List<WeakReference<PoolEntry>> list = threadList.get();
+        if (list.size() < MAX_THREAD_LOCAL_ENTRIES) {
+            list.add(new WeakReference<>(entry));
+        }
+    }
+
+    // 加入一个新建的连接，有线程在等待时尽量直接移交
+    public void add(PoolEntry entry) {
+        if (closed) {
+            throw new IllegalStateException("ConnectionBag has been closed");
+        }
+        sharedList.add(entry);
+        while (waiters.get() > 0 && entry.getState() == PoolEntry.STATE_NOT_IN_USE && !handoffQueue.offer(entry)) {
+            Thread.yield();
+        }
+    }
+
+    // 移出一个已借出或已保留的连接
+    public boolean remove(PoolEntry entry) {
+        if (!entry.compareAndSet(PoolEntry.STATE_IN_USE, PoolEntry.STATE_REMOVED)
+                && !entry.compareAndSet(PoolEntry.STATE_RESERVED, PoolEntry.STATE_REMOVED)
+                && !closed) {
+            return false;
+        }
+        return sharedList.remove(entry);
+    }
+
+    // 保留一个空闲连接，保留后不会再被借出，用于回收
+    public boolean reserve(PoolEntry entry) {
+        return entry.compareAndSet(PoolEntry.STATE_NOT_IN_USE, PoolEntry.STATE_RESERVED);
+    }
+
+    // 放弃保留，连接重新可借
+    public void unreserve(PoolEntry entry) {
+        if (entry.compareAndSet(PoolEntry.STATE_RESERVED, PoolEntry.STATE_NOT_IN_USE)) {
+            while (waiters.get() > 0 && entry.getState() == PoolEntry.STATE_NOT_IN_USE && !handoffQueue.offer(entry)) {
+                Thread.yield();
+            }
+        }
+    }
+
+    // 指定状态的连接快照
+    public List<PoolEntry> values(int state) {
+        List<PoolEntry> result = new ArrayList<>();
+        for (PoolEntry entry : sharedList) {
+            if (entry.getState() == state) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    // 全部连接的快照
+    public List<PoolEntry> values() {
+        return new ArrayList<>(sharedList);
+    }
+
+    public int getCount(int state) {
+        int count = 0;
+        for (PoolEntry entry : sharedList) {
+            if (entry.getState() == state) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int size() {
+        return sharedList.size();
+    }
+
+    public int getWaitingThreadCount() {
+        return waiters.get();
+    }
+
+    public void close() {
+        closed = true;
+    }
+}
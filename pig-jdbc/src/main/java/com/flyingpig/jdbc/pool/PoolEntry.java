@@ -0,0 +1,112 @@
+package com.flyingpig.jdbc.pool;
+
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+// 连接池中的一个物理连接及其状态，状态通过 CAS 切换，借出和归还都不需要加锁
+public class PoolEntry {
+
+    public static final int STATE_NOT_IN_USE = 0;
+    public static final int STATE_IN_USE = 1;
+    // 被清理线程保留，准备关闭
+    public static final int STATE_RESERVED = -1;
+    public static final int STATE_REMOVED = -2;
+
+    private static final AtomicIntegerFieldUpdater<PoolEntry> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(PoolEntry.class, "state");
+
+    private final Connection connection;
+    private final long createdAt;
+
+    // 这个物理连接上的语句缓存，未开启时为 null
+    private final StatementCache statementCache;
+
+    private volatile int state = STATE_NOT_IN_USE;
+
+    // 最近一次借出或归还的时间，用于空闲回收和判断是否需要校验
+    private volatile long lastAccessed;
+
+    // 借出时间和借出时的调用栈，用于泄漏检测
+    private volatile long borrowedAt;
+    private volatile Throwable borrowTrace;
+    private volatile boolean leakReported;
+
+    // 超过最大存活时间或连接出错时标记，归还时直接关闭
+    private volatile boolean evicted;
+
+    public PoolEntry(Connection connection, StatementCache statementCache) {
+        this.connection = connection;
+        this.statementCache = statementCache;
+        this.createdAt = System.currentTimeMillis();
+        this.lastAccessed = createdAt;
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    public StatementCache getStatementCache() {
+        return statementCache;
+    }
+
+    public int getState() {
+        return state;
+    }
+
+    public boolean compareAndSet(int expect, int update) {
+        return STATE.compareAndSet(this, expect, update);
+    }
+
+    public void setState(int update) {
+        state = update;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getLastAccessed() {
+        return lastAccessed;
+    }
+
+    public void setLastAccessed(long lastAccessed) {
+        this.lastAccessed = lastAccessed;
+    }
+
+    public long getBorrowedAt() {
+        return borrowedAt;
+    }
+
+    public Throwable getBorrowTrace() {
+        return borrowTrace;
+    }
+
+    // 记录一次借出，borrowTrace 只在开启泄漏检测时传入
+    public void markBorrowed(long now, Throwable borrowTrace) {
+        this.borrowedAt = now;
+        this.lastAccessed = now;
+        this.borrowTrace = borrowTrace;
+        this.leakReported = false;
+    }
+
+    public boolean isLeakReported() {
+        return leakReported;
+    }
+
+    public void setLeakReported(boolean leakReported) {
+        this.leakReported = leakReported;
+    }
+
+    public boolean isEvicted() {
+        return evicted;
+    }
+
+    public void evict() {
+        this.evicted = true;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolEntry{" + connection + ", state=" + state + '}';
+    }
+}
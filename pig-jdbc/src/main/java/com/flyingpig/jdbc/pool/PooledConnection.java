@@ -0,0 +1,117 @@
+package com.flyingpig.jdbc.pool;
+
+import com.flyingpig.jdbc.PooledDataSource;
+import com.flyingpig.jdbc.connection.DelegatingConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+// 借给调用方的连接句柄，close 时把物理连接归还到连接池而不是关闭
+// 每次借出都创建新的句柄，归还后旧句柄上的任何调用都会报错，避免误用已经借给别人的连接
+public class PooledConnection extends DelegatingConnection {
+
+    private final PooledDataSource pool;
+    private final PoolEntry entry;
+
+    // 调用方修改过的会话状态，归还时只重置修改过的部分
+    private boolean autoCommitChanged;
+    private boolean readOnlyChanged;
+    private boolean isolationChanged;
+    private final boolean defaultAutoCommit;
+    private final boolean defaultReadOnly;
+    private final int defaultIsolation;
+
+    private boolean closed;
+
+    public PooledConnection(PooledDataSource pool, PoolEntry entry,
+                            boolean defaultAutoCommit, boolean defaultReadOnly, int defaultIsolation) {
+        super(entry.getConnection());
+        this.pool = pool;
+        this.entry = entry;
+        this.defaultAutoCommit = defaultAutoCommit;
+        this.defaultReadOnly = defaultReadOnly;
+        this.defaultIsolation = defaultIsolation;
+    }
+
+    @Override
+    protected Connection delegate() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection is closed");
+        }
+        return delegate;
+    }
+
+    public PoolEntry getPoolEntry() {
+        return entry;
+    }
+
+    // 开启语句缓存时从当前物理连接的缓存中取语句，close 语句即归还
+    @Override
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        StatementCache cache = entry.getStatementCache();
+        if (cache == null) {
+            return delegate().prepareStatement(sql);
+        }
+        return cache.prepare(delegate(), this, sql);
+    }
+
+    @Override
+    public void setAutoCommit(boolean autoCommit) throws SQLException {
+        delegate().setAutoCommit(autoCommit);
+        autoCommitChanged = autoCommit != defaultAutoCommit;
+    }
+
+    @Override
+    public void setReadOnly(boolean readOnly) throws SQLException {
+        delegate().setReadOnly(readOnly);
+        readOnlyChanged = readOnly != defaultReadOnly;
+    }
+
+    @Override
+    public void setTransactionIsolation(int level) throws SQLException {
+        delegate().setTransactionIsolation(level);
+        isolationChanged = level != defaultIsolation;
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return closed || delegate.isClosed();
+    }
+
+    // 归还到连接池：回滚未提交的事务、恢复会话状态，失败时丢弃这个物理连接
+    @Override
+    public void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (entry.getStatementCache() != null) {
+                entry.getStatementCache().releaseAll();
+            }
+            if (!delegate.getAutoCommit()) {
+                delegate.rollback();
+            }
+            if (autoCommitChanged) {
+                delegate.setAutoCommit(defaultAutoCommit);
+            }
+            if (readOnlyChanged) {
+                delegate.setReadOnly(defaultReadOnly);
+            }
+            if (isolationChanged) {
+                delegate.setTransactionIsolation(defaultIsolation);
+            }
+            delegate.clearWarnings();
+        } catch (SQLException e) {
+            entry.evict();
+        } finally {
+            pool.release(entry);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PooledConnection{" + delegate + '}';
+    }
+}
@@ -0,0 +1,132 @@
+package com.flyingpig.jdbc.pool;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// 单个物理连接上的 PreparedStatement 缓存，按 SQL 文本做键，超过容量时淘汰最久未使用的语句
+// 连接同一时间只会借给一个线程，缓存本身不需要加锁；命中统计汇总到整个连接池共享的计数器
+public class StatementCache {
+
+    private final int maxSize;
+    private final Metrics metrics;
+
+    // accessOrder = true 的 LinkedHashMap，迭代顺序即 LRU 顺序
+    private final LinkedHashMap<String, CachedPreparedStatement> statements;
+
+    public StatementCache(int maxSize, Metrics metrics) {
+        this.maxSize = maxSize;
+        this.metrics = metrics;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    // 获取语句：缓存命中且未被占用时直接复用，否则新建并放入缓存
+    // 同一条 SQL 的缓存语句正在使用时（例如在遍历结果集的过程中再次执行），返回一条不缓存的普通语句
+    public PreparedStatement prepare(Connection physical, Connection owner, String sql) throws SQLException {
+        CachedPreparedStatement cached = statements.get(sql);
+        if (cached != null) {
+            if (!cached.isInUse()) {
+                metrics.hits.increment();
+                cached.checkout(owner);
+                return cached;
+            }
+            metrics.misses.increment();
+            return physical.prepareStatement(sql);
+        }
+        metrics.misses.increment();
+        cached = new CachedPreparedStatement(this, sql, physical.prepareStatement(sql));
+        cached.checkout(owner);
+        statements.put(sql, cached);
+        evictOverflow();
+        return cached;
+    }
+
+    // 由 CachedPreparedStatement.close 调用
+    void checkin(CachedPreparedStatement statement) {
+        if (statement.isEvicted()) {
+            statements.remove(statement.getSql(), statement);
+            statement.closePhysically();
+        }
+    }
+
+    // 超出容量时从最久未使用的一端淘汰，正在使用的语句只做标记，归还时关闭
+    private void evictOverflow() {
+        Iterator<CachedPreparedStatement> iterator = statements.values().iterator();
+        while (statements.size() > maxSize && iterator.hasNext()) {
+            CachedPreparedStatement eldest = iterator.next();
+            iterator.remove();
+            metrics.evictions.increment();
+            eldest.evict();
+            if (!eldest.isInUse()) {
+                eldest.closePhysically();
+            }
+        }
+    }
+
+    // 连接归还时，调用方忘记关闭的语句一并归还
+    public void releaseAll() {
+        List<CachedPreparedStatement> inUse = new ArrayList<>();
+        for (CachedPreparedStatement statement : statements.values()) {
+            if (statement.isInUse()) {
+                inUse.add(statement);
+            }
+        }
+        for (CachedPreparedStatement statement : inUse) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                // close 内部已经处理，忽略
+            }
+        }
+    }
+
+    // 物理连接关闭时清空缓存
+    public void clear() {
+        for (CachedPreparedStatement statement : statements.values()) {
+            statement.evict();
+            statement.closePhysically();
+        }
+        statements.clear();
+    }
+
+    public int size() {
+        return statements.size();
+    }
+
+    // 整个连接池共享的缓存统计
+    public static class Metrics {
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder evictions = new LongAdder();
+
+        public long getHits() {
+            return hits.sum();
+        }
+
+        public long getMisses() {
+            return misses.sum();
+        }
+
+        public long getEvictions() {
+            return evictions.sum();
+        }
+
+        public double getHitRatio() {
+            long hits = getHits();
+            long total = hits + getMisses();
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return "hits=" + getHits() + ", misses=" + getMisses() + ", evictions=" + getEvictions()
+                    + String.format(", hitRatio=%.2f", getHitRatio());
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.flyingpig.jdbc.routing;
+
+// 只读副本的选择策略
+public enum LoadBalanceStrategy {
+    // 未归还连接数除以权重最小的副本，适合各副本响应时间不同的场景
+    LEAST_OUTSTANDING,
+    // 平滑加权轮询，按权重比例分配，不会连续集中到同一个副本
+    WEIGHTED_ROUND_ROBIN;
+
+    // 配置中的名称：least-outstanding、weighted-round-robin，忽略大小写
+    public static LoadBalanceStrategy parse(String name) {
+        return valueOf(name.trim().replace('-', '_').toUpperCase(java.util.Locale.ROOT));
+    }
+}
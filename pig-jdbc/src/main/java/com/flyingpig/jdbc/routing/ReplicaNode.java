@@ -0,0 +1,95 @@
+package com.flyingpig.jdbc.routing;
+
+import com.flyingpig.jdbc.DataSource;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 一个只读副本：数据源、权重、未归还的连接数和健康状态
+// 连续获取连接失败达到阈值后摘除一段时间，到期后放行请求试探，成功即恢复，失败则重新摘除
+public class ReplicaNode {
+
+    private final String name;
+    private final DataSource dataSource;
+    private final int weight;
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    // 摘除到期的时间，0 表示健康
+    private volatile long ejectedUntil;
+
+    // 平滑加权轮询的当前权重，由 RoutingDataSource 在锁内修改
+    int currentWeight;
+
+    public ReplicaNode(String name, DataSource dataSource, int weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Replica weight must be positive: " + name);
+        }
+        this.name = name;
+        this.dataSource = dataSource;
+        this.weight = weight;
+    }
+
+    boolean isAvailable(long now) {
+        return ejectedUntil == 0 || now >= ejectedUntil;
+    }
+
+    void onSuccess() {
+        if (consecutiveFailures.get() != 0 || ejectedUntil != 0) {
+            if (ejectedUntil != 0) {
+                System.out.println("Replica " + name + " is back in rotation");
+            }
+            consecutiveFailures.set(0);
+            ejectedUntil = 0;
+        }
+    }
+
+    void onFailure(int failureThreshold, long ejectionTime, Throwable cause) {
+        int failures = consecutiveFailures.incrementAndGet();
+        if (failures >= failureThreshold) {
+            ejectedUntil = System.currentTimeMillis() + ejectionTime;
+            System.err.println("Replica " + name + " ejected for " + ejectionTime + "ms after " + failures
+                    + " consecutive failure(s): " + cause);
+        }
+    }
+
+    void acquire() {
+        outstanding.incrementAndGet();
+    }
+
+    void release() {
+        outstanding.decrementAndGet();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    // 已借出未归还的连接数
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    public boolean isEjected() {
+        long until = ejectedUntil;
+        return until != 0 && System.currentTimeMillis() < until;
+    }
+
+    @Override
+    public String toString() {
+        return name + "{weight=" + weight + ", outstanding=" + outstanding.get()
+                + ", ejected=" + isEjected() + '}';
+    }
+}
@@ -0,0 +1,40 @@
+package com.flyingpig.jdbc.routing;
+
+import com.flyingpig.jdbc.connection.DelegatingConnection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// 副本上借出的连接，关闭时减少副本的未归还连接数
+class RoutedConnection extends DelegatingConnection {
+
+    private final ReplicaNode node;
+    private boolean closed;
+
+    RoutedConnection(Connection delegate, ReplicaNode node) {
+        super(delegate);
+        this.node = node;
+    }
+
+    ReplicaNode getNode() {
+        return node;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            delegate.close();
+        } finally {
+            node.release();
+        }
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return closed || delegate.isClosed();
+    }
+}
@@ -0,0 +1,187 @@
+package com.flyingpig.jdbc.routing;
+
+import com.flyingpig.jdbc.DataSource;
+import com.flyingpig.jdbc.PooledDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 读写分离数据源：一个主库和若干只读副本
+// getConnection(true)（事务外的查询、只读事务）从健康的副本中按负载均衡策略选择，其余请求都走主库；
+// 副本全部不可用时读请求回退到主库。事务只在开始时获取一次连接，整个事务固定在同一个节点上。
+// 注意副本存在复制延迟，刚写入的数据需要在读写事务中读取才能保证可见
+public class RoutingDataSource implements DataSource, AutoCloseable {
+
+    private final DataSource primary;
+    private final List<ReplicaNode> replicas;
+    private final LoadBalanceStrategy strategy;
+
+    // 连续失败多少次后摘除副本，以及摘除的时长（毫秒）
+    private int failureThreshold = 3;
+    private long ejectionTime = 30_000;
+
+    // 最少未归还连接数相同时从这个位置开始比较，避免总是选中第一个副本
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    public RoutingDataSource(DataSource primary, List<ReplicaNode> replicas, LoadBalanceStrategy strategy) {
+        this.primary = primary;
+        this.replicas = Collections.unmodifiableList(new ArrayList<>(replicas));
+        this.strategy = strategy;
+    }
+
+    // 初始化主库和所有副本的连接池
+    public void init() {
+        if (primary instanceof PooledDataSource) {
+            ((PooledDataSource) primary).init();
+        }
+        for (ReplicaNode replica : replicas) {
+            if (replica.getDataSource() instanceof PooledDataSource) {
+                ((PooledDataSource) replica.getDataSource()).init();
+            }
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(boolean readOnly) throws SQLException {
+        if (!readOnly || replicas.isEmpty()) {
+            return primary.getConnection();
+        }
+        // 每个副本最多尝试一次，失败的副本计入健康状态
+        List<ReplicaNode> tried = null;
+        SQLException lastFailure = null;
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            ReplicaNode node = select(tried);
+            if (node == null) {
+                break;
+            }
+            node.acquire();
+            try {
+                Connection connection = node.getDataSource().getConnection();
+                node.onSuccess();
+                return new RoutedConnection(connection, node);
+            } catch (SQLException | RuntimeException e) {
+                node.release();
+                node.onFailure(failureThreshold, ejectionTime, e);
+                if (tried == null) {
+                    tried = new ArrayList<>(replicas.size());
+                }
+                tried.add(node);
+                lastFailure = e instanceof SQLException ? (SQLException) e : new SQLException(e);
+            }
+        }
+        try {
+            return primary.getConnection();
+        } catch (SQLException e) {
+            if (lastFailure != null) {
+                e.addSuppressed(lastFailure);
+            }
+            throw e;
+        }
+    }
+
+    // 从未摘除且本次没有失败过的副本中选择，没有可用副本时返回 null
+    private ReplicaNode select(List<ReplicaNode> excluded) {
+        long now = System.currentTimeMillis();
+        if (strategy == LoadBalanceStrategy.WEIGHTED_ROUND_ROBIN) {
+            return selectWeighted(excluded, now);
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(cursor.getAndIncrement(), size);
+        ReplicaNode best = null;
+        for (int i = 0; i < size; i++) {
+            ReplicaNode node = replicas.get((start + i) % size);
+            if (!node.isAvailable(now) || (excluded != null && excluded.contains(node))) {
+                continue;
+            }
+            // 比较 outstanding / weight，交叉相乘避免除法
+            if (best == null || (long) node.getOutstanding() * best.getWeight()
+                    < (long) best.getOutstanding() * node.getWeight()) {
+                best = node;
+            }
+        }
+        return best;
+    }
+
+    // 平滑加权轮询（与 nginx 相同）：每次所有候选的当前权重加上各自权重，选出最大的后减去总权重
+    private synchronized ReplicaNode selectWeighted(List<ReplicaNode> excluded, long now) {
+        ReplicaNode best = null;
+        int total = 0;
+        for (ReplicaNode node : replicas) {
+            if (!node.isAvailable(now) || (excluded != null && excluded.contains(node))) {
+                continue;
+            }
+            node.currentWeight += node.getWeight();
+            total += node.getWeight();
+            if (best == null || node.currentWeight > best.currentWeight) {
+                best = node;
+            }
+        }
+        if (best != null) {
+            best.currentWeight -= total;
+        }
+        return best;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        SQLException failure = null;
+        List<DataSource> all = new ArrayList<>();
+        all.add(primary);
+        for (ReplicaNode replica : replicas) {
+            all.add(replica.getDataSource());
+        }
+        for (DataSource dataSource : all) {
+            if (dataSource instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) dataSource).close();
+                } catch (Exception e) {
+                    if (failure == null) {
+                        failure = e instanceof SQLException ? (SQLException) e : new SQLException("Failed to close data source", e);
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public List<ReplicaNode> getReplicas() {
+        return replicas;
+    }
+
+    public LoadBalanceStrategy getStrategy() {
+        return strategy;
+    }
+
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    public void setFailureThreshold(int failureThreshold) {
+        this.failureThreshold = failureThreshold;
+    }
+
+    public long getEjectionTime() {
+        return ejectionTime;
+    }
+
+    public void setEjectionTime(long ejectionTime) {
+        this.ejectionTime = ejectionTime;
+    }
+}
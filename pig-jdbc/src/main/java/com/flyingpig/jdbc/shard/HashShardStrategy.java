@@ -0,0 +1,33 @@
+package com.flyingpig.jdbc.shard;
+
+// 哈希分片：整数键按值取模（id % n，便于人工定位数据所在的分片），其它键按 hashCode 打散后取模
+// 字符串等按值计算 hashCode 的类型在不同进程中结果相同；分片数改变时大部分数据需要迁移
+public class HashShardStrategy implements ShardStrategy {
+
+    @Override
+    public int shardFor(Object shardKey, int shardCount) {
+        if (shardKey == null) {
+            throw new IllegalArgumentException("Shard key must not be null");
+        }
+        if (shardKey instanceof Long || shardKey instanceof Integer
+                || shardKey instanceof Short || shardKey instanceof Byte) {
+            return (int) Math.floorMod(((Number) shardKey).longValue(), (long) shardCount);
+        }
+        return Math.floorMod(mix(shardKey.hashCode()), shardCount);
+    }
+
+    // MurmurHash3 的 fmix32，避免 hashCode 低位分布不均（例如只有末尾字符不同的字符串）
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return "hash";
+    }
+}
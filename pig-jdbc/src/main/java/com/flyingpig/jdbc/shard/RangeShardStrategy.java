@@ -0,0 +1,63 @@
+package com.flyingpig.jdbc.shard;
+
+import java.util.Arrays;
+
+// 范围分片：按整数键所在的区间选择分片，适合按 id 段或时间戳扩容（新分片只接收新数据）
+// upperBounds 为前 n - 1 个分片的上界（不包含），严格递增；第 i 个分片保存 [upperBounds[i - 1], upperBounds[i]) 的键，
+// 最后一个分片保存大于等于最后一个上界的键
+public class RangeShardStrategy implements ShardStrategy {
+
+    private final long[] upperBounds;
+
+    public RangeShardStrategy(long... upperBounds) {
+        for (int i = 1; i < upperBounds.length; i++) {
+            if (upperBounds[i] <= upperBounds[i - 1]) {
+                throw new IllegalArgumentException("Range bounds must be strictly increasing: " + Arrays.toString(upperBounds));
+            }
+        }
+        this.upperBounds = upperBounds.clone();
+    }
+
+    // 配置中的上界：逗号分隔的整数，为空时只有一个分片
+    public static RangeShardStrategy parse(String upperBounds) {
+        if (upperBounds == null || upperBounds.isBlank()) {
+            return new RangeShardStrategy();
+        }
+        String[] parts = upperBounds.split(",");
+        long[] bounds = new long[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            bounds[i] = Long.parseLong(parts[i].trim());
+        }
+        return new RangeShardStrategy(bounds);
+    }
+
+    @Override
+    public int shardFor(Object shardKey, int shardCount) {
+        if (!(shardKey instanceof Long || shardKey instanceof Integer
+                || shardKey instanceof Short || shardKey instanceof Byte)) {
+            throw new IllegalArgumentException("Range sharding requires an integer shard key, got: "
+                    + (shardKey == null ? "null" : shardKey.getClass().getName()));
+        }
+        long key = ((Number) shardKey).longValue();
+        // 第一个大于 key 的上界所在的下标
+        int index = Arrays.binarySearch(upperBounds, key);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    @Override
+    public void checkShardCount(int shardCount) {
+        if (shardCount != upperBounds.length + 1) {
+            throw new IllegalArgumentException("Range sharding with " + upperBounds.length
+                    + " bounds needs " + (upperBounds.length + 1) + " shards, got " + shardCount);
+        }
+    }
+
+    public long[] getUpperBounds() {
+        return upperBounds.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "range" + Arrays.toString(upperBounds);
+    }
+}
@@ -0,0 +1,11 @@
+package com.flyingpig.jdbc.shard;
+
+import java.util.List;
+
+// 合并各分片的查询结果，shardResults 按分片下标排列，每个分片一个列表（没有结果时为空列表）
+// 常用的合并方式见 ShardMergers
+@FunctionalInterface
+public interface ShardMerger<T, R> {
+
+    R merge(List<List<T>> shardResults);
+}
@@ -0,0 +1,112 @@
+package com.flyingpig.jdbc.shard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+// 常用的分片结果合并方式：拼接、有序归并（ORDER BY ... LIMIT）和聚合（COUNT/SUM/MAX、GROUP BY）
+public final class ShardMergers {
+
+    private ShardMergers() {
+    }
+
+    // 按分片顺序拼接
+    public static <T> ShardMerger<T, List<T>> concat() {
+        return shardResults -> {
+            int size = 0;
+            for (List<T> rows : shardResults) {
+                size += rows.size();
+            }
+            List<T> merged = new ArrayList<>(size);
+            for (List<T> rows : shardResults) {
+                merged.addAll(rows);
+            }
+            return merged;
+        };
+    }
+
+    // 多路归并：每个分片的结果已经按 comparator 排序（SQL 中 ORDER BY 相同的列），合并后整体有序
+    public static <T> ShardMerger<T, List<T>> ordered(Comparator<? super T> comparator) {
+        return ordered(comparator, Integer.MAX_VALUE);
+    }
+
+    // 有序归并并只保留前 limit 行：每个分片的 SQL 需要 ORDER BY ... LIMIT limit，
+    // 分页时每个分片取 LIMIT offset + limit，合并结果跳过前 offset 行
+    public static <T> ShardMerger<T, List<T>> ordered(Comparator<? super T> comparator, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must not be negative");
+        }
+        return shardResults -> {
+            // 堆中每个元素为 {分片下标, 行下标}
+            PriorityQueue<int[]> heap = new PriorityQueue<>(Math.max(1, shardResults.size()),
+                    (a, b) -> comparator.compare(shardResults.get(a[0]).get(a[1]), shardResults.get(b[0]).get(b[1])));
+            int total = 0;
+            for (int shard = 0; shard < shardResults.size(); shard++) {
+                int size = shardResults.get(shard).size();
+                if (size > 0) {
+                    heap.add(new int[]{shard, 0});
+                    total += size;
+                }
+            }
+            List<T> merged = new ArrayList<>(Math.min(total, limit));
+            while (merged.size() < limit && !heap.isEmpty()) {
+                int[] head = heap.poll();
+                List<T> rows = shardResults.get(head[0]);
+                merged.add(rows.get(head[1]));
+                if (++head[1] < rows.size()) {
+                    heap.add(head);
+                }
+            }
+            return merged;
+        };
+    }
+
+    // 把所有分片的所有非 null 值合并为一个值，例如 COUNT/SUM 用 Long::sum，MAX 用 BinaryOperator.maxBy；没有值时返回 null
+    public static <T> ShardMerger<T, T> reduce(BinaryOperator<T> operator) {
+        return shardResults -> {
+            T result = null;
+            for (List<T> rows : shardResults) {
+                for (T row : rows) {
+                    if (row != null) {
+                        result = result == null ? row : operator.apply(result, row);
+                    }
+                }
+            }
+            return result;
+        };
+    }
+
+    // 求和，适合各分片的 COUNT(*) 和 SUM，NULL（空分片上的 SUM）按 0 计算
+    public static <T extends Number> ShardMerger<T, Long> sum() {
+        return shardResults -> {
+            long sum = 0;
+            for (List<T> rows : shardResults) {
+                for (T row : rows) {
+                    if (row != null) {
+                        sum += row.longValue();
+                    }
+                }
+            }
+            return sum;
+        };
+    }
+
+    // GROUP BY 的二次聚合：分组键相同的行用 combiner 合并（例如把两个分片上同一城市的 COUNT 相加），
+    // 结果按分组第一次出现的顺序排列；AVG 需要在各分片分别查询 SUM 和 COUNT，合并后再相除
+    public static <T, K> ShardMerger<T, List<T>> aggregate(Function<? super T, ? extends K> groupKey, BinaryOperator<T> combiner) {
+        return shardResults -> {
+            Map<K, T> groups = new LinkedHashMap<>();
+            for (List<T> rows : shardResults) {
+                for (T row : rows) {
+                    groups.merge(groupKey.apply(row), row, combiner);
+                }
+            }
+            return new ArrayList<>(groups.values());
+        };
+    }
+}
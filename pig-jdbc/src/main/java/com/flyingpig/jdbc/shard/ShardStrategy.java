@@ -0,0 +1,12 @@
+package com.flyingpig.jdbc.shard;
+
+// 分片策略：根据分片键计算分片下标（0 到 shardCount - 1）
+// 同一个分片键必须始终落在同一个分片上，计算结果不能依赖进程内的状态（例如对象的默认 hashCode）
+public interface ShardStrategy {
+
+    int shardFor(Object shardKey, int shardCount);
+
+    // 创建 ShardedDataSource 时检查分片数是否与策略匹配，不匹配时抛出 IllegalArgumentException
+    default void checkShardCount(int shardCount) {
+    }
+}
@@ -0,0 +1,85 @@
+package com.flyingpig.jdbc.shard;
+
+import com.flyingpig.jdbc.DataSource;
+import com.flyingpig.jdbc.PooledDataSource;
+import com.flyingpig.jdbc.routing.RoutingDataSource;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// 分库数据源：一组分片，每个分片是一个独立的数据源（各自的连接池，也可以是带只读副本的 RoutingDataSource）
+// 本身不是 DataSource，获取连接前必须先由分片键选出分片，由 ShardedJdbcTemplate 使用
+public class ShardedDataSource implements AutoCloseable {
+
+    private final List<DataSource> shards;
+    private final ShardStrategy strategy;
+
+    public ShardedDataSource(List<? extends DataSource> shards, ShardStrategy strategy) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        strategy.checkShardCount(shards.size());
+        this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+        this.strategy = strategy;
+    }
+
+    // 初始化所有分片的连接池
+    public void init() {
+        for (DataSource shard : shards) {
+            if (shard instanceof PooledDataSource) {
+                ((PooledDataSource) shard).init();
+            } else if (shard instanceof RoutingDataSource) {
+                ((RoutingDataSource) shard).init();
+            }
+        }
+    }
+
+    // 分片键所在的分片下标
+    public int shardFor(Object shardKey) {
+        int shard = strategy.shardFor(shardKey, shards.size());
+        if (shard < 0 || shard >= shards.size()) {
+            throw new IllegalStateException("Strategy " + strategy + " returned shard " + shard
+                    + " for key " + shardKey + ", but there are " + shards.size() + " shards");
+        }
+        return shard;
+    }
+
+    public DataSource getShard(int shard) {
+        return shards.get(shard);
+    }
+
+    public List<DataSource> getShards() {
+        return shards;
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    public ShardStrategy getStrategy() {
+        return strategy;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        SQLException failure = null;
+        for (DataSource shard : shards) {
+            if (shard instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) shard).close();
+                } catch (Exception e) {
+                    if (failure == null) {
+                        failure = e instanceof SQLException ? (SQLException) e : new SQLException("Failed to close shard", e);
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
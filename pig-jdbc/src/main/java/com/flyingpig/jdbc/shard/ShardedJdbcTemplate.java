@@ -0,0 +1,246 @@
+package com.flyingpig.jdbc.shard;
+
+import com.flyingpig.jdbc.JdbcTemplate;
+import com.flyingpig.jdbc.RowMapper;
+import com.flyingpig.jdbc.async.AsyncExecutors;
+import com.flyingpig.jdbc.async.AsyncJdbcTemplate.JdbcCallback;
+import com.flyingpig.jdbc.async.BoundedExecutor;
+import com.flyingpig.jdbc.connection.ConnectionHolder;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+// 分库的 JdbcTemplate：每个分片一个 JdbcTemplate
+// 带分片键的调用由 ShardStrategy 选出一个分片，在当前线程上执行；
+// 不带分片键的查询（*All 方法）在所有分片上并行执行，再由 ShardMerger 合并结果。
+// 并行执行使用 AsyncExecutors 的线程，每个分片的并发数与 AsyncJdbcTemplate 共享同一个上限；
+// 任一分片失败时立即抛出异常，尚未开始的分片不再执行，已经在执行的语句会执行完，结果被丢弃。
+// 不支持事务：事务管理器为当前线程绑定的连接属于主数据源，JdbcTemplate 在事务中会使用它而不是分片的连接，
+// 写入会静默地落到错误的库上，因此在事务中（当前线程绑定了连接）调用时抛出 IllegalStateException
+public class ShardedJdbcTemplate {
+
+    private final ShardedDataSource dataSource;
+    private final List<JdbcTemplate> templates;
+    private final List<BoundedExecutor> executors;
+
+    public ShardedJdbcTemplate(ShardedDataSource dataSource) {
+        this.dataSource = dataSource;
+        List<JdbcTemplate> templates = new ArrayList<>(dataSource.getShardCount());
+        List<BoundedExecutor> executors = new ArrayList<>(dataSource.getShardCount());
+        for (int i = 0; i < dataSource.getShardCount(); i++) {
+            templates.add(new JdbcTemplate(dataSource.getShard(i)));
+            executors.add(AsyncExecutors.forDataSource(dataSource.getShard(i)));
+        }
+        this.templates = Collections.unmodifiableList(templates);
+        this.executors = executors;
+    }
+
+    public ShardedDataSource getDataSource() {
+        return dataSource;
+    }
+
+    public int getShardCount() {
+        return templates.size();
+    }
+
+    // 分片的 JdbcTemplate，可以用来修改批量大小、结果缓存、执行统计等设置；直接用它执行语句时不检查事务
+    public JdbcTemplate getShardTemplate(int shard) {
+        return templates.get(shard);
+    }
+
+    public List<JdbcTemplate> getShardTemplates() {
+        return templates;
+    }
+
+    // 分片键所在分片的 JdbcTemplate
+    public JdbcTemplate route(Object shardKey) {
+        checkNoTransaction();
+        return templates.get(dataSource.shardFor(shardKey));
+    }
+
+    private static void checkNoTransaction() {
+        if (ConnectionHolder.getConnection() != null) {
+            throw new IllegalStateException("ShardedJdbcTemplate cannot be used inside a transaction: "
+                    + "the bound connection does not belong to any shard");
+        }
+    }
+
+    // ---------------------------------------------------------------- 单个分片
+
+    public <T> T queryForObject(Object shardKey, String sql, RowMapper<T> rowMapper, Object... args) throws SQLException {
+        return route(shardKey).queryForObject(sql, rowMapper, args);
+    }
+
+    public <T> T queryForValue(Object shardKey, String sql, Class<T> requiredType, Object... args) throws SQLException {
+        return route(shardKey).queryForValue(sql, requiredType, args);
+    }
+
+    public <T> List<T> queryForList(Object shardKey, String sql, RowMapper<T> rowMapper, Object... args) throws SQLException {
+        return route(shardKey).queryForList(sql, rowMapper, args);
+    }
+
+    public int update(Object shardKey, String sql, Object... args) throws SQLException {
+        return route(shardKey).update(sql, args);
+    }
+
+    // 按每行参数中下标为 shardKeyIndex 的值分组，各分片的批量更新并行执行，返回的更新计数与 batchArgs 的顺序一致
+    // 各分片分别提交，某个分片失败时其它分片已经写入的数据不会回滚
+    public int[] batchUpdate(String sql, List<Object[]> batchArgs, int shardKeyIndex) throws SQLException {
+        int shardCount = templates.size();
+        List<List<Object[]>> groups = new ArrayList<>(shardCount);
+        List<List<Integer>> positions = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            groups.add(new ArrayList<>());
+            positions.add(new ArrayList<>());
+        }
+        for (int row = 0; row < batchArgs.size(); row++) {
+            Object[] args = batchArgs.get(row);
+            int shard = dataSource.shardFor(args[shardKeyIndex]);
+            groups.get(shard).add(args);
+            positions.get(shard).add(row);
+        }
+        List<Integer> targets = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            if (!groups.get(i).isEmpty()) {
+                targets.add(i);
+            }
+        }
+        List<int[]> counts = execute(targets, (shard, jdbc) -> jdbc.batchUpdate(sql, groups.get(shard)));
+        int[] result = new int[batchArgs.size()];
+        for (int i = 0; i < targets.size(); i++) {
+            List<Integer> rows = positions.get(targets.get(i));
+            int[] shardCounts = counts.get(i);
+            for (int j = 0; j < rows.size(); j++) {
+                result[rows.get(j)] = shardCounts[j];
+            }
+        }
+        return result;
+    }
+
+    // ---------------------------------------------------------------- 所有分片
+
+    // 在所有分片上查询，结果按分片顺序拼接
+    public <T> List<T> queryForListAll(String sql, RowMapper<T> rowMapper, Object... args) throws SQLException {
+        return queryForListAllMerged(sql, rowMapper, ShardMergers.concat(), args);
+    }
+
+    // 在所有分片上查询，由 merger 合并各分片的结果；与 queryForListAll 分开命名，merger 不会和可变的 SQL 参数混淆
+    public <T, R> R queryForListAllMerged(String sql, RowMapper<T> rowMapper, ShardMerger<T, R> merger, Object... args) throws SQLException {
+        return merger.merge(executeAll(jdbc -> jdbc.queryForList(sql, rowMapper, args)));
+    }
+
+    // 在所有分片上查询单个值（例如 COUNT、SUM、MAX），由 merger 合并，例如 ShardMergers.sum()
+    public <T, R> R queryForValueAll(String sql, Class<T> requiredType, ShardMerger<T, R> merger, Object... args) throws SQLException {
+        List<T> values = executeAll(jdbc -> jdbc.queryForValue(sql, requiredType, args));
+        List<List<T>> shardResults = new ArrayList<>(values.size());
+        for (T value : values) {
+            shardResults.add(value != null ? Collections.singletonList(value) : Collections.emptyList());
+        }
+        return merger.merge(shardResults);
+    }
+
+    // 在所有分片上执行更新（例如按非分片键批量修改），返回各分片的更新行数之和
+    public int updateAll(String sql, Object... args) throws SQLException {
+        int total = 0;
+        for (int count : executeAll(jdbc -> jdbc.update(sql, args))) {
+            total += count;
+        }
+        return total;
+    }
+
+    // 在所有分片上并行执行任意操作，返回按分片顺序排列的结果
+    public <T> List<T> executeAll(JdbcCallback<T> callback) throws SQLException {
+        List<Integer> targets = new ArrayList<>(templates.size());
+        for (int i = 0; i < templates.size(); i++) {
+            targets.add(i);
+        }
+        return execute(targets, (shard, jdbc) -> callback.doInJdbc(jdbc));
+    }
+
+    // 在指定的分片上并行执行；只有一个分片时直接在当前线程上执行
+    private <T> List<T> execute(List<Integer> shards, ShardCallback<T> callback) throws SQLException {
+        checkNoTransaction();
+        if (shards.size() == 1) {
+            int shard = shards.get(0);
+            try {
+                return Collections.singletonList(callback.doInShard(shard, templates.get(shard)));
+            } catch (SQLException e) {
+                throw shardFailure(shard, e);
+            }
+        }
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.size());
+        CompletableFuture<Void> firstFailure = new CompletableFuture<>();
+        for (int shard : shards) {
+            CompletableFuture<T> future = submit(shard, callback);
+            future.whenComplete((result, e) -> {
+                if (e != null) {
+                    firstFailure.completeExceptionally(e);
+                }
+            });
+            futures.add(future);
+        }
+        try {
+            CompletableFuture.anyOf(CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])), firstFailure).get();
+        } catch (ExecutionException e) {
+            cancel(futures);
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new SQLException(cause);
+        } catch (InterruptedException e) {
+            cancel(futures);
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for shards", e);
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<T> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    private <T> CompletableFuture<T> submit(int shard, ShardCallback<T> callback) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executors.get(shard).execute(() -> {
+            if (future.isDone()) {
+                // 排队期间其它分片已经失败
+                return;
+            }
+            try {
+                future.complete(callback.doInShard(shard, templates.get(shard)));
+            } catch (SQLException e) {
+                future.completeExceptionally(shardFailure(shard, e));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    private static void cancel(List<? extends CompletableFuture<?>> futures) {
+        for (CompletableFuture<?> future : futures) {
+            future.cancel(false);
+        }
+    }
+
+    // 在异常信息中标明失败的分片，保留原来的 SQLState 和错误码
+    private static SQLException shardFailure(int shard, SQLException e) {
+        return new SQLException("Shard " + shard + " failed: " + e.getMessage(), e.getSQLState(), e.getErrorCode(), e);
+    }
+
+    @FunctionalInterface
+    private interface ShardCallback<T> {
+        T doInShard(int shard, JdbcTemplate jdbcTemplate) throws SQLException;
+    }
+}
@@ -0,0 +1,170 @@
+package com.flyingpig.jdbc.support;
+
+import java.util.Locale;
+
+// 把单行的 INSERT ... VALUES (?, ?, ?) 改写为多行 VALUES (?, ?, ?), (?, ?, ?), ...
+// 只改写 VALUES 后恰好一组括号的语句；组之后的部分（例如 ON DUPLICATE KEY UPDATE）原样保留，但其中不能再有占位符，
+// 否则参数顺序会被打乱。INSERT ... SELECT、多组 VALUES 等语句不改写
+public class BatchInsertRewriter {
+
+    // 单条语句的参数数上限（MySQL、PostgreSQL 协议限制为 65535）
+    private static final int MAX_PARAMETERS = 65535;
+
+    private final String prefix;
+    private final String group;
+    private final String suffix;
+    private final int parameterCount;
+
+    // 最近一次生成的多行语句，通常每个批次的整块行数都相同
+    private volatile Rewritten last;
+
+    private BatchInsertRewriter(String prefix, String group, String suffix, int parameterCount) {
+        this.prefix = prefix;
+        this.group = group;
+        this.suffix = suffix;
+        this.parameterCount = parameterCount;
+    }
+
+    // 解析 SQL，不能改写时返回 null
+    public static BatchInsertRewriter parse(String sql) {
+        String trimmed = sql.trim();
+        if (trimmed.endsWith(";")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1).trim();
+        }
+        if (!trimmed.regionMatches(true, 0, "INSERT", 0, 6)) {
+            return null;
+        }
+        int values = findKeyword(trimmed, "VALUES");
+        if (values < 0) {
+            return null;
+        }
+        int open = skipWhitespace(trimmed, values + 6);
+        if (open >= trimmed.length() || trimmed.charAt(open) != '(') {
+            return null;
+        }
+        int close = findClosingParenthesis(trimmed, open);
+        if (close < 0) {
+            return null;
+        }
+        String group = trimmed.substring(open, close + 1);
+        String suffix = trimmed.substring(close + 1);
+        // 已经是多组 VALUES 的语句不改写
+        int next = skipWhitespace(suffix, 0);
+        if (next < suffix.length() && suffix.charAt(next) == ',') {
+            return null;
+        }
+        int parameterCount = countPlaceholders(group);
+        if (parameterCount == 0 || countPlaceholders(suffix) != 0
+                || countPlaceholders(trimmed.substring(0, open)) != 0) {
+            return null;
+        }
+        return new BatchInsertRewriter(trimmed.substring(0, open), group, suffix, parameterCount);
+    }
+
+    public int getParameterCount() {
+        return parameterCount;
+    }
+
+    // 受参数数上限约束的每条语句最大行数
+    public int maxRows(int rows) {
+        return Math.max(1, Math.min(rows, MAX_PARAMETERS / parameterCount));
+    }
+
+    // rows 行的多行 INSERT 语句，只缓存多行的语句
+    public String sql(int rows) {
+        if (rows == 1) {
+            return prefix + group + suffix;
+        }
+        Rewritten rewritten = last;
+        if (rewritten != null && rewritten.rows == rows) {
+            return rewritten.sql;
+        }
+        StringBuilder sb = new StringBuilder(prefix.length() + (group.length() + 1) * rows + suffix.length());
+        sb.append(prefix);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(group);
+        }
+        sb.append(suffix);
+        String sql = sb.toString();
+        last = new Rewritten(rows, sql);
+        return sql;
+    }
+
+    // 查找不在字符串、标识符引号中的关键字，要求前后不是标识符字符
+    private static int findKeyword(String sql, String keyword) {
+        String upper = sql.toUpperCase(Locale.ROOT);
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                i = SqlLiterals.skipQuoted(sql, i);
+                continue;
+            }
+            if (upper.startsWith(keyword, i)
+                    && (i == 0 || !Character.isJavaIdentifierPart(sql.charAt(i - 1)))
+                    && (i + keyword.length() == sql.length()
+                    || !Character.isJavaIdentifierPart(sql.charAt(i + keyword.length())))) {
+                return i;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    private static int findClosingParenthesis(String sql, int open) {
+        int depth = 0;
+        int i = open;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                i = SqlLiterals.skipQuoted(sql, i);
+                continue;
+            }
+            if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    private static int countPlaceholders(String sql) {
+        int count = 0;
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                i = SqlLiterals.skipQuoted(sql, i);
+                continue;
+            }
+            if (c == '?') {
+                count++;
+            }
+            i++;
+        }
+        return count;
+    }
+
+    private static int skipWhitespace(String sql, int start) {
+        int i = start;
+        while (i < sql.length() && Character.isWhitespace(sql.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static final class Rewritten {
+        final int rows;
+        final String sql;
+
+        Rewritten(int rows, String sql) {
+            this.rows = rows;
+            this.sql = sql;
+        }
+    }
+}
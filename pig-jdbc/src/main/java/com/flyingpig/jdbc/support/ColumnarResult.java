@@ -0,0 +1,298 @@
+package com.flyingpig.jdbc.support;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+// 按列存储的查询结果：整数列存为 LongArray 或 IntArray，浮点列存为 DoubleArray，其它列存为对象列表
+// 数值列按值存储不装箱，NULL 记在每列的 BitSet 中（读到 NULL 时才创建），数值为 0
+// 行号和列号都从 0 开始，列名不区分大小写
+public class ColumnarResult {
+
+    public enum ColumnType {
+        LONG, INT, DOUBLE, OBJECT
+    }
+
+    private final String[] names;
+    private final ColumnType[] types;
+
+    // 每列一个 LongArray、IntArray、DoubleArray 或 List<Object>
+    private final Object[] columns;
+    private final BitSet[] nulls;
+
+    private int rowCount;
+
+    private ColumnarResult(String[] names, ColumnType[] types) {
+        this.names = names;
+        this.types = types;
+        this.columns = new Object[names.length];
+        this.nulls = new BitSet[names.length];
+        for (int i = 0; i < names.length; i++) {
+            switch (types[i]) {
+                case LONG:
+                    columns[i] = new LongArray();
+                    break;
+                case INT:
+                    columns[i] = new IntArray();
+                    break;
+                case DOUBLE:
+                    columns[i] = new DoubleArray();
+                    break;
+                default:
+                    columns[i] = new ArrayList<>();
+            }
+        }
+    }
+
+    // 读取结果集的全部剩余行，不关闭结果集
+    public static ColumnarResult read(ResultSet rs) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int count = metaData.getColumnCount();
+        String[] names = new String[count];
+        ColumnType[] types = new ColumnType[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = metaData.getColumnLabel(i + 1);
+            types[i] = columnType(metaData, i + 1);
+        }
+        ColumnarResult result = new ColumnarResult(names, types);
+        while (rs.next()) {
+            result.readRow(rs);
+        }
+        result.trimToSize();
+        return result;
+    }
+
+    // 无符号的 INTEGER（MySQL INT UNSIGNED）可能超出 int 范围，按 long 存储；DECIMAL 等精确数值保留为对象
+    private static ColumnType columnType(ResultSetMetaData metaData, int column) throws SQLException {
+        switch (metaData.getColumnType(column)) {
+            case Types.BIGINT:
+                return ColumnType.LONG;
+            case Types.INTEGER:
+                return metaData.isSigned(column) ? ColumnType.INT : ColumnType.LONG;
+            case Types.SMALLINT:
+            case Types.TINYINT:
+                return ColumnType.INT;
+            case Types.DOUBLE:
+            case Types.FLOAT:
+            case Types.REAL:
+                return ColumnType.DOUBLE;
+            default:
+                return ColumnType.OBJECT;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readRow(ResultSet rs) throws SQLException {
+        for (int i = 0; i < columns.length; i++) {
+            int column = i + 1;
+            switch (types[i]) {
+                case LONG:
+                    ((LongArray) columns[i]).add(rs.getLong(column));
+                    break;
+                case INT:
+                    ((IntArray) columns[i]).add(rs.getInt(column));
+                    break;
+                case DOUBLE:
+                    ((DoubleArray) columns[i]).add(rs.getDouble(column));
+                    break;
+                default:
+                    ((List<Object>) columns[i]).add(rs.getObject(column));
+            }
+            if (rs.wasNull()) {
+                if (nulls[i] == null) {
+                    nulls[i] = new BitSet();
+                }
+                nulls[i].set(rowCount);
+            }
+        }
+        rowCount++;
+    }
+
+    private void trimToSize() {
+        for (Object column : columns) {
+            if (column instanceof LongArray) {
+                ((LongArray) column).trimToSize();
+            } else if (column instanceof IntArray) {
+                ((IntArray) column).trimToSize();
+            } else if (column instanceof DoubleArray) {
+                ((DoubleArray) column).trimToSize();
+            } else {
+                ((ArrayList<?>) column).trimToSize();
+            }
+        }
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return names.length;
+    }
+
+    public String getColumnName(int column) {
+        return names[column];
+    }
+
+    public ColumnType getColumnType(int column) {
+        return types[column];
+    }
+
+    // 按列名查找列号，找不到时抛出 IllegalArgumentException
+    public int findColumn(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("No column named " + name);
+    }
+
+    public boolean isNull(int row, int column) {
+        checkRow(row);
+        return nulls[column] != null && nulls[column].get(row);
+    }
+
+    // 数值列之间自动转换，对象列中的 Number 取 longValue，NULL 返回 0
+    public long getLong(int row, int column) {
+        checkRow(row);
+        switch (types[column]) {
+            case LONG:
+                return ((LongArray) columns[column]).get(row);
+            case INT:
+                return ((IntArray) columns[column]).get(row);
+            case DOUBLE:
+                return (long) ((DoubleArray) columns[column]).get(row);
+            default:
+                return toNumber(row, column).longValue();
+        }
+    }
+
+    public int getInt(int row, int column) {
+        if (types[column] == ColumnType.INT) {
+            checkRow(row);
+            return ((IntArray) columns[column]).get(row);
+        }
+        if (types[column] == ColumnType.OBJECT) {
+            return toNumber(row, column).intValue();
+        }
+        return (int) getLong(row, column);
+    }
+
+    public double getDouble(int row, int column) {
+        checkRow(row);
+        switch (types[column]) {
+            case DOUBLE:
+                return ((DoubleArray) columns[column]).get(row);
+            case LONG:
+                return ((LongArray) columns[column]).get(row);
+            case INT:
+                return ((IntArray) columns[column]).get(row);
+            default:
+                return toNumber(row, column).doubleValue();
+        }
+    }
+
+    // 数值列的值在这里装箱，NULL 返回 null
+    public Object getObject(int row, int column) {
+        if (isNull(row, column)) {
+            return null;
+        }
+        switch (types[column]) {
+            case LONG:
+                return ((LongArray) columns[column]).get(row);
+            case INT:
+                return ((IntArray) columns[column]).get(row);
+            case DOUBLE:
+                return ((DoubleArray) columns[column]).get(row);
+            default:
+                return ((List<?>) columns[column]).get(row);
+        }
+    }
+
+    public String getString(int row, int column) {
+        Object value = getObject(row, column);
+        return value != null ? value.toString() : null;
+    }
+
+    public long getLong(int row, String column) {
+        return getLong(row, findColumn(column));
+    }
+
+    public int getInt(int row, String column) {
+        return getInt(row, findColumn(column));
+    }
+
+    public double getDouble(int row, String column) {
+        return getDouble(row, findColumn(column));
+    }
+
+    public Object getObject(int row, String column) {
+        return getObject(row, findColumn(column));
+    }
+
+    public String getString(int row, String column) {
+        return getString(row, findColumn(column));
+    }
+
+    // 整列的值，列的类型不符时抛出 IllegalStateException；返回的数组与结果共享，不要修改
+    public LongArray getLongColumn(int column) {
+        return column(column, ColumnType.LONG, LongArray.class);
+    }
+
+    public IntArray getIntColumn(int column) {
+        return column(column, ColumnType.INT, IntArray.class);
+    }
+
+    public DoubleArray getDoubleColumn(int column) {
+        return column(column, ColumnType.DOUBLE, DoubleArray.class);
+    }
+
+    // 这一列为 NULL 的行号（副本）
+    public BitSet getNulls(int column) {
+        return nulls[column] != null ? (BitSet) nulls[column].clone() : new BitSet();
+    }
+
+    private <T> T column(int column, ColumnType type, Class<T> columnClass) {
+        if (types[column] != type) {
+            throw new IllegalStateException("Column " + names[column] + " is " + types[column] + ", not " + type);
+        }
+        return columnClass.cast(columns[column]);
+    }
+
+    private Number toNumber(int row, int column) {
+        Object value = ((List<?>) columns[column]).get(row);
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof Number) {
+            return (Number) value;
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        }
+        throw new IllegalStateException("Column " + names[column] + " is not numeric: " + value.getClass().getName());
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of bounds for " + rowCount + " rows");
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("ColumnarResult{rows=").append(rowCount).append(", columns=[");
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(names[i]).append(' ').append(types[i]);
+        }
+        return sb.append("]}").toString();
+    }
+}
@@ -0,0 +1,105 @@
+package com.flyingpig.jdbc.support;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+
+// 可增长的 long 数组，按值存储不装箱，容量不足时翻倍扩容
+// 用于 JdbcTemplate.queryForLongArray 和 ColumnarResult 的数值列，不是线程安全的
+public class LongArray {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] values;
+    private int size;
+
+    public LongArray() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongArray(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity must not be negative: " + initialCapacity);
+        }
+        this.values = new long[initialCapacity];
+    }
+
+    public void add(long value) {
+        if (size == values.length) {
+            grow();
+        }
+        values[size++] = value;
+    }
+
+    public long get(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    public void set(int index, long value) {
+        checkIndex(index);
+        values[index] = value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // 复制出长度为 size 的数组
+    public long[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    public LongStream stream() {
+        return Arrays.stream(values, 0, size);
+    }
+
+    public void forEach(LongConsumer action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(values[i]);
+        }
+    }
+
+    // 释放多余的容量
+    public void trimToSize() {
+        if (values.length > size) {
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+    private void grow() {
+        int capacity = values.length;
+        if (capacity == Integer.MAX_VALUE - 8) {
+            throw new OutOfMemoryError("LongArray is too large");
+        }
+        int newCapacity = capacity < DEFAULT_CAPACITY / 2 ? DEFAULT_CAPACITY
+                : (int) Math.min((long) capacity * 2, Integer.MAX_VALUE - 8);
+        values = Arrays.copyOf(values, newCapacity);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        int shown = Math.min(size, 20);
+        for (int i = 0; i < shown; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(values[i]);
+        }
+        if (size > shown) {
+            sb.append(", ... (").append(size).append(" values)");
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,33 @@
+package com.flyingpig.jdbc.support;
+
+// 扫描 SQL 文本时跳过引号内的内容，提取表名、解析命名参数和改写批量插入共用同一套规则
+// 单引号、双引号内的反斜杠按 MySQL 默认的 sql_mode 转义下一个字符（例如 'it\'s'），两个连续引号同样视为转义；
+// 反引号标识符中的反斜杠是普通字符
+public final class SqlLiterals {
+
+    private SqlLiterals() {
+    }
+
+    // start 处是引号，返回闭合引号之后的位置，没有闭合引号时返回 SQL 的长度
+    public static int skipQuoted(String sql, int start) {
+        char quote = sql.charAt(start);
+        boolean backslashEscapes = quote != '`';
+        int i = start + 1;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\\' && backslashEscapes) {
+                i += 2;
+                continue;
+            }
+            if (c == quote) {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return sql.length();
+    }
+}
\ No newline at end of file
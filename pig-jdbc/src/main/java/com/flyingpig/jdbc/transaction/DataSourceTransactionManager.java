@@ -2,41 +2,227 @@ package com.flyingpig.jdbc.transaction;
 
 import com.flyingpig.jdbc.DataSource;
 import com.flyingpig.jdbc.connection.ConnectionHolder;
+import com.flyingpig.jdbc.connection.LazyConnection;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Savepoint;
 
 // 事务管理器实现
 public class DataSourceTransactionManager implements TransactionManager {
     private DataSource dataSource;
 
+    // 事务连接在第一次访问数据库时才获取，关闭后在开始事务时立即获取
+    private boolean lazyConnection = true;
+
     public DataSourceTransactionManager(DataSource dataSource) {
         this.dataSource = dataSource;
     }
 
+    public boolean isLazyConnection() {
+        return lazyConnection;
+    }
+
+    public void setLazyConnection(boolean lazyConnection) {
+        this.lazyConnection = lazyConnection;
+    }
+
     public void begin() throws SQLException {
-        Connection conn = dataSource.getConnection();
-        conn.setAutoCommit(false);
-        ConnectionHolder.setConnection(conn);
+        begin(false);
+    }
+
+    // 事务期间始终使用同一个连接，读写分离时整个事务固定在主库或同一个副本上
+    @Override
+    public void begin(boolean readOnly) throws SQLException {
+        ConnectionHolder.setConnection(openConnection(readOnly));
     }
 
     public void commit() throws SQLException {
         Connection conn = ConnectionHolder.getConnection();
         if (conn != null) {
             conn.commit();
-            conn.setAutoCommit(true);
-            conn.close();
-            ConnectionHolder.removeConnection();
+            afterCommit(conn);
+            release(conn);
         }
     }
 
     public void rollback() throws SQLException {
         Connection conn = ConnectionHolder.getConnection();
         if (conn != null) {
-            conn.rollback();
+            ConnectionHolder.removeAfterCommit(conn);
+            try {
+                conn.rollback();
+            } finally {
+                release(conn);
+            }
+        }
+    }
+
+    // 按传播行为开始：加入已有事务时不获取新连接，嵌套调用始终复用外层连接；
+    // REQUIRES_NEW 和 NOT_SUPPORTED 先把外层连接从当前线程上移走，结束时恢复
+    @Override
+    public TransactionStatus begin(Propagation propagation, boolean readOnly) throws SQLException {
+        Connection existing = ConnectionHolder.getConnection();
+        switch (propagation) {
+            case REQUIRED:
+                return existing != null
+                        ? new TransactionStatus(existing, false, null, null)
+                        : startTransaction(readOnly, null);
+            case SUPPORTS:
+                return new TransactionStatus(existing, false, null, null);
+            case NESTED:
+                return existing != null
+                        ? new TransactionStatus(existing, false, existing.setSavepoint(), null)
+                        : startTransaction(readOnly, null);
+            case REQUIRES_NEW:
+                ConnectionHolder.removeConnection();
+                try {
+                    return startTransaction(readOnly, existing);
+                } catch (SQLException | RuntimeException e) {
+                    resume(existing);
+                    throw e;
+                }
+            case NOT_SUPPORTED:
+                ConnectionHolder.removeConnection();
+                return new TransactionStatus(null, false, null, existing);
+            default:
+                throw new IllegalArgumentException("Unsupported propagation: " + propagation);
+        }
+    }
+
+    // 新事务提交并释放连接；保存点只释放保存点；加入已有事务时什么都不做，由外层提交
+    // 事务被内层调用标记为只能回滚时回滚并抛出异常
+    @Override
+    public void commit(TransactionStatus status) throws SQLException {
+        checkNotCompleted(status);
+        Connection conn = status.getConnection();
+        try {
+            if (status.hasSavepoint()) {
+                releaseSavepoint(conn, status.getSavepoint());
+            } else if (status.isNewTransaction()) {
+                if (ConnectionHolder.isRollbackOnly(conn)) {
+                    ConnectionHolder.removeAfterCommit(conn);
+                    conn.rollback();
+                    throw new SQLException("Transaction rolled back because it has been marked as rollback-only");
+                }
+                commitOrRollback(conn);
+                afterCommit(conn);
+            }
+        } finally {
+            complete(status);
+        }
+    }
+
+    // 新事务回滚并释放连接；保存点回滚到保存点；加入已有事务时把整个事务标记为只能回滚
+    // 回滚到保存点后嵌套事务内部的失败已经撤销，清除它们留下的只能回滚标记，外层可以继续提交
+    @Override
+    public void rollback(TransactionStatus status) throws SQLException {
+        checkNotCompleted(status);
+        Connection conn = status.getConnection();
+        try {
+            if (status.hasSavepoint()) {
+                conn.rollback(status.getSavepoint());
+                ConnectionHolder.clearRollbackOnly(conn);
+            } else if (status.isNewTransaction()) {
+                ConnectionHolder.removeAfterCommit(conn);
+                conn.rollback();
+            } else if (conn != null) {
+                ConnectionHolder.setRollbackOnly(conn);
+            }
+        } finally {
+            complete(status);
+        }
+    }
+
+    private TransactionStatus startTransaction(boolean readOnly, Connection suspended) throws SQLException {
+        Connection conn = openConnection(readOnly);
+        ConnectionHolder.setConnection(conn);
+        return new TransactionStatus(conn, true, null, suspended);
+    }
+
+    private Connection openConnection(boolean readOnly) throws SQLException {
+        if (lazyConnection) {
+            return new LazyConnection(dataSource, readOnly, false);
+        }
+        Connection conn = dataSource.getConnection(readOnly);
+        try {
+            if (readOnly) {
+                conn.setReadOnly(true);
+            }
+            conn.setAutoCommit(false);
+            return conn;
+        } catch (SQLException | RuntimeException e) {
+            conn.close();
+            throw e;
+        }
+    }
+
+    // 提交失败时回滚，避免归还连接时 setAutoCommit(true) 把失败事务的残留提交掉
+    private void commitOrRollback(Connection conn) throws SQLException {
+        try {
+            conn.commit();
+        } catch (SQLException e) {
+            try {
+                conn.rollback();
+            } catch (SQLException ex) {
+                e.addSuppressed(ex);
+            }
+            throw e;
+        }
+    }
+
+    // 部分驱动不支持释放保存点，保存点会随事务结束一起释放，失败时忽略
+    private void releaseSavepoint(Connection conn, Savepoint savepoint) {
+        try {
+            conn.releaseSavepoint(savepoint);
+        } catch (SQLException e) {
+            // 忽略
+        }
+    }
+
+    // 新事务释放连接，然后恢复挂起的外层连接
+    private void complete(TransactionStatus status) throws SQLException {
+        status.setCompleted();
+        try {
+            if (status.isNewTransaction()) {
+                release(status.getConnection());
+            }
+        } finally {
+            resume(status.getSuspended());
+        }
+    }
+
+    private void release(Connection conn) throws SQLException {
+        ConnectionHolder.removeConnection();
+        ConnectionHolder.removeAfterCommit(conn);
+        ConnectionHolder.clearRollbackOnly(conn);
+        try {
             conn.setAutoCommit(true);
+        } finally {
             conn.close();
-            ConnectionHolder.removeConnection();
+        }
+    }
+
+    private void resume(Connection suspended) {
+        if (suspended != null) {
+            ConnectionHolder.setConnection(suspended);
+        }
+    }
+
+    private void checkNotCompleted(TransactionStatus status) {
+        if (status.isCompleted()) {
+            throw new IllegalStateException("Transaction is already completed");
+        }
+    }
+
+    // 执行事务中登记的提交后回调，单个回调失败不影响其它回调和事务本身
+    private void afterCommit(Connection conn) {
+        for (Runnable callback : ConnectionHolder.removeAfterCommit(conn)) {
+            try {
+                callback.run();
+            } catch (RuntimeException e) {
+                System.err.println("After-commit callback failed: " + e);
+            }
         }
     }
 }
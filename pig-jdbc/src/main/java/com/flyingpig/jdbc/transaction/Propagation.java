@@ -0,0 +1,15 @@
+package com.flyingpig.jdbc.transaction;
+
+// 事务传播行为，决定被调用的事务方法与调用方已有事务的关系
+public enum Propagation {
+    // 有事务时加入，没有时新建
+    REQUIRED,
+    // 挂起已有事务，总是新建一个事务（使用新的连接）
+    REQUIRES_NEW,
+    // 有事务时在同一个连接上建立保存点，回滚只回滚到保存点；没有事务时同 REQUIRED
+    NESTED,
+    // 有事务时加入，没有时以非事务方式执行
+    SUPPORTS,
+    // 挂起已有事务，以非事务方式执行
+    NOT_SUPPORTED
+}
@@ -15,19 +15,23 @@ public class TransactionAspect {
         this.transactionManager = transactionManager;
     }
 
-    @Around("@annotation(com.flyingpig.jdbc.transaction.Transactional)")
-    public Object handleTransaction(ProceedingJoinPoint pjp) throws Throwable {
+    // 按传播行为开始，方法抛出异常时回滚，否则提交；加入外层事务的调用由外层决定提交还是回滚
+    @Around(value = "@annotation(transactional)", argNames = "pjp,transactional")
+    public Object handleTransaction(ProceedingJoinPoint pjp, Transactional transactional) throws Throwable {
+        TransactionStatus status = transactionManager.begin(transactional.propagation(), transactional.readOnly());
+        Object result;
         try {
-            System.out.println("开始事务");
-            transactionManager.begin();
-            Object result = pjp.proceed();
-            System.out.println("提交事务");
-            transactionManager.commit();
-            return result;
+            result = pjp.proceed();
         } catch (Throwable e) {
-            System.out.println("事务回滚");
-            transactionManager.rollback();
+            try {
+                transactionManager.rollback(status);
+            } catch (Throwable ex) {
+                // 保留方法本身的异常
+                e.addSuppressed(ex);
+            }
             throw e;
         }
+        transactionManager.commit(status);
+        return result;
     }
-}
\ No newline at end of file
+}
@@ -6,7 +6,27 @@ import java.sql.SQLException;
 public interface TransactionManager {
     void begin() throws SQLException;
 
+    // 开始只读或读写事务，默认不区分
+    default void begin(boolean readOnly) throws SQLException {
+        begin();
+    }
+
     void commit() throws SQLException;
 
     void rollback() throws SQLException;
+
+    // 按传播行为开始一次事务方法调用，默认总是新建事务
+    default TransactionStatus begin(Propagation propagation, boolean readOnly) throws SQLException {
+        begin(readOnly);
+        return new TransactionStatus(null, true, null, null);
+    }
+
+    // 结束 begin(Propagation, boolean) 开始的调用，只有新事务才真正提交
+    default void commit(TransactionStatus status) throws SQLException {
+        commit();
+    }
+
+    default void rollback(TransactionStatus status) throws SQLException {
+        rollback();
+    }
 }
@@ -0,0 +1,57 @@
+package com.flyingpig.jdbc.transaction;
+
+import java.sql.Connection;
+import java.sql.Savepoint;
+
+// 一次事务方法调用的状态，由 TransactionManager.begin 返回，提交或回滚时传回
+public class TransactionStatus {
+
+    // 本次调用使用的事务连接，以非事务方式执行时为 null
+    private final Connection connection;
+
+    // 连接是否由本次调用获取，只有新事务才真正提交、回滚和关闭连接
+    private final boolean newTransaction;
+
+    // NESTED 在已有事务中建立的保存点
+    private final Savepoint savepoint;
+
+    // 被挂起的外层事务连接，本次调用结束后恢复
+    private final Connection suspended;
+
+    private boolean completed;
+
+    public TransactionStatus(Connection connection, boolean newTransaction, Savepoint savepoint, Connection suspended) {
+        this.connection = connection;
+        this.newTransaction = newTransaction;
+        this.savepoint = savepoint;
+        this.suspended = suspended;
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    public boolean isNewTransaction() {
+        return newTransaction;
+    }
+
+    public boolean hasSavepoint() {
+        return savepoint != null;
+    }
+
+    public Savepoint getSavepoint() {
+        return savepoint;
+    }
+
+    public Connection getSuspended() {
+        return suspended;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    void setCompleted() {
+        this.completed = true;
+    }
+}
@@ -10,4 +10,10 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Transactional {
     String value() default "";
+
+    // 只读事务：使用只读副本的连接（配置了副本时），并把连接设为只读
+    boolean readOnly() default false;
+
+    // 传播行为，加入已有事务时 readOnly 不生效
+    Propagation propagation() default Propagation.REQUIRED;
 }
@@ -0,0 +1,55 @@
+package com.flyingpig.jdbc.writebehind;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+// 缓冲中的一行更新：表名、主键列和主键值，以及要更新的列和值（按列名排序，同一行的多次更新合并到这里）
+public class BufferedUpdate {
+
+    private final String table;
+    private final String keyColumn;
+    private final Object key;
+    private final TreeMap<String, Object> values;
+
+    public BufferedUpdate(String table, String keyColumn, Object key, Map<String, ?> values) {
+        this.table = table;
+        this.keyColumn = keyColumn;
+        this.key = key;
+        this.values = new TreeMap<>(values);
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public String getKeyColumn() {
+        return keyColumn;
+    }
+
+    public Object getKey() {
+        return key;
+    }
+
+    public Map<String, Object> getValues() {
+        return Collections.unmodifiableMap(values);
+    }
+
+    // 合并更新的值，newer 为 true 时覆盖已有的列，否则只补上没有的列（失败重试的旧值不能覆盖新值）
+    void merge(Map<String, Object> other, boolean newer) {
+        if (newer) {
+            values.putAll(other);
+        } else {
+            other.forEach(values::putIfAbsent);
+        }
+    }
+
+    TreeMap<String, Object> values() {
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return "BufferedUpdate{" + table + '.' + keyColumn + '=' + key + ", values=" + values + '}';
+    }
+}
@@ -0,0 +1,428 @@
+package com.flyingpig.jdbc.writebehind;
+
+import com.flyingpig.jdbc.JdbcTemplate;
+import com.flyingpig.jdbc.connection.ConnectionHolder;
+import com.flyingpig.jdbc.metrics.LatencyHistogram;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+// 写回缓冲：按表名和主键收集 UPDATE，同一行的多次更新合并为一次（后写的列覆盖先写的），
+// 缓冲的行数达到 maxPending 或距上次刷新超过 flushInterval 毫秒时，由后台线程按"表 + 更新的列"分组，每组一条 UPDATE 批量执行
+// 适合同一行在短时间内被频繁更新、允许短暂延迟的数据（例如计数、最后活跃时间）；
+// 缓冲中的更新对查询不可见，也不属于调用方的事务（调用方回滚不会撤销已经缓冲的更新）
+// 刷新失败的更新放回缓冲重试（不覆盖之后写入的新值），重试 maxRetries 次后丢弃并通知 WriteBehindListener
+// start 启动刷新线程（并重放 WriteBehindJournal 中未写入的更新），close 停止线程并刷新剩余的更新
+public class WriteBehindBuffer implements AutoCloseable {
+
+    // 表名和列名直接拼进 SQL，只允许普通标识符（可以带 schema 前缀）
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_$]*(\\.[A-Za-z_][A-Za-z0-9_$]*)?");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // 缓冲的行数达到后立即刷新；超过 2 倍时写入的线程自己刷新，等待之前的刷新完成（背压）
+    private int maxPending = 1000;
+
+    // 刷新间隔，毫秒
+    private long flushInterval = 100;
+
+    private int maxRetries = 3;
+
+    private WriteBehindJournal journal;
+    private WriteBehindListener listener;
+
+    // 行 -> 合并后的更新，保持第一次写入的顺序
+    private final Object lock = new Object();
+    private LinkedHashMap<RowKey, Pending> pending = new LinkedHashMap<>();
+
+    // 同一时间只有一次刷新，后一次刷新的值总是在前一次之后写入
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final Semaphore wakeup = new Semaphore(0);
+    private Thread flushThread;
+    private volatile boolean running;
+
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder flushedRows = new LongAdder();
+    private final LongAdder retriedRows = new LongAdder();
+    private final LongAdder droppedRows = new LongAdder();
+    private final LatencyHistogram flushLatency = new LatencyHistogram();
+
+    public WriteBehindBuffer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public int getMaxPending() {
+        return maxPending;
+    }
+
+    public void setMaxPending(int maxPending) {
+        if (maxPending < 1) {
+            throw new IllegalArgumentException("maxPending must be positive: " + maxPending);
+        }
+        this.maxPending = maxPending;
+    }
+
+    public long getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(long flushInterval) {
+        if (flushInterval < 1) {
+            throw new IllegalArgumentException("flushInterval must be positive: " + flushInterval);
+        }
+        this.flushInterval = flushInterval;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("maxRetries must not be negative: " + maxRetries);
+        }
+        this.maxRetries = maxRetries;
+    }
+
+    public WriteBehindJournal getJournal() {
+        return journal;
+    }
+
+    public void setJournal(WriteBehindJournal journal) {
+        this.journal = journal;
+    }
+
+    public WriteBehindListener getListener() {
+        return listener;
+    }
+
+    public void setListener(WriteBehindListener listener) {
+        this.listener = listener;
+    }
+
+    // 重放 journal 中未写入的更新，启动后台刷新线程
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        if (journal != null) {
+            for (BufferedUpdate update : journal.recover()) {
+                buffer(update, true, 0);
+            }
+        }
+        running = true;
+        flushThread = new Thread(this::flushLoop, "pig-jdbc-write-behind");
+        flushThread.setDaemon(true);
+        flushThread.start();
+    }
+
+    // 缓冲一次单列更新：UPDATE table SET column = value WHERE keyColumn = key
+    public void update(String table, String keyColumn, Object key, String column, Object value) {
+        update(table, keyColumn, key, Collections.singletonMap(column, value));
+    }
+
+    // 缓冲一次多列更新：UPDATE table SET c1 = v1, c2 = v2 WHERE keyColumn = key
+    // 表名和列名不区分大小写（统一转为小写）；主键值按 equals 判断是否同一行，同一张表应使用同一种类型（例如都用 Long）
+    public void update(String table, String keyColumn, Object key, Map<String, ?> values) {
+        Objects.requireNonNull(key, "key");
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("No columns to update for " + table + "." + keyColumn + "=" + key);
+        }
+        String tableName = identifier(table);
+        String keyColumnName = identifier(keyColumn);
+        Map<String, Object> columns = new LinkedHashMap<>();
+        for (Map.Entry<String, ?> entry : values.entrySet()) {
+            columns.put(identifier(entry.getKey()), entry.getValue());
+        }
+        if (!running) {
+            throw new IllegalStateException("WriteBehindBuffer is not started or already closed");
+        }
+        BufferedUpdate update = new BufferedUpdate(tableName, keyColumnName, key, columns);
+        if (journal != null) {
+            journal.append(update);
+        }
+        writes.increment();
+        int size = buffer(update, true, 0);
+        if (size >= maxPending * 2) {
+            flush();
+        } else if (size >= maxPending) {
+            wakeup.release();
+        }
+    }
+
+    // 合并到缓冲中，返回合并后的行数；newer 为 false 时是失败重试的旧值，不覆盖缓冲中已有的新值
+    private int buffer(BufferedUpdate update, boolean newer, int retries) {
+        RowKey rowKey = new RowKey(update.getTable(), update.getKeyColumn(), update.getKey());
+        synchronized (lock) {
+            Pending existing = pending.get(rowKey);
+            if (existing == null) {
+                pending.put(rowKey, new Pending(
+                        new BufferedUpdate(update.getTable(), update.getKeyColumn(), update.getKey(), update.values()), retries));
+            } else {
+                existing.update.merge(update.values(), newer);
+                if (newer) {
+                    coalesced.increment();
+                }
+            }
+            return pending.size();
+        }
+    }
+
+    // 立即写入缓冲中的全部更新，返回成功写入的行数；与后台刷新串行执行
+    public int flush() {
+        flushLock.lock();
+        try {
+            List<Pending> batch;
+            synchronized (lock) {
+                if (pending.isEmpty()) {
+                    return 0;
+                }
+                batch = new ArrayList<>(pending.values());
+                pending = new LinkedHashMap<>();
+            }
+            long start = System.nanoTime();
+            int written = write(batch);
+            flushLatency.record(System.nanoTime() - start);
+            return written;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // 按 SQL 分组批量执行，每组单独成功或失败
+    // 不参与调用线程的事务：缓冲中有其它线程的更新，背压时在调用线程上刷新，调用方回滚时这些更新不能跟着丢失
+    private int write(List<Pending> batch) {
+        Connection suspended = ConnectionHolder.getConnection();
+        ConnectionHolder.removeConnection();
+        try {
+            return writeGroups(batch);
+        } finally {
+            if (suspended != null) {
+                ConnectionHolder.setConnection(suspended);
+            }
+        }
+    }
+
+    private int writeGroups(List<Pending> batch) {
+        Map<String, List<Pending>> groups = new LinkedHashMap<>();
+        for (Pending p : batch) {
+            groups.computeIfAbsent(updateSql(p.update), sql -> new ArrayList<>()).add(p);
+        }
+        int written = 0;
+        for (Map.Entry<String, List<Pending>> group : groups.entrySet()) {
+            List<Pending> rows = group.getValue();
+            List<Object[]> args = new ArrayList<>(rows.size());
+            for (Pending p : rows) {
+                Object[] rowArgs = new Object[p.update.values().size() + 1];
+                int i = 0;
+                for (Object value : p.update.values().values()) {
+                    rowArgs[i++] = value;
+                }
+                rowArgs[i] = p.update.getKey();
+                args.add(rowArgs);
+            }
+            try {
+                jdbcTemplate.batchUpdate(group.getKey(), args);
+            } catch (SQLException | RuntimeException e) {
+                failed(rows, e);
+                continue;
+            }
+            written += rows.size();
+            flushedRows.add(rows.size());
+            if (journal != null) {
+                List<BufferedUpdate> updates = new ArrayList<>(rows.size());
+                for (Pending p : rows) {
+                    updates.add(p.update);
+                }
+                try {
+                    journal.flushed(updates);
+                } catch (RuntimeException e) {
+                    System.err.println("Write-behind journal failed: " + e);
+                }
+            }
+        }
+        return written;
+    }
+
+    // 放回缓冲重试，超过重试次数的丢弃
+    private void failed(List<Pending> rows, Exception cause) {
+        List<BufferedUpdate> dropped = new ArrayList<>();
+        for (Pending p : rows) {
+            if (p.retries < maxRetries) {
+                buffer(p.update, false, p.retries + 1);
+                retriedRows.increment();
+            } else {
+                dropped.add(p.update);
+            }
+        }
+        if (dropped.isEmpty()) {
+            return;
+        }
+        droppedRows.add(dropped.size());
+        System.err.println("Write-behind dropped " + dropped.size() + " update(s) after " + maxRetries + " retries: " + cause);
+        WriteBehindListener l = listener;
+        if (l != null) {
+            try {
+                l.onDropped(dropped, cause);
+            } catch (RuntimeException e) {
+                System.err.println("Write-behind listener failed: " + e);
+            }
+        }
+    }
+
+    private static String updateSql(BufferedUpdate update) {
+        StringBuilder sb = new StringBuilder(64).append("UPDATE ").append(update.getTable()).append(" SET ");
+        boolean first = true;
+        for (String column : update.values().keySet()) {
+            if (!first) {
+                sb.append(", ");
+            }
+            sb.append(column).append(" = ?");
+            first = false;
+        }
+        return sb.append(" WHERE ").append(update.getKeyColumn()).append(" = ?").toString();
+    }
+
+    private static String identifier(String name) {
+        if (name == null || !IDENTIFIER.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid identifier: " + name);
+        }
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private void flushLoop() {
+        while (running) {
+            try {
+                wakeup.tryAcquire(flushInterval, TimeUnit.MILLISECONDS);
+                wakeup.drainPermits();
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (!running) {
+                // 最后一次刷新由 close 执行
+                break;
+            }
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                System.err.println("Write-behind flush failed: " + e);
+            }
+        }
+    }
+
+    // 停止接收更新，等待后台线程结束后刷新剩余的更新；失败的更新在这里还会按 maxRetries 重试
+    @Override
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            thread = flushThread;
+        }
+        // 不中断刷新线程，部分驱动在 I/O 中被中断时会关闭连接
+        wakeup.release();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (int attempt = 0; attempt <= maxRetries && getPending() > 0; attempt++) {
+            flush();
+        }
+    }
+
+    // 缓冲中等待写入的行数
+    public int getPending() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    public long getWrites() {
+        return writes.sum();
+    }
+
+    // 合并到已缓冲行的写入次数
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    public long getFlushedRows() {
+        return flushedRows.sum();
+    }
+
+    public long getDroppedRows() {
+        return droppedRows.sum();
+    }
+
+    // 合并比例：写入次数 / 实际执行的行数，越大说明合并掉的更新越多
+    public double getCoalescingRatio() {
+        long rows = flushedRows.sum();
+        return rows == 0 ? 0 : writes.sum() / (double) rows;
+    }
+
+    public LatencyHistogram getFlushLatency() {
+        return flushLatency;
+    }
+
+    @Override
+    public String toString() {
+        return "writes=" + getWrites() + ", coalesced=" + getCoalesced() + ", flushedRows=" + getFlushedRows()
+                + ", retriedRows=" + retriedRows.sum() + ", droppedRows=" + getDroppedRows() + ", pending=" + getPending()
+                + ", coalescingRatio=" + String.format("%.2f", getCoalescingRatio())
+                + ", flushes=" + flushLatency.getCount()
+                + ", flushP99Ms=" + String.format("%.3f", flushLatency.getPercentileNanos(0.99) / 1_000_000.0);
+    }
+
+    private static final class RowKey {
+        final String table;
+        final String keyColumn;
+        final Object key;
+
+        RowKey(String table, String keyColumn, Object key) {
+            this.table = table;
+            this.keyColumn = keyColumn;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof RowKey)) {
+                return false;
+            }
+            RowKey other = (RowKey) o;
+            return table.equals(other.table) && keyColumn.equals(other.keyColumn) && key.equals(other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return (table.hashCode() * 31 + keyColumn.hashCode()) * 31 + key.hashCode();
+        }
+    }
+
+    private static final class Pending {
+        final BufferedUpdate update;
+        final int retries;
+
+        Pending(BufferedUpdate update, int retries) {
+            this.update = update;
+            this.retries = retries;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.flyingpig.jdbc.writebehind;
+
+import java.util.Collections;
+import java.util.List;
+
+// 写回缓冲的持久化钩子：缓冲中的更新在写入数据库之前只在内存中，进程崩溃时会丢失，
+// 需要不丢数据时在 append 中把更新写到本地日志或消息队列，写入数据库后在 flushed 中截断，启动时由 recover 重放
+public interface WriteBehindJournal {
+
+    // 更新放进缓冲之前调用，抛出异常时这次更新失败，不会进入缓冲
+    void append(BufferedUpdate update);
+
+    // 一批更新已经写入数据库（合并后的行，不是每次调用）
+    void flushed(List<BufferedUpdate> updates);
+
+    // 启动时调用，返回上次没有写入数据库的更新，按原顺序重新放进缓冲
+    default List<BufferedUpdate> recover() {
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,9 @@
+package com.flyingpig.jdbc.writebehind;
+
+import java.util.List;
+
+// 写回失败的回调：重试 maxRetries 次后仍然失败的更新被丢弃，丢弃前调用，在刷新线程上执行
+public interface WriteBehindListener {
+
+    void onDropped(List<BufferedUpdate> updates, Throwable cause);
+}
@@ -0,0 +1,21 @@
+package com.flyingpig.jdbc;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 测试用的 H2 内存数据库连接池，每次调用使用一个新的库，测试之间互不影响
+public final class H2DataSources {
+
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    private H2DataSources() {
+    }
+
+    public static PooledDataSource create() {
+        PooledDataSource dataSource = new PooledDataSource(
+                "jdbc:h2:mem:pig" + COUNTER.incrementAndGet() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        dataSource.setMinIdle(0);
+        dataSource.setMaxPoolSize(4);
+        dataSource.setConnectionTimeout(2000);
+        return dataSource;
+    }
+}
\ No newline at end of file
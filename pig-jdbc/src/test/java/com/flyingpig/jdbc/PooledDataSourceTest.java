@@ -0,0 +1,156 @@
+package com.flyingpig.jdbc;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class PooledDataSourceTest {
+
+    private PooledDataSource dataSource;
+
+    @Before
+    public void setUp() {
+        dataSource = H2DataSources.create();
+        dataSource.setMaxPoolSize(2);
+    }
+
+    @After
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    public void closedConnectionIsReturnedAndReused() throws SQLException {
+        Connection first = dataSource.getConnection();
+        assertEquals(1, dataSource.getActiveConnections());
+        first.close();
+        assertEquals(0, dataSource.getActiveConnections());
+        assertEquals(1, dataSource.getIdleConnections());
+
+        Connection second = dataSource.getConnection();
+        assertEquals(1, dataSource.getTotalConnections());
+        second.close();
+    }
+
+    @Test
+    public void exhaustedPoolTimesOut() throws SQLException {
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+        dataSource.setConnectionTimeout(300);
+        long start = System.nanoTime();
+        try {
+            dataSource.getConnection();
+            fail("Pool with all connections in use must time out");
+        } catch (SQLTransientConnectionException e) {
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 250);
+        }
+        assertEquals(2, dataSource.getTotalConnections());
+        first.close();
+        second.close();
+    }
+
+    @Test
+    public void waitingThreadReceivesReleasedConnection() throws Exception {
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+        CompletableFuture<Connection> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return dataSource.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        long deadline = System.currentTimeMillis() + 5000;
+        while (dataSource.getThreadsAwaitingConnection() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        first.close();
+        Connection handedOff = waiter.get(5, TimeUnit.SECONDS);
+        assertEquals(2, dataSource.getTotalConnections());
+        handedOff.close();
+        second.close();
+    }
+
+    @Test
+    public void sessionStateIsResetOnReturn() throws SQLException {
+        Connection conn = dataSource.getConnection();
+        conn.setAutoCommit(false);
+        conn.setReadOnly(true);
+        conn.close();
+
+        Connection reused = dataSource.getConnection();
+        assertTrue(reused.getAutoCommit());
+        assertFalse(reused.isReadOnly());
+        reused.close();
+    }
+
+    @Test
+    public void preparedStatementsAreCachedPerConnection() throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            for (int i = 0; i < 3; i++) {
+                try (PreparedStatement ps = conn.prepareStatement("SELECT 1")) {
+                    ps.executeQuery().close();
+                }
+            }
+        }
+        assertEquals(1, dataSource.getStatementCacheMetrics().getMisses());
+        assertEquals(2, dataSource.getStatementCacheMetrics().getHits());
+    }
+
+    @Test
+    public void closeOnCompletionStatementIsNotReused() throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement("SELECT 1")) {
+                ps.setMaxFieldSize(8);
+                ps.closeOnCompletion();
+            }
+            // closeOnCompletion 无法撤销，复用时下一次查询的结果集关闭会连带关闭物理语句，归还时从缓存中移除
+            try (PreparedStatement ps = conn.prepareStatement("SELECT 1")) {
+                assertFalse(ps.isCloseOnCompletion());
+                assertEquals(0, ps.getMaxFieldSize());
+                ps.executeQuery().close();
+            }
+        }
+        assertEquals(2, dataSource.getStatementCacheMetrics().getMisses());
+        assertEquals(0, dataSource.getStatementCacheMetrics().getHits());
+    }
+
+    @Test
+    public void leakIsReportedOnceOnOneLine() throws Exception {
+        PooledDataSource leaky = H2DataSources.create();
+        leaky.setLeakDetectionThreshold(50);
+        leaky.setHousekeepingPeriod(20);
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        PrintStream originalErr = System.err;
+        System.setErr(new PrintStream(err, true, StandardCharsets.UTF_8));
+        try {
+            Connection conn = leaky.getConnection();
+            // 维护任务在这段时间内运行多次
+            Thread.sleep(300);
+            conn.close();
+        } finally {
+            System.setErr(originalErr);
+            leaky.close();
+        }
+        List<String> reports = err.toString(StandardCharsets.UTF_8).lines()
+                .filter(line -> line.startsWith("Connection leak detection triggered"))
+                .collect(Collectors.toList());
+        assertEquals(1, reports.size());
+        assertTrue(reports.get(0), reports.get(0).contains("ms ago at "));
+        assertFalse(err.toString(StandardCharsets.UTF_8).contains("Connection borrowed here"));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.flyingpig.jdbc;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class QuerySetTest {
+
+    private PooledDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void setUp() throws SQLException {
+        dataSource = H2DataSources.create();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("CREATE TABLE item(id INT PRIMARY KEY, price INT)");
+        for (int i = 1; i <= 5; i++) {
+            jdbcTemplate.update("INSERT INTO item VALUES (?, ?)", i, i * 10);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    public void parallelQueriesFillResults() throws SQLException {
+        QuerySet querySet = new QuerySet();
+        QuerySet.Result<Long> count = querySet.queryForValue("SELECT COUNT(*) FROM item", Long.class);
+        QuerySet.Result<Integer> max = querySet.queryForValue("SELECT MAX(price) FROM item", Integer.class);
+        QuerySet.Result<List<Integer>> ids = querySet.queryForList("SELECT id FROM item WHERE price > ? ORDER BY id",
+                (rs, rowNum) -> rs.getInt(1), 30);
+        assertFalse(count.isDone());
+
+        jdbcTemplate.queryParallel(querySet, 2);
+        assertEquals(Long.valueOf(5), count.get());
+        assertEquals(Integer.valueOf(50), max.get());
+        assertEquals(List.of(4, 5), ids.get());
+        assertEquals(0, dataSource.getActiveConnections());
+    }
+
+    @Test
+    public void failureNamesQueryIndex() {
+        QuerySet querySet = new QuerySet();
+        QuerySet.Result<Long> count = querySet.queryForValue("SELECT COUNT(*) FROM item", Long.class);
+        querySet.queryForValue("SELECT COUNT(*) FROM missing", Long.class);
+        try {
+            jdbcTemplate.queryParallel(querySet, 2);
+            fail("Query on a missing table must fail");
+        } catch (SQLException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Query 1 failed"));
+        }
+    }
+
+    @Test
+    public void querySetRunsOnlyOnce() throws SQLException {
+        QuerySet querySet = new QuerySet();
+        querySet.queryForValue("SELECT COUNT(*) FROM item", Long.class);
+        jdbcTemplate.queryParallel(querySet);
+        try {
+            jdbcTemplate.queryParallel(querySet);
+            fail("QuerySet must not run twice");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("already been executed"));
+        }
+        try {
+            querySet.queryForValue("SELECT 1", Integer.class);
+            fail("Executed QuerySet must not accept queries");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void resultIsUnavailableBeforeExecution() {
+        new QuerySet().queryForValue("SELECT 1", Integer.class).get();
+    }
+}
\ No newline at end of file
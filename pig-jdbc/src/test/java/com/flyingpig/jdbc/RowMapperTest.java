@@ -0,0 +1,130 @@
+package com.flyingpig.jdbc;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RowMapperTest {
+
+    private PooledDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void setUp() throws SQLException {
+        dataSource = H2DataSources.create();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("CREATE TABLE users(id BIGINT PRIMARY KEY, user_name VARCHAR(32), age INT, "
+                + "balance DECIMAL(10, 2), birthday DATE, vip BOOLEAN)");
+        jdbcTemplate.update("INSERT INTO users VALUES (1, 'pig', 3, 12.50, DATE '2020-01-02', TRUE)");
+        jdbcTemplate.update("INSERT INTO users VALUES (2, 'dog', NULL, NULL, NULL, NULL)");
+    }
+
+    @After
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    public void beanMapperMatchesColumnsIgnoringCaseAndUnderscores() throws SQLException {
+        List<User> users = jdbcTemplate.queryForList("SELECT * FROM users ORDER BY id", BeanPropertyRowMapper.of(User.class));
+        User pig = users.get(0);
+        assertEquals(Long.valueOf(1), pig.getId());
+        assertEquals("pig", pig.getUserName());
+        assertEquals(Integer.valueOf(3), pig.getAge());
+        assertEquals(new BigDecimal("12.50"), pig.getBalance());
+        assertEquals(LocalDate.of(2020, 1, 2), pig.getBirthday());
+        assertTrue(pig.isVip());
+
+        User dog = users.get(1);
+        assertEquals("dog", dog.getUserName());
+        assertNull(dog.getAge());
+        assertNull(dog.getBalance());
+    }
+
+    @Test
+    public void beanMapperHandlesDifferentColumnSets() throws SQLException {
+        BeanPropertyRowMapper<User> mapper = BeanPropertyRowMapper.of(User.class);
+        User full = jdbcTemplate.queryForObject("SELECT * FROM users WHERE id = ?", mapper, 1);
+        // 同一个映射器用于另一组列：没有对应列的属性保留初始值，没有对应属性的列忽略
+        User partial = jdbcTemplate.queryForObject("SELECT age, 'x' AS unknown_column FROM users WHERE id = ?", mapper, 1);
+        assertEquals("pig", full.getUserName());
+        assertNull(partial.getUserName());
+        assertNull(partial.getId());
+        assertEquals(Integer.valueOf(3), partial.getAge());
+    }
+
+    @Test
+    public void recordMapperUsesDefaultsForNullPrimitives() throws SQLException {
+        List<UserRecord> users = jdbcTemplate.queryForList("SELECT id, user_name, age, vip FROM users ORDER BY id",
+                RecordRowMapper.of(UserRecord.class));
+        assertEquals(new UserRecord(1, "pig", 3, true), users.get(0));
+        assertEquals(new UserRecord(2, "dog", 0, false), users.get(1));
+    }
+
+    public record UserRecord(long id, String userName, int age, boolean vip) {
+    }
+
+    public static class User {
+        private Long id;
+        private String userName;
+        private Integer age;
+        private BigDecimal balance;
+        private LocalDate birthday;
+        private boolean vip;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getUserName() {
+            return userName;
+        }
+
+        public void setUserName(String userName) {
+            this.userName = userName;
+        }
+
+        public Integer getAge() {
+            return age;
+        }
+
+        public void setAge(Integer age) {
+            this.age = age;
+        }
+
+        public BigDecimal getBalance() {
+            return balance;
+        }
+
+        public void setBalance(BigDecimal balance) {
+            this.balance = balance;
+        }
+
+        public LocalDate getBirthday() {
+            return birthday;
+        }
+
+        public void setBirthday(LocalDate birthday) {
+            this.birthday = birthday;
+        }
+
+        public boolean isVip() {
+            return vip;
+        }
+
+        public void setVip(boolean vip) {
+            this.vip = vip;
+        }
+    }
+}
\ No newline at end of file
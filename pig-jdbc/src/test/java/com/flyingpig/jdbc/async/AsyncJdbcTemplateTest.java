@@ -0,0 +1,156 @@
+package com.flyingpig.jdbc.async;
+
+import com.flyingpig.jdbc.H2DataSources;
+import com.flyingpig.jdbc.JdbcTemplate;
+import com.flyingpig.jdbc.PooledDataSource;
+import com.flyingpig.jdbc.connection.ConnectionHolder;
+import com.flyingpig.jdbc.transaction.DataSourceTransactionManager;
+import com.flyingpig.jdbc.transaction.Propagation;
+import com.flyingpig.jdbc.transaction.TransactionStatus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class AsyncJdbcTemplateTest {
+
+    private PooledDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void setUp() throws SQLException {
+        dataSource = H2DataSources.create();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("CREATE TABLE item(id INT PRIMARY KEY)");
+    }
+
+    @After
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    public void boundedExecutorQueuesTasksBeyondLimit() throws Exception {
+        ExecutorService threads = Executors.newCachedThreadPool();
+        try {
+            BoundedExecutor executor = new BoundedExecutor(threads, 2);
+            CountDownLatch started = new CountDownLatch(2);
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(10);
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger maxRunning = new AtomicInteger();
+            for (int i = 0; i < 10; i++) {
+                executor.execute(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    done.countDown();
+                });
+            }
+            // 提交线程不阻塞，超出上限的任务排队
+            assertEquals(2, executor.getInFlight());
+            assertEquals(8, executor.getPending());
+
+            // 两个拿到许可的任务都开始执行后再放行
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            release.countDown();
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals(2, maxRunning.get());
+            assertEquals(0, executor.getPending());
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failedTaskDoesNotStopQueuedTasks() throws Exception {
+        ExecutorService threads = Executors.newCachedThreadPool();
+        try {
+            BoundedExecutor executor = new BoundedExecutor(threads, 1);
+            CountDownLatch done = new CountDownLatch(1);
+            executor.execute(() -> {
+                throw new IllegalStateException("expected");
+            });
+            executor.execute(done::countDown);
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    public void callsCompleteOnAsyncThreads() throws Exception {
+        AsyncJdbcTemplate async = new AsyncJdbcTemplate(jdbcTemplate, 2);
+        List<CompletableFuture<Integer>> inserts = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            inserts.add(async.update("INSERT INTO item VALUES (?)", i));
+        }
+        CompletableFuture.allOf(inserts.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        assertEquals(Long.valueOf(20), async.queryForValue("SELECT COUNT(*) FROM item", Long.class).get(5, TimeUnit.SECONDS));
+        assertTrue(async.getExecutor().getMaxInFlight() >= 1);
+    }
+
+    @Test
+    public void failureCompletesFutureExceptionally() throws Exception {
+        AsyncJdbcTemplate async = new AsyncJdbcTemplate(jdbcTemplate, 2);
+        CompletableFuture<Integer> future = async.update("INSERT INTO missing VALUES (1)");
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("Insert into a missing table must fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof SQLException);
+        }
+    }
+
+    @Test
+    public void dataSourceHasOneConcurrencyLimit() {
+        AsyncJdbcTemplate async = new AsyncJdbcTemplate(jdbcTemplate, 2);
+        assertSame(async.getExecutor(), new AsyncJdbcTemplate(jdbcTemplate, 2).getExecutor());
+        // 不指定上限时沿用已有的限制器
+        assertSame(async.getExecutor(), new AsyncJdbcTemplate(jdbcTemplate).getExecutor());
+        try {
+            new AsyncJdbcTemplate(jdbcTemplate, 3);
+            fail("A different limit for the same DataSource must be rejected");
+        } catch (IllegalStateException e) {
+            assertEquals(2, async.getExecutor().getMaxInFlight());
+        }
+    }
+
+    @Test
+    public void callInsideTransactionRunsOnCallerThread() throws Exception {
+        AsyncJdbcTemplate async = new AsyncJdbcTemplate(jdbcTemplate, 2);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        TransactionStatus status = transactionManager.begin(Propagation.REQUIRED, false);
+        try {
+            Thread caller = Thread.currentThread();
+            CompletableFuture<Thread> thread = async.execute(jdbc -> {
+                jdbc.update("INSERT INTO item VALUES (1)");
+                return Thread.currentThread();
+            });
+            // 事务中的调用使用事务的连接同步执行，返回时已经完成
+            assertTrue(thread.isDone());
+            assertSame(caller, thread.get());
+        } finally {
+            transactionManager.rollback(status);
+            ConnectionHolder.removeConnection();
+        }
+        assertEquals(Long.valueOf(0), jdbcTemplate.queryForValue("SELECT COUNT(*) FROM item", Long.class));
+    }
+}
\ No newline at end of file
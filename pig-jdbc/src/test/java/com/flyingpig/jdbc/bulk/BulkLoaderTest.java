@@ -0,0 +1,189 @@
+package com.flyingpig.jdbc.bulk;
+
+import com.flyingpig.jdbc.H2DataSources;
+import com.flyingpig.jdbc.JdbcTemplate;
+import com.flyingpig.jdbc.PooledDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class BulkLoaderTest {
+
+    private static final String INSERT = "INSERT INTO item (id, name) VALUES (?, ?)";
+
+    private PooledDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void setUp() throws SQLException {
+        dataSource = H2DataSources.create();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("CREATE TABLE item(id INT PRIMARY KEY, name VARCHAR(16))");
+    }
+
+    @After
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    public void loadsAllRowsInParallel() throws SQLException {
+        BulkLoader loader = new BulkLoader(jdbcTemplate);
+        loader.setParallelism(3);
+        loader.setChunkSize(100);
+        loader.setCommitInterval(250);
+        List<BulkLoadProgress> progress = new ArrayList<>();
+        loader.setListener(new BulkLoadListener() {
+            @Override
+            public void onProgress(BulkLoadProgress p) {
+                synchronized (progress) {
+                    progress.add(p);
+                }
+            }
+        });
+
+        BulkLoadResult result = loader.load(INSERT, IntStream.range(0, 1050).boxed(), i -> new Object[]{i, "item" + i});
+        assertTrue(result.isSuccess());
+        assertEquals(1050, result.getRowsRead());
+        assertEquals(1050, result.getRowsLoaded());
+        assertEquals(1050, count());
+        // 最后一次回调是导入结束时的进度
+        assertEquals(1050, progress.get(progress.size() - 1).getRowsLoaded());
+        assertEquals(0, dataSource.getActiveConnections());
+    }
+
+    @Test
+    public void failedChunkIsReportedAndOtherChunksAreReplayed() throws SQLException {
+        BulkLoader loader = new BulkLoader(jdbcTemplate);
+        loader.setParallelism(1);
+        loader.setChunkSize(100);
+        loader.setCommitInterval(300);
+        List<FailedChunk> reported = new ArrayList<>();
+        loader.setListener(new BulkLoadListener() {
+            @Override
+            public void onChunkFailed(FailedChunk chunk) {
+                reported.add(chunk);
+            }
+        });
+
+        // 第 250 行与第 10 行主键重复，[200, 300) 这一块失败；同一事务中未提交的前两块重新执行
+        BulkLoadResult result = loader.load(INSERT, IntStream.range(0, 500).boxed(),
+                i -> new Object[]{i == 250 ? 10 : i, "item" + i});
+        assertFalse(result.isSuccess());
+        assertEquals(1, result.getFailedChunks().size());
+        FailedChunk failed = result.getFailedChunks().get(0);
+        assertEquals(200, failed.getFirstRow());
+        assertEquals(100, failed.getRowCount());
+        assertTrue(failed.getCause() instanceof SQLException);
+        assertEquals(1, reported.size());
+        assertEquals(400, result.getRowsLoaded());
+        assertEquals(400, count());
+    }
+
+    @Test
+    public void replayReportsOnlyChunksThatFailAgain() throws SQLException {
+        BulkLoader loader = new BulkLoader(jdbcTemplate);
+        loader.setParallelism(1);
+        loader.setChunkSize(100);
+        loader.setCommitInterval(300);
+        loader.setListener(new BulkLoadListener() {
+            @Override
+            public void onChunkFailed(FailedChunk chunk) {
+                // [200, 300) 失败回滚后，另一个连接写入第 150 行，重新执行 [100, 200) 时主键重复
+                if (chunk.getFirstRow() == 200) {
+                    try {
+                        jdbcTemplate.update(INSERT, 150, "other");
+                    } catch (SQLException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            }
+        });
+
+        BulkLoadResult result = loader.load(INSERT, IntStream.range(0, 500).boxed(),
+                i -> new Object[]{i == 250 ? 10 : i, "item" + i});
+        assertEquals(2, result.getFailedChunks().size());
+        assertEquals(100, result.getFailedChunks().get(0).getFirstRow());
+        assertEquals(200, result.getFailedChunks().get(1).getFirstRow());
+        // [0, 100) 重新执行成功，不随 [100, 200) 一起记为失败
+        assertEquals(300, result.getRowsLoaded());
+        assertEquals(Long.valueOf(1), jdbcTemplate.queryForValue("SELECT COUNT(*) FROM item WHERE id = 99", Long.class));
+    }
+
+    @Test
+    public void parallelismIsLimitedByAsyncLimiter() throws SQLException {
+        PooledDataSource small = H2DataSources.create();
+        try {
+            small.setMaxPoolSize(2);
+            JdbcTemplate template = new JdbcTemplate(small);
+            template.update("CREATE TABLE item(id INT PRIMARY KEY, name VARCHAR(16))");
+            small.setConnectionTimeout(100);
+            BulkLoader loader = new BulkLoader(template);
+            loader.setParallelism(8);
+            loader.setChunkSize(10);
+            // 导入线程不超过连接池的最大连接数，不会有导入线程在连接池中等待超时
+            BulkLoadResult result = loader.load(INSERT, IntStream.range(0, 500).boxed(), i -> new Object[]{i, "item" + i});
+            assertTrue(result.isSuccess());
+            assertEquals(500, result.getRowsLoaded());
+        } finally {
+            small.close();
+        }
+    }
+
+    @Test
+    public void stopsReadingAfterMaxFailedChunks() {
+        BulkLoader loader = new BulkLoader(jdbcTemplate);
+        loader.setParallelism(1);
+        loader.setChunkSize(10);
+        loader.setQueueCapacity(1);
+        loader.setMaxFailedChunks(2);
+        BulkLoadResult result = loader.load("INSERT INTO missing VALUES (?)", IntStream.range(0, 10_000).boxed(),
+                i -> new Object[]{i});
+        assertTrue(result.isAborted());
+        assertTrue(result.getRowsRead() < 10_000);
+        assertEquals(0, result.getRowsLoaded());
+    }
+
+    @Test
+    public void sourceFailureIsRethrownAfterLoadingEarlierRows() throws SQLException {
+        BulkLoader loader = new BulkLoader(jdbcTemplate);
+        loader.setParallelism(2);
+        loader.setChunkSize(10);
+        Iterator<Object[]> rows = new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Object[] next() {
+                if (next == 25) {
+                    throw new IllegalStateException("source broken");
+                }
+                int id = next++;
+                return new Object[]{id, "item" + id};
+            }
+        };
+        try {
+            loader.load(INSERT, rows);
+            fail("Source failure must be rethrown");
+        } catch (IllegalStateException e) {
+            assertEquals("source broken", e.getMessage());
+        }
+        assertEquals(25, count());
+    }
+
+    private long count() throws SQLException {
+        return jdbcTemplate.queryForValue("SELECT COUNT(*) FROM item", Long.class);
+    }
+}
\ No newline at end of file
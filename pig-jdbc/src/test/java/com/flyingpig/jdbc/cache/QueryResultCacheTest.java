@@ -0,0 +1,105 @@
+package com.flyingpig.jdbc.cache;
+
+import com.flyingpig.jdbc.H2DataSources;
+import com.flyingpig.jdbc.JdbcTemplate;
+import com.flyingpig.jdbc.PooledDataSource;
+import com.flyingpig.jdbc.connection.ConnectionHolder;
+import com.flyingpig.jdbc.transaction.DataSourceTransactionManager;
+import com.flyingpig.jdbc.transaction.Propagation;
+import com.flyingpig.jdbc.transaction.TransactionStatus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+
+import static org.junit.Assert.*;
+
+public class QueryResultCacheTest {
+
+    private static final String COUNT_USERS = "SELECT COUNT(*) FROM users";
+    private static final String COUNT_ORDERS = "SELECT COUNT(*) FROM orders";
+
+    private PooledDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private QueryResultCache cache;
+
+    @Before
+    public void setUp() throws SQLException {
+        dataSource = H2DataSources.create();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("CREATE TABLE users(id INT PRIMARY KEY)");
+        jdbcTemplate.update("CREATE TABLE orders(id INT PRIMARY KEY)");
+        cache = new QueryResultCache(100, 60_000);
+        jdbcTemplate.setResultCache(cache);
+    }
+
+    @After
+    public void tearDown() {
+        ConnectionHolder.removeConnection();
+        dataSource.close();
+    }
+
+    @Test
+    public void repeatedQueryIsServedFromCache() throws SQLException {
+        assertEquals(Long.valueOf(0), count(COUNT_USERS));
+        assertEquals(Long.valueOf(0), count(COUNT_USERS));
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void writeInvalidatesOnlyTargetTable() throws SQLException {
+        count(COUNT_USERS);
+        count(COUNT_ORDERS);
+
+        jdbcTemplate.update("INSERT INTO users VALUES (1)");
+        assertEquals(Long.valueOf(1), count(COUNT_USERS));
+        assertEquals(Long.valueOf(0), count(COUNT_ORDERS));
+        assertEquals(3, cache.getMisses());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void writeFromAnotherTemplateIsInvisibleUntilInvalidated() throws SQLException {
+        count(COUNT_USERS);
+        // 不共享缓存的写入感知不到，需要手动失效
+        new JdbcTemplate(dataSource).update("INSERT INTO users VALUES (1)");
+        assertEquals(Long.valueOf(0), count(COUNT_USERS));
+
+        cache.invalidate("USERS");
+        assertEquals(Long.valueOf(1), count(COUNT_USERS));
+    }
+
+    @Test
+    public void transactionalWriteInvalidatesAfterCommit() throws SQLException {
+        count(COUNT_USERS);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        TransactionStatus status = transactionManager.begin(Propagation.REQUIRED, false);
+        jdbcTemplate.update("INSERT INTO users VALUES (1)");
+        // 事务中的查询不走缓存，能读到本事务的写入
+        assertEquals(Long.valueOf(1), count(COUNT_USERS));
+        assertEquals(0, cache.getInvalidations());
+
+        transactionManager.commit(status);
+        assertEquals(Long.valueOf(1), count(COUNT_USERS));
+        assertEquals(2, cache.getMisses());
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    public void rolledBackWriteDoesNotInvalidate() throws SQLException {
+        count(COUNT_USERS);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        TransactionStatus status = transactionManager.begin(Propagation.REQUIRED, false);
+        jdbcTemplate.update("INSERT INTO users VALUES (1)");
+        transactionManager.rollback(status);
+
+        assertEquals(Long.valueOf(0), count(COUNT_USERS));
+        assertEquals(1, cache.getHits());
+    }
+
+    private Long count(String sql) throws SQLException {
+        return jdbcTemplate.queryForValue(sql, Long.class);
+    }
+}
\ No newline at end of file
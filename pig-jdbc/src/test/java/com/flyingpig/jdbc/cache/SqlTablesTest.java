@@ -0,0 +1,36 @@
+package com.flyingpig.jdbc.cache;
+
+import org.junit.Test;
+
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class SqlTablesTest {
+
+    @Test
+    public void readsTablesFromJoinsAndSubqueries() {
+        assertEquals(Set.of("users", "orders", "items"), SqlTables.readTables(
+                "SELECT * FROM app.users u JOIN `orders` o ON o.user_id = u.id"
+                        + " WHERE o.id IN (SELECT order_id FROM items)"));
+    }
+
+    @Test
+    public void backslashEscapedQuoteDoesNotHideLaterTables() {
+        assertEquals(Set.of("users", "orders"), SqlTables.readTables(
+                "SELECT id FROM users WHERE name = 'it\\'s' UNION SELECT id FROM orders"));
+        assertEquals(Set.of("users", "orders"), SqlTables.writeTables(
+                "UPDATE users SET name = 'a\\'b' WHERE id IN (SELECT user_id FROM orders)"));
+    }
+
+    @Test
+    public void keywordsInLiteralsAndCommentsAreIgnored() {
+        assertEquals(Set.of("users"), SqlTables.readTables(
+                "SELECT 'FROM it''s' AS a, \"FROM x\" /* FROM y */ FROM users -- JOIN z"));
+    }
+
+    @Test
+    public void unknownWriteReturnsNull() {
+        assertNull(SqlTables.writeTables("CALL refresh_all()"));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,96 @@
+package com.flyingpig.jdbc.connection;
+
+import com.flyingpig.jdbc.H2DataSources;
+import com.flyingpig.jdbc.JdbcTemplate;
+import com.flyingpig.jdbc.PooledDataSource;
+import com.flyingpig.jdbc.transaction.DataSourceTransactionManager;
+import com.flyingpig.jdbc.transaction.Propagation;
+import com.flyingpig.jdbc.transaction.TransactionStatus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+
+import static org.junit.Assert.*;
+
+public class LazyConnectionTest {
+
+    private PooledDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void setUp() throws SQLException {
+        dataSource = H2DataSources.create();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("CREATE TABLE item(id INT PRIMARY KEY)");
+    }
+
+    @After
+    public void tearDown() {
+        ConnectionHolder.removeConnection();
+        dataSource.close();
+    }
+
+    @Test
+    public void acquiresOnFirstStatementWithTransactionSettings() throws SQLException {
+        LazyConnection conn = new LazyConnection(dataSource, true, false);
+        assertFalse(conn.isAcquired());
+        assertTrue(conn.isReadOnly());
+        assertFalse(conn.getAutoCommit());
+        assertEquals(0, dataSource.getActiveConnections());
+
+        conn.prepareStatement("SELECT 1").close();
+        assertTrue(conn.isAcquired());
+        assertEquals(1, dataSource.getActiveConnections());
+        // H2 的 isReadOnly 只反映数据库是否只读，这里只检查自动提交
+        assertFalse(conn.getDelegate().getAutoCommit());
+
+        conn.rollback();
+        conn.close();
+        assertEquals(0, dataSource.getActiveConnections());
+    }
+
+    @Test
+    public void settingsChangedBeforeAcquisitionAreApplied() throws SQLException {
+        LazyConnection conn = new LazyConnection(dataSource, false, false);
+        conn.setAutoCommit(true);
+        assertFalse(conn.isAcquired());
+
+        conn.prepareStatement("SELECT 1").close();
+        assertTrue(conn.getDelegate().getAutoCommit());
+        conn.close();
+    }
+
+    @Test
+    public void commitRollbackAndCloseWithoutAccessDoNotBorrow() throws SQLException {
+        LazyConnection conn = new LazyConnection(dataSource, false, false);
+        conn.commit();
+        conn.rollback();
+        conn.close();
+        assertFalse(conn.isAcquired());
+        assertEquals(0, dataSource.getActiveConnections());
+        try {
+            conn.prepareStatement("SELECT 1");
+            fail("A closed lazy connection must not borrow a connection");
+        } catch (SQLException e) {
+            assertEquals(0, dataSource.getActiveConnections());
+        }
+    }
+
+    @Test
+    public void transactionWritesGoThroughLazilyAcquiredConnection() throws SQLException {
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        TransactionStatus status = transactionManager.begin(Propagation.REQUIRED, false);
+        assertEquals(0, dataSource.getActiveConnections());
+
+        jdbcTemplate.update("INSERT INTO item VALUES (1)");
+        jdbcTemplate.update("INSERT INTO item VALUES (2)");
+        // 同一个事务中的语句共用一个物理连接
+        assertEquals(1, dataSource.getActiveConnections());
+
+        transactionManager.rollback(status);
+        assertEquals(0, dataSource.getActiveConnections());
+        assertEquals(Long.valueOf(0), jdbcTemplate.queryForValue("SELECT COUNT(*) FROM item", Long.class));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.flyingpig.jdbc.namedparam;
+
+import com.flyingpig.jdbc.H2DataSources;
+import com.flyingpig.jdbc.JdbcTemplate;
+import com.flyingpig.jdbc.PooledDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class NamedParameterJdbcTemplateTest {
+
+    private PooledDataSource dataSource;
+    private NamedParameterJdbcTemplate namedTemplate;
+
+    @Before
+    public void setUp() throws SQLException {
+        dataSource = H2DataSources.create();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("CREATE TABLE item(id INT PRIMARY KEY, category VARCHAR(16))");
+        for (int i = 1; i <= 10; i++) {
+            jdbcTemplate.update("INSERT INTO item VALUES (?, ?)", i, i % 2 == 0 ? "even" : "odd");
+        }
+        namedTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    @After
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    public void bindsNamedParametersAndInLists() throws SQLException {
+        List<Integer> ids = namedTemplate.queryForList(
+                "SELECT id FROM item WHERE category = :category AND id IN (:ids) ORDER BY id",
+                Map.of("category", "odd", "ids", List.of(1, 2, 3, 5)), (rs, rowNum) -> rs.getInt(1));
+        assertEquals(List.of(1, 3, 5), ids);
+        assertEquals(Long.valueOf(0), namedTemplate.queryForValue("SELECT COUNT(*) FROM item WHERE id IN (:ids)",
+                Map.of("ids", List.of()), Long.class));
+    }
+
+    @Test
+    public void oversizedListIsSplitAndMerged() throws SQLException {
+        namedTemplate.setInListPolicy(InListPolicy.powersOfTwo(3));
+        List<Integer> ids = namedTemplate.queryForList("SELECT id FROM item WHERE id IN (:ids)",
+                Map.of("ids", List.of(9, 1, 2, 3, 4, 5, 6, 7)), (rs, rowNum) -> rs.getInt(1));
+        assertEquals(8, ids.size());
+        assertTrue(ids.containsAll(List.of(1, 2, 3, 4, 5, 6, 7, 9)));
+
+        assertEquals(7, namedTemplate.update("UPDATE item SET category = :category WHERE id IN (:ids)",
+                Map.of("category", "done", "ids", List.of(1, 2, 3, 4, 5, 6, 7))));
+        assertEquals(Long.valueOf(7), namedTemplate.queryForValue("SELECT COUNT(*) FROM item WHERE category = :c",
+                Map.of("c", "done"), Long.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void singleResultQueryDoesNotSplit() throws SQLException {
+        namedTemplate.setInListPolicy(InListPolicy.powersOfTwo(2));
+        namedTemplate.queryForValue("SELECT COUNT(*) FROM item WHERE id IN (:ids)", Map.of("ids", List.of(1, 2, 3)), Long.class);
+    }
+
+    @Test
+    public void batchUpdateWithNamedParameters() throws SQLException {
+        List<Map<String, ?>> rows = new ArrayList<>();
+        for (int i = 11; i <= 13; i++) {
+            rows.add(Map.of("id", i, "category", "batch"));
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, ?>[] batch = rows.toArray(new Map[0]);
+        int[] counts = namedTemplate.batchUpdate("INSERT INTO item (id, category) VALUES (:id, :category)", batch);
+        assertEquals(3, counts.length);
+        assertEquals(Long.valueOf(3), namedTemplate.queryForValue("SELECT COUNT(*) FROM item WHERE category = :c",
+                Map.of("c", "batch"), Long.class));
+    }
+}
\ No newline at end of file
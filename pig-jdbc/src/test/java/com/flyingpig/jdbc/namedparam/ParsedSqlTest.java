@@ -0,0 +1,116 @@
+package com.flyingpig.jdbc.namedparam;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ParsedSqlTest {
+
+    @Test
+    public void replacesNamedParametersInOrder() {
+        ParsedSql parsed = ParsedSql.parse("SELECT * FROM t WHERE a = :a AND b = :b_2 OR a = :a");
+        assertArrayEquals(new String[]{"a", "b_2", "a"}, parsed.getParameterNames());
+        Object[] values = parsed.resolve(new MapSqlParameterSource(Map.of("a", 1, "b_2", "x")));
+        assertArrayEquals(new Object[]{1, "x", 1}, values);
+        assertEquals("SELECT * FROM t WHERE a = ? AND b = ? OR a = ?", parsed.expandSql(values, InListPolicy.NONE));
+        assertSame(values, parsed.expandArgs(values, InListPolicy.NONE));
+    }
+
+    @Test
+    public void skipsLiteralsCommentsAndCasts() {
+        String sql = "SELECT ':no', \":no\", `:no`, 'it''s :no', x::int -- :no\n"
+                + "/* :no */ FROM t WHERE a = :yes";
+        ParsedSql parsed = ParsedSql.parse(sql);
+        assertArrayEquals(new String[]{"yes"}, parsed.getParameterNames());
+        assertEquals(sql.replace(":yes", "?"), parsed.expandSql(new Object[]{1}, InListPolicy.NONE));
+    }
+
+    @Test
+    public void skipsBackslashEscapedQuotes() {
+        String sql = "SELECT 'it\\'s :no', \"a\\\" :no\", 'C:\\\\' FROM t WHERE a = :yes";
+        ParsedSql parsed = ParsedSql.parse(sql);
+        assertArrayEquals(new String[]{"yes"}, parsed.getParameterNames());
+        assertEquals(sql.replace(":yes", "?"), parsed.expandSql(new Object[]{1}, InListPolicy.NONE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsPositionalPlaceholders() {
+        ParsedSql.parse("SELECT * FROM t WHERE a = :a AND b = ?");
+    }
+
+    @Test
+    public void expandsCollectionsAndArrays() {
+        ParsedSql parsed = ParsedSql.parse("SELECT * FROM t WHERE id IN (:ids) AND type IN (:types) AND x = :x");
+        Object[] values = {List.of(1, 2, 3), new String[]{"a"}, 9};
+        assertEquals("SELECT * FROM t WHERE id IN (?, ?, ?) AND type IN (?) AND x = ?",
+                parsed.expandSql(values, InListPolicy.NONE));
+        assertArrayEquals(new Object[]{1, 2, 3, "a", 9}, parsed.expandArgs(values, InListPolicy.NONE));
+    }
+
+    @Test
+    public void emptyCollectionExpandsToNull() {
+        ParsedSql parsed = ParsedSql.parse("SELECT * FROM t WHERE id IN (:ids)");
+        Object[] values = {Collections.emptyList()};
+        assertEquals("SELECT * FROM t WHERE id IN (?)", parsed.expandSql(values, InListPolicy.NONE));
+        assertArrayEquals(new Object[]{null}, parsed.expandArgs(values, InListPolicy.NONE));
+    }
+
+    @Test
+    public void padsListsToBucketSizeWithLastValue() {
+        ParsedSql parsed = ParsedSql.parse("SELECT * FROM t WHERE id IN (:ids)");
+        InListPolicy policy = new InListPolicy(new int[]{1, 4, 8}, 0);
+        Object[] values = {List.of(5, 6, 7)};
+        assertEquals("SELECT * FROM t WHERE id IN (?, ?, ?, ?)", parsed.expandSql(values, policy));
+        assertArrayEquals(new Object[]{5, 6, 7, 7}, parsed.expandArgs(values, policy));
+        // 超过最大档位时不补齐
+        Object[] large = {Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9)};
+        assertEquals(9, parsed.expandArgs(large, policy).length);
+    }
+
+    @Test
+    public void splitsOversizedListIntoChunks() {
+        ParsedSql parsed = ParsedSql.parse("SELECT * FROM t WHERE id IN (:ids) AND x = :x OR id IN (:ids)");
+        List<Integer> ids = Arrays.asList(1, 2, 3, 4, 5);
+        InListPolicy policy = InListPolicy.powersOfTwo(2);
+        List<Object[]> chunks = parsed.split(new Object[]{ids, "x", ids}, policy);
+        assertEquals(3, chunks.size());
+        assertEquals(List.of(1, 2), chunks.get(0)[0]);
+        assertEquals("x", chunks.get(0)[1]);
+        // 同一个参数出现两次时一起拆分
+        assertSame(chunks.get(1)[0], chunks.get(1)[2]);
+        assertEquals(List.of(5), chunks.get(2)[0]);
+        assertArrayEquals(new Object[]{5, "x", 5}, parsed.expandArgs(chunks.get(2), policy));
+    }
+
+    @Test
+    public void listWithinMaxSizeIsNotSplit() {
+        ParsedSql parsed = ParsedSql.parse("SELECT * FROM t WHERE id IN (:ids)");
+        Object[] values = {List.of(1, 2)};
+        List<Object[]> chunks = parsed.split(values, InListPolicy.powersOfTwo(2));
+        assertEquals(1, chunks.size());
+        assertSame(values, chunks.get(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTwoOversizedLists() {
+        ParsedSql parsed = ParsedSql.parse("SELECT * FROM t WHERE a IN (:a) AND b IN (:b)");
+        parsed.split(new Object[]{List.of(1, 2, 3), List.of(4, 5, 6)}, InListPolicy.powersOfTwo(2));
+    }
+
+    @Test
+    public void policyBuckets() {
+        assertArrayEquals(new int[]{1, 2, 4, 8, 10}, InListPolicy.powersOfTwo(10).getBuckets());
+        assertArrayEquals(new int[]{1, 2, 4, 8}, InListPolicy.powersOfTwo(8).getBuckets());
+        InListPolicy parsed = InListPolicy.parse("10, 1, 5", 20);
+        assertArrayEquals(new int[]{1, 5, 10}, parsed.getBuckets());
+        assertEquals(5, parsed.paddedSize(2));
+        assertEquals(10, parsed.paddedSize(10));
+        assertEquals(11, parsed.paddedSize(11));
+        assertSame(InListPolicy.NONE, InListPolicy.parse("", 0));
+    }
+}
\ No newline at end of file
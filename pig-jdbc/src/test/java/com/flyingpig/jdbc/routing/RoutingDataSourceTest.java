@@ -0,0 +1,123 @@
+package com.flyingpig.jdbc.routing;
+
+import com.flyingpig.jdbc.DataSource;
+import com.flyingpig.jdbc.H2DataSources;
+import com.flyingpig.jdbc.JdbcTemplate;
+import com.flyingpig.jdbc.PooledDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RoutingDataSourceTest {
+
+    private PooledDataSource primary;
+    private PooledDataSource replica1;
+    private PooledDataSource replica2;
+
+    @Before
+    public void setUp() throws SQLException {
+        primary = node("primary");
+        replica1 = node("replica1");
+        replica2 = node("replica2");
+    }
+
+    @After
+    public void tearDown() {
+        primary.close();
+        replica1.close();
+        replica2.close();
+    }
+
+    @Test
+    public void writesGoToPrimaryAndReadsToReplicas() throws SQLException {
+        RoutingDataSource routing = new RoutingDataSource(primary,
+                List.of(new ReplicaNode("r1", replica1, 1)), LoadBalanceStrategy.LEAST_OUTSTANDING);
+        assertEquals("primary", read(routing, false));
+        assertEquals("replica1", read(routing, true));
+        assertEquals("primary", read(routing, false));
+    }
+
+    @Test
+    public void weightedRoundRobinFollowsWeights() throws SQLException {
+        RoutingDataSource routing = new RoutingDataSource(primary,
+                List.of(new ReplicaNode("r1", replica1, 2), new ReplicaNode("r2", replica2, 1)),
+                LoadBalanceStrategy.WEIGHTED_ROUND_ROBIN);
+        List<String> nodes = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            nodes.add(read(routing, true));
+        }
+        // 平滑加权轮询不会连续三次选中权重大的副本
+        assertEquals(List.of("replica1", "replica2", "replica1", "replica1", "replica2", "replica1"), nodes);
+    }
+
+    @Test
+    public void leastOutstandingAvoidsBusyReplica() throws SQLException {
+        ReplicaNode r1 = new ReplicaNode("r1", replica1, 1);
+        ReplicaNode r2 = new ReplicaNode("r2", replica2, 1);
+        RoutingDataSource routing = new RoutingDataSource(primary, List.of(r1, r2), LoadBalanceStrategy.LEAST_OUTSTANDING);
+        Connection held = routing.getConnection(true);
+        String busy = name(held);
+        for (int i = 0; i < 4; i++) {
+            assertNotEquals(busy, read(routing, true));
+        }
+        assertEquals(1, r1.getOutstanding() + r2.getOutstanding());
+        held.close();
+        assertEquals(0, r1.getOutstanding() + r2.getOutstanding());
+    }
+
+    @Test
+    public void failingReplicaIsEjectedAndReadsFallBack() throws SQLException {
+        DataSource down = () -> {
+            throw new SQLException("replica down");
+        };
+        ReplicaNode broken = new ReplicaNode("broken", down, 1);
+        RoutingDataSource routing = new RoutingDataSource(primary, List.of(broken), LoadBalanceStrategy.LEAST_OUTSTANDING);
+        routing.setFailureThreshold(2);
+
+        // 唯一的副本不可用时读请求回退到主库
+        assertEquals("primary", read(routing, true));
+        assertFalse(broken.isEjected());
+        assertEquals("primary", read(routing, true));
+        assertTrue(broken.isEjected());
+        assertEquals(2, broken.getConsecutiveFailures());
+        assertEquals(0, broken.getOutstanding());
+    }
+
+    @Test
+    public void templateReadsOutsideTransactionUseReplica() throws SQLException {
+        RoutingDataSource routing = new RoutingDataSource(primary,
+                List.of(new ReplicaNode("r1", replica1, 1)), LoadBalanceStrategy.LEAST_OUTSTANDING);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(routing);
+        assertEquals("replica1", jdbcTemplate.queryForValue("SELECT name FROM node", String.class));
+    }
+
+    private static PooledDataSource node(String name) throws SQLException {
+        PooledDataSource dataSource = H2DataSources.create();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("CREATE TABLE node(name VARCHAR(16))");
+        jdbcTemplate.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+
+    private static String read(RoutingDataSource routing, boolean readOnly) throws SQLException {
+        try (Connection conn = routing.getConnection(readOnly)) {
+            return name(conn);
+        }
+    }
+
+    private static String name(Connection conn) throws SQLException {
+        try (Statement statement = conn.createStatement(); ResultSet rs = statement.executeQuery("SELECT name FROM node")) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.flyingpig.jdbc.shard;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BinaryOperator;
+
+import static org.junit.Assert.*;
+
+public class ShardMergersTest {
+
+    @Test
+    public void concatKeepsShardOrder() {
+        List<List<Integer>> shards = List.of(List.of(3, 1), List.of(), List.of(2));
+        assertEquals(List.of(3, 1, 2), ShardMergers.<Integer>concat().merge(shards));
+    }
+
+    @Test
+    public void orderedMergesSortedShards() {
+        List<List<Integer>> shards = List.of(List.of(1, 4, 9), List.of(2, 3, 10), List.of(), List.of(5));
+        assertEquals(List.of(1, 2, 3, 4, 5, 9, 10),
+                ShardMergers.<Integer>ordered(Comparator.naturalOrder()).merge(shards));
+    }
+
+    @Test
+    public void orderedWithLimitKeepsTopRows() {
+        // 每个分片执行 ORDER BY score DESC LIMIT 3
+        List<List<Integer>> shards = List.of(List.of(90, 70, 10), List.of(95, 80, 75), List.of(60));
+        assertEquals(List.of(95, 90, 80),
+                ShardMergers.<Integer>ordered(Comparator.reverseOrder(), 3).merge(shards));
+        assertEquals(List.of(), ShardMergers.<Integer>ordered(Comparator.reverseOrder(), 0).merge(shards));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void orderedRejectsNegativeLimit() {
+        ShardMergers.<Integer>ordered(Comparator.naturalOrder(), -1);
+    }
+
+    @Test
+    public void reduceSkipsNullsAndEmptyShards() {
+        List<List<Integer>> shards = Arrays.asList(List.of(3), Arrays.asList((Integer) null), List.of(), List.of(7));
+        assertEquals(Integer.valueOf(7), ShardMergers.reduce(BinaryOperator.<Integer>maxBy(Comparator.naturalOrder())).merge(shards));
+        assertNull(ShardMergers.<Integer>reduce(Integer::sum).merge(List.of(List.of(), List.of())));
+    }
+
+    @Test
+    public void sumTreatsNullAsZero() {
+        List<List<Long>> shards = Arrays.asList(List.of(5L), Arrays.asList((Long) null), List.of(12L));
+        assertEquals(Long.valueOf(17), ShardMergers.<Long>sum().merge(shards));
+        assertEquals(Long.valueOf(0), ShardMergers.<Long>sum().merge(List.of()));
+    }
+
+    @Test
+    public void aggregateCombinesGroupsAcrossShards() {
+        List<List<CityCount>> shards = List.of(
+                List.of(new CityCount("beijing", 2), new CityCount("shanghai", 1)),
+                List.of(new CityCount("shenzhen", 4), new CityCount("beijing", 3)));
+        List<CityCount> merged = ShardMergers.<CityCount, String>aggregate(CityCount::city,
+                (a, b) -> new CityCount(a.city(), a.count() + b.count())).merge(shards);
+        assertEquals(List.of(new CityCount("beijing", 5), new CityCount("shanghai", 1), new CityCount("shenzhen", 4)), merged);
+    }
+
+    record CityCount(String city, long count) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,116 @@
+package com.flyingpig.jdbc.shard;
+
+import com.flyingpig.jdbc.H2DataSources;
+import com.flyingpig.jdbc.JdbcTemplate;
+import com.flyingpig.jdbc.PooledDataSource;
+import com.flyingpig.jdbc.connection.ConnectionHolder;
+import com.flyingpig.jdbc.transaction.DataSourceTransactionManager;
+import com.flyingpig.jdbc.transaction.Propagation;
+import com.flyingpig.jdbc.transaction.TransactionStatus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ShardedJdbcTemplateTest {
+
+    private ShardedDataSource dataSource;
+    private ShardedJdbcTemplate shardedTemplate;
+
+    @Before
+    public void setUp() throws SQLException {
+        List<PooledDataSource> shards = List.of(H2DataSources.create(), H2DataSources.create());
+        dataSource = new ShardedDataSource(shards, new HashShardStrategy());
+        shardedTemplate = new ShardedJdbcTemplate(dataSource);
+        for (JdbcTemplate shard : shardedTemplate.getShardTemplates()) {
+            shard.update("CREATE TABLE orders(id BIGINT PRIMARY KEY, amount INT)");
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        dataSource.close();
+    }
+
+    @Test
+    public void keyedCallsGoToOneShard() throws SQLException {
+        shardedTemplate.update(3L, "INSERT INTO orders VALUES (?, ?)", 3L, 30);
+        // 整数键按值取模：3 % 2 = 1
+        assertEquals(Long.valueOf(0), shardedTemplate.getShardTemplate(0).queryForValue("SELECT COUNT(*) FROM orders", Long.class));
+        assertEquals(Integer.valueOf(30), shardedTemplate.queryForValue(3L, "SELECT amount FROM orders WHERE id = ?", Integer.class, 3L));
+    }
+
+    @Test
+    public void batchUpdateGroupsRowsByShardKey() throws SQLException {
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= 9; id++) {
+            rows.add(new Object[]{id, (int) id * 10});
+        }
+        int[] counts = shardedTemplate.batchUpdate("INSERT INTO orders VALUES (?, ?)", rows, 0);
+        assertEquals(9, counts.length);
+        for (int count : counts) {
+            assertEquals(1, count);
+        }
+        assertEquals(Long.valueOf(4), shardedTemplate.getShardTemplate(0).queryForValue("SELECT COUNT(*) FROM orders", Long.class));
+        assertEquals(Long.valueOf(5), shardedTemplate.getShardTemplate(1).queryForValue("SELECT COUNT(*) FROM orders", Long.class));
+    }
+
+    @Test
+    public void scatterGatherQueriesMergeShardResults() throws SQLException {
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= 9; id++) {
+            rows.add(new Object[]{id, (int) id * 10});
+        }
+        shardedTemplate.batchUpdate("INSERT INTO orders VALUES (?, ?)", rows, 0);
+
+        assertEquals(Long.valueOf(9), shardedTemplate.queryForValueAll("SELECT COUNT(*) FROM orders", Long.class, ShardMergers.sum()));
+        assertEquals(9, shardedTemplate.queryForListAll("SELECT id FROM orders", (rs, rowNum) -> rs.getLong(1)).size());
+        List<Long> top = shardedTemplate.queryForListAllMerged("SELECT id FROM orders ORDER BY amount DESC LIMIT 3",
+                (rs, rowNum) -> rs.getLong(1), ShardMergers.ordered(Comparator.<Long>reverseOrder(), 3));
+        assertEquals(List.of(9L, 8L, 7L), top);
+        assertEquals(9, shardedTemplate.updateAll("UPDATE orders SET amount = amount + 1"));
+    }
+
+    @Test
+    public void shardFailureNamesShard() {
+        try {
+            shardedTemplate.queryForListAll("SELECT missing FROM orders", (rs, rowNum) -> rs.getLong(1));
+            fail("Query on a missing column must fail");
+        } catch (SQLException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Shard "));
+        }
+    }
+
+    @Test
+    public void rangeStrategySelectsShardByBounds() {
+        RangeShardStrategy strategy = new RangeShardStrategy(100, 200);
+        assertEquals(0, strategy.shardFor(99L, 3));
+        assertEquals(1, strategy.shardFor(100L, 3));
+        assertEquals(2, strategy.shardFor(5000L, 3));
+    }
+
+    @Test
+    public void rejectsCallsInsideTransaction() throws SQLException {
+        PooledDataSource primary = H2DataSources.create();
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(primary);
+        transactionManager.setLazyConnection(false);
+        TransactionStatus status = transactionManager.begin(Propagation.REQUIRED, false);
+        try {
+            shardedTemplate.update(1L, "INSERT INTO orders VALUES (?, ?)", 1L, 10);
+            fail("Sharded write inside a transaction must be rejected");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("transaction"));
+        } finally {
+            transactionManager.rollback(status);
+            ConnectionHolder.removeConnection();
+            primary.close();
+        }
+        assertEquals(Long.valueOf(0), shardedTemplate.queryForValueAll("SELECT COUNT(*) FROM orders", Long.class, ShardMergers.sum()));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,91 @@
+package com.flyingpig.jdbc.support;
+
+import com.flyingpig.jdbc.H2DataSources;
+import com.flyingpig.jdbc.JdbcTemplate;
+import com.flyingpig.jdbc.PooledDataSource;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BatchInsertRewriterTest {
+
+    @Test
+    public void rewritesSingleRowInsert() {
+        BatchInsertRewriter rewriter = BatchInsertRewriter.parse("insert into t (a, b) values (?, ?);");
+        assertNotNull(rewriter);
+        assertEquals(2, rewriter.getParameterCount());
+        assertEquals("insert into t (a, b) values (?, ?)", rewriter.sql(1));
+        assertEquals("insert into t (a, b) values (?, ?),(?, ?),(?, ?)", rewriter.sql(3));
+    }
+
+    @Test
+    public void keepsSuffixAndFunctionCallsInGroup() {
+        BatchInsertRewriter rewriter = BatchInsertRewriter.parse(
+                "INSERT INTO t (a, b) VALUES (?, COALESCE(?, 'x)')) ON DUPLICATE KEY UPDATE b = VALUES(b)");
+        assertNotNull(rewriter);
+        assertEquals(2, rewriter.getParameterCount());
+        assertEquals("INSERT INTO t (a, b) VALUES (?, COALESCE(?, 'x)')),(?, COALESCE(?, 'x)')) "
+                + "ON DUPLICATE KEY UPDATE b = VALUES(b)", rewriter.sql(2));
+    }
+
+    @Test
+    public void ignoresKeywordsAndPlaceholdersInQuotes() {
+        BatchInsertRewriter rewriter = BatchInsertRewriter.parse("INSERT INTO \"values\" (a, b) VALUES (?, 'it''s ?')");
+        assertNotNull(rewriter);
+        assertEquals(1, rewriter.getParameterCount());
+        assertEquals("INSERT INTO \"values\" (a, b) VALUES (?, 'it''s ?'),(?, 'it''s ?')", rewriter.sql(2));
+    }
+
+    @Test
+    public void ignoresPlaceholdersAfterBackslashEscapedQuote() {
+        BatchInsertRewriter rewriter = BatchInsertRewriter.parse("INSERT INTO t (a, b) VALUES (?, 'it\\'s ?)')");
+        assertNotNull(rewriter);
+        assertEquals(1, rewriter.getParameterCount());
+        assertEquals("INSERT INTO t (a, b) VALUES (?, 'it\\'s ?)'),(?, 'it\\'s ?)')", rewriter.sql(2));
+    }
+
+    @Test
+    public void rejectsStatementsThatCannotBeRewritten() {
+        assertNull(BatchInsertRewriter.parse("UPDATE t SET a = ?"));
+        assertNull(BatchInsertRewriter.parse("INSERT INTO t SELECT * FROM s WHERE a = ?"));
+        assertNull(BatchInsertRewriter.parse("INSERT INTO t VALUES (?, ?), (?, ?)"));
+        assertNull(BatchInsertRewriter.parse("INSERT INTO t VALUES (1, 2)"));
+        assertNull(BatchInsertRewriter.parse("INSERT INTO t VALUES (?) ON DUPLICATE KEY UPDATE a = ?"));
+    }
+
+    @Test
+    public void limitsRowsByParameterCount() {
+        BatchInsertRewriter rewriter = BatchInsertRewriter.parse("INSERT INTO t VALUES (?, ?, ?)");
+        assertEquals(100, rewriter.maxRows(100));
+        assertEquals(21845, rewriter.maxRows(100_000));
+    }
+
+    @Test
+    public void rewrittenBatchInsertsEveryRow() throws SQLException {
+        PooledDataSource dataSource = H2DataSources.create();
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.update("CREATE TABLE item(id INT PRIMARY KEY, name VARCHAR(16))");
+            jdbcTemplate.setRewriteBatchedInserts(true);
+            jdbcTemplate.setRewriteBatchRows(10);
+            jdbcTemplate.setBatchSize(20);
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = 0; i < 47; i++) {
+                rows.add(new Object[]{i, "item" + i});
+            }
+            int[] counts = jdbcTemplate.batchUpdate("INSERT INTO item (id, name) VALUES (?, ?)", rows);
+            assertEquals(47, counts.length);
+            for (int count : counts) {
+                assertEquals(1, count);
+            }
+            assertEquals(Long.valueOf(47), jdbcTemplate.queryForValue("SELECT COUNT(*) FROM item", Long.class));
+            assertEquals("item46", jdbcTemplate.queryForValue("SELECT name FROM item WHERE id = 46", String.class));
+        } finally {
+            dataSource.close();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,157 @@
+package com.flyingpig.jdbc.transaction;
+
+import com.flyingpig.jdbc.H2DataSources;
+import com.flyingpig.jdbc.JdbcTemplate;
+import com.flyingpig.jdbc.PooledDataSource;
+import com.flyingpig.jdbc.connection.ConnectionHolder;
+import com.flyingpig.jdbc.connection.LazyConnection;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+
+import static org.junit.Assert.*;
+
+public class DataSourceTransactionManagerTest {
+
+    private PooledDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+
+    @Before
+    public void setUp() throws SQLException {
+        dataSource = H2DataSources.create();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("CREATE TABLE account(id INT PRIMARY KEY)");
+        transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    @After
+    public void tearDown() {
+        ConnectionHolder.removeConnection();
+        dataSource.close();
+    }
+
+    @Test
+    public void requiredJoinsOuterTransaction() throws SQLException {
+        TransactionStatus outer = transactionManager.begin(Propagation.REQUIRED, false);
+        jdbcTemplate.update("INSERT INTO account VALUES (1)");
+
+        TransactionStatus inner = transactionManager.begin(Propagation.REQUIRED, false);
+        assertFalse(inner.isNewTransaction());
+        assertSame(outer.getConnection(), inner.getConnection());
+        jdbcTemplate.update("INSERT INTO account VALUES (2)");
+        transactionManager.commit(inner);
+
+        // 内层提交不会真正提交，外层回滚时两行都回滚
+        transactionManager.rollback(outer);
+        assertEquals(0, count());
+        assertNull(ConnectionHolder.getConnection());
+    }
+
+    @Test
+    public void requiresNewCommitsIndependently() throws SQLException {
+        TransactionStatus outer = transactionManager.begin(Propagation.REQUIRED, false);
+        jdbcTemplate.update("INSERT INTO account VALUES (1)");
+
+        TransactionStatus inner = transactionManager.begin(Propagation.REQUIRES_NEW, false);
+        assertTrue(inner.isNewTransaction());
+        assertNotSame(outer.getConnection(), inner.getConnection());
+        jdbcTemplate.update("INSERT INTO account VALUES (2)");
+        transactionManager.commit(inner);
+
+        // 内层结束后恢复外层连接
+        assertSame(outer.getConnection(), ConnectionHolder.getConnection());
+        // 外层回滚只回滚外层的写入，内层新事务已经独立提交
+        transactionManager.rollback(outer);
+        assertEquals(1, count());
+        assertEquals(2, id());
+    }
+
+    @Test
+    public void nestedRollsBackToSavepoint() throws SQLException {
+        TransactionStatus outer = transactionManager.begin(Propagation.REQUIRED, false);
+        jdbcTemplate.update("INSERT INTO account VALUES (1)");
+
+        TransactionStatus nested = transactionManager.begin(Propagation.NESTED, false);
+        assertTrue(nested.hasSavepoint());
+        jdbcTemplate.update("INSERT INTO account VALUES (2)");
+        transactionManager.rollback(nested);
+
+        jdbcTemplate.update("INSERT INTO account VALUES (3)");
+        transactionManager.commit(outer);
+        assertEquals(2, count());
+        assertEquals(Long.valueOf(0), jdbcTemplate.queryForValue("SELECT COUNT(*) FROM account WHERE id = 2", Long.class));
+    }
+
+    @Test
+    public void nestedRollbackClearsRollbackOnlyFromJoinedFailure() throws SQLException {
+        TransactionStatus outer = transactionManager.begin(Propagation.REQUIRED, false);
+        jdbcTemplate.update("INSERT INTO account VALUES (1)");
+
+        // 嵌套事务中加入的内层调用失败，把事务标记为只能回滚
+        TransactionStatus nested = transactionManager.begin(Propagation.NESTED, false);
+        TransactionStatus joined = transactionManager.begin(Propagation.REQUIRED, false);
+        jdbcTemplate.update("INSERT INTO account VALUES (2)");
+        transactionManager.rollback(joined);
+        // 嵌套事务回滚到保存点，失败被撤销，外层可以正常提交
+        transactionManager.rollback(nested);
+
+        transactionManager.commit(outer);
+        assertEquals(1, count());
+        assertEquals(1, id());
+    }
+
+    @Test
+    public void swallowedInnerFailureMarksRollbackOnly() throws SQLException {
+        TransactionStatus outer = transactionManager.begin(Propagation.REQUIRED, false);
+        jdbcTemplate.update("INSERT INTO account VALUES (1)");
+
+        // 内层加入外层事务后失败回滚，外层捕获异常后继续提交
+        TransactionStatus inner = transactionManager.begin(Propagation.REQUIRED, false);
+        jdbcTemplate.update("INSERT INTO account VALUES (2)");
+        transactionManager.rollback(inner);
+
+        try {
+            transactionManager.commit(outer);
+            fail("Commit of a rollback-only transaction must fail");
+        } catch (SQLException e) {
+            assertTrue(e.getMessage().contains("rollback-only"));
+        }
+        assertEquals(0, count());
+        assertNull(ConnectionHolder.getConnection());
+        assertEquals(0, dataSource.getActiveConnections());
+    }
+
+    @Test
+    public void lazyTransactionWithoutAccessDoesNotBorrowConnection() throws SQLException {
+        TransactionStatus status = transactionManager.begin(Propagation.REQUIRED, false);
+        LazyConnection conn = (LazyConnection) status.getConnection();
+        assertFalse(conn.isAcquired());
+        assertEquals(0, dataSource.getActiveConnections());
+
+        transactionManager.commit(status);
+        assertFalse(conn.isAcquired());
+        assertEquals(0, dataSource.getActiveConnections());
+    }
+
+    @Test
+    public void eagerTransactionBorrowsConnectionOnBegin() throws SQLException {
+        transactionManager.setLazyConnection(false);
+        TransactionStatus status = transactionManager.begin(Propagation.REQUIRED, false);
+        assertEquals(1, dataSource.getActiveConnections());
+        jdbcTemplate.update("INSERT INTO account VALUES (1)");
+        transactionManager.commit(status);
+        assertEquals(0, dataSource.getActiveConnections());
+        assertEquals(1, count());
+    }
+
+    private long count() throws SQLException {
+        return jdbcTemplate.queryForValue("SELECT COUNT(*) FROM account", Long.class);
+    }
+
+    private int id() throws SQLException {
+        return jdbcTemplate.queryForValue("SELECT id FROM account", Integer.class);
+    }
+}
\ No newline at end of file
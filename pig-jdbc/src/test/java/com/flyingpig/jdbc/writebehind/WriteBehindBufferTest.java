@@ -0,0 +1,149 @@
+package com.flyingpig.jdbc.writebehind;
+
+import com.flyingpig.jdbc.H2DataSources;
+import com.flyingpig.jdbc.JdbcTemplate;
+import com.flyingpig.jdbc.PooledDataSource;
+import com.flyingpig.jdbc.connection.ConnectionHolder;
+import com.flyingpig.jdbc.transaction.DataSourceTransactionManager;
+import com.flyingpig.jdbc.transaction.Propagation;
+import com.flyingpig.jdbc.transaction.TransactionStatus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class WriteBehindBufferTest {
+
+    private PooledDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private WriteBehindBuffer buffer;
+
+    @Before
+    public void setUp() throws SQLException {
+        dataSource = H2DataSources.create();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        buffer = new WriteBehindBuffer(jdbcTemplate);
+        // 后台线程在测试期间不会自动刷新，由测试调用 flush
+        buffer.setFlushInterval(60_000);
+        buffer.setMaxPending(1000);
+    }
+
+    @After
+    public void tearDown() {
+        buffer.close();
+        dataSource.close();
+    }
+
+    @Test
+    public void updatesToSameRowAreCoalesced() throws SQLException {
+        createCounterTable();
+        buffer.start();
+        for (int i = 1; i <= 5; i++) {
+            buffer.update("counter", "id", 1L, "hits", i);
+        }
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("hits", 10);
+        values.put("last_user", "pig");
+        buffer.update("COUNTER", "ID", 1L, values);
+        buffer.update("counter", "id", 2L, "hits", 7);
+        assertEquals(2, buffer.getPending());
+        // 更新在刷新前对查询不可见
+        assertEquals(Integer.valueOf(0), hits(1));
+
+        assertEquals(2, buffer.flush());
+        assertEquals(Integer.valueOf(10), hits(1));
+        assertEquals("pig", jdbcTemplate.queryForValue("SELECT last_user FROM counter WHERE id = 1", String.class));
+        assertEquals(Integer.valueOf(7), hits(2));
+        assertEquals(7, buffer.getWrites());
+        assertEquals(5, buffer.getCoalesced());
+        assertEquals(2, buffer.getFlushedRows());
+        assertEquals(0, buffer.getPending());
+    }
+
+    @Test
+    public void failedUpdateIsRetriedWithoutOverwritingNewerValue() throws SQLException {
+        buffer.start();
+        buffer.update("counter", "id", 1L, "hits", 1);
+        // 表还不存在，刷新失败后放回缓冲
+        assertEquals(0, buffer.flush());
+        assertEquals(1, buffer.getPending());
+
+        buffer.update("counter", "id", 1L, "hits", 2);
+        createCounterTable();
+        assertEquals(1, buffer.flush());
+        assertEquals(Integer.valueOf(2), hits(1));
+        assertEquals(0, buffer.getDroppedRows());
+    }
+
+    @Test
+    public void updateIsDroppedAfterMaxRetries() {
+        List<BufferedUpdate> dropped = new ArrayList<>();
+        buffer.setMaxRetries(1);
+        buffer.setListener((updates, cause) -> dropped.addAll(updates));
+        buffer.start();
+        buffer.update("missing", "id", 1L, "hits", 1);
+
+        buffer.flush();
+        assertEquals(1, buffer.getPending());
+        assertTrue(dropped.isEmpty());
+        buffer.flush();
+        assertEquals(0, buffer.getPending());
+        assertEquals(1, buffer.getDroppedRows());
+        assertEquals(1, dropped.size());
+        assertEquals("missing", dropped.get(0).getTable());
+        assertEquals(1L, dropped.get(0).getKey());
+    }
+
+    @Test
+    public void closeFlushesRemainingUpdates() throws SQLException {
+        createCounterTable();
+        buffer.start();
+        buffer.update("counter", "id", 1L, "hits", 3);
+        buffer.close();
+        assertEquals(Integer.valueOf(3), hits(1));
+        try {
+            buffer.update("counter", "id", 1L, "hits", 4);
+            fail("Closed buffer must reject updates");
+        } catch (IllegalStateException e) {
+            assertEquals(Integer.valueOf(3), hits(1));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidIdentifier() {
+        buffer.start();
+        buffer.update("counter; DROP TABLE counter", "id", 1L, "hits", 1);
+    }
+
+    @Test
+    public void flushOnCallerThreadIsNotRolledBackWithCallerTransaction() throws SQLException {
+        createCounterTable();
+        buffer.start();
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        TransactionStatus status = transactionManager.begin(Propagation.REQUIRED, false);
+        try {
+            buffer.update("counter", "id", 1L, "hits", 5);
+            buffer.flush();
+        } finally {
+            transactionManager.rollback(status);
+            ConnectionHolder.removeConnection();
+        }
+        assertEquals(Integer.valueOf(5), hits(1));
+    }
+
+    private void createCounterTable() throws SQLException {
+        jdbcTemplate.update("CREATE TABLE counter(id BIGINT PRIMARY KEY, hits INT, last_user VARCHAR(16))");
+        jdbcTemplate.update("INSERT INTO counter VALUES (1, 0, NULL), (2, 0, NULL)");
+    }
+
+    private Integer hits(long id) throws SQLException {
+        return jdbcTemplate.queryForValue("SELECT hits FROM counter WHERE id = ?", Integer.class, id);
+    }
+}
\ No newline at end of file
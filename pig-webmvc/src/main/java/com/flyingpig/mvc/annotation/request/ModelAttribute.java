@@ -0,0 +1,12 @@
+package com.flyingpig.mvc.annotation.request;
+
+import java.lang.annotation.*;
+
+/**
+ * 用于标记由查询参数或表单参数绑定的对象参数，目标类型可以是普通 Bean（无参构造 + setter）或 record
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ModelAttribute {
+}
@@ -0,0 +1,15 @@
+package com.flyingpig.mvc.bind;
+
+/**
+ * BindException：请求参数无法转换为目标类型时抛出，DispatcherServlet 将其转换为 400 响应
+ */
+public class BindException extends RuntimeException {
+
+    public BindException(String message) {
+        super(message);
+    }
+
+    public BindException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
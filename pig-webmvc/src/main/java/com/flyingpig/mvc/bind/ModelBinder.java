@@ -0,0 +1,280 @@
+package com.flyingpig.mvc.bind;
+
+import com.flyingpig.mvc.support.WritableProperty;
+
+import javax.servlet.http.HttpServletRequest;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Array;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * ModelBinder：为某个目标类型生成的参数绑定器
+ * 生成时确定每个参数名对应的槽位、类型转换函数和写入方式（setter 或 record 规范构造器）；
+ * 绑定时对查询字符串只扫描一遍，不认识的参数名直接跳过、不解码也不转换。
+ * 表单请求的参数由容器解析（请求体只能读取一次，需要和 @RequestParam 共享），从 getParameterMap 读取。
+ */
+public class ModelBinder {
+
+    private static final String FORM_CONTENT_TYPE = "application/x-www-form-urlencoded";
+
+    private final Class<?> type;
+
+    // 参数名 -> 槽位
+    private final Map<String, Slot> slotIndex = new HashMap<>();
+    private final Slot[] slots;
+
+    // record 时为 (Object[])Object 形式的规范构造器，普通 Bean 时为 ()Object 形式的无参构造器
+    private final MethodHandle constructor;
+    private final boolean record;
+
+    ModelBinder(Class<?> type, MethodHandle constructor, List<Slot> slots, boolean record) {
+        this.type = type;
+        this.constructor = constructor;
+        this.record = record;
+        this.slots = slots.toArray(new Slot[0]);
+        for (Slot slot : this.slots) {
+            if (slot.converter != null) {
+                slotIndex.put(slot.name, slot);
+            }
+        }
+    }
+
+    /**
+     * 从请求参数创建并填充目标对象
+     *
+     * @param request HTTP 请求
+     * @return 绑定后的对象
+     * @throws BindException 参数无法转换为属性类型时抛出
+     */
+    public Object bind(HttpServletRequest request) {
+        Object[] raw = new Object[slots.length];
+        if (isFormRequest(request)) {
+            for (Map.Entry<String, String[]> entry : request.getParameterMap().entrySet()) {
+                Slot slot = slotIndex.get(entry.getKey());
+                if (slot != null) {
+                    for (String value : entry.getValue()) {
+                        collect(raw, slot, value);
+                    }
+                }
+            }
+        } else {
+            parseQuery(request.getQueryString(), raw);
+        }
+
+        Object[] values = new Object[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            values[i] = raw[i] != null ? slots[i].convert(raw[i]) : null;
+        }
+        try {
+            if (record) {
+                for (int i = 0; i < slots.length; i++) {
+                    if (values[i] == null) {
+                        values[i] = ValueConverters.defaultValue(slots[i].type);
+                    }
+                }
+                return (Object) constructor.invokeExact(values);
+            }
+            Object target = (Object) constructor.invokeExact();
+            for (int i = 0; i < slots.length; i++) {
+                // 缺失的参数不调用 setter，保留字段的初始值
+                if (values[i] != null) {
+                    slots[i].setter.invokeExact(target, values[i]);
+                }
+            }
+            return target;
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to bind " + type.getName(), e);
+        }
+    }
+
+    /**
+     * 单次扫描查询字符串，把认识的参数放进对应槽位
+     */
+    private void parseQuery(String query, Object[] raw) {
+        if (query == null || query.isEmpty()) {
+            return;
+        }
+        int length = query.length();
+        int start = 0;
+        while (start < length) {
+            int end = query.indexOf('&', start);
+            if (end < 0) {
+                end = length;
+            }
+            int eq = query.indexOf('=', start);
+            if (eq < 0 || eq > end) {
+                eq = end;
+            }
+            if (eq > start) {
+                Slot slot = slotIndex.get(decode(query, start, eq));
+                if (slot != null) {
+                    collect(raw, slot, eq < end ? decode(query, eq + 1, end) : "");
+                }
+            }
+            start = end + 1;
+        }
+    }
+
+    /**
+     * 只有包含转义字符时才走 URLDecoder，普通参数直接截取
+     */
+    private static String decode(String query, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = query.charAt(i);
+            if (c == '%' || c == '+') {
+                try {
+                    return URLDecoder.decode(query.substring(start, end), StandardCharsets.UTF_8);
+                } catch (IllegalArgumentException e) {
+                    throw new BindException("Malformed query string: " + e.getMessage(), e);
+                }
+            }
+        }
+        return query.substring(start, end);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void collect(Object[] raw, Slot slot, String value) {
+        if (slot.collection == null) {
+            // 单值属性与 getParameter 一致，取第一个值
+            if (raw[slot.index] == null) {
+                raw[slot.index] = value;
+            }
+            return;
+        }
+        List<String> values = (List<String>) raw[slot.index];
+        if (values == null) {
+            values = new ArrayList<>(2);
+            raw[slot.index] = values;
+        }
+        values.add(value);
+    }
+
+    private static boolean isFormRequest(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.regionMatches(true, 0, FORM_CONTENT_TYPE, 0, FORM_CONTENT_TYPE.length());
+    }
+
+    /**
+     * 多值属性的容器类型
+     */
+    enum CollectionKind {
+        ARRAY, LIST, SET
+    }
+
+    /**
+     * 一个可绑定的属性：参数名、转换函数以及写入方式
+     */
+    static final class Slot {
+        final int index;
+        final String name;
+        final Class<?> type;
+        final Function<String, Object> converter;
+
+        // 多值属性的容器类型，单值属性为 null
+        final CollectionKind collection;
+
+        // 多值属性的元素类型（数组的组件类型）
+        final Class<?> elementType;
+
+        // 普通 Bean 的 setter，record 时为 null
+        final MethodHandle setter;
+
+        private Slot(int index, String name, Class<?> type, Function<String, Object> converter,
+                     CollectionKind collection, Class<?> elementType, MethodHandle setter) {
+            this.index = index;
+            this.name = name;
+            this.type = type;
+            this.converter = converter;
+            this.collection = collection;
+            this.elementType = elementType;
+            this.setter = setter;
+        }
+
+        /**
+         * 根据属性类型创建槽位，不支持的类型（例如嵌套对象）返回 null
+         */
+        static Slot create(int index, String name, Class<?> type, Type genericType, MethodHandle setter) {
+            if (type.isArray()) {
+                Class<?> component = type.getComponentType();
+                Function<String, Object> converter = ValueConverters.forType(component);
+                return converter == null ? null
+                        : new Slot(index, name, type, converter, CollectionKind.ARRAY, component, setter);
+            }
+            if (type == List.class || type == Collection.class || type == Iterable.class || type == Set.class) {
+                Class<?> element = String.class;
+                if (genericType instanceof ParameterizedType parameterized
+                        && parameterized.getActualTypeArguments()[0] instanceof Class<?> argument) {
+                    element = argument;
+                }
+                Function<String, Object> converter = ValueConverters.forType(element);
+                CollectionKind kind = type == Set.class ? CollectionKind.SET : CollectionKind.LIST;
+                return converter == null ? null : new Slot(index, name, type, converter, kind, element, setter);
+            }
+            Function<String, Object> converter = ValueConverters.forType(type);
+            return converter == null ? null : new Slot(index, name, type, converter, null, null, setter);
+        }
+
+        /**
+         * record 中不支持绑定的组件占位，构造时总是传入默认值
+         */
+        static Slot unbound(int index, String name, Class<?> type) {
+            return new Slot(index, name, type, null, null, null, null);
+        }
+
+        static Slot create(int index, WritableProperty property) {
+            return create(index, property.getName(), property.getType(), property.getGenericType(), property.getSetter());
+        }
+
+        @SuppressWarnings("unchecked")
+        Object convert(Object raw) {
+            if (collection == null) {
+                return convertOne((String) raw, type);
+            }
+            List<String> values = (List<String>) raw;
+            switch (collection) {
+                case ARRAY: {
+                    Object array = Array.newInstance(elementType, values.size());
+                    for (int i = 0; i < values.size(); i++) {
+                        Object element = convertOne(values.get(i), elementType);
+                        Array.set(array, i, element != null ? element : ValueConverters.defaultValue(elementType));
+                    }
+                    return array;
+                }
+                case SET: {
+                    Set<Object> set = new LinkedHashSet<>();
+                    for (String value : values) {
+                        set.add(convertOne(value, elementType));
+                    }
+                    return set;
+                }
+                default: {
+                    List<Object> list = new ArrayList<>(values.size());
+                    for (String value : values) {
+                        list.add(convertOne(value, elementType));
+                    }
+                    return list;
+                }
+            }
+        }
+
+        private Object convertOne(String value, Class<?> targetType) {
+            // 非字符串类型的空值当作缺失
+            if (value.isEmpty() && targetType != String.class) {
+                return null;
+            }
+            try {
+                return converter.apply(value);
+            } catch (RuntimeException e) {
+                throw new BindException("Failed to convert parameter '" + name + "' with value '" + value
+                        + "' to " + targetType.getSimpleName(), e);
+            }
+        }
+    }
+}
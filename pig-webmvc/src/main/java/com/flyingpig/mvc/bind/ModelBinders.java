@@ -0,0 +1,96 @@
+package com.flyingpig.mvc.bind;
+
+import com.flyingpig.mvc.support.BeanIntrospector;
+import com.flyingpig.mvc.support.WritableProperty;
+
+import javax.servlet.http.HttpServletRequest;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ModelBinders：@ModelAttribute 参数绑定器的注册表
+ * 每个目标类型第一次出现时生成一个 {@link ModelBinder} 并缓存，之后按类型直接查表。
+ */
+public class ModelBinders {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private final ClassValue<ModelBinder> binders = new ClassValue<>() {
+        @Override
+        protected ModelBinder computeValue(Class<?> type) {
+            return type.isRecord() ? createRecordBinder(type) : createBeanBinder(type);
+        }
+    };
+
+    /**
+     * 在启动阶段为类型预先生成绑定器，目标类型不合法时尽早报错
+     */
+    public void precompile(Class<?> type) {
+        binders.get(type);
+    }
+
+    /**
+     * 将请求参数绑定为目标类型的对象
+     *
+     * @param type    目标类型
+     * @param request HTTP 请求
+     * @return 绑定后的对象
+     */
+    public Object bind(Class<?> type, HttpServletRequest request) {
+        return binders.get(type).bind(request);
+    }
+
+    private ModelBinder createRecordBinder(Class<?> type) {
+        RecordComponent[] components = type.getRecordComponents();
+        Class<?>[] parameterTypes = new Class<?>[components.length];
+        List<ModelBinder.Slot> slots = new ArrayList<>(components.length);
+        for (int i = 0; i < components.length; i++) {
+            RecordComponent component = components[i];
+            parameterTypes[i] = component.getType();
+            ModelBinder.Slot slot = ModelBinder.Slot.create(i, component.getName(), component.getType(),
+                    component.getGenericType(), null);
+            slots.add(slot != null ? slot : ModelBinder.Slot.unbound(i, component.getName(), component.getType()));
+        }
+        try {
+            Constructor<?> canonical = type.getDeclaredConstructor(parameterTypes);
+            canonical.trySetAccessible();
+            // 展开为 (Object[])Object，基本类型参数自动拆箱
+            MethodHandle constructor = LOOKUP.unreflectConstructor(canonical)
+                    .asType(MethodType.methodType(Object.class, parameterTypes))
+                    .asSpreader(Object[].class, parameterTypes.length);
+            return new ModelBinder(type, constructor, slots, true);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot access canonical constructor of " + type.getName(), e);
+        }
+    }
+
+    private ModelBinder createBeanBinder(Class<?> type) {
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            throw new IllegalStateException("Cannot bind to abstract type " + type.getName());
+        }
+        List<ModelBinder.Slot> slots = new ArrayList<>();
+        for (WritableProperty property : BeanIntrospector.getWritableProperties(type)) {
+            ModelBinder.Slot slot = ModelBinder.Slot.create(slots.size(), property);
+            if (slot != null) {
+                slots.add(slot);
+            }
+        }
+        try {
+            Constructor<?> noArg = type.getDeclaredConstructor();
+            noArg.trySetAccessible();
+            MethodHandle constructor = LOOKUP.unreflectConstructor(noArg)
+                    .asType(MethodType.methodType(Object.class));
+            return new ModelBinder(type, constructor, slots, false);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(type.getName() + " needs a no-arg constructor or must be a record", e);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot access no-arg constructor of " + type.getName(), e);
+        }
+    }
+}
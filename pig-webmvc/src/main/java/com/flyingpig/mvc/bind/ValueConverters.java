@@ -0,0 +1,137 @@
+package com.flyingpig.mvc.bind;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * ValueConverters：请求参数字符串到目标类型的转换
+ * 转换函数在生成绑定器时按属性类型选定一次，绑定时直接调用，不再按类型分支判断。
+ */
+public final class ValueConverters {
+
+    private ValueConverters() {
+    }
+
+    /**
+     * 获取转换到指定类型的函数
+     *
+     * @param type 目标类型
+     * @return 转换函数，不支持的类型返回 null
+     */
+    public static Function<String, Object> forType(Class<?> type) {
+        if (type == String.class || type == Object.class || type == CharSequence.class) {
+            return value -> value;
+        }
+        if (type == int.class || type == Integer.class) {
+            return value -> Integer.valueOf(value.trim());
+        }
+        if (type == long.class || type == Long.class) {
+            return value -> Long.valueOf(value.trim());
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return ValueConverters::toBoolean;
+        }
+        if (type == double.class || type == Double.class) {
+            return value -> Double.valueOf(value.trim());
+        }
+        if (type == float.class || type == Float.class) {
+            return value -> Float.valueOf(value.trim());
+        }
+        if (type == short.class || type == Short.class) {
+            return value -> Short.valueOf(value.trim());
+        }
+        if (type == byte.class || type == Byte.class) {
+            return value -> Byte.valueOf(value.trim());
+        }
+        if (type == char.class || type == Character.class) {
+            return value -> {
+                if (value.length() != 1) {
+                    throw new IllegalArgumentException("Expected a single character");
+                }
+                return value.charAt(0);
+            };
+        }
+        if (type == BigDecimal.class) {
+            return value -> new BigDecimal(value.trim());
+        }
+        if (type == BigInteger.class) {
+            return value -> new BigInteger(value.trim());
+        }
+        if (type == UUID.class) {
+            return value -> UUID.fromString(value.trim());
+        }
+        if (type == LocalDate.class) {
+            return value -> LocalDate.parse(value.trim());
+        }
+        if (type == LocalDateTime.class) {
+            return value -> LocalDateTime.parse(value.trim());
+        }
+        if (type == LocalTime.class) {
+            return value -> LocalTime.parse(value.trim());
+        }
+        if (type.isEnum()) {
+            return enumConverter(type);
+        }
+        return null;
+    }
+
+    /**
+     * 基本类型在参数缺失时的默认值，引用类型返回 null
+     */
+    public static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return null;
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == double.class) {
+            return 0d;
+        }
+        if (type == float.class) {
+            return 0f;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        return 0;
+    }
+
+    private static Object toBoolean(String value) {
+        switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "true":
+            case "on":
+            case "yes":
+            case "1":
+                return Boolean.TRUE;
+            case "false":
+            case "off":
+            case "no":
+            case "0":
+                return Boolean.FALSE;
+            default:
+                throw new IllegalArgumentException("Not a boolean");
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Function<String, Object> enumConverter(Class<?> type) {
+        Class<? extends Enum> enumType = (Class<? extends Enum>) type;
+        return value -> Enum.valueOf(enumType, value.trim());
+    }
+}
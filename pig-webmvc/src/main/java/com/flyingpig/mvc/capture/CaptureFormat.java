@@ -0,0 +1,28 @@
+package com.flyingpig.mvc.capture;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 捕获日志的二进制格式（大端字节序）：
+ * <pre>
+ * 文件头：  magic "PIGCAP" | version:short | 捕获开始时间 epochMillis:long
+ * 每条记录：length:int（不含自身，0 表示日志结束）
+ *          | arrivalNanos:long | durationNanos:long | status:short
+ *          | method:str16 | uri:str32
+ *          | headerCount:short | (name:str16 | value:str32)*
+ *          | bodyTruncated:byte | bodyLength:int | body:bytes
+ * </pre>
+ * str16 / str32 分别是以 short / int 长度为前缀的 UTF-8 字符串。
+ * 映射文件的尾部可能是未写入的零字节（进程异常退出、没有截断文件时），读取时遇到长度 0 即结束。
+ */
+final class CaptureFormat {
+
+    static final byte[] MAGIC = "PIGCAP".getBytes(StandardCharsets.US_ASCII);
+
+    static final short VERSION = 1;
+
+    static final int HEADER_SIZE = MAGIC.length + 2 + 8;
+
+    private CaptureFormat() {
+    }
+}
@@ -0,0 +1,117 @@
+package com.flyingpig.mvc.capture;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * CaptureLogReader：顺序读取 {@link MappedCaptureAppender} 写出的捕获日志
+ *
+ * <pre>
+ * try (CaptureLogReader reader = new CaptureLogReader(path)) {
+ *     CapturedRequest request;
+ *     while ((request = reader.next()) != null) { ... }
+ * }
+ * </pre>
+ */
+public class CaptureLogReader implements Closeable {
+
+    private final DataInputStream in;
+
+    // 捕获开始时的墙上时间
+    private final long startEpochMillis;
+
+    private boolean finished;
+
+    public CaptureLogReader(Path file) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024));
+        byte[] magic = new byte[CaptureFormat.MAGIC.length];
+        try {
+            in.readFully(magic);
+            if (!Arrays.equals(magic, CaptureFormat.MAGIC)) {
+                throw new IOException("Not a capture log: " + file);
+            }
+            short version = in.readShort();
+            if (version != CaptureFormat.VERSION) {
+                throw new IOException("Unsupported capture log version " + version + ": " + file);
+            }
+            this.startEpochMillis = in.readLong();
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    public long getStartEpochMillis() {
+        return startEpochMillis;
+    }
+
+    /**
+     * 读取下一条记录
+     *
+     * @return 下一条记录，日志结束时返回 null
+     * @throws IOException 读取失败或记录格式错误时抛出
+     */
+    public CapturedRequest next() throws IOException {
+        if (finished) {
+            return null;
+        }
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            finished = true;
+            return null;
+        }
+        if (length == 0) {
+            // 未截断的映射文件尾部
+            finished = true;
+            return null;
+        }
+        if (length < 0) {
+            throw new IOException("Corrupted capture log: negative record length " + length);
+        }
+
+        long arrivalNanos = in.readLong();
+        long durationNanos = in.readLong();
+        int status = in.readUnsignedShort();
+        String method = readString(in.readUnsignedShort());
+        String uri = readString(in.readInt());
+        int headerCount = in.readUnsignedShort();
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (int i = 0; i < headerCount; i++) {
+            String name = readString(in.readUnsignedShort());
+            String value = readString(in.readInt());
+            headers.computeIfAbsent(name, k -> new ArrayList<>(1)).add(value);
+        }
+        boolean bodyTruncated = in.readByte() != 0;
+        byte[] body = new byte[in.readInt()];
+        in.readFully(body);
+        return new CapturedRequest(arrivalNanos, durationNanos, status, method, uri, headers, body, bodyTruncated);
+    }
+
+    /**
+     * 读取全部剩余记录
+     */
+    public List<CapturedRequest> readAll() throws IOException {
+        List<CapturedRequest> records = new ArrayList<>();
+        CapturedRequest record;
+        while ((record = next()) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+
+    private String readString(int length) throws IOException {
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
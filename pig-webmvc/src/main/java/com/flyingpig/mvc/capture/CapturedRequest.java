@@ -0,0 +1,78 @@
+package com.flyingpig.mvc.capture;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CapturedRequest：捕获日志中的一条请求记录
+ */
+public class CapturedRequest {
+
+    // 相对于捕获开始时刻的到达时间（纳秒），回放时按这个间隔重新调度
+    private final long arrivalNanos;
+
+    // 服务端处理耗时（纳秒）
+    private final long durationNanos;
+
+    private final int status;
+    private final String method;
+
+    // 请求 URI，带查询字符串
+    private final String uri;
+
+    private final Map<String, List<String>> headers;
+    private final byte[] body;
+
+    // 请求体超过捕获上限被截断时为 true，这类请求无法原样回放
+    private final boolean bodyTruncated;
+
+    public CapturedRequest(long arrivalNanos, long durationNanos, int status, String method, String uri,
+                           Map<String, List<String>> headers, byte[] body, boolean bodyTruncated) {
+        this.arrivalNanos = arrivalNanos;
+        this.durationNanos = durationNanos;
+        this.status = status;
+        this.method = method;
+        this.uri = uri;
+        this.headers = Collections.unmodifiableMap(headers);
+        this.body = body;
+        this.bodyTruncated = bodyTruncated;
+    }
+
+    public long getArrivalNanos() {
+        return arrivalNanos;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public Map<String, List<String>> getHeaders() {
+        return headers;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public boolean isBodyTruncated() {
+        return bodyTruncated;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + uri + " -> " + status + " (" + durationNanos / 1000 + "us)";
+    }
+}
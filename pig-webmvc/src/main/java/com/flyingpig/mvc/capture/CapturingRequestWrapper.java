@@ -0,0 +1,176 @@
+package com.flyingpig.mvc.capture;
+
+import com.flyingpig.mvc.response.ResponseBuffer;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URLEncoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * CapturingRequestWrapper：在处理方法读取请求体的同时复制一份用于捕获
+ * 不会提前读取请求体，读多少复制多少，超过上限的部分不再复制并标记为截断。
+ * 表单请求的请求体通常由容器在 getParameter 时直接消费、不经过这里的输入流，
+ * 这种情况下在记录时根据参数重新编码出请求体。
+ */
+public class CapturingRequestWrapper extends HttpServletRequestWrapper {
+
+    private static final String FORM_CONTENT_TYPE = "application/x-www-form-urlencoded";
+
+    private final int maxBodyBytes;
+    private final ResponseBuffer captured = new ResponseBuffer(256);
+    private boolean truncated;
+
+    private ServletInputStream inputStream;
+    private BufferedReader reader;
+
+    public CapturingRequestWrapper(HttpServletRequest request, int maxBodyBytes) {
+        super(request);
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        if (inputStream == null) {
+            inputStream = new TeeInputStream(super.getInputStream());
+        }
+        return inputStream;
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+        if (reader == null) {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.ISO_8859_1;
+            reader = new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+        return reader;
+    }
+
+    /**
+     * 已捕获的请求体
+     */
+    public byte[] getCapturedBody() {
+        if (captured.size() == 0 && inputStream == null && isFormRequest()) {
+            return encodeFormBody();
+        }
+        return captured.toByteArray();
+    }
+
+    public boolean isBodyTruncated() {
+        return truncated;
+    }
+
+    private boolean isFormRequest() {
+        String contentType = getContentType();
+        return contentType != null && contentType.regionMatches(true, 0, FORM_CONTENT_TYPE, 0, FORM_CONTENT_TYPE.length());
+    }
+
+    /**
+     * 用参数重新编码表单请求体，查询字符串里已有的参数不重复编码
+     */
+    private byte[] encodeFormBody() {
+        Set<String> queryNames = new HashSet<>();
+        String query = getQueryString();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int eq = pair.indexOf('=');
+                queryNames.add(eq >= 0 ? pair.substring(0, eq) : pair);
+            }
+        }
+        StringBuilder body = new StringBuilder();
+        for (Map.Entry<String, String[]> entry : getParameterMap().entrySet()) {
+            if (queryNames.contains(URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8))) {
+                continue;
+            }
+            for (String value : entry.getValue()) {
+                if (body.length() > 0) {
+                    body.append('&');
+                }
+                body.append(URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8))
+                        .append('=')
+                        .append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+            }
+        }
+        return body.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void capture(byte[] b, int off, int len) {
+        int room = maxBodyBytes - captured.size();
+        if (len > room) {
+            truncated = true;
+            len = Math.max(room, 0);
+        }
+        if (len > 0) {
+            captured.write(b, off, len);
+        }
+    }
+
+    /**
+     * 把读到的字节同时写入捕获缓冲区的输入流
+     */
+    private class TeeInputStream extends ServletInputStream {
+
+        private final ServletInputStream delegate;
+
+        TeeInputStream(ServletInputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            if (b >= 0) {
+                if (captured.size() < maxBodyBytes) {
+                    captured.write(b);
+                } else {
+                    truncated = true;
+                }
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = delegate.read(b, off, len);
+            if (n > 0) {
+                capture(b, off, n);
+            }
+            return n;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return delegate.available();
+        }
+
+        @Override
+        public boolean isFinished() {
+            return delegate.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            delegate.setReadListener(readListener);
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
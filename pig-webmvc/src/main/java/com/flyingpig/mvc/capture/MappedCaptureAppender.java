@@ -0,0 +1,203 @@
+package com.flyingpig.mvc.capture;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MappedCaptureAppender：异步写入捕获日志的追加器
+ * 请求线程只把记录放进有界队列（队列满时直接丢弃，不阻塞请求），
+ * 由一个后台守护线程编码后写入内存映射文件；当前映射段写满时在文件末尾映射下一段。
+ * 关闭时写完队列中剩余的记录，并把文件截断到实际写入的长度。
+ */
+public class MappedCaptureAppender implements Closeable {
+
+    private static final int DEFAULT_SEGMENT_SIZE = 8 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final int segmentSize;
+    private final BlockingQueue<CapturedRequest> queue;
+    private final Thread writerThread;
+
+    // 以下字段只由写线程访问
+    private MappedByteBuffer segment;
+    private long segmentStart;
+    private ByteBuffer encodeBuffer = ByteBuffer.allocate(64 * 1024);
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    public MappedCaptureAppender(Path file, int queueCapacity) throws IOException {
+        this(file, queueCapacity, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public MappedCaptureAppender(Path file, int queueCapacity, int segmentSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.segmentSize = segmentSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        this.segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        this.segmentStart = 0;
+        segment.put(CaptureFormat.MAGIC);
+        segment.putShort(CaptureFormat.VERSION);
+        segment.putLong(System.currentTimeMillis());
+
+        this.writerThread = new Thread(this::writeLoop, "pig-capture-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * 提交一条记录，队列已满或已关闭时丢弃并返回 false
+     */
+    public boolean append(CapturedRequest record) {
+        if (running && queue.offer(record)) {
+            return true;
+        }
+        dropped.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * 已经写入文件的记录数
+     */
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    /**
+     * 因队列已满或记录无法编码而丢弃的记录数
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void writeLoop() {
+        try {
+            while (running || !queue.isEmpty()) {
+                CapturedRequest record = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (record != null) {
+                    write(record);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            running = false;
+            System.err.println("Traffic capture stopped: " + e);
+        }
+    }
+
+    private void write(CapturedRequest record) throws IOException {
+        ByteBuffer encoded;
+        try {
+            encoded = encode(record);
+        } catch (IllegalArgumentException e) {
+            // 字段超出格式限制（例如超长的请求头），跳过这一条
+            dropped.incrementAndGet();
+            return;
+        }
+        if (segment.remaining() < encoded.remaining() + 4) {
+            // 当前段放不下，从实际写到的位置开始映射新的一段，剩余空间保持为零
+            long position = segmentStart + segment.position();
+            segment.force();
+            segmentStart = position;
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, position,
+                    Math.max(segmentSize, encoded.remaining() + 4));
+        }
+        segment.putInt(encoded.remaining());
+        segment.put(encoded);
+        written.incrementAndGet();
+    }
+
+    private ByteBuffer encode(CapturedRequest record) {
+        while (true) {
+            ByteBuffer buffer = encodeBuffer;
+            buffer.clear();
+            try {
+                buffer.putLong(record.getArrivalNanos());
+                buffer.putLong(record.getDurationNanos());
+                buffer.putShort((short) record.getStatus());
+                putString16(buffer, record.getMethod());
+                putString32(buffer, record.getUri());
+                Map<String, List<String>> headers = record.getHeaders();
+                int headerCount = 0;
+                for (List<String> values : headers.values()) {
+                    headerCount += values.size();
+                }
+                if (headerCount > 0xFFFF) {
+                    throw new IllegalArgumentException("Too many headers: " + headerCount);
+                }
+                buffer.putShort((short) headerCount);
+                for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+                    for (String value : entry.getValue()) {
+                        putString16(buffer, entry.getKey());
+                        putString32(buffer, value);
+                    }
+                }
+                buffer.put((byte) (record.isBodyTruncated() ? 1 : 0));
+                buffer.putInt(record.getBody().length);
+                buffer.put(record.getBody());
+                buffer.flip();
+                return buffer;
+            } catch (BufferOverflowException e) {
+                // 编码缓冲区不够大，扩容后重新编码
+                encodeBuffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            }
+        }
+    }
+
+    private static void putString16(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("String too long: " + bytes.length + " bytes");
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static void putString32(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * 停止接收新记录，等待写线程写完队列中的记录，然后把文件截断到实际长度
+     */
+    @Override
+    public void close() throws IOException {
+        if (!running && !writerThread.isAlive()) {
+            return;
+        }
+        running = false;
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long end = segmentStart + segment.position();
+        segment.force();
+        try {
+            channel.truncate(end);
+        } catch (IOException e) {
+            // 部分平台不允许截断仍被映射的文件，尾部的零字节由读取端当作结束标记
+        }
+        channel.close();
+    }
+}
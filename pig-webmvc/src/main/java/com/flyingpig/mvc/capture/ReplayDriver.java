@@ -0,0 +1,160 @@
+package com.flyingpig.mvc.capture;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ReplayDriver：把捕获日志中的请求按原始时间间隔（或按倍速缩放）重新发送到一个本地实例，并统计延迟百分位
+ *
+ * <pre>
+ * java -cp ... com.flyingpig.mvc.capture.ReplayDriver capture.bin http://localhost:8080 [speed] [maxInFlight]
+ * </pre>
+ * speed 为 1 时按原速回放，2 表示两倍速，0 表示不等待、尽快发送；maxInFlight 限制同时未完成的请求数。
+ */
+public class ReplayDriver {
+
+    // HttpClient 不允许手动设置的请求头
+    private static final Set<String> RESTRICTED_HEADERS = Set.of(
+            "host", "content-length", "connection", "expect", "upgrade", "transfer-encoding",
+            "keep-alive", "te", "trailer", "http2-settings");
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final double speed;
+    private final Semaphore inFlight;
+    private final Duration timeout = Duration.ofSeconds(30);
+
+    /**
+     * @param baseUrl     目标实例地址，例如 http://localhost:8080
+     * @param speed       回放倍速，0 表示尽快发送
+     * @param maxInFlight 同时未完成的请求数上限
+     */
+    public ReplayDriver(String baseUrl, double speed, int maxInFlight) {
+        if (speed < 0) {
+            throw new IllegalArgumentException("Speed must not be negative: " + speed);
+        }
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.speed = speed;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * 回放日志中的全部请求，等待全部完成后返回统计结果
+     */
+    public ReplayReport replay(Path captureFile) throws IOException, InterruptedException {
+        List<CapturedRequest> records;
+        try (CaptureLogReader reader = new CaptureLogReader(captureFile)) {
+            records = reader.readAll();
+        }
+        return replay(records);
+    }
+
+    public ReplayReport replay(List<CapturedRequest> records) throws InterruptedException {
+        // 记录在请求处理完成后才写入，日志中的顺序是完成顺序，回放前按到达时间重新排序
+        records = new ArrayList<>(records);
+        records.sort(Comparator.comparingLong(CapturedRequest::getArrivalNanos));
+        long[] latencies = new long[records.size()];
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        AtomicInteger mismatches = new AtomicInteger();
+        Map<Integer, AtomicInteger> statusCounts = new ConcurrentHashMap<>();
+        int skipped = 0;
+
+        List<CompletableFuture<?>> futures = new ArrayList<>(records.size());
+        long firstArrival = records.isEmpty() ? 0 : records.get(0).getArrivalNanos();
+        long start = System.nanoTime();
+        for (CapturedRequest record : records) {
+            if (record.isBodyTruncated()) {
+                skipped++;
+                continue;
+            }
+            if (speed > 0) {
+                // 按相对于第一条请求的原始间隔调度
+                long due = start + (long) ((record.getArrivalNanos() - firstArrival) / speed);
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+            inFlight.acquire();
+            long sentAt = System.nanoTime();
+            futures.add(client.sendAsync(toHttpRequest(record), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        inFlight.release();
+                        if (error != null) {
+                            errors.incrementAndGet();
+                            return;
+                        }
+                        latencies[completed.getAndIncrement()] = System.nanoTime() - sentAt;
+                        statusCounts.computeIfAbsent(response.statusCode(), k -> new AtomicInteger()).incrementAndGet();
+                        if (response.statusCode() != record.getStatus()) {
+                            mismatches.incrementAndGet();
+                        }
+                    }));
+        }
+        for (CompletableFuture<?> future : futures) {
+            try {
+                future.join();
+            } catch (RuntimeException e) {
+                // 失败已经在 whenComplete 中计数
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Map<Integer, Integer> counts = new HashMap<>();
+        statusCounts.forEach((status, count) -> counts.put(status, count.get()));
+        return new ReplayReport(Arrays.copyOf(latencies, completed.get()), errors.get(), skipped,
+                mismatches.get(), counts, elapsed);
+    }
+
+    private HttpRequest toHttpRequest(CapturedRequest record) {
+        byte[] body = record.getBody();
+        HttpRequest.BodyPublisher publisher = body.length > 0
+                ? HttpRequest.BodyPublishers.ofByteArray(body)
+                : HttpRequest.BodyPublishers.noBody();
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + record.getUri()))
+                .timeout(timeout)
+                .method(record.getMethod(), publisher);
+        for (Map.Entry<String, List<String>> header : record.getHeaders().entrySet()) {
+            if (RESTRICTED_HEADERS.contains(header.getKey().toLowerCase(Locale.ROOT))) {
+                continue;
+            }
+            for (String value : header.getValue()) {
+                // 捕获时脱敏的请求头不回放
+                if (!TrafficCapture.REDACTED.equals(value)) {
+                    builder.header(header.getKey(), value);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: ReplayDriver <capture-file> <base-url> [speed=1.0] [max-in-flight=256]");
+            System.exit(1);
+        }
+        double speed = args.length > 2 ? Double.parseDouble(args[2]) : 1.0;
+        int maxInFlight = args.length > 3 ? Integer.parseInt(args[3]) : 256;
+        ReplayDriver driver = new ReplayDriver(args[1], speed, maxInFlight);
+        ReplayReport report = driver.replay(Path.of(args[0]));
+        System.out.println(report);
+        // HttpClient 的选择器线程不是守护线程，统计输出后直接退出
+        System.exit(0);
+    }
+}
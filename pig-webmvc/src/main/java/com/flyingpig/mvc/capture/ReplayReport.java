@@ -0,0 +1,95 @@
+package com.flyingpig.mvc.capture;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * ReplayReport：一次回放的统计结果，延迟单位为纳秒
+ */
+public class ReplayReport {
+
+    private final long[] latencies;
+    private final int errors;
+    private final int skipped;
+    private final int statusMismatches;
+    private final Map<Integer, Integer> statusCounts;
+    private final long elapsedNanos;
+
+    ReplayReport(long[] latencies, int errors, int skipped, int statusMismatches,
+                 Map<Integer, Integer> statusCounts, long elapsedNanos) {
+        this.latencies = latencies.clone();
+        Arrays.sort(this.latencies);
+        this.errors = errors;
+        this.skipped = skipped;
+        this.statusMismatches = statusMismatches;
+        this.statusCounts = new TreeMap<>(statusCounts);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * 收到响应的请求数
+     */
+    public int getCompleted() {
+        return latencies.length;
+    }
+
+    /**
+     * 连接失败、超时等没有收到响应的请求数
+     */
+    public int getErrors() {
+        return errors;
+    }
+
+    /**
+     * 请求体被截断、无法原样回放而跳过的请求数
+     */
+    public int getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * 回放得到的状态码与捕获时不一致的请求数
+     */
+    public int getStatusMismatches() {
+        return statusMismatches;
+    }
+
+    public Map<Integer, Integer> getStatusCounts() {
+        return statusCounts;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * 延迟百分位（最近秩法）
+     *
+     * @param percentile 0 到 100 之间，例如 99.9
+     */
+    public long getLatencyPercentile(double percentile) {
+        if (latencies.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * latencies.length);
+        return latencies[Math.min(Math.max(rank, 1), latencies.length) - 1];
+    }
+
+    public double getThroughput() {
+        return elapsedNanos > 0 ? latencies.length * 1e9 / elapsedNanos : 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("completed=%d errors=%d skipped=%d status-mismatches=%d%n",
+                getCompleted(), errors, skipped, statusMismatches));
+        sb.append(String.format("elapsed=%.2fs throughput=%.1f req/s%n", elapsedNanos / 1e9, getThroughput()));
+        sb.append(String.format("latency p50=%.3fms p90=%.3fms p99=%.3fms p99.9=%.3fms max=%.3fms%n",
+                getLatencyPercentile(50) / 1e6, getLatencyPercentile(90) / 1e6, getLatencyPercentile(99) / 1e6,
+                getLatencyPercentile(99.9) / 1e6, getLatencyPercentile(100) / 1e6));
+        sb.append("status ").append(statusCounts);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,126 @@
+package com.flyingpig.mvc.capture;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * TrafficCapture：按采样率捕获线上请求，写入二进制捕获日志，供 {@link ReplayDriver} 离线回放
+ * 由 DispatcherServlet 在开启 spring.mvc.capture.enabled 后创建，未被采样的请求只多一次随机数判断。
+ */
+public class TrafficCapture implements Closeable {
+
+    /**
+     * 默认脱敏的请求头，捕获日志中只保留头名称，值替换为 {@link #REDACTED}
+     */
+    public static final List<String> DEFAULT_REDACTED_HEADERS = List.of("Authorization", "Cookie", "Proxy-Authorization");
+
+    /**
+     * 脱敏后的请求头值
+     */
+    public static final String REDACTED = "<redacted>";
+
+    private final double sampleRate;
+    private final int maxBodyBytes;
+    private final MappedCaptureAppender appender;
+
+    // 需要脱敏的请求头名称（小写），请求头名称不区分大小写
+    private volatile Set<String> redactedHeaders = lowerCase(DEFAULT_REDACTED_HEADERS);
+
+    // 捕获开始的单调时钟时刻，记录中的到达时间都相对于它
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * @param file          捕获日志文件，已存在时会被覆盖
+     * @param sampleRate    采样率，0 到 1 之间
+     * @param maxBodyBytes  每个请求最多捕获的请求体字节数
+     * @param queueCapacity 等待写入的记录数上限，超出时丢弃
+     */
+    public TrafficCapture(Path file, double sampleRate, int maxBodyBytes, int queueCapacity) throws IOException {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("Sample rate must be between 0 and 1: " + sampleRate);
+        }
+        this.sampleRate = sampleRate;
+        this.maxBodyBytes = maxBodyBytes;
+        this.appender = new MappedCaptureAppender(file, queueCapacity);
+    }
+
+    public Set<String> getRedactedHeaders() {
+        return redactedHeaders;
+    }
+
+    /**
+     * 设置需要脱敏的请求头，替换默认列表；传入空集合时不脱敏
+     */
+    public void setRedactedHeaders(Collection<String> redactedHeaders) {
+        this.redactedHeaders = lowerCase(redactedHeaders);
+    }
+
+    /**
+     * 判断当前请求是否需要捕获
+     */
+    public boolean sample() {
+        return sampleRate >= 1 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    /**
+     * 包装需要捕获的请求，以便复制处理方法读取的请求体
+     */
+    public CapturingRequestWrapper wrap(HttpServletRequest request) {
+        return new CapturingRequestWrapper(request, maxBodyBytes);
+    }
+
+    /**
+     * 请求处理完成后提交记录
+     *
+     * @param request      包装后的请求
+     * @param response     响应，用于读取状态码
+     * @param arrivalNanos 请求到达时的 System.nanoTime()
+     */
+    public void record(CapturingRequestWrapper request, HttpServletResponse response, long arrivalNanos) {
+        long durationNanos = System.nanoTime() - arrivalNanos;
+        String uri = request.getRequestURI();
+        if (request.getQueryString() != null) {
+            uri = uri + "?" + request.getQueryString();
+        }
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        Enumeration<String> names = request.getHeaderNames();
+        while (names != null && names.hasMoreElements()) {
+            String name = names.nextElement();
+            List<String> values = Collections.list(request.getHeaders(name));
+            if (redactedHeaders.contains(name.toLowerCase(Locale.ROOT))) {
+                values = Collections.nCopies(values.size(), REDACTED);
+            }
+            headers.put(name, values);
+        }
+        appender.append(new CapturedRequest(arrivalNanos - startNanos, durationNanos, response.getStatus(),
+                request.getMethod(), uri, headers, request.getCapturedBody(), request.isBodyTruncated()));
+    }
+
+    private static Set<String> lowerCase(Collection<String> names) {
+        Set<String> result = new HashSet<>();
+        for (String name : names) {
+            result.add(name.trim().toLowerCase(Locale.ROOT));
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    public long getCapturedCount() {
+        return appender.getWrittenCount();
+    }
+
+    public long getDroppedCount() {
+        return appender.getDroppedCount();
+    }
+
+    @Override
+    public void close() throws IOException {
+        appender.close();
+        System.out.println("Traffic capture closed: " + appender.getWrittenCount() + " captured, "
+                + appender.getDroppedCount() + " dropped");
+    }
+}
@@ -1,9 +1,19 @@
 package com.flyingpig.mvc.core;
 
 import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.flyingpig.mvc.annotation.request.ModelAttribute;
+import com.flyingpig.mvc.bind.BindException;
+import com.flyingpig.mvc.capture.CapturingRequestWrapper;
+import com.flyingpig.mvc.capture.TrafficCapture;
+import com.flyingpig.mvc.json.JsonSerializers;
 import com.flyingpig.mvc.model.HandlerMethod;
+import com.flyingpig.mvc.model.RequestMappingInfo;
 import com.flyingpig.mvc.response.ErrorResponse;
+import com.flyingpig.mvc.response.ResponseSizeSnapshot;
+import com.flyingpig.mvc.response.ResponseSizeTracker;
+import com.flyingpig.mvc.view.TemplateViewResolver;
 import org.springframework.context.ApplicationContext;
+import org.springframework.core.env.Environment;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
@@ -11,6 +21,13 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Parameter;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 
 /**
@@ -25,6 +42,18 @@ public class DispatcherServlet extends HttpServlet {
     // HandlerAdapter 用于执行 handler 方法，并进行请求的前后处理
     private final HandlerAdapter handlerAdapter;
 
+    // 生成的专用 JSON 序列化器，未开启时为 null
+    private final JsonSerializers jsonSerializers;
+
+    // 模板视图解析器，启动时预编译全部模板
+    private final TemplateViewResolver viewResolver;
+
+    // 每个路由的响应大小统计，启动时创建、之后只读；未开启自适应缓冲区时为空
+    private Map<RequestMappingInfo, ResponseSizeTracker> responseSizeTrackers = Collections.emptyMap();
+
+    // 请求捕获，未开启时为 null
+    private TrafficCapture trafficCapture;
+
     // Spring 容器，用于获取 Bean 和初始化各种组件
     private ApplicationContext applicationContext;
 
@@ -40,8 +69,24 @@ public class DispatcherServlet extends HttpServlet {
         this.handlerMapping = new HandlerMapping();
         this.handlerMapping.setApplicationContext(applicationContext);
 
+        // 初始化模板视图解析器，模板位置和开发模式可以通过配置文件指定
+        Environment environment = applicationContext.getEnvironment();
+        this.viewResolver = new TemplateViewResolver(
+                environment.getProperty("spring.mvc.view.prefix", "templates/"),
+                environment.getProperty("spring.mvc.view.suffix", ".html"),
+                environment.getProperty("spring.mvc.view.dev-mode", Boolean.class, false));
+
         this.handlerAdapter = new HandlerAdapter();
         this.handlerAdapter.setApplicationContext(applicationContext);
+        this.handlerAdapter.setViewResolver(viewResolver);
+
+        // 开启后为控制器返回类型生成专用的 JSON 序列化器
+        if (environment.getProperty("spring.mvc.json.generated-serializers", Boolean.class, false)) {
+            this.jsonSerializers = new JsonSerializers(handlerAdapter.getObjectMapper());
+            this.handlerAdapter.setJsonSerializers(jsonSerializers);
+        } else {
+            this.jsonSerializers = null;
+        }
     }
 
     /**
@@ -59,6 +104,49 @@ public class DispatcherServlet extends HttpServlet {
         try {
             // 初始化 HandlerMapping，加载控制器和映射
             handlerMapping.initMapping();
+            // 预编译全部模板，模板语法错误在启动阶段暴露
+            int templates = viewResolver.precompileAll();
+            System.out.println("Precompiled " + templates + " view template(s)");
+            // 在启动阶段为 @ModelAttribute 参数生成绑定器，目标类型不合法时尽早报错
+            for (HandlerMethod handlerMethod : handlerMapping.getHandlerMethods()) {
+                for (Parameter parameter : handlerMethod.getMethod().getParameters()) {
+                    if (parameter.isAnnotationPresent(ModelAttribute.class)) {
+                        handlerAdapter.getModelBinders().precompile(parameter.getType());
+                    }
+                }
+            }
+            // 在启动阶段为所有控制器返回类型生成 JSON 序列化器
+            if (jsonSerializers != null) {
+                for (HandlerMethod handlerMethod : handlerMapping.getHandlerMethods()) {
+                    jsonSerializers.precompile(handlerMethod.getMethod().getGenericReturnType());
+                }
+            }
+            // 为每个路由统计响应大小，按学习到的百分位设置容器的响应缓冲区
+            Environment environment = applicationContext.getEnvironment();
+            if (environment.getProperty("spring.mvc.response-buffer.adaptive", Boolean.class, true)) {
+                double percentile = environment.getProperty("spring.mvc.response-buffer.percentile", Double.class, 0.95);
+                int minSize = environment.getProperty("spring.mvc.response-buffer.min-size", Integer.class, 1024);
+                int maxSize = environment.getProperty("spring.mvc.response-buffer.max-size", Integer.class, 1024 * 1024);
+                Map<RequestMappingInfo, ResponseSizeTracker> trackers = new HashMap<>();
+                for (HandlerMethod handlerMethod : handlerMapping.getHandlerMethods()) {
+                    trackers.put(handlerMethod.getMappingInfo(), new ResponseSizeTracker(percentile, minSize, maxSize));
+                }
+                responseSizeTrackers = trackers;
+            }
+            // 开启后按采样率把请求写入捕获日志，供 ReplayDriver 离线回放
+            if (environment.getProperty("spring.mvc.capture.enabled", Boolean.class, false)) {
+                Path file = Path.of(environment.getProperty("spring.mvc.capture.file", "capture.bin"));
+                trafficCapture = new TrafficCapture(file,
+                        environment.getProperty("spring.mvc.capture.sample-rate", Double.class, 0.01),
+                        environment.getProperty("spring.mvc.capture.max-body-bytes", Integer.class, 64 * 1024),
+                        environment.getProperty("spring.mvc.capture.queue-capacity", Integer.class, 4096));
+                String redactedHeaders = environment.getProperty("spring.mvc.capture.redacted-headers");
+                if (redactedHeaders != null) {
+                    trafficCapture.setRedactedHeaders(redactedHeaders.isBlank()
+                            ? Collections.emptyList() : Arrays.asList(redactedHeaders.split(",")));
+                }
+                System.out.println("Traffic capture enabled: " + file.toAbsolutePath());
+            }
         } catch (Exception e) {
             // 初始化失败时抛出 ServletException
             throw new ServletException("Failed to initialize DispatcherServlet", e);
@@ -78,6 +166,26 @@ public class DispatcherServlet extends HttpServlet {
      */
     @Override
     protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        TrafficCapture capture = this.trafficCapture;
+        if (capture == null || !capture.sample()) {
+            doDispatch(req, resp);
+            return;
+        }
+        long arrivalNanos = System.nanoTime();
+        CapturingRequestWrapper wrapper = capture.wrap(req);
+        try {
+            doDispatch(wrapper, resp);
+        } finally {
+            try {
+                capture.record(wrapper, resp, arrivalNanos);
+            } catch (RuntimeException e) {
+                // 捕获失败不影响请求本身
+                System.err.println("Failed to capture request: " + e);
+            }
+        }
+    }
+
+    private void doDispatch(HttpServletRequest req, HttpServletResponse resp) throws IOException {
         try {
             HandlerMethod handler = handlerMapping.getHandler(req);
 
@@ -88,8 +196,23 @@ public class DispatcherServlet extends HttpServlet {
                         "No handler found for " + req.getMethod() + " " + req.getRequestURI());
                 return;
             }
-            handlerAdapter.handle(req, resp, handler);
+            ResponseSizeTracker tracker = responseSizeTrackers.get(handler.getMappingInfo());
+            if (tracker != null) {
+                // 在写出任何内容之前按学习到的大小设置缓冲区，多数响应可以一次写出
+                int bufferSize = tracker.getRecommendedBufferSize();
+                if (bufferSize > 0 && !resp.isCommitted()) {
+                    resp.setBufferSize(bufferSize);
+                }
+            }
+            int size = handlerAdapter.handle(req, resp, handler);
+            if (tracker != null) {
+                tracker.record(size);
+            }
 
+        } catch (BindException e) {
+            // 参数绑定失败返回 400
+            ErrorResponse.sendError(req, resp, HttpServletResponse.SC_BAD_REQUEST,
+                    "Bad Request", e.getMessage());
         } catch (Exception e) {
             // 异常返回 500
             ErrorResponse.sendError(req, resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
@@ -97,6 +220,37 @@ public class DispatcherServlet extends HttpServlet {
             e.printStackTrace();
         }
     }
-}
 
+    /**
+     * 每个路由的响应大小统计和当前使用的缓冲区大小，键为 "GET /user/{id}" 形式的路由
+     *
+     * @return 按路由排序的指标快照
+     */
+    public Map<String, ResponseSizeSnapshot> getResponseSizeMetrics() {
+        Map<String, ResponseSizeSnapshot> metrics = new LinkedHashMap<>();
+        responseSizeTrackers.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey((a, b) -> {
+                    int byUrl = a.getUrl().compareTo(b.getUrl());
+                    return byUrl != 0 ? byUrl : a.getMethod().compareTo(b.getMethod());
+                }))
+                .forEach(entry -> {
+                    String route = entry.getKey().getMethod() + " " + entry.getKey().getUrl();
+                    metrics.put(route, entry.getValue().snapshot(route));
+                });
+        return metrics;
+    }
 
+    /**
+     * Servlet 销毁时关闭请求捕获，写完队列中剩余的记录
+     */
+    @Override
+    public void destroy() {
+        if (trafficCapture != null) {
+            try {
+                trafficCapture.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close traffic capture: " + e);
+            }
+        }
+    }
+}
@@ -1,21 +1,34 @@
 package com.flyingpig.mvc.core;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flyingpig.mvc.annotation.request.ModelAttribute;
 import com.flyingpig.mvc.annotation.request.PathVariable;
 import com.flyingpig.mvc.annotation.request.RequestBody;
 import com.flyingpig.mvc.annotation.request.RequestParam;
 import com.flyingpig.mvc.annotation.response.ResponseBody;
 import com.flyingpig.mvc.annotation.RestController;
+import com.flyingpig.mvc.bind.ModelBinders;
+import com.flyingpig.mvc.json.JsonSerializers;
 import com.flyingpig.mvc.model.HandlerMethod;
+import com.flyingpig.mvc.response.ResponseBuffer;
+import com.flyingpig.mvc.response.ResponseBufferPool;
+import com.flyingpig.mvc.view.ModelAndView;
+import com.flyingpig.mvc.view.Template;
+import com.flyingpig.mvc.view.TemplateException;
+import com.flyingpig.mvc.view.TemplateViewResolver;
 import org.springframework.context.ApplicationContext;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -31,6 +44,18 @@ public class HandlerAdapter {
     // ApplicationContext 用于获取依赖注入的 bean
     private ApplicationContext applicationContext;
 
+    // 模板视图解析器，用于渲染非 @ResponseBody 方法返回的视图
+    private TemplateViewResolver viewResolver;
+
+    // 生成的专用 JSON 序列化器，为 null 时使用 ObjectMapper 序列化
+    private JsonSerializers jsonSerializers;
+
+    // @ModelAttribute 参数的绑定器，每个目标类型生成一次
+    private final ModelBinders modelBinders = new ModelBinders();
+
+    // 响应缓冲区池，渲染结果先写入缓冲区再一次性输出
+    private final ResponseBufferPool responseBufferPool = new ResponseBufferPool();
+
     /**
      * 设置 ApplicationContext
      *
@@ -40,15 +65,52 @@ public class HandlerAdapter {
         this.applicationContext = applicationContext;
     }
 
+    /**
+     * 设置模板视图解析器
+     *
+     * @param viewResolver 模板视图解析器
+     */
+    public void setViewResolver(TemplateViewResolver viewResolver) {
+        this.viewResolver = viewResolver;
+    }
+
+    /**
+     * 设置生成的专用 JSON 序列化器
+     *
+     * @param jsonSerializers 序列化器注册表，为 null 时使用 ObjectMapper
+     */
+    public void setJsonSerializers(JsonSerializers jsonSerializers) {
+        this.jsonSerializers = jsonSerializers;
+    }
+
+    /**
+     * 获取 ObjectMapper，供生成的序列化器回退使用
+     *
+     * @return ObjectMapper
+     */
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    /**
+     * 获取 @ModelAttribute 参数的绑定器注册表
+     *
+     * @return 绑定器注册表
+     */
+    public ModelBinders getModelBinders() {
+        return modelBinders;
+    }
+
     /**
      * 处理 HTTP 请求，执行相应的控制器方法并将结果返回给响应。
      *
      * @param request  HTTP 请求
      * @param response HTTP 响应
      * @param handler  控制器方法
+     * @return 写出的响应体字节数，由处理方法自己写响应时返回 -1
      * @throws Exception 如果方法执行过程中发生错误，则抛出异常
      */
-    public void handle(HttpServletRequest request, HttpServletResponse response, HandlerMethod handler) throws Exception {
+    public int handle(HttpServletRequest request, HttpServletResponse response, HandlerMethod handler) throws Exception {
         // 进行前置处理 -- 根据注解对参数进行处理
         Object[] args = preHandle(request, response, handler);
 
@@ -56,7 +118,7 @@ public class HandlerAdapter {
         Object result = handler.getMethod().invoke(handler.getController(), args);
 
         // 进行后置处理 -- 看是否需要序列化，并将结果返回给客户端
-        postHandle(response, result, handler);
+        return postHandle(response, result, handler);
     }
 
     /**
@@ -110,6 +172,12 @@ public class HandlerAdapter {
                 continue;
             }
 
+            // 处理@ModelAttribute注解，一次性把查询参数或表单参数绑定到对象
+            if (parameter.isAnnotationPresent(ModelAttribute.class)) {
+                args[i] = modelBinders.bind(parameter.getType(), request);
+                continue;
+            }
+
 // 处理@RequestBody注解
             if (parameter.isAnnotationPresent(RequestBody.class)) {
                 // 读取请求体
@@ -141,27 +209,114 @@ public class HandlerAdapter {
 
     /**
      * 处理后置逻辑，将方法执行结果写入响应。
+     * 响应体先写入池化的缓冲区，再带上 Content-Length 一次性写出。
      *
      * @param response HTTP 响应
      * @param result   方法执行结果
      * @param handler  控制器方法
+     * @return 写出的响应体字节数，由处理方法自己写响应时返回 -1
      * @throws IOException 如果写入响应时发生错误
      */
-    private void postHandle(HttpServletResponse response, Object result, HandlerMethod handler) throws IOException {
+    private int postHandle(HttpServletResponse response, Object result, HandlerMethod handler) throws IOException {
         // 检查控制器或方法是否有 @ResponseBody 或 @RestController 注解，决定是否以 JSON 格式返回
         boolean isResponseBody = handler.getController().getClass().isAnnotationPresent(ResponseBody.class) ||
                 handler.getController().getClass().isAnnotationPresent(RestController.class) ||
                 handler.getMethod().isAnnotationPresent(ResponseBody.class);
 
-        // 如果是 @ResponseBody 或 @RestController，则返回 JSON 格式的响应
-        if (isResponseBody) {
-            response.setContentType("application/json;charset=utf-8");
-            String json = objectMapper.writeValueAsString(result);
-            response.getWriter().print(json);
-        } else {
-            // 否则返回方法的字符串表示
-            response.getWriter().write(result != null ? result.toString() : "");
+        // 接收 HttpServletResponse 的方法可能已经自己写了响应，没有返回值时不能再写出 "null"
+        boolean ownResponse = writesOwnResponse(handler.getMethod());
+        if (result == null && ownResponse) {
+            return -1;
+        }
+
+        ResponseBuffer buffer = responseBufferPool.acquire();
+        try {
+            // 如果是 @ResponseBody 或 @RestController，则返回 JSON 格式的响应
+            if (isResponseBody) {
+                response.setContentType("application/json;charset=utf-8");
+                if (jsonSerializers != null) {
+                    // 使用生成的序列化器，不支持的类型在内部回退到 ObjectMapper
+                    jsonSerializers.write(result, buffer);
+                } else {
+                    objectMapper.writeValue(buffer, result);
+                }
+            } else {
+                // 返回值对应模板时渲染视图，否则返回方法的字符串表示
+                Template template = resolveTemplate(result);
+                if (template != null) {
+                    Map<String, Object> model = result instanceof ModelAndView mav ? mav.getModel() : Collections.emptyMap();
+                    template.render(model, buffer);
+                    response.setContentType("text/html;charset=utf-8");
+                } else if (result != null) {
+                    buffer.write(result.toString().getBytes(Charset.forName(response.getCharacterEncoding())));
+                } else {
+                    // 没有返回值时方法可能已经自己写了响应，不再设置 Content-Length
+                    return -1;
+                }
+            }
+            if (ownResponse) {
+                // 已经写出的部分长度未知，不设置 Content-Length，返回值追加在方法写出的内容之后
+                appendToResponse(response, buffer);
+                return -1;
+            }
+            response.setContentLength(buffer.size());
+            buffer.writeTo(response.getOutputStream());
+            return buffer.size();
+        } finally {
+            responseBufferPool.release(buffer);
+        }
+    }
+
+    /**
+     * 把缓冲区追加到方法已经操作过的响应。方法取得过 Writer 时不能再调用 getOutputStream，
+     * 改为按 Writer 使用的字符集解码后通过 Writer 写出，Writer 编码后得到的仍是缓冲区中的字节
+     */
+    private void appendToResponse(HttpServletResponse response, ResponseBuffer buffer) throws IOException {
+        OutputStream out;
+        try {
+            out = response.getOutputStream();
+        } catch (IllegalStateException e) {
+            PrintWriter writer = response.getWriter();
+            writer.write(new String(buffer.toByteArray(), Charset.forName(response.getCharacterEncoding())));
+            writer.flush();
+            return;
+        }
+        buffer.writeTo(out);
+    }
+
+    /**
+     * 方法参数中是否有 HttpServletResponse
+     */
+    private boolean writesOwnResponse(Method method) {
+        for (Class<?> type : method.getParameterTypes()) {
+            if (type.equals(HttpServletResponse.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 根据返回值查找模板：ModelAndView 必须对应一个模板，字符串只有在存在同名模板时才作为视图名称
+     */
+    private Template resolveTemplate(Object result) {
+        if (viewResolver == null) {
+            if (result instanceof ModelAndView) {
+                throw new TemplateException("No TemplateViewResolver configured");
+            }
+            return null;
+        }
+        if (result instanceof ModelAndView mav) {
+            Template template = viewResolver.resolve(mav.getViewName());
+            if (template == null) {
+                throw new TemplateException("Template not found for view '" + mav.getViewName() + "'");
+            }
+            return template;
+        }
+        if (result instanceof String viewName) {
+            return viewResolver.resolve(viewName);
         }
+        return null;
     }
 
     /**
@@ -10,6 +10,8 @@ import org.springframework.context.ApplicationContext;
 import javax.servlet.http.HttpServletRequest;
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -75,6 +77,15 @@ public class HandlerMapping {
         return null;
     }
 
+    /**
+     * 获取所有已注册的处理方法
+     *
+     * @return 处理方法集合（不可修改）
+     */
+    public Collection<HandlerMethod> getHandlerMethods() {
+        return Collections.unmodifiableCollection(handlerMethods.values());
+    }
+
     /**
      * 检查URL是否匹配，支持路径变量
      */
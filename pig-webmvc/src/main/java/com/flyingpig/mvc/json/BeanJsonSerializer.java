@@ -0,0 +1,160 @@
+package com.flyingpig.mvc.json;
+
+import com.flyingpig.mvc.response.ResponseBuffer;
+import com.flyingpig.mvc.support.BeanProperty;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * BeanJsonSerializer：为某个 POJO 或 record 生成的专用序列化器
+ * 属性顺序在生成时固定，字段名（包括引号、冒号和分隔逗号）预先编码为 UTF-8 字节，
+ * 基本类型属性通过类型精确的 MethodHandle 读取，不经过反射也不装箱。
+ */
+class BeanJsonSerializer implements JsonSerializer {
+
+    private final Class<?> type;
+    private final PropertyWriter[] writers;
+
+    BeanJsonSerializer(Class<?> type, List<BeanProperty> properties, JsonSerializers serializers) {
+        this.type = type;
+        this.writers = new PropertyWriter[properties.size()];
+        for (int i = 0; i < writers.length; i++) {
+            BeanProperty property = properties.get(i);
+            byte[] prefix = ((i == 0 ? "\"" : ",\"") + property.getName() + "\":").getBytes(StandardCharsets.UTF_8);
+            writers[i] = createWriter(property, prefix, serializers);
+        }
+    }
+
+    @Override
+    public void serialize(Object value, ResponseBuffer out) throws IOException {
+        out.write('{');
+        try {
+            for (PropertyWriter writer : writers) {
+                writer.write(value, out);
+            }
+        } catch (IOException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to serialize " + type.getName(), e);
+        }
+        out.write('}');
+    }
+
+    private static PropertyWriter createWriter(BeanProperty property, byte[] prefix, JsonSerializers serializers) {
+        Class<?> propertyType = property.getType();
+        MethodHandle getter = property.getTypedGetter();
+        if (propertyType == int.class) {
+            return new IntWriter(prefix, getter);
+        }
+        if (propertyType == long.class) {
+            return new LongWriter(prefix, getter);
+        }
+        if (propertyType == boolean.class) {
+            return new BooleanWriter(prefix, getter);
+        }
+        if (propertyType == String.class) {
+            return new StringWriter(prefix, getter);
+        }
+        // 其余类型（包括其它基本类型）按运行时类型分派
+        return new ValueWriter(prefix, property, serializers);
+    }
+
+    private abstract static class PropertyWriter {
+        final byte[] prefix;
+
+        PropertyWriter(byte[] prefix) {
+            this.prefix = prefix;
+        }
+
+        abstract void write(Object bean, ResponseBuffer out) throws Throwable;
+    }
+
+    private static final class IntWriter extends PropertyWriter {
+        private final MethodHandle getter;
+
+        IntWriter(byte[] prefix, MethodHandle getter) {
+            super(prefix);
+            this.getter = getter;
+        }
+
+        @Override
+        void write(Object bean, ResponseBuffer out) throws Throwable {
+            int value = (int) getter.invokeExact(bean);
+            out.writeBytes(prefix);
+            out.writeLong(value);
+        }
+    }
+
+    private static final class LongWriter extends PropertyWriter {
+        private final MethodHandle getter;
+
+        LongWriter(byte[] prefix, MethodHandle getter) {
+            super(prefix);
+            this.getter = getter;
+        }
+
+        @Override
+        void write(Object bean, ResponseBuffer out) throws Throwable {
+            long value = (long) getter.invokeExact(bean);
+            out.writeBytes(prefix);
+            out.writeLong(value);
+        }
+    }
+
+    private static final class BooleanWriter extends PropertyWriter {
+        private final MethodHandle getter;
+
+        BooleanWriter(byte[] prefix, MethodHandle getter) {
+            super(prefix);
+            this.getter = getter;
+        }
+
+        @Override
+        void write(Object bean, ResponseBuffer out) throws Throwable {
+            boolean value = (boolean) getter.invokeExact(bean);
+            out.writeBytes(prefix);
+            out.writeAscii(value ? "true" : "false");
+        }
+    }
+
+    private static final class StringWriter extends PropertyWriter {
+        private final MethodHandle getter;
+
+        StringWriter(byte[] prefix, MethodHandle getter) {
+            super(prefix);
+            this.getter = getter;
+        }
+
+        @Override
+        void write(Object bean, ResponseBuffer out) throws Throwable {
+            String value = (String) getter.invokeExact(bean);
+            out.writeBytes(prefix);
+            if (value == null) {
+                out.writeAscii("null");
+            } else {
+                out.writeJsonString(value);
+            }
+        }
+    }
+
+    private static final class ValueWriter extends PropertyWriter {
+        private final BeanProperty property;
+        private final JsonSerializers serializers;
+
+        ValueWriter(byte[] prefix, BeanProperty property, JsonSerializers serializers) {
+            super(prefix);
+            this.property = property;
+            this.serializers = serializers;
+        }
+
+        @Override
+        void write(Object bean, ResponseBuffer out) throws Throwable {
+            Object value = property.getValue(bean);
+            out.writeBytes(prefix);
+            serializers.write(value, out);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.flyingpig.mvc.json;
+
+import com.flyingpig.mvc.response.ResponseBuffer;
+
+import java.io.IOException;
+
+/**
+ * JsonSerializer：针对某个类型生成的专用序列化器
+ * 直接向 {@link ResponseBuffer} 写入 UTF-8 编码的 JSON。
+ */
+public interface JsonSerializer {
+
+    /**
+     * 将对象序列化为 JSON 写入缓冲区
+     *
+     * @param value 待序列化的对象，不为 null
+     * @param out   输出缓冲区
+     * @throws IOException 回退到 ObjectMapper 序列化时可能抛出
+     */
+    void serialize(Object value, ResponseBuffer out) throws IOException;
+}
@@ -0,0 +1,273 @@
+package com.flyingpig.mvc.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flyingpig.mvc.response.ResponseBuffer;
+import com.flyingpig.mvc.support.BeanIntrospector;
+import com.flyingpig.mvc.support.BeanProperty;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * JsonSerializers：专用 JSON 序列化器的注册表
+ * 每个类型第一次出现时生成一个序列化器并缓存，之后按运行时类型直接查表。
+ * 生成规则与 Jackson 默认行为保持一致（属性按字段声明顺序、包含 null 值、枚举输出 name()），
+ * 无法保证一致的类型（带有 Jackson 注解、日期时间、Optional、byte[] 等）回退到 {@link ObjectMapper}。
+ */
+public class JsonSerializers {
+
+    private static final String JACKSON_PACKAGE = "com.fasterxml.jackson";
+
+    private final ObjectMapper objectMapper;
+
+    private final ClassValue<JsonSerializer> serializers = new ClassValue<>() {
+        @Override
+        protected JsonSerializer computeValue(Class<?> type) {
+            return createSerializer(type);
+        }
+    };
+
+    // 回退到 ObjectMapper 的序列化器，被所有不支持的类型共用
+    private final JsonSerializer fallback;
+
+    public JsonSerializers(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.fallback = (value, out) -> this.objectMapper.writeValue(out, value);
+    }
+
+    /**
+     * 在启动阶段为类型（以及泛型参数中出现的类型）预先生成序列化器，避免首个请求承担生成开销
+     *
+     * @param type 控制器方法的返回类型
+     */
+    public void precompile(Type type) {
+        if (type instanceof Class<?> clazz) {
+            if (clazz != void.class && clazz != Void.class && clazz != Object.class) {
+                serializers.get(clazz);
+            }
+        } else if (type instanceof ParameterizedType parameterized) {
+            precompile(parameterized.getRawType());
+            for (Type argument : parameterized.getActualTypeArguments()) {
+                precompile(argument);
+            }
+        } else if (type instanceof GenericArrayType arrayType) {
+            precompile(arrayType.getGenericComponentType());
+        }
+    }
+
+    /**
+     * 判断类型是否由生成的序列化器处理（而不是回退到 ObjectMapper）
+     */
+    public boolean isGenerated(Class<?> type) {
+        return serializers.get(type) != fallback;
+    }
+
+    /**
+     * 将任意值序列化为 JSON 写入缓冲区
+     *
+     * @param value 待序列化的值，可以为 null
+     * @param out   输出缓冲区
+     * @throws IOException 回退到 ObjectMapper 序列化失败时抛出
+     */
+    public void write(Object value, ResponseBuffer out) throws IOException {
+        if (value == null) {
+            out.writeAscii("null");
+            return;
+        }
+        serializers.get(value.getClass()).serialize(value, out);
+    }
+
+    private JsonSerializer createSerializer(Class<?> type) {
+        if (type == String.class) {
+            return (value, out) -> out.writeJsonString((String) value);
+        }
+        if (type == Integer.class || type == Long.class || type == Short.class || type == Byte.class) {
+            return (value, out) -> out.writeLong(((Number) value).longValue());
+        }
+        if (type == Boolean.class) {
+            return (value, out) -> out.writeAscii((Boolean) value ? "true" : "false");
+        }
+        if (type == Double.class || type == Float.class) {
+            return this::writeFloatingPoint;
+        }
+        if (type == BigDecimal.class || type == BigInteger.class) {
+            return (value, out) -> out.writeAscii(value.toString());
+        }
+        if (type == Character.class || type == UUID.class) {
+            return (value, out) -> out.writeJsonString(value.toString());
+        }
+        if (Enum.class.isAssignableFrom(type)) {
+            return hasJacksonAnnotations(type) ? fallback : (value, out) -> out.writeJsonString(((Enum<?>) value).name());
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            return this::writeCollection;
+        }
+        if (Map.class.isAssignableFrom(type)) {
+            return this::writeMap;
+        }
+        if (type.isArray()) {
+            return createArraySerializer(type.getComponentType());
+        }
+        if (isBeanCandidate(type)) {
+            List<BeanProperty> properties = BeanIntrospector.getProperties(type);
+            if (!properties.isEmpty()) {
+                return new BeanJsonSerializer(type, properties, this);
+            }
+        }
+        return fallback;
+    }
+
+    private JsonSerializer createArraySerializer(Class<?> componentType) {
+        if (componentType == int.class) {
+            return (value, out) -> {
+                int[] array = (int[]) value;
+                out.write('[');
+                for (int i = 0; i < array.length; i++) {
+                    if (i > 0) {
+                        out.write(',');
+                    }
+                    out.writeLong(array[i]);
+                }
+                out.write(']');
+            };
+        }
+        if (componentType == long.class) {
+            return (value, out) -> {
+                long[] array = (long[]) value;
+                out.write('[');
+                for (int i = 0; i < array.length; i++) {
+                    if (i > 0) {
+                        out.write(',');
+                    }
+                    out.writeLong(array[i]);
+                }
+                out.write(']');
+            };
+        }
+        if (!componentType.isPrimitive()) {
+            return (value, out) -> {
+                Object[] array = (Object[]) value;
+                out.write('[');
+                for (int i = 0; i < array.length; i++) {
+                    if (i > 0) {
+                        out.write(',');
+                    }
+                    write(array[i], out);
+                }
+                out.write(']');
+            };
+        }
+        // byte[] 输出为 Base64、char[] 输出为字符串等特殊规则交给 ObjectMapper
+        return fallback;
+    }
+
+    private void writeFloatingPoint(Object value, ResponseBuffer out) {
+        double d = ((Number) value).doubleValue();
+        if (Double.isNaN(d) || Double.isInfinite(d)) {
+            // 与 Jackson 默认的 QUOTE_NON_NUMERIC_NUMBERS 一致
+            out.writeJsonString(value.toString());
+        } else {
+            out.writeAscii(value.toString());
+        }
+    }
+
+    private void writeCollection(Object value, ResponseBuffer out) throws IOException {
+        out.write('[');
+        boolean first = true;
+        for (Object element : (Collection<?>) value) {
+            if (!first) {
+                out.write(',');
+            }
+            first = false;
+            write(element, out);
+        }
+        out.write(']');
+    }
+
+    private void writeMap(Object value, ResponseBuffer out) throws IOException {
+        Map<?, ?> map = (Map<?, ?>) value;
+        // 先检查键的类型，键不是简单类型时整个 Map 交给 ObjectMapper
+        for (Object key : map.keySet()) {
+            if (!(key instanceof String || key instanceof Number || key instanceof Enum<?>
+                    || key instanceof Character || key instanceof Boolean)) {
+                fallback.serialize(value, out);
+                return;
+            }
+        }
+        out.write('{');
+        boolean first = true;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (!first) {
+                out.write(',');
+            }
+            first = false;
+            Object key = entry.getKey();
+            out.writeJsonString(key instanceof Enum<?> e ? e.name() : key.toString());
+            out.write(':');
+            write(entry.getValue(), out);
+        }
+        out.write('}');
+    }
+
+    /**
+     * 判断类型能否按普通 Bean 生成序列化器：
+     * 排除 JDK 内部类型、接口和抽象类、带有 Jackson 注解的类型，以及存在 public 字段（Jackson 会输出）的类型
+     */
+    private boolean isBeanCandidate(Class<?> type) {
+        if (type.isInterface() || type.isPrimitive() || Modifier.isAbstract(type.getModifiers())) {
+            return false;
+        }
+        String name = type.getName();
+        if (name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("jdk.")
+                || name.startsWith("sun.") || name.startsWith("com.sun.")) {
+            return false;
+        }
+        if (hasJacksonAnnotations(type)) {
+            return false;
+        }
+        for (Field field : type.getFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 检查类型本身、字段和方法上是否存在 Jackson 注解，存在时行为可能被定制，交给 ObjectMapper 处理
+     */
+    private boolean hasJacksonAnnotations(Class<?> type) {
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            if (containsJackson(c.getDeclaredAnnotations())) {
+                return true;
+            }
+            for (Field field : c.getDeclaredFields()) {
+                if (containsJackson(field.getDeclaredAnnotations())) {
+                    return true;
+                }
+            }
+            for (Method method : c.getDeclaredMethods()) {
+                if (containsJackson(method.getDeclaredAnnotations())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean containsJackson(Annotation[] annotations) {
+        for (Annotation annotation : annotations) {
+            if (annotation.annotationType().getName().startsWith(JACKSON_PACKAGE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,62 @@
+package com.flyingpig.mvc.loopback;
+
+import com.flyingpig.mvc.core.DispatcherServlet;
+import org.springframework.context.ApplicationContext;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+
+/**
+ * LoopbackDispatcher：不经过 Servlet 容器和网络、在进程内直接驱动 DispatcherServlet 的分发器
+ * 类似 MockMvc，但请求和响应对象可以复用，适合用来测量框架本身（路由、参数解析、序列化）的开销，
+ * 与容器和网络的开销区分开。
+ *
+ * <pre>
+ * LoopbackDispatcher dispatcher = new LoopbackDispatcher(context);
+ * LoopbackRequest request = new LoopbackRequest();
+ * LoopbackResponse response = new LoopbackResponse();
+ * dispatcher.dispatch(request.reset("GET", "/user/1"), response);
+ * </pre>
+ */
+public class LoopbackDispatcher {
+
+    private final DispatcherServlet dispatcherServlet;
+
+    /**
+     * 创建并初始化一个新的 DispatcherServlet
+     *
+     * @param applicationContext 已经刷新过的 Spring 容器
+     * @throws ServletException DispatcherServlet 初始化失败时抛出
+     */
+    public LoopbackDispatcher(ApplicationContext applicationContext) throws ServletException {
+        this.dispatcherServlet = new DispatcherServlet(applicationContext);
+        this.dispatcherServlet.init();
+    }
+
+    /**
+     * 使用一个已经初始化的 DispatcherServlet
+     *
+     * @param dispatcherServlet 已经调用过 init 的 DispatcherServlet
+     */
+    public LoopbackDispatcher(DispatcherServlet dispatcherServlet) {
+        this.dispatcherServlet = dispatcherServlet;
+    }
+
+    /**
+     * 分发一次请求。响应会先被重置，因此同一对请求和响应对象可以在循环中反复使用。
+     *
+     * @param request  请求
+     * @param response 响应
+     * @return 响应状态码
+     */
+    public int dispatch(LoopbackRequest request, LoopbackResponse response) throws IOException, ServletException {
+        response.reset();
+        request.rewind();
+        dispatcherServlet.service(request, response);
+        return response.getStatus();
+    }
+
+    public DispatcherServlet getDispatcherServlet() {
+        return dispatcherServlet;
+    }
+}
@@ -0,0 +1,567 @@
+package com.flyingpig.mvc.loopback;
+
+import javax.servlet.*;
+import javax.servlet.http.*;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.URLDecoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.*;
+
+/**
+ * LoopbackRequest：进程内使用的可复用 HTTP 请求
+ * 不经过任何网络和容器，直接交给 {@link LoopbackDispatcher} 分发。调用 {@link #reset(String, String)}
+ * 后可以反复使用同一个对象，适合在基准测试的循环中驱动 DispatcherServlet。
+ * 只实现了分发和参数解析需要的部分，会话、认证、异步等容器功能会抛出 UnsupportedOperationException。
+ */
+public class LoopbackRequest implements HttpServletRequest {
+
+    private String method = "GET";
+    private String requestUri = "/";
+    private String queryString;
+    private String contentType;
+    private String characterEncoding = StandardCharsets.UTF_8.name();
+    private byte[] body = new byte[0];
+
+    private final Map<String, List<String>> headers = new LinkedHashMap<>();
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+    private final Map<String, List<String>> parameters = new LinkedHashMap<>();
+
+    // 查询字符串和表单参数是否已经解析到 parameters 中
+    private boolean parametersParsed;
+
+    private final LoopbackInputStream inputStream = new LoopbackInputStream();
+
+    public LoopbackRequest() {
+    }
+
+    public LoopbackRequest(String method, String requestUri) {
+        reset(method, requestUri);
+    }
+
+    /**
+     * 重置请求以便复用：清空请求头、属性、参数和请求体
+     *
+     * @param method     HTTP 方法
+     * @param requestUri 请求 URI，可以带查询字符串，例如 /user/1?verbose=true
+     * @return 当前对象
+     */
+    public LoopbackRequest reset(String method, String requestUri) {
+        this.method = method;
+        int question = requestUri.indexOf('?');
+        if (question >= 0) {
+            this.requestUri = requestUri.substring(0, question);
+            this.queryString = requestUri.substring(question + 1);
+        } else {
+            this.requestUri = requestUri;
+            this.queryString = null;
+        }
+        this.contentType = null;
+        this.characterEncoding = StandardCharsets.UTF_8.name();
+        this.body = new byte[0];
+        this.headers.clear();
+        this.attributes.clear();
+        this.parameters.clear();
+        this.parametersParsed = false;
+        this.inputStream.reset(body);
+        return this;
+    }
+
+    /**
+     * 设置请求体，可重复读取：每次分发前请求体读取位置会被重置
+     */
+    public LoopbackRequest setBody(byte[] body, String contentType) {
+        this.body = body;
+        this.contentType = contentType;
+        this.inputStream.reset(body);
+        return this;
+    }
+
+    public LoopbackRequest setBody(String body, String contentType) {
+        return setBody(body.getBytes(StandardCharsets.UTF_8), contentType);
+    }
+
+    public LoopbackRequest addHeader(String name, String value) {
+        headers.computeIfAbsent(name.toLowerCase(Locale.ROOT), k -> new ArrayList<>()).add(value);
+        return this;
+    }
+
+    public LoopbackRequest addParameter(String name, String value) {
+        parseParameters();
+        parameters.computeIfAbsent(name, k -> new ArrayList<>()).add(value);
+        return this;
+    }
+
+    /**
+     * 分发前调用：重置请求体读取位置，使同一个请求可以被重复分发
+     */
+    void rewind() {
+        inputStream.reset(body);
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    // ---------------------------------------------------------------- 请求行与请求头
+
+    @Override
+    public String getMethod() {
+        return method;
+    }
+
+    @Override
+    public String getRequestURI() {
+        return requestUri;
+    }
+
+    @Override
+    public StringBuffer getRequestURL() {
+        return new StringBuffer("http://localhost").append(requestUri);
+    }
+
+    @Override
+    public String getQueryString() {
+        return queryString;
+    }
+
+    @Override
+    public String getContextPath() {
+        return "";
+    }
+
+    @Override
+    public String getServletPath() {
+        return requestUri;
+    }
+
+    @Override
+    public String getPathInfo() {
+        return null;
+    }
+
+    @Override
+    public String getPathTranslated() {
+        return null;
+    }
+
+    @Override
+    public String getHeader(String name) {
+        List<String> values = headers.get(name.toLowerCase(Locale.ROOT));
+        if (values == null || values.isEmpty()) {
+            return "content-type".equalsIgnoreCase(name) ? contentType : null;
+        }
+        return values.get(0);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+        List<String> values = headers.get(name.toLowerCase(Locale.ROOT));
+        return Collections.enumeration(values != null ? values : Collections.emptyList());
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames() {
+        return Collections.enumeration(headers.keySet());
+    }
+
+    @Override
+    public long getDateHeader(String name) {
+        String value = getHeader(name);
+        return value != null ? Long.parseLong(value) : -1L;
+    }
+
+    @Override
+    public int getIntHeader(String name) {
+        String value = getHeader(name);
+        return value != null ? Integer.parseInt(value) : -1;
+    }
+
+    @Override
+    public Cookie[] getCookies() {
+        return null;
+    }
+
+    // ---------------------------------------------------------------- 请求参数
+
+    @Override
+    public String getParameter(String name) {
+        parseParameters();
+        List<String> values = parameters.get(name);
+        return values != null && !values.isEmpty() ? values.get(0) : null;
+    }
+
+    @Override
+    public Enumeration<String> getParameterNames() {
+        parseParameters();
+        return Collections.enumeration(parameters.keySet());
+    }
+
+    @Override
+    public String[] getParameterValues(String name) {
+        parseParameters();
+        List<String> values = parameters.get(name);
+        return values != null ? values.toArray(new String[0]) : null;
+    }
+
+    @Override
+    public Map<String, String[]> getParameterMap() {
+        parseParameters();
+        Map<String, String[]> map = new LinkedHashMap<>();
+        parameters.forEach((name, values) -> map.put(name, values.toArray(new String[0])));
+        return map;
+    }
+
+    /**
+     * 与容器行为一致：合并查询字符串和 application/x-www-form-urlencoded 请求体中的参数
+     */
+    private void parseParameters() {
+        if (parametersParsed) {
+            return;
+        }
+        parametersParsed = true;
+        parseInto(queryString);
+        if (contentType != null && contentType.startsWith("application/x-www-form-urlencoded") && body.length > 0) {
+            parseInto(new String(body, charset()));
+        }
+    }
+
+    private void parseInto(String encoded) {
+        if (encoded == null || encoded.isEmpty()) {
+            return;
+        }
+        for (String pair : encoded.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq >= 0 ? pair.substring(0, eq) : pair, charset());
+            String value = eq >= 0 ? URLDecoder.decode(pair.substring(eq + 1), charset()) : "";
+            parameters.computeIfAbsent(name, k -> new ArrayList<>()).add(value);
+        }
+    }
+
+    // ---------------------------------------------------------------- 请求体
+
+    @Override
+    public ServletInputStream getInputStream() {
+        return inputStream;
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        return new BufferedReader(new InputStreamReader(inputStream, charset()));
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public int getContentLength() {
+        return body.length;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+        return body.length;
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        return characterEncoding;
+    }
+
+    @Override
+    public void setCharacterEncoding(String env) {
+        this.characterEncoding = env;
+    }
+
+    private Charset charset() {
+        return Charset.forName(characterEncoding);
+    }
+
+    // ---------------------------------------------------------------- 属性
+
+    @Override
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    @Override
+    public Enumeration<String> getAttributeNames() {
+        return Collections.enumeration(attributes.keySet());
+    }
+
+    @Override
+    public void setAttribute(String name, Object o) {
+        attributes.put(name, o);
+    }
+
+    @Override
+    public void removeAttribute(String name) {
+        attributes.remove(name);
+    }
+
+    // ---------------------------------------------------------------- 连接信息
+
+    @Override
+    public String getProtocol() {
+        return "HTTP/1.1";
+    }
+
+    @Override
+    public String getScheme() {
+        return "http";
+    }
+
+    @Override
+    public String getServerName() {
+        return "localhost";
+    }
+
+    @Override
+    public int getServerPort() {
+        return 80;
+    }
+
+    @Override
+    public String getRemoteAddr() {
+        return "127.0.0.1";
+    }
+
+    @Override
+    public String getRemoteHost() {
+        return "localhost";
+    }
+
+    @Override
+    public int getRemotePort() {
+        return 0;
+    }
+
+    @Override
+    public String getLocalName() {
+        return "localhost";
+    }
+
+    @Override
+    public String getLocalAddr() {
+        return "127.0.0.1";
+    }
+
+    @Override
+    public int getLocalPort() {
+        return 80;
+    }
+
+    @Override
+    public boolean isSecure() {
+        return false;
+    }
+
+    @Override
+    public Locale getLocale() {
+        return Locale.getDefault();
+    }
+
+    @Override
+    public Enumeration<Locale> getLocales() {
+        return Collections.enumeration(List.of(Locale.getDefault()));
+    }
+
+    @Override
+    public DispatcherType getDispatcherType() {
+        return DispatcherType.REQUEST;
+    }
+
+    // ---------------------------------------------------------------- 不支持的容器功能
+
+    @Override
+    public String getAuthType() {
+        return null;
+    }
+
+    @Override
+    public String getRemoteUser() {
+        return null;
+    }
+
+    @Override
+    public boolean isUserInRole(String role) {
+        return false;
+    }
+
+    @Override
+    public Principal getUserPrincipal() {
+        return null;
+    }
+
+    @Override
+    public String getRequestedSessionId() {
+        return null;
+    }
+
+    @Override
+    public HttpSession getSession(boolean create) {
+        if (create) {
+            throw new UnsupportedOperationException("Sessions are not supported by LoopbackRequest");
+        }
+        return null;
+    }
+
+    @Override
+    public HttpSession getSession() {
+        return getSession(true);
+    }
+
+    @Override
+    public String changeSessionId() {
+        throw new UnsupportedOperationException("Sessions are not supported by LoopbackRequest");
+    }
+
+    @Override
+    public boolean isRequestedSessionIdValid() {
+        return false;
+    }
+
+    @Override
+    public boolean isRequestedSessionIdFromCookie() {
+        return false;
+    }
+
+    @Override
+    public boolean isRequestedSessionIdFromURL() {
+        return false;
+    }
+
+    @Override
+    @Deprecated
+    public boolean isRequestedSessionIdFromUrl() {
+        return false;
+    }
+
+    @Override
+    public boolean authenticate(HttpServletResponse response) {
+        throw new UnsupportedOperationException("Authentication is not supported by LoopbackRequest");
+    }
+
+    @Override
+    public void login(String username, String password) {
+        throw new UnsupportedOperationException("Authentication is not supported by LoopbackRequest");
+    }
+
+    @Override
+    public void logout() {
+        throw new UnsupportedOperationException("Authentication is not supported by LoopbackRequest");
+    }
+
+    @Override
+    public Collection<Part> getParts() {
+        throw new UnsupportedOperationException("Multipart is not supported by LoopbackRequest");
+    }
+
+    @Override
+    public Part getPart(String name) {
+        throw new UnsupportedOperationException("Multipart is not supported by LoopbackRequest");
+    }
+
+    @Override
+    public <T extends HttpUpgradeHandler> T upgrade(Class<T> handlerClass) {
+        throw new UnsupportedOperationException("Upgrade is not supported by LoopbackRequest");
+    }
+
+    @Override
+    @Deprecated
+    public String getRealPath(String path) {
+        return null;
+    }
+
+    @Override
+    public RequestDispatcher getRequestDispatcher(String path) {
+        return null;
+    }
+
+    @Override
+    public ServletContext getServletContext() {
+        return null;
+    }
+
+    @Override
+    public AsyncContext startAsync() {
+        throw new IllegalStateException("Async is not supported by LoopbackRequest");
+    }
+
+    @Override
+    public AsyncContext startAsync(ServletRequest servletRequest, ServletResponse servletResponse) {
+        throw new IllegalStateException("Async is not supported by LoopbackRequest");
+    }
+
+    @Override
+    public boolean isAsyncStarted() {
+        return false;
+    }
+
+    @Override
+    public boolean isAsyncSupported() {
+        return false;
+    }
+
+    @Override
+    public AsyncContext getAsyncContext() {
+        throw new IllegalStateException("Async is not supported by LoopbackRequest");
+    }
+
+    /**
+     * 基于字节数组的请求体输入流，reset 后可以复用
+     */
+    private static class LoopbackInputStream extends ServletInputStream {
+
+        private byte[] data = new byte[0];
+        private int pos;
+
+        void reset(byte[] data) {
+            this.data = data;
+            this.pos = 0;
+        }
+
+        @Override
+        public int read() {
+            return pos < data.length ? data[pos++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (pos >= data.length) {
+                return -1;
+            }
+            int n = Math.min(len, data.length - pos);
+            System.arraycopy(data, pos, b, off, n);
+            pos += n;
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return data.length - pos;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return pos >= data.length;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            throw new UnsupportedOperationException("Non-blocking IO is not supported by LoopbackRequest");
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.flyingpig.mvc.loopback;
+
+import com.flyingpig.mvc.response.ResponseBuffer;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletResponse;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * LoopbackResponse：进程内使用的可复用 HTTP 响应
+ * 响应体写入内存缓冲区，调用 {@link #reset()} 后可以反复使用同一个对象，缓冲区和输出流都不会重新分配。
+ */
+public class LoopbackResponse implements HttpServletResponse {
+
+    private final ResponseBuffer body = new ResponseBuffer(4 * 1024);
+    private final LoopbackOutputStream outputStream = new LoopbackOutputStream();
+
+    // 同一个 PrintWriter 在多次请求之间复用，读取响应体前会先 flush
+    private final PrintWriter writer = new PrintWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+
+    private final Map<String, List<String>> headers = new LinkedHashMap<>();
+
+    private int status = SC_OK;
+    private String contentType;
+    private String characterEncoding = StandardCharsets.UTF_8.name();
+    private long contentLength = -1;
+    private int bufferSize = 8 * 1024;
+    private boolean committed;
+    private Locale locale = Locale.getDefault();
+
+    @Override
+    public void reset() {
+        writer.flush();
+        body.reset();
+        headers.clear();
+        status = SC_OK;
+        contentType = null;
+        characterEncoding = StandardCharsets.UTF_8.name();
+        contentLength = -1;
+        bufferSize = 8 * 1024;
+        committed = false;
+        locale = Locale.getDefault();
+    }
+
+    /**
+     * 响应体的字节数
+     */
+    public int getBodySize() {
+        writer.flush();
+        return body.size();
+    }
+
+    /**
+     * 响应体的字节副本
+     */
+    public byte[] getBodyAsBytes() {
+        writer.flush();
+        return body.toByteArray();
+    }
+
+    /**
+     * 以 UTF-8 解码的响应体
+     */
+    public String getBodyAsString() {
+        return new String(getBodyAsBytes(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 通过 setContentLength 设置的长度，未设置时为 -1
+     */
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    // ---------------------------------------------------------------- 状态与响应头
+
+    @Override
+    public void setStatus(int sc) {
+        this.status = sc;
+    }
+
+    @Override
+    @Deprecated
+    public void setStatus(int sc, String sm) {
+        this.status = sc;
+    }
+
+    @Override
+    public int getStatus() {
+        return status;
+    }
+
+    @Override
+    public void sendError(int sc, String msg) {
+        this.status = sc;
+        this.committed = true;
+    }
+
+    @Override
+    public void sendError(int sc) {
+        sendError(sc, null);
+    }
+
+    @Override
+    public void sendRedirect(String location) {
+        setHeader("Location", location);
+        this.status = SC_FOUND;
+        this.committed = true;
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        List<String> values = new ArrayList<>(1);
+        values.add(value);
+        headers.put(name.toLowerCase(Locale.ROOT), values);
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        headers.computeIfAbsent(name.toLowerCase(Locale.ROOT), k -> new ArrayList<>(1)).add(value);
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        setHeader(name, Integer.toString(value));
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        addHeader(name, Integer.toString(value));
+    }
+
+    @Override
+    public void setDateHeader(String name, long date) {
+        setHeader(name, Long.toString(date));
+    }
+
+    @Override
+    public void addDateHeader(String name, long date) {
+        addHeader(name, Long.toString(date));
+    }
+
+    @Override
+    public boolean containsHeader(String name) {
+        return headers.containsKey(name.toLowerCase(Locale.ROOT));
+    }
+
+    @Override
+    public String getHeader(String name) {
+        if ("content-type".equalsIgnoreCase(name)) {
+            return contentType;
+        }
+        List<String> values = headers.get(name.toLowerCase(Locale.ROOT));
+        return values != null && !values.isEmpty() ? values.get(0) : null;
+    }
+
+    @Override
+    public Collection<String> getHeaders(String name) {
+        List<String> values = headers.get(name.toLowerCase(Locale.ROOT));
+        return values != null ? Collections.unmodifiableList(values) : Collections.emptyList();
+    }
+
+    @Override
+    public Collection<String> getHeaderNames() {
+        return Collections.unmodifiableSet(headers.keySet());
+    }
+
+    @Override
+    public void addCookie(Cookie cookie) {
+        addHeader("Set-Cookie", cookie.getName() + "=" + cookie.getValue());
+    }
+
+    @Override
+    public String encodeURL(String url) {
+        return url;
+    }
+
+    @Override
+    public String encodeRedirectURL(String url) {
+        return url;
+    }
+
+    @Override
+    @Deprecated
+    public String encodeUrl(String url) {
+        return url;
+    }
+
+    @Override
+    @Deprecated
+    public String encodeRedirectUrl(String url) {
+        return url;
+    }
+
+    // ---------------------------------------------------------------- 响应体
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() {
+        return writer;
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public void setContentType(String type) {
+        this.contentType = type;
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        return characterEncoding;
+    }
+
+    @Override
+    public void setCharacterEncoding(String charset) {
+        this.characterEncoding = charset;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        this.contentLength = len;
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        this.contentLength = len;
+    }
+
+    @Override
+    public void setBufferSize(int size) {
+        this.bufferSize = size;
+    }
+
+    @Override
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    @Override
+    public void flushBuffer() {
+        writer.flush();
+        committed = true;
+    }
+
+    @Override
+    public void resetBuffer() {
+        writer.flush();
+        body.reset();
+    }
+
+    @Override
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    @Override
+    public void setLocale(Locale loc) {
+        this.locale = loc;
+    }
+
+    @Override
+    public Locale getLocale() {
+        return locale;
+    }
+
+    /**
+     * 写入内存缓冲区的输出流
+     */
+    private class LoopbackOutputStream extends ServletOutputStream {
+
+        @Override
+        public void write(int b) {
+            body.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            body.write(b, off, len);
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            throw new UnsupportedOperationException("Non-blocking IO is not supported by LoopbackResponse");
+        }
+    }
+}
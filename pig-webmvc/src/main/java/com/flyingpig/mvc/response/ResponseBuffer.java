@@ -0,0 +1,255 @@
+package com.flyingpig.mvc.response;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * ResponseBuffer：可复用的响应输出缓冲区
+ * 直接以 UTF-8 字节的形式累积响应内容，写完后一次性输出到响应流，
+ * 这样可以在写出之前得知准确的 Content-Length。
+ * 缓冲区由 {@link ResponseBufferPool} 统一借出和归还，不是线程安全的。
+ */
+public class ResponseBuffer extends OutputStream {
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    // 底层字节数组，容量不足时按倍数扩容
+    private byte[] bytes;
+
+    // 已写入的字节数
+    private int size;
+
+    public ResponseBuffer(int initialCapacity) {
+        this.bytes = new byte[Math.max(initialCapacity, 64)];
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(size + 1);
+        bytes[size++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] src, int off, int len) {
+        ensureCapacity(size + len);
+        System.arraycopy(src, off, bytes, size, len);
+        size += len;
+    }
+
+    /**
+     * 写入预先编码好的字节，例如模板中的静态文本或 JSON 字段名
+     */
+    public void writeBytes(byte[] src) {
+        write(src, 0, src.length);
+    }
+
+    /**
+     * 写入仅包含 ASCII 字符的字符串，例如数字的字符串形式
+     */
+    public void writeAscii(String s) {
+        int len = s.length();
+        ensureCapacity(size + len);
+        for (int i = 0; i < len; i++) {
+            bytes[size++] = (byte) s.charAt(i);
+        }
+    }
+
+    /**
+     * 以十进制写入整数，不产生中间 String
+     */
+    public void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            writeAscii("-9223372036854775808");
+            return;
+        }
+        // long 最多 19 位数字，再加一位符号
+        ensureCapacity(size + 20);
+        if (value < 0) {
+            bytes[size++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        int pos = size + digits;
+        do {
+            bytes[--pos] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+        size += digits;
+    }
+
+    /**
+     * 以 UTF-8 编码写入字符序列，不产生中间 byte[] 或 String
+     */
+    public void writeUtf8(CharSequence s) {
+        int len = s.length();
+        // 最坏情况下每个 char 编码为 3 个字节
+        ensureCapacity(size + len * 3);
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                bytes[size++] = (byte) c;
+            } else {
+                i = writeUtf8Char(s, i, c);
+            }
+        }
+    }
+
+    /**
+     * 以 UTF-8 编码写入字符序列，同时转义 HTML 特殊字符
+     */
+    public void writeHtmlEscaped(CharSequence s) {
+        int len = s.length();
+        // 最长的转义序列 &quot; 为 6 个字节
+        ensureCapacity(size + len * 6);
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '<' -> writeAsciiUnchecked("&lt;");
+                case '>' -> writeAsciiUnchecked("&gt;");
+                case '&' -> writeAsciiUnchecked("&amp;");
+                case '"' -> writeAsciiUnchecked("&quot;");
+                case '\'' -> writeAsciiUnchecked("&#39;");
+                default -> {
+                    if (c < 0x80) {
+                        bytes[size++] = (byte) c;
+                    } else {
+                        i = writeUtf8Char(s, i, c);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 以 UTF-8 编码写入 JSON 字符串字面量（包含两侧的引号），同时转义引号、反斜杠和控制字符
+     */
+    public void writeJsonString(CharSequence s) {
+        int len = s.length();
+        // 最长的转义序列为 6 个字节的 Unicode 转义，再加上两侧引号
+        ensureCapacity(size + len * 6 + 2);
+        bytes[size++] = '"';
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+                bytes[size++] = (byte) c;
+                continue;
+            }
+            switch (c) {
+                case '"' -> writeAsciiUnchecked("\\\"");
+                case '\\' -> writeAsciiUnchecked("\\\\");
+                case '\n' -> writeAsciiUnchecked("\\n");
+                case '\r' -> writeAsciiUnchecked("\\r");
+                case '\t' -> writeAsciiUnchecked("\\t");
+                case '\b' -> writeAsciiUnchecked("\\b");
+                case '\f' -> writeAsciiUnchecked("\\f");
+                default -> {
+                    if (c < 0x20) {
+                        writeAsciiUnchecked("\\u00");
+                        bytes[size++] = (byte) HEX_DIGITS[c >> 4];
+                        bytes[size++] = (byte) HEX_DIGITS[c & 0xF];
+                    } else {
+                        i = writeUtf8Char(s, i, c);
+                    }
+                }
+            }
+        }
+        bytes[size++] = '"';
+    }
+
+    /**
+     * 将缓冲区内容一次性写出到目标流
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(bytes, 0, size);
+    }
+
+    /**
+     * 已写入的字节数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 当前底层数组的容量
+     */
+    public int capacity() {
+        return bytes.length;
+    }
+
+    /**
+     * 返回已写入内容的副本
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    /**
+     * 清空内容，保留底层数组以便复用
+     */
+    public void reset() {
+        size = 0;
+    }
+
+    /**
+     * 清空内容，并在底层数组超过上限时将其收缩，避免池中长期持有大数组
+     */
+    void reset(int maxRetainedCapacity) {
+        size = 0;
+        if (bytes.length > maxRetainedCapacity) {
+            bytes = new byte[maxRetainedCapacity];
+        }
+    }
+
+    /**
+     * 关闭为空操作，使缓冲区可以安全地交给会自动关闭目标流的序列化器
+     */
+    @Override
+    public void close() {
+    }
+
+    private void writeAsciiUnchecked(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            bytes[size++] = (byte) s.charAt(i);
+        }
+    }
+
+    /**
+     * 写入一个非 ASCII 字符，返回最后一个被消费的字符下标（代理对会消费两个字符）。
+     * 调用方需要保证至少还有 4 个字节的剩余容量。
+     */
+    private int writeUtf8Char(CharSequence s, int i, char c) {
+        if (c < 0x800) {
+            bytes[size++] = (byte) (0xC0 | (c >> 6));
+            bytes[size++] = (byte) (0x80 | (c & 0x3F));
+            return i;
+        }
+        if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+            int cp = Character.toCodePoint(c, s.charAt(i + 1));
+            bytes[size++] = (byte) (0xF0 | (cp >> 18));
+            bytes[size++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+            bytes[size++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+            bytes[size++] = (byte) (0x80 | (cp & 0x3F));
+            return i + 1;
+        }
+        if (Character.isSurrogate(c)) {
+            // 不成对的代理字符按 '?' 输出，与 JDK 编码器的替换行为一致
+            bytes[size++] = '?';
+            return i;
+        }
+        bytes[size++] = (byte) (0xE0 | (c >> 12));
+        bytes[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        bytes[size++] = (byte) (0x80 | (c & 0x3F));
+        return i;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(required, bytes.length << 1));
+        }
+    }
+}
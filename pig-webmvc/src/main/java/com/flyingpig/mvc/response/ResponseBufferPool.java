@@ -0,0 +1,67 @@
+package com.flyingpig.mvc.response;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ResponseBufferPool：响应缓冲区池
+ * 使用无锁队列缓存空闲的 {@link ResponseBuffer}，避免每个请求都重新分配字节数组。
+ * 池中最多保留 maxPooled 个缓冲区，归还时超过 maxRetainedCapacity 的大数组会被收缩。
+ */
+public class ResponseBufferPool {
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 4 * 1024;
+    private static final int DEFAULT_MAX_RETAINED_CAPACITY = 256 * 1024;
+    private static final int DEFAULT_MAX_POOLED = 64;
+
+    private final ConcurrentLinkedQueue<ResponseBuffer> buffers = new ConcurrentLinkedQueue<>();
+
+    // 当前池中空闲缓冲区的数量（ConcurrentLinkedQueue.size() 是 O(n) 的，因此单独计数）
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    private final int initialCapacity;
+    private final int maxRetainedCapacity;
+    private final int maxPooled;
+
+    public ResponseBufferPool() {
+        this(DEFAULT_INITIAL_CAPACITY, DEFAULT_MAX_RETAINED_CAPACITY, DEFAULT_MAX_POOLED);
+    }
+
+    /**
+     * @param initialCapacity     新建缓冲区的初始容量
+     * @param maxRetainedCapacity 归还到池中的缓冲区允许保留的最大容量
+     * @param maxPooled           池中最多保留的空闲缓冲区数量
+     */
+    public ResponseBufferPool(int initialCapacity, int maxRetainedCapacity, int maxPooled) {
+        this.initialCapacity = initialCapacity;
+        this.maxRetainedCapacity = Math.max(initialCapacity, maxRetainedCapacity);
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * 借出一个空的缓冲区，池为空时新建
+     */
+    public ResponseBuffer acquire() {
+        ResponseBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            return new ResponseBuffer(initialCapacity);
+        }
+        pooled.decrementAndGet();
+        return buffer;
+    }
+
+    /**
+     * 归还缓冲区，池已满时直接丢弃交给 GC 回收
+     */
+    public void release(ResponseBuffer buffer) {
+        if (buffer == null) {
+            return;
+        }
+        buffer.reset(maxRetainedCapacity);
+        if (pooled.incrementAndGet() <= maxPooled) {
+            buffers.offer(buffer);
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.flyingpig.mvc.response;
+
+/**
+ * ResponseSizeSnapshot：某个路由响应体大小统计的快照，单位为字节
+ */
+public class ResponseSizeSnapshot {
+
+    // 路由，例如 GET /user/{id}
+    private final String route;
+    private final long samples;
+    private final long medianSize;
+
+    // 用于确定缓冲区大小的百分位对应的响应大小
+    private final long percentileSize;
+    private final long maxSize;
+
+    // 当前设置给容器的缓冲区大小，0 表示样本不足、使用容器默认值
+    private final int bufferSize;
+
+    public ResponseSizeSnapshot(String route, long samples, long medianSize, long percentileSize,
+                                long maxSize, int bufferSize) {
+        this.route = route;
+        this.samples = samples;
+        this.medianSize = medianSize;
+        this.percentileSize = percentileSize;
+        this.maxSize = maxSize;
+        this.bufferSize = bufferSize;
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+
+    public long getMedianSize() {
+        return medianSize;
+    }
+
+    public long getPercentileSize() {
+        return percentileSize;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    @Override
+    public String toString() {
+        return route + " samples=" + samples + " p50=" + medianSize + " percentile=" + percentileSize
+                + " max=" + maxSize + " bufferSize=" + bufferSize;
+    }
+}
@@ -0,0 +1,133 @@
+package com.flyingpig.mvc.response;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * ResponseSizeTracker：统计一个路由的响应体大小分布，并据此给出容器响应缓冲区的建议大小
+ * 大小按 2 的幂分桶（第 i 个桶对应 (2^(i-1), 2^i] 字节），记录只是一次原子自增；
+ * 建议值每记录一批样本才重新计算一次，请求线程读取的是缓存好的结果。
+ */
+public class ResponseSizeTracker {
+
+    private static final int BUCKETS = 32;
+
+    // 每记录这么多个样本重新计算一次建议值
+    private static final int RECOMPUTE_INTERVAL = 64;
+
+    // 样本数不足时不给出建议，沿用容器默认的缓冲区大小
+    private static final int MIN_SAMPLES = 32;
+
+    private final double percentile;
+    private final int minBufferSize;
+    private final int maxBufferSize;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicLong maxSize = new AtomicLong();
+
+    // 当前建议的缓冲区大小，0 表示还没有建议
+    private volatile int recommendedBufferSize;
+
+    /**
+     * @param percentile    用于确定缓冲区大小的百分位，0 到 1 之间，例如 0.95
+     * @param minBufferSize 建议值下限
+     * @param maxBufferSize 建议值上限，更大的响应交给容器分多次写出
+     */
+    public ResponseSizeTracker(double percentile, int minBufferSize, int maxBufferSize) {
+        if (percentile <= 0 || percentile > 1) {
+            throw new IllegalArgumentException("Percentile must be in (0, 1]: " + percentile);
+        }
+        this.percentile = percentile;
+        this.minBufferSize = minBufferSize;
+        this.maxBufferSize = maxBufferSize;
+    }
+
+    /**
+     * 记录一次响应体大小
+     *
+     * @param size 响应体字节数
+     */
+    public void record(long size) {
+        if (size < 0) {
+            return;
+        }
+        buckets.incrementAndGet(bucketOf(size));
+        long max;
+        while (size > (max = maxSize.get()) && !maxSize.compareAndSet(max, size)) {
+            // 并发更新最大值，失败时重试
+        }
+        long count = samples.incrementAndGet();
+        if (count == MIN_SAMPLES || (count > MIN_SAMPLES && count % RECOMPUTE_INTERVAL == 0)) {
+            recommendedBufferSize = computeBufferSize();
+        }
+    }
+
+    /**
+     * 建议的缓冲区大小，样本不足时返回 0
+     */
+    public int getRecommendedBufferSize() {
+        return recommendedBufferSize;
+    }
+
+    public long getSampleCount() {
+        return samples.get();
+    }
+
+    public long getMaxSize() {
+        return maxSize.get();
+    }
+
+    /**
+     * 响应体大小的百分位估计值（所在桶的上界）
+     *
+     * @param p 0 到 1 之间
+     * @return 估计值，没有样本时返回 0
+     */
+    public long getPercentile(double p) {
+        long total = 0;
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(p * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), maxSize.get());
+            }
+        }
+        return maxSize.get();
+    }
+
+    private int computeBufferSize() {
+        long size = getPercentile(percentile);
+        // 缓冲区取 2 的幂，多数响应可以一次写完
+        long bufferSize = size <= 1 ? 1 : Long.highestOneBit(size - 1) << 1;
+        return (int) Math.max(minBufferSize, Math.min(maxBufferSize, bufferSize));
+    }
+
+    private static int bucketOf(long size) {
+        if (size <= 1) {
+            return 0;
+        }
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(size - 1));
+    }
+
+    private static long upperBound(int bucket) {
+        return 1L << bucket;
+    }
+
+    /**
+     * 当前统计的快照，用于对外暴露指标
+     */
+    public ResponseSizeSnapshot snapshot(String route) {
+        return new ResponseSizeSnapshot(route, getSampleCount(), getPercentile(0.5), getPercentile(percentile),
+                getMaxSize(), getRecommendedBufferSize());
+    }
+}
@@ -0,0 +1,233 @@
+package com.flyingpig.mvc.support;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.*;
+
+/**
+ * BeanIntrospector：Bean 属性解析工具
+ * 每个类型只解析一次，解析结果缓存在 ClassValue 中，之后的属性读取全部通过 MethodHandle 完成。
+ * <p>
+ * 属性顺序与 Jackson 默认规则一致：普通 Bean 按字段的声明顺序（父类字段在前），没有对应字段的 getter 按方法顺序排在最后；
+ * record 按组件的声明顺序。属性名的推导规则与 Jackson 默认规则保持一致。
+ */
+public final class BeanIntrospector {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final ClassValue<List<BeanProperty>> PROPERTIES = new ClassValue<>() {
+        @Override
+        protected List<BeanProperty> computeValue(Class<?> type) {
+            return Collections.unmodifiableList(type.isRecord() ? introspectRecord(type) : introspectBean(type));
+        }
+    };
+
+    private static final ClassValue<Map<String, BeanProperty>> PROPERTY_INDEX = new ClassValue<>() {
+        @Override
+        protected Map<String, BeanProperty> computeValue(Class<?> type) {
+            Map<String, BeanProperty> index = new HashMap<>();
+            for (BeanProperty property : PROPERTIES.get(type)) {
+                index.put(property.getName(), property);
+            }
+            return index;
+        }
+    };
+
+    private static final ClassValue<List<WritableProperty>> WRITABLE_PROPERTIES = new ClassValue<>() {
+        @Override
+        protected List<WritableProperty> computeValue(Class<?> type) {
+            return Collections.unmodifiableList(type.isRecord() ? new ArrayList<>() : introspectSetters(type));
+        }
+    };
+
+    private BeanIntrospector() {
+    }
+
+    /**
+     * 获取类型的全部可读属性，顺序固定
+     *
+     * @param type Bean 类型
+     * @return 属性列表（不可修改）
+     */
+    public static List<BeanProperty> getProperties(Class<?> type) {
+        return PROPERTIES.get(type);
+    }
+
+    /**
+     * 按名称获取类型的可读属性
+     *
+     * @param type Bean 类型
+     * @param name 属性名称
+     * @return 属性，不存在时返回 null
+     */
+    public static BeanProperty getProperty(Class<?> type, String name) {
+        return PROPERTY_INDEX.get(type).get(name);
+    }
+
+    /**
+     * 获取类型的全部可写属性（public setter），按名称排序；record 没有可写属性
+     *
+     * @param type Bean 类型
+     * @return 可写属性列表（不可修改）
+     */
+    public static List<WritableProperty> getWritableProperties(Class<?> type) {
+        return WRITABLE_PROPERTIES.get(type);
+    }
+
+    private static List<BeanProperty> introspectRecord(Class<?> type) {
+        List<BeanProperty> properties = new ArrayList<>();
+        for (RecordComponent component : type.getRecordComponents()) {
+            Method accessor = component.getAccessor();
+            properties.add(new BeanProperty(component.getName(), component.getType(),
+                    component.getGenericType(), unreflectGetter(accessor)));
+        }
+        return properties;
+    }
+
+    private static List<BeanProperty> introspectBean(Class<?> type) {
+        // 先收集所有 getter，属性名 -> 方法
+        Map<String, Method> getters = new HashMap<>();
+        for (Method method : type.getMethods()) {
+            String name = propertyName(method);
+            if (name != null) {
+                // 同名的 getX 优先于 isX
+                Method existing = getters.get(name);
+                if (existing == null || existing.getName().startsWith("is")) {
+                    getters.put(name, method);
+                }
+            }
+        }
+
+        // 按字段声明顺序排列，父类字段在前
+        List<String> ordered = new ArrayList<>();
+        Deque<Class<?>> hierarchy = new ArrayDeque<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            hierarchy.push(c);
+        }
+        for (Class<?> c : hierarchy) {
+            for (Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && getters.containsKey(field.getName())
+                        && !ordered.contains(field.getName())) {
+                    ordered.add(field.getName());
+                }
+            }
+        }
+        // 没有对应字段的 getter 按方法顺序追加到末尾：与 Jackson 一致，先本类再父类，各自按 getDeclaredMethods 的顺序，
+        // 最后是只在接口中声明的 getter（default 方法）
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            appendGetterNames(c.getDeclaredMethods(), getters, ordered);
+        }
+        appendGetterNames(type.getMethods(), getters, ordered);
+
+        List<BeanProperty> properties = new ArrayList<>(ordered.size());
+        for (String name : ordered) {
+            Method getter = getters.get(name);
+            properties.add(new BeanProperty(name, getter.getReturnType(),
+                    getter.getGenericReturnType(), unreflectGetter(getter)));
+        }
+        return properties;
+    }
+
+    private static void appendGetterNames(Method[] methods, Map<String, Method> getters, List<String> ordered) {
+        for (Method method : methods) {
+            String name = propertyName(method);
+            if (name != null && !method.isBridge() && getters.containsKey(name) && !ordered.contains(name)) {
+                ordered.add(name);
+            }
+        }
+    }
+
+    private static List<WritableProperty> introspectSetters(Class<?> type) {
+        // 属性名 -> setter，同一个属性有多个重载时取参数类型与 getter 返回类型一致的那个
+        Map<String, Method> setters = new TreeMap<>();
+        for (Method method : type.getMethods()) {
+            String methodName = method.getName();
+            if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 1
+                    || !methodName.startsWith("set") || methodName.length() <= 3) {
+                continue;
+            }
+            String name = decapitalize(methodName.substring(3));
+            Method existing = setters.get(name);
+            if (existing == null) {
+                setters.put(name, method);
+            } else {
+                BeanProperty property = getProperty(type, name);
+                if (property != null && method.getParameterTypes()[0] == property.getType()) {
+                    setters.put(name, method);
+                }
+            }
+        }
+
+        List<WritableProperty> properties = new ArrayList<>(setters.size());
+        for (Map.Entry<String, Method> entry : setters.entrySet()) {
+            Method setter = entry.getValue();
+            properties.add(new WritableProperty(entry.getKey(), setter.getParameterTypes()[0],
+                    setter.getGenericParameterTypes()[0], unreflectSetter(setter)));
+        }
+        return properties;
+    }
+
+    /**
+     * 根据 getter 方法推导属性名，不是 getter 时返回 null
+     */
+    private static String propertyName(Method method) {
+        if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 0
+                || method.getReturnType() == void.class || method.getDeclaringClass() == Object.class) {
+            return null;
+        }
+        String methodName = method.getName();
+        if (methodName.startsWith("get") && methodName.length() > 3) {
+            return decapitalize(methodName.substring(3));
+        }
+        if (methodName.startsWith("is") && methodName.length() > 2 && method.getReturnType() == boolean.class) {
+            return decapitalize(methodName.substring(2));
+        }
+        return null;
+    }
+
+    /**
+     * 与 Jackson 默认规则一致：将开头连续的大写字母全部转为小写，例如 URL -> url、Name -> name
+     */
+    private static String decapitalize(String name) {
+        int upper = 0;
+        while (upper < name.length() && Character.isUpperCase(name.charAt(upper))) {
+            upper++;
+        }
+        if (upper == 0) {
+            return name;
+        }
+        return name.substring(0, upper).toLowerCase(Locale.ROOT) + name.substring(upper);
+    }
+
+    /**
+     * 将 getter 转换为 (Object)returnType 形式的 MethodHandle
+     */
+    private static MethodHandle unreflectGetter(Method method) {
+        try {
+            // 非 public 类中的 public 方法需要放开访问检查才能调用
+            method.trySetAccessible();
+            MethodHandle handle = LOOKUP.unreflect(method);
+            return handle.asType(MethodType.methodType(method.getReturnType(), Object.class));
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot access getter " + method, e);
+        }
+    }
+
+    /**
+     * 将 setter 转换为 (Object, Object)void 形式的 MethodHandle，忽略 setter 的返回值（支持链式 setter）
+     */
+    private static MethodHandle unreflectSetter(Method method) {
+        try {
+            method.trySetAccessible();
+            MethodHandle handle = LOOKUP.unreflect(method);
+            return handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot access setter " + method, e);
+        }
+    }
+}
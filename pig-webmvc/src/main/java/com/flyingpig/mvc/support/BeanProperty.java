@@ -0,0 +1,69 @@
+package com.flyingpig.mvc.support;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Type;
+
+/**
+ * BeanProperty：Bean 的一个可读属性
+ * 读取方法在解析时就被转换成 MethodHandle，请求路径上不再进行反射调用。
+ */
+public class BeanProperty {
+
+    // 属性名称
+    private final String name;
+
+    // 属性的声明类型
+    private final Class<?> type;
+
+    // 属性的泛型类型，例如 List<User>
+    private final Type genericType;
+
+    // 类型为 (Object)Object 的读取方法，基本类型会被装箱
+    private final MethodHandle getter;
+
+    // 类型为 (Object)type 的读取方法，基本类型不会被装箱
+    private final MethodHandle typedGetter;
+
+    public BeanProperty(String name, Class<?> type, Type genericType, MethodHandle typedGetter) {
+        this.name = name;
+        this.type = type;
+        this.genericType = genericType;
+        this.typedGetter = typedGetter;
+        this.getter = typedGetter.asType(typedGetter.type().changeReturnType(Object.class));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public Type getGenericType() {
+        return genericType;
+    }
+
+    /**
+     * 返回 (Object)type 形式的读取方法，调用方可以用 invokeExact 读取基本类型而不装箱
+     */
+    public MethodHandle getTypedGetter() {
+        return typedGetter;
+    }
+
+    /**
+     * 读取属性值，基本类型会被装箱
+     *
+     * @param bean 目标对象
+     * @return 属性值
+     */
+    public Object getValue(Object bean) {
+        try {
+            return (Object) getter.invokeExact(bean);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to read property '" + name + "' of " + bean.getClass().getName(), e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.flyingpig.mvc.support;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Type;
+
+/**
+ * WritableProperty：Bean 的一个可写属性（public setter）
+ * 写入方法在解析时转换成 (Object, Object)void 形式的 MethodHandle，基本类型参数会自动拆箱。
+ */
+public class WritableProperty {
+
+    // 属性名称
+    private final String name;
+
+    // setter 参数的声明类型
+    private final Class<?> type;
+
+    // setter 参数的泛型类型，例如 List<Long>
+    private final Type genericType;
+
+    // 类型为 (Object, Object)void 的写入方法
+    private final MethodHandle setter;
+
+    public WritableProperty(String name, Class<?> type, Type genericType, MethodHandle setter) {
+        this.name = name;
+        this.type = type;
+        this.genericType = genericType;
+        this.setter = setter;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public Type getGenericType() {
+        return genericType;
+    }
+
+    /**
+     * 返回 (Object, Object)void 形式的写入方法，可以直接用 invokeExact 调用
+     */
+    public MethodHandle getSetter() {
+        return setter;
+    }
+
+    /**
+     * 写入属性值
+     *
+     * @param bean  目标对象
+     * @param value 属性值，基本类型属性不能为 null
+     */
+    public void setValue(Object bean, Object value) {
+        try {
+            setter.invokeExact(bean, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to write property '" + name + "' of " + bean.getClass().getName(), e);
+        }
+    }
+}
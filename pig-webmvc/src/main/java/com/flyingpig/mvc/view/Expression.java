@@ -0,0 +1,142 @@
+package com.flyingpig.mvc.view;
+
+import com.flyingpig.mvc.support.BeanIntrospector;
+import com.flyingpig.mvc.support.BeanProperty;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Expression：编译后的属性路径表达式，例如 user.name、this、@index
+ * 路径在编译期拆分为段，每一段带有单态内联缓存，渲染时不再解析字符串。
+ */
+class Expression {
+
+    private static final String THIS = "this";
+    private static final String INDEX = "@index";
+
+    private final String source;
+    private final boolean self;
+    private final boolean index;
+    private final Segment[] segments;
+
+    Expression(String source) {
+        this.source = source;
+        String[] parts = source.split("\\.");
+        this.self = THIS.equals(parts[0]);
+        this.index = INDEX.equals(parts[0]);
+        if (index && parts.length > 1) {
+            throw new TemplateException("@index does not have properties: " + source);
+        }
+        int start = self || index ? 1 : 0;
+        this.segments = new Segment[parts.length - start];
+        for (int i = start; i < parts.length; i++) {
+            if (parts[i].isEmpty()) {
+                throw new TemplateException("Invalid expression: " + source);
+            }
+            segments[i - start] = new Segment(parts[i]);
+        }
+    }
+
+    String source() {
+        return source;
+    }
+
+    /**
+     * 在当前作用域中求值，路径中任何一段为 null 时返回 null
+     */
+    Object evaluate(RenderContext context) {
+        if (index) {
+            return context.index();
+        }
+        Object value;
+        int next;
+        if (self) {
+            value = context.current();
+            next = 0;
+        } else {
+            value = context.lookup(segments[0]);
+            next = 1;
+        }
+        for (int i = next; i < segments.length && value != null; i++) {
+            value = segments[i].get(value);
+        }
+        return value;
+    }
+
+    /**
+     * 模板中的条件判断规则：null、false、数字 0、空字符串、空集合和空数组视为假
+     */
+    static boolean isTruthy(Object value) {
+        if (value == null) {
+            return false;
+        }
+        if (value instanceof Boolean b) {
+            return b;
+        }
+        if (value instanceof Number n) {
+            return n.doubleValue() != 0;
+        }
+        if (value instanceof CharSequence s) {
+            return s.length() > 0;
+        }
+        if (value instanceof Collection<?> c) {
+            return !c.isEmpty();
+        }
+        if (value instanceof Map<?, ?> m) {
+            return !m.isEmpty();
+        }
+        if (value.getClass().isArray()) {
+            return Array.getLength(value) > 0;
+        }
+        return true;
+    }
+
+    /**
+     * 路径中的一段，缓存最近一次遇到的类型及其属性
+     */
+    static final class Segment {
+
+        private final String name;
+
+        // 单态内联缓存，对象不可变，因此无需同步
+        private CachedProperty cache;
+
+        Segment(String name) {
+            this.name = name;
+        }
+
+        String name() {
+            return name;
+        }
+
+        Object get(Object target) {
+            if (target instanceof Map<?, ?> map) {
+                return map.get(name);
+            }
+            BeanProperty property = property(target.getClass());
+            return property != null ? property.getValue(target) : null;
+        }
+
+        boolean hasProperty(Object target) {
+            return property(target.getClass()) != null;
+        }
+
+        Object read(Object target) {
+            return property(target.getClass()).getValue(target);
+        }
+
+        private BeanProperty property(Class<?> type) {
+            CachedProperty cached = cache;
+            if (cached == null || cached.type != type) {
+                cached = new CachedProperty(type, BeanIntrospector.getProperty(type, name));
+                cache = cached;
+            }
+            return cached.property;
+        }
+    }
+
+    private record CachedProperty(Class<?> type, BeanProperty property) {
+    }
+}
@@ -0,0 +1,55 @@
+package com.flyingpig.mvc.view;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ModelAndView：视图名称与模型数据的组合
+ * 非 @ResponseBody 的控制器方法返回该对象时，会使用对应的模板渲染 HTML。
+ */
+public class ModelAndView {
+
+    // 视图名称，对应模板文件（不包含前缀和后缀）
+    private String viewName;
+
+    // 模型数据，模板中通过 {{name}} 引用
+    private final Map<String, Object> model = new HashMap<>();
+
+    public ModelAndView() {
+    }
+
+    public ModelAndView(String viewName) {
+        this.viewName = viewName;
+    }
+
+    public ModelAndView(String viewName, Map<String, ?> model) {
+        this.viewName = viewName;
+        if (model != null) {
+            this.model.putAll(model);
+        }
+    }
+
+    public String getViewName() {
+        return viewName;
+    }
+
+    public void setViewName(String viewName) {
+        this.viewName = viewName;
+    }
+
+    public Map<String, Object> getModel() {
+        return model;
+    }
+
+    /**
+     * 添加模型数据，支持链式调用
+     *
+     * @param name  属性名称
+     * @param value 属性值
+     * @return 当前对象
+     */
+    public ModelAndView addObject(String name, Object value) {
+        model.put(name, value);
+        return this;
+    }
+}
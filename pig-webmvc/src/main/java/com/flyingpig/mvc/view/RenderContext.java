@@ -0,0 +1,66 @@
+package com.flyingpig.mvc.view;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * RenderContext：一次渲染过程中的作用域栈
+ * 栈底是模型数据，每进入一层 {{#each}} 就压入当前元素。名称查找从栈顶向栈底进行。
+ */
+class RenderContext {
+
+    private Object[] scopes = new Object[8];
+    private int[] indexes = new int[8];
+    private int depth;
+
+    RenderContext(Map<String, ?> model) {
+        scopes[0] = model;
+        depth = 1;
+    }
+
+    void push(Object scope, int index) {
+        if (depth == scopes.length) {
+            scopes = Arrays.copyOf(scopes, depth << 1);
+            indexes = Arrays.copyOf(indexes, depth << 1);
+        }
+        scopes[depth] = scope;
+        indexes[depth] = index;
+        depth++;
+    }
+
+    void pop() {
+        scopes[--depth] = null;
+    }
+
+    /**
+     * 当前作用域对象，对应模板中的 this
+     */
+    Object current() {
+        return scopes[depth - 1];
+    }
+
+    /**
+     * 当前 {{#each}} 的循环下标，对应模板中的 @index
+     */
+    int index() {
+        return indexes[depth - 1];
+    }
+
+    /**
+     * 从栈顶开始查找名称，找不到时返回 null
+     */
+    Object lookup(Expression.Segment segment) {
+        for (int i = depth - 1; i >= 0; i--) {
+            Object scope = scopes[i];
+            if (scope instanceof Map<?, ?> map) {
+                Object value = map.get(segment.name());
+                if (value != null || map.containsKey(segment.name())) {
+                    return value;
+                }
+            } else if (scope != null && segment.hasProperty(scope)) {
+                return segment.read(scope);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,42 @@
+package com.flyingpig.mvc.view;
+
+import com.flyingpig.mvc.response.ResponseBuffer;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Template：编译后的模板
+ * 由 {@link TemplateCompiler} 生成，不可变且线程安全，可以被多个请求并发渲染。
+ */
+public class Template {
+
+    // 模板名称，用于错误信息
+    private final String name;
+
+    // 顶层指令节点
+    private final TemplateNode[] nodes;
+
+    Template(String name, List<TemplateNode> nodes) {
+        this.name = name;
+        this.nodes = nodes.toArray(new TemplateNode[0]);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 使用给定的模型渲染模板，结果直接写入输出缓冲区
+     *
+     * @param model 模型数据
+     * @param out   输出缓冲区
+     */
+    public void render(Map<String, ?> model, ResponseBuffer out) {
+        try {
+            TemplateNode.renderAll(nodes, new RenderContext(model), out);
+        } catch (TemplateException e) {
+            throw new TemplateException("Failed to render template '" + name + "': " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.flyingpig.mvc.view;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * TemplateCompiler：模板编译器
+ * 将模板源码解析为 {@link TemplateNode} 指令树，只在启动或开发模式重新加载时执行。
+ * <p>
+ * 支持的语法：
+ * <ul>
+ *     <li>{{name}}、{{user.name}}：输出并转义 HTML</li>
+ *     <li>{{{html}}}：原样输出</li>
+ *     <li>{{#if expr}}...{{else}}...{{/if}}、{{#unless expr}}...{{/unless}}：条件</li>
+ *     <li>{{#each items}}...{{else}}...{{/each}}：循环，块内用 this 和 @index 引用当前元素和下标</li>
+ *     <li>{{! 注释 }}：不输出</li>
+ * </ul>
+ */
+public class TemplateCompiler {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    /**
+     * 编译模板源码
+     *
+     * @param name   模板名称，用于错误信息
+     * @param source 模板源码
+     * @return 编译后的模板
+     */
+    public Template compile(String name, String source) {
+        Deque<Block> blocks = new ArrayDeque<>();
+        blocks.push(new Block(null, null));
+
+        int pos = 0;
+        while (pos < source.length()) {
+            int open = source.indexOf(OPEN, pos);
+            if (open < 0) {
+                addText(blocks.peek(), source.substring(pos));
+                break;
+            }
+            addText(blocks.peek(), source.substring(pos, open));
+
+            boolean raw = source.startsWith("{{{", open);
+            String close = raw ? "}}}" : CLOSE;
+            int end = source.indexOf(close, open + (raw ? 3 : 2));
+            if (end < 0) {
+                throw error(name, source, open, "Unclosed tag");
+            }
+            String tag = source.substring(open + (raw ? 3 : 2), end).trim();
+            pos = end + close.length();
+
+            if (raw) {
+                blocks.peek().current().add(new TemplateNode.Value(expression(name, source, open, tag), false));
+            } else if (tag.startsWith("!")) {
+                // 注释
+            } else if (tag.startsWith("#")) {
+                String[] parts = tag.substring(1).trim().split("\\s+", 2);
+                if (parts.length < 2 || !(parts[0].equals("if") || parts[0].equals("unless") || parts[0].equals("each"))) {
+                    throw error(name, source, open, "Unknown block {{" + tag + "}}");
+                }
+                blocks.push(new Block(parts[0], expression(name, source, open, parts[1].trim())));
+            } else if (tag.equals("else")) {
+                Block block = blocks.peek();
+                if (block.type == null || block.otherwise != null) {
+                    throw error(name, source, open, "Unexpected {{else}}");
+                }
+                block.otherwise = new ArrayList<>();
+            } else if (tag.startsWith("/")) {
+                String type = tag.substring(1).trim();
+                Block block = blocks.pop();
+                if (!type.equals(block.type)) {
+                    throw error(name, source, open, "Unexpected {{/" + type + "}}"
+                            + (block.type != null ? ", expected {{/" + block.type + "}}" : ""));
+                }
+                blocks.peek().current().add(block.toNode());
+            } else {
+                blocks.peek().current().add(new TemplateNode.Value(expression(name, source, open, tag), true));
+            }
+        }
+
+        if (blocks.size() > 1) {
+            throw new TemplateException("Unclosed {{#" + blocks.peek().type + "}} in template '" + name + "'");
+        }
+        return new Template(name, blocks.pop().body);
+    }
+
+    private void addText(Block block, String text) {
+        if (text.isEmpty()) {
+            return;
+        }
+        block.current().add(new TemplateNode.Text(text));
+    }
+
+    private Expression expression(String name, String source, int offset, String text) {
+        if (text.isEmpty()) {
+            throw error(name, source, offset, "Empty expression");
+        }
+        try {
+            return new Expression(text);
+        } catch (TemplateException e) {
+            throw error(name, source, offset, e.getMessage());
+        }
+    }
+
+    private TemplateException error(String name, String source, int offset, String message) {
+        int line = 1;
+        for (int i = 0; i < offset; i++) {
+            if (source.charAt(i) == '\n') {
+                line++;
+            }
+        }
+        return new TemplateException(message + " in template '" + name + "' at line " + line);
+    }
+
+    /**
+     * 解析过程中尚未闭合的块
+     */
+    private static class Block {
+        private final String type;
+        private final Expression expression;
+        private final List<TemplateNode> body = new ArrayList<>();
+        private List<TemplateNode> otherwise;
+
+        Block(String type, Expression expression) {
+            this.type = type;
+            this.expression = expression;
+        }
+
+        List<TemplateNode> current() {
+            return otherwise != null ? otherwise : body;
+        }
+
+        TemplateNode toNode() {
+            List<TemplateNode> elseNodes = otherwise != null ? otherwise : List.of();
+            return switch (type) {
+                case "if" -> new TemplateNode.Conditional(expression, false, body, elseNodes);
+                case "unless" -> new TemplateNode.Conditional(expression, true, body, elseNodes);
+                default -> new TemplateNode.Each(expression, body, elseNodes);
+            };
+        }
+    }
+}
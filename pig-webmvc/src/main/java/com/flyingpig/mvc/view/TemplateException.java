@@ -0,0 +1,15 @@
+package com.flyingpig.mvc.view;
+
+/**
+ * 模板加载、编译或渲染失败时抛出的异常
+ */
+public class TemplateException extends RuntimeException {
+
+    public TemplateException(String message) {
+        super(message);
+    }
+
+    public TemplateException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,146 @@
+package com.flyingpig.mvc.view;
+
+import com.flyingpig.mvc.response.ResponseBuffer;
+
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TemplateNode：编译后模板的指令节点
+ * 模板在启动时被编译成节点树，渲染时只需按顺序执行各节点，把内容直接写入输出缓冲区。
+ */
+interface TemplateNode {
+
+    void render(RenderContext context, ResponseBuffer out);
+
+    /**
+     * 静态文本，编译时已经编码为 UTF-8 字节
+     */
+    final class Text implements TemplateNode {
+
+        private final byte[] bytes;
+
+        Text(String text) {
+            this.bytes = text.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void render(RenderContext context, ResponseBuffer out) {
+            out.writeBytes(bytes);
+        }
+    }
+
+    /**
+     * 输出表达式的值：{{expr}} 会转义 HTML，{{{expr}}} 原样输出
+     */
+    final class Value implements TemplateNode {
+
+        private final Expression expression;
+        private final boolean escape;
+
+        Value(Expression expression, boolean escape) {
+            this.expression = expression;
+            this.escape = escape;
+        }
+
+        @Override
+        public void render(RenderContext context, ResponseBuffer out) {
+            Object value = expression.evaluate(context);
+            if (value == null) {
+                return;
+            }
+            if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+                out.writeLong(((Number) value).longValue());
+                return;
+            }
+            CharSequence text = value instanceof CharSequence s ? s : value.toString();
+            if (escape) {
+                out.writeHtmlEscaped(text);
+            } else {
+                out.writeUtf8(text);
+            }
+        }
+    }
+
+    /**
+     * 条件块：{{#if expr}}...{{else}}...{{/if}}，{{#unless}} 通过 negate 实现
+     */
+    final class Conditional implements TemplateNode {
+
+        private final Expression expression;
+        private final boolean negate;
+        private final TemplateNode[] whenTrue;
+        private final TemplateNode[] whenFalse;
+
+        Conditional(Expression expression, boolean negate, List<TemplateNode> whenTrue, List<TemplateNode> whenFalse) {
+            this.expression = expression;
+            this.negate = negate;
+            this.whenTrue = whenTrue.toArray(new TemplateNode[0]);
+            this.whenFalse = whenFalse.toArray(new TemplateNode[0]);
+        }
+
+        @Override
+        public void render(RenderContext context, ResponseBuffer out) {
+            boolean truthy = Expression.isTruthy(expression.evaluate(context)) != negate;
+            renderAll(truthy ? whenTrue : whenFalse, context, out);
+        }
+    }
+
+    /**
+     * 循环块：{{#each expr}}...{{else}}...{{/each}}，支持 Iterable、数组和 Map（遍历值）
+     */
+    final class Each implements TemplateNode {
+
+        private final Expression expression;
+        private final TemplateNode[] body;
+        private final TemplateNode[] empty;
+
+        Each(Expression expression, List<TemplateNode> body, List<TemplateNode> empty) {
+            this.expression = expression;
+            this.body = body.toArray(new TemplateNode[0]);
+            this.empty = empty.toArray(new TemplateNode[0]);
+        }
+
+        @Override
+        public void render(RenderContext context, ResponseBuffer out) {
+            Object value = expression.evaluate(context);
+            int index = 0;
+            if (value instanceof Map<?, ?> map) {
+                value = map.values();
+            }
+            if (value instanceof Iterable<?> iterable) {
+                for (Object item : iterable) {
+                    renderItem(context, out, item, index++);
+                }
+            } else if (value != null && value.getClass().isArray()) {
+                int length = Array.getLength(value);
+                for (; index < length; index++) {
+                    renderItem(context, out, Array.get(value, index), index);
+                }
+            } else if (value != null) {
+                throw new TemplateException("Cannot iterate over " + value.getClass().getName()
+                        + " in {{#each " + expression.source() + "}}");
+            }
+            if (index == 0) {
+                renderAll(empty, context, out);
+            }
+        }
+
+        private void renderItem(RenderContext context, ResponseBuffer out, Object item, int index) {
+            context.push(item, index);
+            try {
+                renderAll(body, context, out);
+            } finally {
+                context.pop();
+            }
+        }
+    }
+
+    static void renderAll(TemplateNode[] nodes, RenderContext context, ResponseBuffer out) {
+        for (TemplateNode node : nodes) {
+            node.render(context, out);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.flyingpig.mvc.view;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * TemplateViewResolver：模板视图解析器
+ * 根据视图名称从类路径加载模板，编译后缓存。启动时调用 {@link #precompileAll()} 预先编译全部模板，
+ * 请求路径上只做一次 Map 查找。开启开发模式后，每次解析都会检查模板文件的修改时间并按需重新编译。
+ */
+public class TemplateViewResolver {
+
+    private final Map<String, CachedTemplate> cache = new ConcurrentHashMap<>();
+
+    private final TemplateCompiler compiler = new TemplateCompiler();
+
+    // 模板在类路径中的目录前缀，例如 templates/
+    private final String prefix;
+
+    // 模板文件后缀，例如 .html
+    private final String suffix;
+
+    // 开发模式：模板修改后自动重新编译
+    private final boolean devMode;
+
+    private ClassLoader classLoader = TemplateViewResolver.class.getClassLoader();
+
+    // 是否已经预编译了全部模板，之后缓存中不存在的视图名称不再访问类路径
+    private volatile boolean precompiled;
+
+    public TemplateViewResolver(String prefix, String suffix, boolean devMode) {
+        this.prefix = prefix.isEmpty() || prefix.endsWith("/") ? prefix : prefix + "/";
+        this.suffix = suffix;
+        this.devMode = devMode;
+    }
+
+    public void setClassLoader(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * 扫描模板目录，编译并缓存全部模板。编译错误会直接抛出，使问题在启动阶段暴露。
+     *
+     * @return 编译的模板数量
+     */
+    public int precompileAll() {
+        int count = 0;
+        try {
+            Enumeration<URL> roots = classLoader.getResources(prefix);
+            while (roots.hasMoreElements()) {
+                URL root = roots.nextElement();
+                if ("file".equals(root.getProtocol())) {
+                    count += precompileDirectory(Paths.get(root.toURI()));
+                } else if ("jar".equals(root.getProtocol())) {
+                    count += precompileJar(root);
+                }
+            }
+        } catch (IOException | URISyntaxException e) {
+            throw new TemplateException("Failed to scan templates under '" + prefix + "'", e);
+        }
+        precompiled = true;
+        return count;
+    }
+
+    /**
+     * 根据视图名称获取编译后的模板
+     *
+     * @param viewName 视图名称，不包含前缀和后缀
+     * @return 编译后的模板，不存在时返回 null
+     */
+    public Template resolve(String viewName) {
+        CachedTemplate cached = cache.get(viewName);
+        if (cached != null && !(devMode && cached.isStale())) {
+            return cached.template;
+        }
+        if (cached == null && precompiled && !devMode) {
+            // 不缓存未命中的名称：返回普通字符串的控制器不应让缓存无限增长
+            return null;
+        }
+        cached = load(viewName);
+        if (cached == null) {
+            cache.remove(viewName);
+            return null;
+        }
+        cache.put(viewName, cached);
+        return cached.template;
+    }
+
+    private int precompileDirectory(Path root) throws IOException {
+        int[] count = {0};
+        try (Stream<Path> files = Files.walk(root)) {
+            files.filter(path -> Files.isRegularFile(path) && path.toString().endsWith(suffix))
+                    .forEach(path -> {
+                        String relative = root.relativize(path).toString().replace(File.separatorChar, '/');
+                        String viewName = relative.substring(0, relative.length() - suffix.length());
+                        cache.put(viewName, load(viewName));
+                        count[0]++;
+                    });
+        }
+        return count[0];
+    }
+
+    private int precompileJar(URL root) throws IOException {
+        int count = 0;
+        URLConnection connection = root.openConnection();
+        if (!(connection instanceof JarURLConnection jarConnection)) {
+            return 0;
+        }
+        // 不使用共享的 JarFile 缓存，这样读取完毕后可以安全关闭
+        jarConnection.setUseCaches(false);
+        try (JarFile jar = jarConnection.getJarFile()) {
+            Enumeration<JarEntry> entries = jar.entries();
+            while (entries.hasMoreElements()) {
+                String entryName = entries.nextElement().getName();
+                if (entryName.startsWith(prefix) && entryName.endsWith(suffix)) {
+                    String viewName = entryName.substring(prefix.length(), entryName.length() - suffix.length());
+                    cache.put(viewName, load(viewName));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private CachedTemplate load(String viewName) {
+        String location = prefix + viewName + suffix;
+        URL url = classLoader.getResource(location);
+        if (url == null) {
+            return null;
+        }
+        try {
+            URLConnection connection = url.openConnection();
+            // 关闭 jar 缓存，开发模式下才能读到最新内容
+            connection.setUseCaches(false);
+            long lastModified = connection.getLastModified();
+            String source;
+            try (InputStream in = connection.getInputStream()) {
+                source = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            return new CachedTemplate(compiler.compile(viewName, source), url, lastModified);
+        } catch (IOException e) {
+            throw new TemplateException("Failed to load template '" + location + "'", e);
+        }
+    }
+
+    /**
+     * 缓存条目，记录模板的来源和加载时的修改时间
+     */
+    private static class CachedTemplate {
+        private final Template template;
+        private final URL url;
+        private final long lastModified;
+
+        CachedTemplate(Template template, URL url, long lastModified) {
+            this.template = template;
+            this.url = url;
+            this.lastModified = lastModified;
+        }
+
+        boolean isStale() {
+            if (!"file".equals(url.getProtocol())) {
+                return false;
+            }
+            try {
+                return new File(url.toURI()).lastModified() != lastModified;
+            } catch (URISyntaxException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.flyingpig.mvc.bind;
+
+import com.flyingpig.mvc.loopback.LoopbackRequest;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class ModelBindersTest {
+
+    private final ModelBinders binders = new ModelBinders();
+
+    @Test
+    public void bindsBeanFromQueryString() {
+        Query query = (Query) binders.bind(Query.class,
+                new LoopbackRequest("GET", "/search?keyword=flying+pig%21&page=3&ids=1&ids=2&sort=DESC&unknown=x&exact=true"));
+        assertEquals("flying pig!", query.getKeyword());
+        assertEquals(3, query.getPage());
+        assertEquals(List.of(1L, 2L), query.getIds());
+        assertEquals(Sort.DESC, query.getSort());
+        assertTrue(query.isExact());
+    }
+
+    @Test
+    public void missingParametersKeepInitialValues() {
+        Query query = (Query) binders.bind(Query.class, new LoopbackRequest("GET", "/search?page="));
+        assertNull(query.getKeyword());
+        assertEquals(1, query.getPage());
+        assertEquals(Sort.ASC, query.getSort());
+    }
+
+    @Test
+    public void bindsRecordFromFormParameters() {
+        LoopbackRequest request = new LoopbackRequest("POST", "/users")
+                .setBody("name=pig&age=7&roles=admin&roles=admin&roles=dev", "application/x-www-form-urlencoded");
+        Account account = (Account) binders.bind(Account.class, request);
+        assertEquals("pig", account.name());
+        assertEquals(7, account.age());
+        assertEquals(Set.of("admin", "dev"), account.roles());
+        assertFalse(account.active());
+    }
+
+    @Test
+    public void conversionErrorNamesParameterAndValue() {
+        try {
+            binders.bind(Query.class, new LoopbackRequest("GET", "/search?page=abc"));
+            fail("Non-numeric page must be rejected");
+        } catch (BindException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("'page'"));
+            assertTrue(e.getMessage(), e.getMessage().contains("'abc'"));
+        }
+    }
+
+    @Test
+    public void conversionErrorInCollectionElement() {
+        try {
+            binders.bind(Query.class, new LoopbackRequest("GET", "/search?ids=1&ids=x"));
+            fail("Non-numeric list element must be rejected");
+        } catch (BindException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("'ids'"));
+        }
+    }
+
+    @Test
+    public void unknownEnumConstantIsRejected() {
+        try {
+            binders.bind(Query.class, new LoopbackRequest("GET", "/search?sort=RANDOM"));
+            fail("Unknown enum constant must be rejected");
+        } catch (BindException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("'sort'"));
+        }
+    }
+
+    @Test(expected = BindException.class)
+    public void malformedEscapeIsRejected() {
+        binders.bind(Query.class, new LoopbackRequest("GET", "/search?keyword=%zz"));
+    }
+
+    public enum Sort {
+        ASC, DESC
+    }
+
+    public record Account(String name, int age, Set<String> roles, boolean active) {
+    }
+
+    public static class Query {
+        private String keyword;
+        private int page = 1;
+        private List<Long> ids;
+        private Sort sort = Sort.ASC;
+        private boolean exact;
+
+        public String getKeyword() {
+            return keyword;
+        }
+
+        public void setKeyword(String keyword) {
+            this.keyword = keyword;
+        }
+
+        public int getPage() {
+            return page;
+        }
+
+        public void setPage(int page) {
+            this.page = page;
+        }
+
+        public List<Long> getIds() {
+            return ids;
+        }
+
+        public void setIds(List<Long> ids) {
+            this.ids = ids;
+        }
+
+        public Sort getSort() {
+            return sort;
+        }
+
+        public void setSort(Sort sort) {
+            this.sort = sort;
+        }
+
+        public boolean isExact() {
+            return exact;
+        }
+
+        public void setExact(boolean exact) {
+            this.exact = exact;
+        }
+    }
+}
\ No newline at end of file
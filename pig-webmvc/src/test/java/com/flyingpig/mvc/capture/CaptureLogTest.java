@@ -0,0 +1,103 @@
+package com.flyingpig.mvc.capture;
+
+import com.flyingpig.mvc.loopback.LoopbackRequest;
+import com.flyingpig.mvc.loopback.LoopbackResponse;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class CaptureLogTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void recordsSurviveSegmentRolloverInOrder() throws IOException {
+        Path file = folder.newFile("capture.bin").toPath();
+        byte[] body = new byte[300];
+        // 段大小只有 4KB，写入 100 条记录会映射多个段
+        try (MappedCaptureAppender appender = new MappedCaptureAppender(file, 1000, 4096)) {
+            for (int i = 0; i < 100; i++) {
+                Map<String, List<String>> headers = new LinkedHashMap<>();
+                headers.put("Accept", List.of("application/json"));
+                headers.put("X-Trace", List.of("a", "b"));
+                assertTrue(appender.append(new CapturedRequest(i * 1000L, 50L, 200, "POST", "/orders/" + i + "?q=" + i,
+                        headers, body, i % 10 == 0)));
+            }
+        }
+
+        List<CapturedRequest> records;
+        try (CaptureLogReader reader = new CaptureLogReader(file)) {
+            assertTrue(reader.getStartEpochMillis() > 0);
+            records = reader.readAll();
+        }
+        assertEquals(100, records.size());
+        for (int i = 0; i < 100; i++) {
+            CapturedRequest record = records.get(i);
+            assertEquals(i * 1000L, record.getArrivalNanos());
+            assertEquals("/orders/" + i + "?q=" + i, record.getUri());
+            assertEquals(List.of("a", "b"), record.getHeaders().get("X-Trace"));
+            assertEquals(300, record.getBody().length);
+            assertEquals(i % 10 == 0, record.isBodyTruncated());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsFileWithoutHeader() throws IOException {
+        Path file = folder.newFile("empty.bin").toPath();
+        new CaptureLogReader(file).close();
+    }
+
+    @Test
+    public void wrapperCopiesReadBodyUpToLimit() throws IOException {
+        LoopbackRequest request = new LoopbackRequest("POST", "/upload").setBody("0123456789", "text/plain");
+        CapturingRequestWrapper wrapper = new CapturingRequestWrapper(request, 4);
+        try (InputStream in = wrapper.getInputStream()) {
+            assertEquals("0123456789", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertEquals("0123", new String(wrapper.getCapturedBody(), StandardCharsets.UTF_8));
+        assertTrue(wrapper.isBodyTruncated());
+    }
+
+    @Test
+    public void wrapperReencodesFormBodyConsumedByContainer() {
+        LoopbackRequest request = new LoopbackRequest("POST", "/login")
+                .setBody("user=pig&note=a+b", "application/x-www-form-urlencoded");
+        CapturingRequestWrapper wrapper = new CapturingRequestWrapper(request, 1024);
+        assertEquals("pig", wrapper.getParameter("user"));
+        assertEquals("user=pig&note=a+b", new String(wrapper.getCapturedBody(), StandardCharsets.UTF_8));
+        assertFalse(wrapper.isBodyTruncated());
+    }
+
+    @Test
+    public void credentialHeadersAreRedacted() throws IOException {
+        Path file = folder.newFile("redacted.bin").toPath();
+        try (TrafficCapture capture = new TrafficCapture(file, 1.0, 1024, 100)) {
+            LoopbackRequest request = new LoopbackRequest("GET", "/me?verbose=true")
+                    .addHeader("Authorization", "Bearer secret")
+                    .addHeader("Cookie", "session=secret")
+                    .addHeader("Accept", "text/html");
+            capture.record(capture.wrap(request), new LoopbackResponse(), System.nanoTime());
+        }
+
+        CapturedRequest record;
+        try (CaptureLogReader reader = new CaptureLogReader(file)) {
+            record = reader.next();
+        }
+        assertEquals("/me?verbose=true", record.getUri());
+        assertEquals(200, record.getStatus());
+        assertEquals(List.of(TrafficCapture.REDACTED), record.getHeaders().get("authorization"));
+        assertEquals(List.of(TrafficCapture.REDACTED), record.getHeaders().get("cookie"));
+        assertEquals(List.of("text/html"), record.getHeaders().get("accept"));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,108 @@
+package com.flyingpig.mvc.core;
+
+import com.flyingpig.mvc.loopback.LoopbackRequest;
+import com.flyingpig.mvc.loopback.LoopbackResponse;
+import com.flyingpig.mvc.model.HandlerMethod;
+import com.flyingpig.mvc.model.RequestMappingInfo;
+import org.junit.Test;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import java.io.PrintWriter;
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.*;
+
+public class HandlerAdapterTest {
+
+    private final HandlerAdapter adapter = new HandlerAdapter();
+
+    @Test
+    public void returnValueIsAppendedAfterWriterOutput() throws Exception {
+        StrictResponse response = new StrictResponse();
+        assertEquals(-1, handle("writeAndReturn", response));
+        assertEquals("written;returned", response.getBodyAsString());
+        assertEquals(-1, response.getContentLength());
+    }
+
+    @Test
+    public void returnValueIsAppendedAfterStreamOutput() throws Exception {
+        StrictResponse response = new StrictResponse();
+        assertEquals(-1, handle("streamAndReturn", response));
+        assertEquals("streamed;returned", response.getBodyAsString());
+    }
+
+    @Test
+    public void handlerWithoutReturnValueWritesItsOwnResponse() throws Exception {
+        StrictResponse response = new StrictResponse();
+        assertEquals(-1, handle("writeOnly", response));
+        assertEquals("written;", response.getBodyAsString());
+    }
+
+    @Test
+    public void returnValueSetsContentLength() throws Exception {
+        StrictResponse response = new StrictResponse();
+        assertEquals(8, handle("returnOnly", response));
+        assertEquals("returned", response.getBodyAsString());
+        assertEquals(8, response.getContentLength());
+    }
+
+    private int handle(String methodName, StrictResponse response) throws Exception {
+        Controller controller = new Controller();
+        HandlerMethod handler = null;
+        for (Method method : Controller.class.getMethods()) {
+            if (method.getName().equals(methodName)) {
+                handler = new HandlerMethod(controller, method, new RequestMappingInfo("/test", "GET"));
+            }
+        }
+        return adapter.handle(new LoopbackRequest("GET", "/test"), response, handler);
+    }
+
+    public static class Controller {
+
+        public String writeAndReturn(HttpServletResponse response) throws Exception {
+            response.getWriter().write("written;");
+            return "returned";
+        }
+
+        public String streamAndReturn(HttpServletResponse response) throws Exception {
+            response.getOutputStream().write("streamed;".getBytes());
+            return "returned";
+        }
+
+        public void writeOnly(HttpServletResponse response) throws Exception {
+            response.getWriter().write("written;");
+        }
+
+        public String returnOnly() {
+            return "returned";
+        }
+    }
+
+    /**
+     * 和 Servlet 容器一样，getWriter 和 getOutputStream 只能使用其中一个
+     */
+    private static class StrictResponse extends LoopbackResponse {
+
+        private boolean usingWriter;
+        private boolean usingStream;
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (usingWriter) {
+                throw new IllegalStateException("getWriter() has already been called for this response");
+            }
+            usingStream = true;
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() {
+            if (usingStream) {
+                throw new IllegalStateException("getOutputStream() has already been called for this response");
+            }
+            usingWriter = true;
+            return super.getWriter();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,220 @@
+package com.flyingpig.mvc.json;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flyingpig.mvc.response.ResponseBuffer;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class JsonSerializersTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonSerializers serializers = new JsonSerializers(objectMapper);
+
+    @Test
+    public void beanOutputMatchesObjectMapper() throws IOException {
+        Order order = new Order();
+        order.setId(42L);
+        order.setCustomer("pig \"flying\"\n");
+        order.setPaid(true);
+        order.setAmount(12.5);
+        order.setStatus(Status.SHIPPED);
+        order.setTags(List.of("a", "b"));
+        order.setLines(new int[]{1, 2, 3});
+        Map<String, Object> extra = new LinkedHashMap<>();
+        extra.put("weight", 1.25);
+        extra.put("note", null);
+        order.setExtra(extra);
+        order.setItems(Arrays.asList(new Item("x", 1), null));
+
+        assertTrue(serializers.isGenerated(Order.class));
+        assertEquals(objectMapper.writeValueAsString(order), write(order));
+    }
+
+    @Test
+    public void nullPropertiesAreWritten() throws IOException {
+        Order order = new Order();
+        assertEquals(objectMapper.writeValueAsString(order), write(order));
+    }
+
+    @Test
+    public void recordOutputMatchesObjectMapper() throws IOException {
+        Item item = new Item("pen", 3);
+        assertTrue(serializers.isGenerated(Item.class));
+        assertEquals(objectMapper.writeValueAsString(item), write(item));
+        assertEquals(objectMapper.writeValueAsString(List.of(item, item)), write(List.of(item, item)));
+    }
+
+    @Test
+    public void getterOnlyPropertiesKeepObjectMapperOrder() throws IOException {
+        Summary summary = new Summary();
+        assertTrue(serializers.isGenerated(Summary.class));
+        assertEquals(objectMapper.writeValueAsString(summary), write(summary));
+    }
+
+    @Test
+    public void annotatedTypesFallBackToObjectMapper() throws IOException {
+        Renamed renamed = new Renamed();
+        assertFalse(serializers.isGenerated(Renamed.class));
+        assertEquals("{\"renamed\":\"v\"}", write(renamed));
+    }
+
+    @Test
+    public void scalarsAndNull() throws IOException {
+        assertEquals("null", write(null));
+        assertEquals("\"a\\\"b\"", write("a\"b"));
+        assertEquals("-7", write(-7));
+        assertEquals(objectMapper.writeValueAsString(0.1), write(0.1));
+        assertEquals("\"SHIPPED\"", write(Status.SHIPPED));
+    }
+
+    private String write(Object value) throws IOException {
+        ResponseBuffer out = new ResponseBuffer(64);
+        serializers.write(value, out);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    public enum Status {
+        NEW, SHIPPED
+    }
+
+    public record Item(String name, int quantity) {
+    }
+
+    public static class Renamed {
+        @JsonProperty("renamed")
+        private String value = "v";
+
+        public String getValue() {
+            return value;
+        }
+    }
+
+    public static class BaseSummary {
+        private String label = "base";
+
+        public String getLabel() {
+            return label;
+        }
+
+        public int getZeta() {
+            return 26;
+        }
+
+        public boolean isAlpha() {
+            return true;
+        }
+    }
+
+    public static class Summary extends BaseSummary {
+        private long count = 3;
+
+        public long getCount() {
+            return count;
+        }
+
+        public String getTotal() {
+            return "10";
+        }
+
+        public double getAverage() {
+            return 3.5;
+        }
+
+        public String getMedian() {
+            return "4";
+        }
+    }
+
+    public static class Order {
+        private Long id;
+        private String customer;
+        private boolean paid;
+        private double amount;
+        private Status status;
+        private List<String> tags;
+        private int[] lines;
+        private Map<String, Object> extra;
+        private List<Item> items;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getCustomer() {
+            return customer;
+        }
+
+        public void setCustomer(String customer) {
+            this.customer = customer;
+        }
+
+        public boolean isPaid() {
+            return paid;
+        }
+
+        public void setPaid(boolean paid) {
+            this.paid = paid;
+        }
+
+        public double getAmount() {
+            return amount;
+        }
+
+        public void setAmount(double amount) {
+            this.amount = amount;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public void setStatus(Status status) {
+            this.status = status;
+        }
+
+        public List<String> getTags() {
+            return tags;
+        }
+
+        public void setTags(List<String> tags) {
+            this.tags = tags;
+        }
+
+        public int[] getLines() {
+            return lines;
+        }
+
+        public void setLines(int[] lines) {
+            this.lines = lines;
+        }
+
+        public Map<String, Object> getExtra() {
+            return extra;
+        }
+
+        public void setExtra(Map<String, Object> extra) {
+            this.extra = extra;
+        }
+
+        public List<Item> getItems() {
+            return items;
+        }
+
+        public void setItems(List<Item> items) {
+            this.items = items;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,84 @@
+package com.flyingpig.mvc.view;
+
+import com.flyingpig.mvc.response.ResponseBuffer;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TemplateCompilerTest {
+
+    private final TemplateCompiler compiler = new TemplateCompiler();
+
+    @Test
+    public void escapesValuesAndKeepsRawOutput() {
+        Map<String, Object> model = new HashMap<>();
+        model.put("title", "<b>&\"pig\"</b>");
+        assertEquals("<h1>&lt;b&gt;&amp;&quot;pig&quot;&lt;/b&gt;</h1><b>&\"pig\"</b>",
+                render("<h1>{{title}}</h1>{{{title}}}", model));
+    }
+
+    @Test
+    public void readsNestedBeanAndMapProperties() {
+        Map<String, Object> model = new HashMap<>();
+        model.put("user", new User("pig", 3));
+        model.put("meta", Map.of("version", "1.0"));
+        assertEquals("pig/3/1.0/", render("{{user.name}}/{{user.age}}/{{meta.version}}/{{user.missing}}", model));
+    }
+
+    @Test
+    public void rendersConditionsAndLoops() {
+        Map<String, Object> model = new HashMap<>();
+        model.put("items", List.of("a", "b", "c"));
+        model.put("empty", List.of());
+        model.put("admin", false);
+        String source = "{{#each items}}{{@index}}={{this}};{{/each}}"
+                + "{{#each empty}}x{{else}}none{{/each}}"
+                + "{{#if admin}}admin{{else}}user{{/if}}"
+                + "{{#unless admin}}!{{/unless}}{{! comment }}";
+        assertEquals("0=a;1=b;2=c;noneuser!", render(source, model));
+    }
+
+    @Test
+    public void reportsUnclosedBlock() {
+        try {
+            compiler.compile("broken", "{{#if ok}}text");
+            fail("Unclosed block must be rejected at compile time");
+        } catch (TemplateException e) {
+            assertTrue(e.getMessage().contains("broken"));
+        }
+    }
+
+    @Test(expected = TemplateException.class)
+    public void rejectsMismatchedEndTag() {
+        compiler.compile("broken", "{{#each items}}{{/if}}");
+    }
+
+    private String render(String source, Map<String, ?> model) {
+        ResponseBuffer out = new ResponseBuffer(64);
+        compiler.compile("test", source).render(model, out);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    public static class User {
+        private final String name;
+        private final int age;
+
+        public User(String name, int age) {
+            this.name = name;
+            this.age = age;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+    }
+}
\ No newline at end of file